@@ -0,0 +1,52 @@
+package kin.core;
+
+
+import java.util.concurrent.TimeUnit;
+import kin.core.exception.CorruptedDataException;
+import kin.core.exception.CryptoException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.stellar.sdk.KeyPair;
+
+/**
+ * Single account export/import with default (interactive) key derivation limits, dominated by key derivation.
+ * <p>Requires libsodium-jni native library on {@code java.library.path}.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BackupRestoreBenchmark {
+
+    private static final String PASSPHRASE = "benchmark passphrase";
+    private BackupRestoreImpl backupRestore;
+    private KeyPair keyPair;
+    private String exportedJson;
+
+    @Setup
+    public void setup() throws CryptoException {
+        backupRestore = new BackupRestoreImpl();
+        keyPair = KeyPair.random();
+        exportedJson = backupRestore.exportWallet(keyPair, PASSPHRASE, null);
+    }
+
+    @Benchmark
+    public String exportWallet() throws CryptoException {
+        return backupRestore.exportWallet(keyPair, PASSPHRASE, null);
+    }
+
+    @Benchmark
+    public KeyPair importWallet() throws CryptoException, CorruptedDataException {
+        return backupRestore.importWallet(exportedJson, PASSPHRASE, null);
+    }
+}
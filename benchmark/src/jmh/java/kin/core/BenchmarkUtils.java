@@ -0,0 +1,27 @@
+package kin.core;
+
+
+import java.io.InputStream;
+import java.util.Scanner;
+import kin.core.ServiceProvider.KinAsset;
+
+final class BenchmarkUtils {
+
+    //kin asset issuers used by the recorded fixtures
+    static final String ACCOUNT_FIXTURES_KIN_ISSUER = "GBA2XHZRUAHEL4DZX7XNHR7HLBAUYPRNKLD2PIUKWV2LVVE6OJT4NDLM";
+    static final String PAYMENT_FIXTURES_KIN_ISSUER = "GCKG5WGBIJP74UDNRIRDFGENNIH5Y3KBI5IHREFAJKV4MQXLELT7EX6V";
+
+    private BenchmarkUtils() {
+        //no instances
+    }
+
+    static String loadResource(String res) {
+        InputStream is = BenchmarkUtils.class.getClassLoader().getResourceAsStream(res);
+        Scanner s = new Scanner(is, "UTF-8").useDelimiter("\\A");
+        return s.hasNext() ? s.next() : "";
+    }
+
+    static KinAsset createKinAsset(String issuer) {
+        return new KinAsset("KIN", issuer);
+    }
+}
@@ -0,0 +1,58 @@
+package kin.core;
+
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Payment and balance extraction of a single streamed transaction.
+ * <p>Each op parses the recorded transaction again, as {@link TransactionData} caches its decoded XDR.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BlockchainEventsBenchmark {
+
+    private static final String ACCOUNT_ID = "GBRXY5BAZAAB7M2PI3KG5WLIRARJAGUPV2IPC4AGIPTTZRM7UY2VVKN3";
+    private BlockchainEvents blockchainEvents;
+    private String transactionJson;
+
+    @Setup
+    public void setup() {
+        blockchainEvents = new BlockchainEvents(null, ACCOUNT_ID,
+            BenchmarkUtils.createKinAsset(BenchmarkUtils.PAYMENT_FIXTURES_KIN_ISSUER), new Telemetry());
+        transactionJson = BenchmarkUtils.loadResource("payment_listener_tx_response1.json");
+    }
+
+    @Benchmark
+    public List<PaymentInfo> extractPayments() throws IOException {
+        return blockchainEvents.extractPayments(HorizonParser.parseTransaction(new StringReader(transactionJson)));
+    }
+
+    @Benchmark
+    public void extractBalance(final Blackhole blackhole) throws IOException {
+        blockchainEvents.extractBalanceChangeFromTransaction(
+            HorizonParser.parseTransaction(new StringReader(transactionJson)), new EventListener<Balance>() {
+                @Override
+                public void onEvent(Balance balance) {
+                    blackhole.consume(balance);
+                }
+            });
+    }
+}
@@ -0,0 +1,57 @@
+package kin.core;
+
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+import kin.core.ServiceProvider.KinAsset;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Streaming parsing of recorded horizon responses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HorizonParserBenchmark {
+
+    private KinAsset kinAsset;
+    private String accountJson;
+    private String transactionJson;
+    private String paymentJson;
+
+    @Setup
+    public void setup() {
+        kinAsset = BenchmarkUtils.createKinAsset(BenchmarkUtils.ACCOUNT_FIXTURES_KIN_ISSUER);
+        accountJson = BenchmarkUtils.loadResource("tx_account_from.json");
+        transactionJson = BenchmarkUtils.loadResource("payment_listener_tx_response1.json");
+        paymentJson = BenchmarkUtils.loadResource("payments_stream_kin_payment.json");
+    }
+
+    @Benchmark
+    public AccountData parseAccount() throws IOException {
+        return HorizonParser.parseAccount(new StringReader(accountJson), kinAsset);
+    }
+
+    @Benchmark
+    public TransactionData parseTransaction() throws IOException {
+        return HorizonParser.parseTransaction(new StringReader(transactionJson));
+    }
+
+    @Benchmark
+    public PaymentInfo parseKinPayment() throws IOException {
+        return HorizonParser.parseKinPayment(new StringReader(paymentJson), kinAsset);
+    }
+}
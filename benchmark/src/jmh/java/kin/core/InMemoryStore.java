@@ -0,0 +1,27 @@
+package kin.core;
+
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import java.util.HashMap;
+
+class InMemoryStore implements Store {
+
+    private final HashMap<String, String> map = new HashMap<>();
+
+    @Override
+    public void saveString(@NonNull String key, @NonNull String value) {
+        map.put(key, value);
+    }
+
+    @Nullable
+    @Override
+    public String getString(@NonNull String key) {
+        return map.get(key);
+    }
+
+    @Override
+    public void clear(@NonNull String key) {
+        map.remove(key);
+    }
+}
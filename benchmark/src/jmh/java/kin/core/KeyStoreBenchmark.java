@@ -0,0 +1,48 @@
+package kin.core;
+
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import kin.core.exception.CreateAccountException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.stellar.sdk.KeyPair;
+
+/**
+ * Loading stored accounts, as done on every {@link KinClient} creation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class KeyStoreBenchmark {
+
+    @Param({"1", "100", "1000"})
+    public int accountsCount;
+    private KeyStoreImpl keyStore;
+
+    @Setup
+    public void setup() throws CreateAccountException {
+        //accounts storage is not encrypted, backup restore is not used for loading
+        keyStore = new KeyStoreImpl(new InMemoryStore(), null);
+        for (int i = 0; i < accountsCount; i++) {
+            keyStore.newAccount();
+        }
+    }
+
+    @Benchmark
+    public List<KeyPair> loadAccounts() throws LoadAccountException {
+        return keyStore.loadAccounts();
+    }
+}
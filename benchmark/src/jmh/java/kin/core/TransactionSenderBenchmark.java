@@ -0,0 +1,66 @@
+package kin.core;
+
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import kin.core.exception.OperationFailedException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.stellar.sdk.KeyPair;
+import org.stellar.sdk.Network;
+
+/**
+ * Transaction build + sign + envelope encoding, no network involved.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransactionSenderBenchmark {
+
+    private static final String SECRET_SEED_FROM = "SB6PCLT2WUQF44HVOTEGCXIDYNX2U4BJUPWUX453ODRGD4CXGPJP3HUX";
+    private static final String ACCOUNT_ID_TO = "GDJOJJVIWI6YVPUI3PX4BQCC4SQUZTRYIAMV2YBT6QVL54QGQUQSFKGM";
+    private static final int BULK_SIZE = 100;
+    private TransactionSender transactionSender;
+    private KeyPair account;
+    private List<PaymentSpec> singlePayment;
+    private List<PaymentSpec> bulkPayments;
+
+    @Setup
+    public void setup() {
+        Network.useTestNetwork();
+        transactionSender = new TransactionSender(null,
+            BenchmarkUtils.createKinAsset(BenchmarkUtils.ACCOUNT_FIXTURES_KIN_ISSUER), new TransactionSigner(),
+            new Telemetry());
+        account = KeyPair.fromSecretSeed(SECRET_SEED_FROM);
+        singlePayment = Collections.singletonList(new PaymentSpec(ACCOUNT_ID_TO, new BigDecimal("1.5"), "memo", 1));
+        bulkPayments = new ArrayList<>(BULK_SIZE);
+        for (int i = 0; i < BULK_SIZE; i++) {
+            bulkPayments.add(new PaymentSpec(ACCOUNT_ID_TO, new BigDecimal("1.5"), "memo", i + 1));
+        }
+    }
+
+    @Benchmark
+    public List<SignedTransaction> buildAndSign() throws OperationFailedException {
+        return transactionSender.signPayments(account, singlePayment);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<SignedTransaction> buildAndSignBulk() throws OperationFailedException {
+        return transactionSender.signPayments(account, bulkPayments);
+    }
+}
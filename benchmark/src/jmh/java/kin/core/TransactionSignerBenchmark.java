@@ -0,0 +1,63 @@
+package kin.core;
+
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.stellar.sdk.Account;
+import org.stellar.sdk.AssetTypeNative;
+import org.stellar.sdk.KeyPair;
+import org.stellar.sdk.Network;
+import org.stellar.sdk.PaymentOperation;
+import org.stellar.sdk.Transaction;
+
+/**
+ * Transaction signing by the java and native (libsodium) backends, repeatedly by the same account.
+ * <p>Native backend requires libsodium-jni native library on {@code java.library.path}.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransactionSignerBenchmark {
+
+    //SigningBackend.JAVA, SigningBackend.NATIVE
+    @Param({"0", "1"})
+    private int backend;
+    private TransactionSigner transactionSigner;
+    private KeyPair signer;
+    private KeyPair destination;
+    private long sequence;
+
+    @Setup
+    public void setup() {
+        Network.useTestNetwork();
+        transactionSigner = new TransactionSigner();
+        if (transactionSigner.setBackend(backend) != backend) {
+            throw new IllegalStateException("libsodium-jni native library is not on java.library.path");
+        }
+        signer = KeyPair.random();
+        destination = KeyPair.random();
+    }
+
+    @Benchmark
+    public Transaction sign() {
+        //sign() appends a signature, a fresh transaction keeps each operation the same
+        Transaction transaction = new Transaction.Builder(new Account(signer, sequence++))
+            .addOperation(new PaymentOperation.Builder(destination, new AssetTypeNative(), "1").build())
+            .build();
+        transactionSigner.sign(transaction, signer);
+        return transaction;
+    }
+}
@@ -5,13 +5,18 @@ import static org.hamcrest.CoreMatchers.isA;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.IsEqual.equalTo;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
 import kin.core.exception.CorruptedDataException;
 import kin.core.exception.CryptoException;
 import org.json.JSONException;
+import org.json.JSONObject;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import org.libsodium.jni.Sodium;
 import org.stellar.sdk.KeyPair;
 
 public class BackupRestoreTest {
@@ -26,8 +31,8 @@ public class BackupRestoreTest {
         for (int i = 0; i < 50; i++) {
             KeyPair keyPair = KeyPair.random();
             String passpharse = UUID.randomUUID().toString();
-            String exportedJson = backupRestore.exportWallet(keyPair, passpharse);
-            KeyPair importKeyPair = backupRestore.importWallet(exportedJson, passpharse);
+            String exportedJson = backupRestore.exportWallet(keyPair, passpharse, null);
+            KeyPair importKeyPair = backupRestore.importWallet(exportedJson, passpharse, null);
             assertThat(importKeyPair.getAccountId(), equalTo(keyPair.getAccountId()));
             assertThat(importKeyPair.getSecretSeed(), equalTo(keyPair.getSecretSeed()));
         }
@@ -38,8 +43,8 @@ public class BackupRestoreTest {
         expectedEx.expect(CryptoException.class);
 
         KeyPair keyPair = KeyPair.random();
-        String exportedJson = backupRestore.exportWallet(keyPair, "1234567890abcefghijkl");
-        backupRestore.importWallet(exportedJson, "1234567890abcefghijklX");
+        String exportedJson = backupRestore.exportWallet(keyPair, "1234567890abcefghijkl", null);
+        backupRestore.importWallet(exportedJson, "1234567890abcefghijklX", null);
     }
 
     @Test
@@ -47,7 +52,7 @@ public class BackupRestoreTest {
         expectedEx.expect(CorruptedDataException.class);
         expectedEx.expectCause(isA(JSONException.class));
 
-        backupRestore.importWallet("not a real json!!", "123456");
+        backupRestore.importWallet("not a real json!!", "123456", null);
     }
 
     @Test
@@ -96,9 +101,119 @@ public class BackupRestoreTest {
             "GDNLGOSLTZMZX5GNZ4FY26DPXLGXEIFJJ7VWDJVN3L5DOG7TFLZXHNCU");
     }
 
+    @Test
+    public void backupAndRestoreMultiple_Success() throws CryptoException, CorruptedDataException {
+        List<KeyPair> keyPairs = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            keyPairs.add(KeyPair.random());
+        }
+        String passphrase = UUID.randomUUID().toString();
+        String exportedJson = backupRestore.exportWallets(keyPairs, passphrase, null);
+        List<KeyPair> importedKeyPairs = backupRestore.importWallets(exportedJson, passphrase, null);
+
+        assertThat(importedKeyPairs.size(), equalTo(keyPairs.size()));
+        for (int i = 0; i < keyPairs.size(); i++) {
+            assertThat(importedKeyPairs.get(i).getAccountId(), equalTo(keyPairs.get(i).getAccountId()));
+            assertThat(importedKeyPairs.get(i).getSecretSeed(), equalTo(keyPairs.get(i).getSecretSeed()));
+        }
+    }
+
+    @Test
+    public void backupAndRestoreMultiple_WrongPassphrase_CryptoException()
+        throws CryptoException, CorruptedDataException {
+        expectedEx.expect(CryptoException.class);
+
+        List<KeyPair> keyPairs = new ArrayList<>();
+        keyPairs.add(KeyPair.random());
+        keyPairs.add(KeyPair.random());
+        String exportedJson = backupRestore.exportWallets(keyPairs, "1234567890abcefghijkl", null);
+        backupRestore.importWallets(exportedJson, "1234567890abcefghijklX", null);
+    }
+
+    @Test
+    public void importMultiple_BadJson_CorruptedDataException() throws CryptoException, CorruptedDataException {
+        expectedEx.expect(CorruptedDataException.class);
+
+        backupRestore.importWallets("{\"salt\" : \"d00564d4887b4ccade9f2b63211c37c4\"}", "123456", null);
+    }
+
+    @Test
+    public void backupAndRestoreMultiple_ProgressReported() throws CryptoException, CorruptedDataException {
+        List<KeyPair> keyPairs = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            keyPairs.add(KeyPair.random());
+        }
+        final List<Integer> progress = new CopyOnWriteArrayList<>();
+        final int[] total = new int[1];
+        BackupProgressListener progressListener = new BackupProgressListener() {
+            @Override
+            public void onProgress(int completedSteps, int totalSteps) {
+                progress.add(completedSteps);
+                total[0] = totalSteps;
+            }
+        };
+        String exportedJson = backupRestore.exportWallets(keyPairs, "passphrase", progressListener);
+        assertThat(progress.get(progress.size() - 1), equalTo(total[0]));
+
+        progress.clear();
+        backupRestore.importWallets(exportedJson, "passphrase", progressListener);
+        assertThat(progress.get(progress.size() - 1), equalTo(total[0]));
+    }
+
+    @Test
+    public void backupAndRestore_CalibratedKdf_Success() throws Exception {
+        backupRestore.setKdfTargetDuration(2000);
+        KeyPair keyPair = KeyPair.random();
+        String exportedJson = backupRestore.exportWallet(keyPair, "passphrase", null);
+
+        JSONObject json = new JSONObject(exportedJson);
+        if (json.has("opslimit")) {
+            assertThat(json.getInt("opslimit") >= Sodium.crypto_pwhash_opslimit_interactive(), equalTo(true));
+            assertThat(json.getInt("memlimit") >= Sodium.crypto_pwhash_memlimit_interactive(), equalTo(true));
+        }
+        KeyPair importKeyPair = new BackupRestoreImpl().importWallet(exportedJson, "passphrase", null);
+        assertThat(importKeyPair.getSecretSeed(), equalTo(keyPair.getSecretSeed()));
+    }
+
+    @Test
+    public void import_MemLimitAboveModerate_CorruptedDataException() throws Exception {
+        expectedEx.expect(CorruptedDataException.class);
+
+        JSONObject json = new JSONObject(backupRestore.exportWallet(KeyPair.random(), "passphrase", null));
+        json.put("opslimit", Sodium.crypto_pwhash_opslimit_interactive());
+        json.put("memlimit", (long) Sodium.crypto_pwhash_memlimit_moderate() * 2);
+        backupRestore.importWallet(json.toString(), "passphrase", null);
+    }
+
+    @Test
+    public void import_OpsLimitBelowInteractive_CorruptedDataException() throws Exception {
+        expectedEx.expect(CorruptedDataException.class);
+
+        JSONObject json = new JSONObject(backupRestore.exportWallet(KeyPair.random(), "passphrase", null));
+        json.put("opslimit", 1);
+        json.put("memlimit", Sodium.crypto_pwhash_memlimit_interactive());
+        backupRestore.importWallet(json.toString(), "passphrase", null);
+    }
+
+    @Test
+    public void exportMultiple_Interrupted_CryptoException() throws CryptoException {
+        expectedEx.expect(CryptoException.class);
+        expectedEx.expectCause(isA(InterruptedException.class));
+
+        List<KeyPair> keyPairs = new ArrayList<>();
+        keyPairs.add(KeyPair.random());
+        keyPairs.add(KeyPair.random());
+        Thread.currentThread().interrupt();
+        try {
+            backupRestore.exportWallets(keyPairs, "passphrase", null);
+        } finally {
+            Thread.interrupted();
+        }
+    }
+
     private void testImportBackup(String exportedJson, String passphrase, String publicKey)
         throws CryptoException, CorruptedDataException {
-        KeyPair importKeyPair = backupRestore.importWallet(exportedJson, passphrase);
+        KeyPair importKeyPair = backupRestore.importWallet(exportedJson, passphrase, null);
         assertThat(importKeyPair.getAccountId(), equalTo(publicKey));
     }
 
@@ -0,0 +1,74 @@
+package kin.core;
+
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.Assert.assertArrayEquals;
+
+import android.support.test.runner.AndroidJUnit4;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.stellar.sdk.Account;
+import org.stellar.sdk.AssetTypeNative;
+import org.stellar.sdk.KeyPair;
+import org.stellar.sdk.Network;
+import org.stellar.sdk.PaymentOperation;
+import org.stellar.sdk.Transaction;
+
+@RunWith(AndroidJUnit4.class)
+public class TransactionSignerTest {
+
+    private KeyPair signer;
+    private KeyPair destination;
+
+    @Before
+    public void setup() {
+        Network.useTestNetwork();
+        signer = KeyPair.random();
+        destination = KeyPair.random();
+    }
+
+    @Test
+    public void sign_NativeAndJava_SameSignature() {
+        TransactionSigner javaSigner = new TransactionSigner();
+        TransactionSigner nativeSigner = new TransactionSigner();
+        assertThat(nativeSigner.setBackend(SigningBackend.NATIVE), equalTo(SigningBackend.NATIVE));
+
+        for (int i = 0; i < 10; i++) {
+            Transaction javaSigned = createTransaction(i);
+            Transaction nativeSigned = createTransaction(i);
+            javaSigner.sign(javaSigned, signer);
+            nativeSigner.sign(nativeSigned, signer);
+
+            assertThat(nativeSigned.toEnvelopeXdrBase64(), equalTo(javaSigned.toEnvelopeXdrBase64()));
+        }
+    }
+
+    @Test
+    public void signNative_SameBytesAsJava() {
+        TransactionSigner nativeSigner = new TransactionSigner();
+        assertThat(nativeSigner.setBackend(SigningBackend.NATIVE), equalTo(SigningBackend.NATIVE));
+
+        for (int i = 0; i < 10; i++) {
+            byte[] data = createTransaction(i).hash();
+            assertArrayEquals(signer.sign(data), nativeSigner.signNative(signer, data));
+        }
+    }
+
+    @Test
+    public void setBackend_BackToJava_JavaUsed() {
+        TransactionSigner transactionSigner = new TransactionSigner();
+        transactionSigner.setBackend(SigningBackend.NATIVE);
+        transactionSigner.sign(createTransaction(1), signer);
+
+        assertThat(transactionSigner.setBackend(SigningBackend.JAVA), equalTo(SigningBackend.JAVA));
+        assertThat(transactionSigner.getBackend(), equalTo(SigningBackend.JAVA));
+    }
+
+    private Transaction createTransaction(long sequence) {
+        return new Transaction.Builder(new Account(signer, sequence))
+            .addOperation(new PaymentOperation.Builder(destination, new AssetTypeNative(), "1").build())
+            .build();
+    }
+}
@@ -3,10 +3,16 @@ package kin.core;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.concurrent.Callable;
 
 abstract class AbstractKinAccount implements KinAccount {
 
+    /**
+     * @return telemetry for measuring and tracing requests created by this account
+     */
+    abstract Telemetry getTelemetry();
+
     @NonNull
     @Override
     public Request<TransactionId> sendTransaction(@NonNull final String publicAddress,
@@ -16,7 +22,7 @@ abstract class AbstractKinAccount implements KinAccount {
             public TransactionId call() throws Exception {
                 return sendTransactionSync(publicAddress, amount, null);
             }
-        });
+        }, getTelemetry(), "sendTransaction");
     }
 
     @NonNull
@@ -28,7 +34,7 @@ abstract class AbstractKinAccount implements KinAccount {
             public TransactionId call() throws Exception {
                 return sendTransactionSync(publicAddress, amount, memo);
             }
-        });
+        }, getTelemetry(), "sendTransaction");
     }
 
     @NonNull
@@ -39,7 +45,22 @@ abstract class AbstractKinAccount implements KinAccount {
             public Balance call() throws Exception {
                 return getBalanceSync();
             }
-        });
+        }, getTelemetry(), "getBalance");
+    }
+
+    @NonNull
+    @Override
+    public Request<Balance> getBalance(@BalancePolicy int policy) {
+        Request<Balance> request = getBalance();
+        if (policy == BalancePolicy.CACHE_THEN_NETWORK) {
+            request.withCachedResult(new Callable<Balance>() {
+                @Override
+                public Balance call() throws Exception {
+                    return getCachedBalance();
+                }
+            });
+        }
+        return request;
     }
 
     @NonNull
@@ -51,7 +72,31 @@ abstract class AbstractKinAccount implements KinAccount {
                 activateSync();
                 return null;
             }
-        });
+        }, getTelemetry(), "activate");
+    }
+
+    @NonNull
+    @Override
+    public Request<TransactionId> createAndActivateAccount(@NonNull final KinAccount newAccount,
+        @NonNull final BigDecimal startingBalance) {
+        return new Request<>(new Callable<TransactionId>() {
+            @Override
+            public TransactionId call() throws Exception {
+                return createAndActivateAccountSync(newAccount, startingBalance);
+            }
+        }, getTelemetry(), "createAndActivateAccount");
+    }
+
+    @NonNull
+    @Override
+    public Request<List<AccountCreationResult>> createAndActivateAccounts(@NonNull final List<KinAccount> newAccounts,
+        @NonNull final BigDecimal startingBalance) {
+        return new Request<>(new Callable<List<AccountCreationResult>>() {
+            @Override
+            public List<AccountCreationResult> call() throws Exception {
+                return createAndActivateAccountsSync(newAccounts, startingBalance);
+            }
+        }, getTelemetry(), "createAndActivateAccounts");
     }
 
     @NonNull
@@ -62,7 +107,18 @@ abstract class AbstractKinAccount implements KinAccount {
             public Integer call() throws Exception {
                 return getStatusSync();
             }
-        });
+        }, getTelemetry(), "getStatus");
+    }
+
+    @NonNull
+    @Override
+    public Request<List<SignedTransaction>> signPayments(@NonNull final List<PaymentSpec> payments) {
+        return new Request<>(new Callable<List<SignedTransaction>>() {
+            @Override
+            public List<SignedTransaction> call() throws Exception {
+                return signPaymentsSync(payments);
+            }
+        }, getTelemetry(), "signPayments");
     }
 
     @SuppressWarnings("SimplifiableIfStatement")
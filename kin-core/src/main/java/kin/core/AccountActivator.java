@@ -2,39 +2,54 @@ package kin.core;
 
 import android.support.annotation.NonNull;
 import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import kin.core.ServiceProvider.KinAsset;
 import kin.core.exception.AccountNotFoundException;
 import kin.core.exception.OperationFailedException;
+import kin.core.exception.TransactionFailedException;
+import org.stellar.sdk.Account;
 import org.stellar.sdk.ChangeTrustOperation;
+import org.stellar.sdk.CreateAccountOperation;
 import org.stellar.sdk.KeyPair;
-import org.stellar.sdk.Server;
 import org.stellar.sdk.Transaction;
-import org.stellar.sdk.responses.AccountResponse;
 import org.stellar.sdk.responses.HttpResponseException;
-import org.stellar.sdk.responses.SubmitTransactionResponse;
 
 class AccountActivator {
 
     //unlimited trust, The largest amount unit possible in Stellar
     //see https://www.stellar.org/developers/guides/concepts/assets.html
     private static final String TRUST_NO_LIMIT_VALUE = "922337203685.4775807";
-    private final Server server; //horizon server
+    //a transaction is limited to 20 signatures, the sponsor and 19 new accounts
+    static final int MAX_ACCOUNTS_PER_TRANSACTION = 19;
+    private static final String TX_FAILED_RESULT_CODE = "tx_failed";
+    private static final String OP_SUCCESS_RESULT_CODE = "op_success";
+    private final HorizonClient horizonClient;
     private final KinAsset kinAsset;
+    private final TransactionSigner transactionSigner;
+    private final Telemetry telemetry;
 
-    AccountActivator(Server server, KinAsset kinAsset) {
-        this.server = server;
+    AccountActivator(HorizonClient horizonClient, KinAsset kinAsset, TransactionSigner transactionSigner,
+        Telemetry telemetry) {
+        this.horizonClient = horizonClient;
         this.kinAsset = kinAsset;
+        this.transactionSigner = transactionSigner;
+        this.telemetry = telemetry;
     }
 
     void activate(@NonNull KeyPair account) throws OperationFailedException {
         verifyParams(account);
-        AccountResponse accountResponse;
+        AccountData accountData;
         try {
-            accountResponse = getAccountDetails(account);
-            if (kinAsset.hasKinTrust(accountResponse)) {
+            long start = telemetry.start();
+            accountData = getAccountDetails(account);
+            telemetry.phase(TransactionPhase.SOURCE_LOAD, start);
+            if (accountData.hasKinTrust()) {
                 return;
             }
-            SubmitTransactionResponse response = sendAllowKinTrustOperation(account, accountResponse);
+            SubmitResult response = sendAllowKinTrustOperation(account, accountData);
             handleTransactionResponse(response);
         } catch (HttpResponseException httpError) {
             if (httpError.getStatusCode() == 404) {
@@ -43,36 +58,225 @@ class AccountActivator {
                 throw new OperationFailedException(httpError);
             }
         } catch (IOException e) {
-            throw new OperationFailedException(e);
+            throw Utils.createOperationFailedException(e);
         }
     }
 
+    /**
+     * Creates and activates a new account in a single transaction, funded and paid for by the sponsor account.
+     * <p>The transaction holds the create account operation of the sponsor, and the kin trust operation of the new
+     * account, signed by both, so the new account is ready for kin right after a single ledger close.</p>
+     */
+    @NonNull
+    TransactionId createAndActivate(@NonNull KeyPair sponsor, @NonNull KeyPair newAccount,
+        @NonNull BigDecimal startingBalance) throws OperationFailedException {
+        verifyParams(sponsor);
+        Utils.checkNotNull(newAccount, "newAccount");
+        Utils.checkNotNull(startingBalance, "startingBalance");
+        if (startingBalance.signum() != 1) {
+            throw new IllegalArgumentException("Starting balance must be positive");
+        }
+        verifyNotSponsor(sponsor, newAccount);
+        try {
+            Transaction transaction = buildCreateAndActivate(loadSponsor(sponsor), sponsor,
+                Collections.singletonList(newAccount), startingBalance);
+            SubmitResult response = horizonClient.submitTransaction(transaction);
+            handleTransactionResponse(response);
+            return new TransactionIdImpl(response.getHash());
+        } catch (HttpResponseException httpError) {
+            throw toOperationFailedException(httpError, sponsor);
+        } catch (IOException e) {
+            throw Utils.createOperationFailedException(e);
+        }
+    }
+
+    /**
+     * Creates and activates new accounts funded by the sponsor account, {@link #MAX_ACCOUNTS_PER_TRANSACTION} accounts
+     * per transaction.
+     * <p>Failures are reported per account and don't stop the remaining batches. A batch that failed due to some of
+     * its accounts (such as accounts that already exist) is resubmitted without them, as a transaction is
+     * applied as a whole.</p>
+     *
+     * @return result per account, in the order of {@code newAccounts}
+     */
+    @NonNull
+    List<AccountCreationResult> createAndActivate(@NonNull KeyPair sponsor, @NonNull List<KeyPair> newAccounts,
+        @NonNull BigDecimal startingBalance) {
+        verifyParams(sponsor);
+        Utils.checkNotNull(newAccounts, "newAccounts");
+        Utils.checkNotNull(startingBalance, "startingBalance");
+        if (startingBalance.signum() != 1) {
+            throw new IllegalArgumentException("Starting balance must be positive");
+        }
+        for (KeyPair newAccount : newAccounts) {
+            Utils.checkNotNull(newAccount, "newAccount");
+            verifyNotSponsor(sponsor, newAccount);
+        }
+
+        AccountCreationResult[] results = new AccountCreationResult[newAccounts.size()];
+        //sponsor sequence is tracked locally between batches, reloaded only when a submission outcome is unknown
+        Account sponsorAccount = null;
+        for (int from = 0; from < newAccounts.size(); from += MAX_ACCOUNTS_PER_TRANSACTION) {
+            List<Integer> batch = new ArrayList<>();
+            for (int i = from; i < Math.min(from + MAX_ACCOUNTS_PER_TRANSACTION, newAccounts.size()); i++) {
+                batch.add(i);
+            }
+            while (!batch.isEmpty()) {
+                List<KeyPair> batchAccounts = new ArrayList<>(batch.size());
+                for (Integer index : batch) {
+                    batchAccounts.add(newAccounts.get(index));
+                }
+                OperationFailedException error;
+                try {
+                    if (sponsorAccount == null) {
+                        sponsorAccount = loadSponsor(sponsor);
+                    }
+                    Transaction transaction = buildCreateAndActivate(sponsorAccount, sponsor, batchAccounts,
+                        startingBalance);
+                    SubmitResult response = horizonClient.submitTransaction(transaction);
+                    if (response != null && response.isSuccess()) {
+                        TransactionId transactionId = new TransactionIdImpl(response.getHash());
+                        for (Integer index : batch) {
+                            results[index] = AccountCreationResult
+                                .success(newAccounts.get(index).getAccountId(), transactionId);
+                        }
+                        break;
+                    }
+                    if (response == null) {
+                        sponsorAccount = null;
+                        error = new OperationFailedException("can't get transaction response");
+                    } else {
+                        TransactionFailedException failure = Utils.createTransactionException(response);
+                        List<Integer> failed = failedAccounts(batch, failure);
+                        if (!TX_FAILED_RESULT_CODE.equals(failure.getTransactionResultCode())) {
+                            //sequence number is consumed only by transactions that failed applying operations
+                            sponsorAccount = null;
+                        } else if (!failed.isEmpty() && failed.size() < batch.size()) {
+                            for (Integer index : failed) {
+                                results[index] = AccountCreationResult
+                                    .failure(newAccounts.get(index).getAccountId(), failure);
+                            }
+                            batch.removeAll(failed);
+                            continue;
+                        }
+                        error = failure;
+                    }
+                } catch (HttpResponseException httpError) {
+                    sponsorAccount = null;
+                    error = toOperationFailedException(httpError, sponsor);
+                } catch (IOException e) {
+                    sponsorAccount = null;
+                    error = Utils.createOperationFailedException(e);
+                } catch (OperationFailedException e) {
+                    sponsorAccount = null;
+                    error = e;
+                }
+                for (Integer index : batch) {
+                    results[index] = AccountCreationResult.failure(newAccounts.get(index).getAccountId(), error);
+                }
+                break;
+            }
+        }
+        List<AccountCreationResult> resultList = new ArrayList<>(results.length);
+        Collections.addAll(resultList, results);
+        return resultList;
+    }
+
+    /**
+     * @return indices of the batch accounts that have an operation failure
+     */
+    private List<Integer> failedAccounts(List<Integer> batch, TransactionFailedException failure) {
+        List<Integer> failed = new ArrayList<>();
+        List<String> resultCodes = failure.getOperationsResultCodes();
+        if (resultCodes == null) {
+            return failed;
+        }
+        //each account has a create account operation followed by a change trust operation
+        for (int operation = 0; operation < resultCodes.size() && operation / 2 < batch.size(); operation++) {
+            Integer index = batch.get(operation / 2);
+            if (!OP_SUCCESS_RESULT_CODE.equals(resultCodes.get(operation)) && !failed.contains(index)) {
+                failed.add(index);
+            }
+        }
+        return failed;
+    }
+
+    @NonNull
+    private Account loadSponsor(@NonNull KeyPair sponsor) throws IOException, OperationFailedException {
+        long start = telemetry.start();
+        AccountData sponsorData = getAccountDetails(sponsor);
+        telemetry.phase(TransactionPhase.SOURCE_LOAD, start);
+        return sponsorData.toSourceAccount(sponsor);
+    }
+
+    private Transaction buildCreateAndActivate(Account sponsorAccount, KeyPair sponsor, List<KeyPair> newAccounts,
+        BigDecimal startingBalance) {
+        long start = telemetry.start();
+        Transaction.Builder builder = new Transaction.Builder(sponsorAccount);
+        for (KeyPair newAccount : newAccounts) {
+            builder
+                .addOperation(new CreateAccountOperation.Builder(newAccount, startingBalance.toPlainString()).build())
+                .addOperation(
+                    new ChangeTrustOperation.Builder(kinAsset.getStellarAsset(), TRUST_NO_LIMIT_VALUE)
+                        .setSourceAccount(newAccount)
+                        .build()
+                );
+        }
+        Transaction transaction = builder.build();
+        telemetry.phase(TransactionPhase.BUILD, start);
+        start = telemetry.start();
+        transactionSigner.sign(transaction, sponsor);
+        for (KeyPair newAccount : newAccounts) {
+            transactionSigner.sign(transaction, newAccount);
+        }
+        telemetry.phase(TransactionPhase.SIGN, start);
+        return transaction;
+    }
+
+    private void verifyNotSponsor(KeyPair sponsor, KeyPair newAccount) {
+        if (sponsor.getAccountId().equals(newAccount.getAccountId())) {
+            throw new IllegalArgumentException("Sponsor can't create itself");
+        }
+    }
+
+    private OperationFailedException toOperationFailedException(HttpResponseException httpError, KeyPair account) {
+        if (httpError.getStatusCode() == 404) {
+            return new AccountNotFoundException(account.getAccountId());
+        }
+        return new OperationFailedException(httpError);
+    }
+
     private void verifyParams(@NonNull KeyPair account) {
         Utils.checkNotNull(account, "account");
     }
 
     @NonNull
-    private AccountResponse getAccountDetails(@NonNull KeyPair account) throws IOException, OperationFailedException {
-        AccountResponse accountResponse;
-        accountResponse = server.accounts().account(account);
-        if (accountResponse == null) {
+    private AccountData getAccountDetails(@NonNull KeyPair account) throws IOException, OperationFailedException {
+        AccountData accountData;
+        accountData = horizonClient.getAccount(account.getAccountId());
+        if (accountData == null) {
             throw new OperationFailedException("can't retrieve data for account " + account.getAccountId());
         }
-        return accountResponse;
+        return accountData;
     }
 
-    private SubmitTransactionResponse sendAllowKinTrustOperation(KeyPair account, AccountResponse accountResponse)
+    private SubmitResult sendAllowKinTrustOperation(KeyPair account, AccountData accountData)
         throws IOException {
-        Transaction allowKinTrustTransaction = new Transaction.Builder(accountResponse).addOperation(
-            new ChangeTrustOperation.Builder(kinAsset.getStellarAsset(), TRUST_NO_LIMIT_VALUE)
-                .build()
-        )
+        long start = telemetry.start();
+        Transaction allowKinTrustTransaction = new Transaction.Builder(accountData.toSourceAccount(account))
+            .addOperation(
+                new ChangeTrustOperation.Builder(kinAsset.getStellarAsset(), TRUST_NO_LIMIT_VALUE)
+                    .build()
+            )
             .build();
-        allowKinTrustTransaction.sign(account);
-        return server.submitTransaction(allowKinTrustTransaction);
+        telemetry.phase(TransactionPhase.BUILD, start);
+        start = telemetry.start();
+        transactionSigner.sign(allowKinTrustTransaction, account);
+        telemetry.phase(TransactionPhase.SIGN, start);
+        return horizonClient.submitTransaction(allowKinTrustTransaction);
     }
 
-    private void handleTransactionResponse(SubmitTransactionResponse response) throws OperationFailedException {
+    private void handleTransactionResponse(SubmitResult response) throws OperationFailedException {
         if (response == null) {
             throw new OperationFailedException("can't get transaction response");
         }
@@ -0,0 +1,58 @@
+package kin.core;
+
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import kin.core.exception.OperationFailedException;
+
+/**
+ * Outcome of creating and activating a single account, result of {@link
+ * KinAccount#createAndActivateAccountsSync(java.util.List, java.math.BigDecimal)}.
+ */
+public final class AccountCreationResult {
+
+    private final String publicAddress;
+    private final TransactionId transactionId;
+    private final OperationFailedException error;
+
+    private AccountCreationResult(String publicAddress, TransactionId transactionId, OperationFailedException error) {
+        this.publicAddress = publicAddress;
+        this.transactionId = transactionId;
+        this.error = error;
+    }
+
+    static AccountCreationResult success(String publicAddress, TransactionId transactionId) {
+        return new AccountCreationResult(publicAddress, transactionId, null);
+    }
+
+    static AccountCreationResult failure(String publicAddress, OperationFailedException error) {
+        return new AccountCreationResult(publicAddress, null, error);
+    }
+
+    @NonNull
+    public String publicAddress() {
+        return publicAddress;
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    /**
+     * Id of the transaction that created the account, shared by all accounts created in the same transaction, null
+     * if failed.
+     */
+    @Nullable
+    public TransactionId transactionId() {
+        return transactionId;
+    }
+
+    /**
+     * The failure, such as {@link kin.core.exception.TransactionFailedException} with {@code op_already_exists} if the
+     * account already exists, null if succeeded.
+     */
+    @Nullable
+    public OperationFailedException error() {
+        return error;
+    }
+}
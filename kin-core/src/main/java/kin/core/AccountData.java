@@ -0,0 +1,75 @@
+package kin.core;
+
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import java.math.BigDecimal;
+import org.stellar.sdk.Account;
+import org.stellar.sdk.KeyPair;
+
+/**
+ * The subset of a horizon account response used by kin-core, see {@link HorizonParser#parseAccount}.
+ */
+final class AccountData {
+
+    static final int NO_SIGNER_WEIGHT = -1;
+
+    private final String accountId;
+    private final long sequenceNumber;
+    @Nullable
+    private final BigDecimal kinBalance;
+    private final int masterKeyWeight;
+    private final long lastModifiedLedger;
+
+    AccountData(@NonNull String accountId, long sequenceNumber, @Nullable BigDecimal kinBalance,
+        int masterKeyWeight, long lastModifiedLedger) {
+        this.accountId = accountId;
+        this.sequenceNumber = sequenceNumber;
+        this.kinBalance = kinBalance;
+        this.masterKeyWeight = masterKeyWeight;
+        this.lastModifiedLedger = lastModifiedLedger;
+    }
+
+    @NonNull
+    String getAccountId() {
+        return accountId;
+    }
+
+    long getSequenceNumber() {
+        return sequenceNumber;
+    }
+
+    /**
+     * @return the kin balance, or null if the account has no kin trustline
+     */
+    @Nullable
+    BigDecimal getKinBalance() {
+        return kinBalance;
+    }
+
+    boolean hasKinTrust() {
+        return kinBalance != null;
+    }
+
+    /**
+     * @return weight of the first listed signer (the master key), or {@link #NO_SIGNER_WEIGHT} if no signers listed
+     */
+    int getMasterKeyWeight() {
+        return masterKeyWeight;
+    }
+
+    /**
+     * @return ledger the account was last modified at, or 0 if not reported by horizon
+     */
+    long getLastModifiedLedger() {
+        return lastModifiedLedger;
+    }
+
+    /**
+     * Creates a transaction source account, signing keys are taken from {@code keyPair}.
+     */
+    @NonNull
+    Account toSourceAccount(@NonNull KeyPair keyPair) {
+        return new Account(keyPair, sequenceNumber);
+    }
+}
@@ -0,0 +1,56 @@
+package kin.core;
+
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Latest fetched accounts with their horizon ETag, for conditional account fetches. When horizon responds with 304 Not
+ * Modified to an {@code If-None-Match} fetch, the cached account is used, no body is downloaded or parsed.
+ */
+class AccountETagCache {
+
+    static final int MAX_CACHED_ACCOUNTS = 32;
+    private final Map<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > MAX_CACHED_ACCOUNTS;
+        }
+    };
+
+    @Nullable
+    synchronized Entry get(@NonNull String accountId) {
+        return entries.get(accountId);
+    }
+
+    synchronized void put(@NonNull String accountId, @NonNull String eTag, @NonNull AccountData accountData) {
+        entries.put(accountId, new Entry(eTag, accountData));
+    }
+
+    synchronized void remove(@NonNull String accountId) {
+        entries.remove(accountId);
+    }
+
+    static final class Entry {
+
+        private final String eTag;
+        private final AccountData accountData;
+
+        private Entry(String eTag, AccountData accountData) {
+            this.eTag = eTag;
+            this.accountData = accountData;
+        }
+
+        @NonNull
+        String eTag() {
+            return eTag;
+        }
+
+        @NonNull
+        AccountData accountData() {
+            return accountData;
+        }
+    }
+}
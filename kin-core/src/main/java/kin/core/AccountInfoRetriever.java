@@ -2,25 +2,29 @@ package kin.core;
 
 
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 import java.io.IOException;
-import java.math.BigDecimal;
-import kin.core.ServiceProvider.KinAsset;
 import kin.core.exception.AccountNotActivatedException;
 import kin.core.exception.AccountNotFoundException;
 import kin.core.exception.OperationFailedException;
-import org.stellar.sdk.KeyPair;
-import org.stellar.sdk.Server;
-import org.stellar.sdk.responses.AccountResponse;
 import org.stellar.sdk.responses.HttpResponseException;
 
 class AccountInfoRetriever {
 
-    private final Server server;
-    private final KinAsset kinAsset;
+    private final HorizonClient horizonClient;
+    @Nullable
+    private final BalanceCache balanceCache;
 
-    AccountInfoRetriever(Server server, KinAsset kinAsset) {
-        this.server = server;
-        this.kinAsset = kinAsset;
+    AccountInfoRetriever(HorizonClient horizonClient) {
+        this(horizonClient, null);
+    }
+
+    /**
+     * @param balanceCache stores every fetched balance, null for not caching
+     */
+    AccountInfoRetriever(HorizonClient horizonClient, @Nullable BalanceCache balanceCache) {
+        this.horizonClient = horizonClient;
+        this.balanceCache = balanceCache;
     }
 
     /**
@@ -36,14 +40,14 @@ class AccountInfoRetriever {
         Utils.checkNotNull(accountId, "account");
         Balance balance = null;
         try {
-            AccountResponse accountResponse = server.accounts().account(KeyPair.fromAccountId(accountId));
-            if (accountResponse == null) {
+            AccountData accountData = horizonClient.getAccount(accountId, true);
+            if (accountData == null) {
                 throw new OperationFailedException("can't retrieve data for account " + accountId);
             }
-            for (AccountResponse.Balance assetBalance : accountResponse.getBalances()) {
-                if (kinAsset.isKinAsset(assetBalance.getAsset())) {
-                    balance = new BalanceImpl(new BigDecimal(assetBalance.getBalance()));
-                    break;
+            if (accountData.hasKinTrust()) {
+                balance = new BalanceImpl(accountData.getKinBalance());
+                if (balanceCache != null) {
+                    balanceCache.put(accountId, accountData.getKinBalance(), accountData.getLastModifiedLedger());
                 }
             }
         } catch (HttpResponseException httpError) {
@@ -53,7 +57,7 @@ class AccountInfoRetriever {
                 throw new OperationFailedException(httpError);
             }
         } catch (IOException e) {
-            throw new OperationFailedException(e);
+            throw Utils.createOperationFailedException(e);
         }
         if (balance == null) {
             throw new AccountNotActivatedException(accountId);
@@ -62,6 +66,20 @@ class AccountInfoRetriever {
         return balance;
     }
 
+    /**
+     * @return the last balance fetched for the specified account, stored on the device, null if none
+     */
+    @Nullable
+    CachedBalance getCachedBalance(@NonNull String accountId) {
+        return balanceCache != null ? balanceCache.get(accountId) : null;
+    }
+
+    void clearCachedBalance(@NonNull String accountId) {
+        if (balanceCache != null) {
+            balanceCache.clear(accountId);
+        }
+    }
+
     /**
      * Check if the account has been "burned".
      * @param accountId the account ID to check if it is "burned"
@@ -74,12 +92,11 @@ class AccountInfoRetriever {
         Utils.checkNotNull(accountId, "account");
         boolean isBurned;
         try {
-            AccountResponse accountResponse = server.accounts().account(KeyPair.fromAccountId(accountId));
-            if (accountResponse == null) {
+            AccountData accountData = horizonClient.getAccount(accountId);
+            if (accountData == null) {
                 throw new OperationFailedException("can't retrieve data for account " + accountId);
             }
-            AccountResponse.Signer signer = accountResponse.getSigners()[0];
-            isBurned = (signer.getWeight() == 0);
+            isBurned = (accountData.getMasterKeyWeight() == 0);
         } catch (HttpResponseException httpError) {
             if (httpError.getStatusCode() == 404) {
                 throw new AccountNotFoundException(accountId);
@@ -87,7 +104,7 @@ class AccountInfoRetriever {
                 throw new OperationFailedException(httpError);
             }
         } catch (IOException e) {
-            throw new OperationFailedException(e);
+            throw Utils.createOperationFailedException(e);
         }
 
         return isBurned;
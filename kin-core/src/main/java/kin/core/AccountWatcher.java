@@ -0,0 +1,177 @@
+package kin.core;
+
+
+import static kin.core.Utils.checkNotNull;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.stellar.sdk.KeyPair;
+
+/**
+ * Watch-only registry, monitors payments of accounts that are not managed by this client (no secret seed needed).
+ * <p>All watched accounts are served by a single network wide payments stream, payments are matched locally against
+ * the set of watched addresses, so connection count stays constant regardless of the number of watched
+ * accounts.</p>
+ * <p><b>Note:</b> Payments stream does not carry the transaction memo, {@link PaymentInfo#memo()} is always null
+ * for payments reported by this class.</p>
+ */
+public class AccountWatcher {
+
+    private static final String CURSOR_FUTURE_ONLY = "now";
+    private final HorizonClient horizonClient;
+    private final Telemetry telemetry;
+    private final Set<String> watchedAccounts = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    private final List<EventDispatcher<PaymentInfo>> listeners = new CopyOnWriteArrayList<>();
+    private final Set<EventDispatcher<PaymentInfo>> suspendedListeners = new HashSet<>();
+    private SupervisedStream stream;
+
+    AccountWatcher(HorizonClient horizonClient, Telemetry telemetry) {
+        this.horizonClient = horizonClient;
+        this.telemetry = telemetry;
+    }
+
+    /**
+     * Adds an account to the watched accounts, payments from or to this account will be reported to payment
+     * listeners.
+     *
+     * @param publicAddress the account address
+     * @throws IllegalArgumentException if address is not a valid account address
+     */
+    public void watch(@NonNull String publicAddress) {
+        checkNotNull(publicAddress, "publicAddress");
+        try {
+            KeyPair.fromAccountId(publicAddress);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Invalid public address format - " + publicAddress, e);
+        }
+        watchedAccounts.add(publicAddress);
+    }
+
+    /**
+     * Removes an account from the watched accounts.
+     *
+     * @param publicAddress the account address
+     */
+    public void unwatch(@NonNull String publicAddress) {
+        checkNotNull(publicAddress, "publicAddress");
+        watchedAccounts.remove(publicAddress);
+    }
+
+    public boolean isWatching(@NonNull String publicAddress) {
+        return watchedAccounts.contains(publicAddress);
+    }
+
+    public int getWatchedAccountsCount() {
+        return watchedAccounts.size();
+    }
+
+    /**
+     * Creates and adds listener for payments concerning any of the watched accounts, use returned {@link
+     * ListenerRegistration} to stop listening. <p><b>Note:</b> Events will be fired on background thread.</p>
+     *
+     * @param listener listener object for payment events
+     */
+    public ListenerRegistration addPaymentListener(@NonNull EventListener<PaymentInfo> listener) {
+        return addPaymentListener(listener, DispatchPolicy.defaultPaymentPolicy());
+    }
+
+    /**
+     * Creates and adds listener for payments concerning any of the watched accounts, use returned {@link
+     * ListenerRegistration} to stop listening.
+     *
+     * @param listener listener object for payment events
+     * @param dispatchPolicy defines the thread and queueing of events delivery to {@code listener}
+     */
+    public ListenerRegistration addPaymentListener(@NonNull EventListener<PaymentInfo> listener,
+        @NonNull DispatchPolicy dispatchPolicy) {
+        checkNotNull(listener, "listener");
+        checkNotNull(dispatchPolicy, "dispatchPolicy");
+        final EventDispatcher<PaymentInfo> dispatcher = new EventDispatcher<>(listener, dispatchPolicy, telemetry);
+        subscribe(dispatcher);
+        return new ListenerRegistration(dispatcher, new ListenerRegistration.Subscription() {
+            @Override
+            public void unsubscribe() {
+                AccountWatcher.this.unsubscribe(dispatcher);
+            }
+
+            @Override
+            public void setSuspended(boolean suspended) {
+                setListenerSuspended(dispatcher, suspended);
+            }
+
+            @Nullable
+            @Override
+            public SupervisedStream getStream() {
+                synchronized (AccountWatcher.this) {
+                    return stream;
+                }
+            }
+        });
+    }
+
+    private synchronized void subscribe(EventDispatcher<PaymentInfo> dispatcher) {
+        listeners.add(dispatcher);
+        if (stream == null) {
+            stream = horizonClient.streamPayments(CURSOR_FUTURE_ONLY, new EventListener<PaymentInfo>() {
+                @Override
+                public void onEvent(PaymentInfo payment) {
+                    routePayment(payment);
+                }
+            });
+        } else {
+            stream.resume();
+        }
+    }
+
+    private synchronized void unsubscribe(EventDispatcher<PaymentInfo> dispatcher) {
+        listeners.remove(dispatcher);
+        suspendedListeners.remove(dispatcher);
+        if (listeners.isEmpty() && stream != null) {
+            stream.close();
+            stream = null;
+        } else {
+            updateSuspension();
+        }
+    }
+
+    private synchronized void setListenerSuspended(EventDispatcher<PaymentInfo> dispatcher, boolean suspended) {
+        if (!listeners.contains(dispatcher)) {
+            return;
+        }
+        if (suspended) {
+            suspendedListeners.add(dispatcher);
+        } else {
+            suspendedListeners.remove(dispatcher);
+        }
+        updateSuspension();
+    }
+
+    /**
+     * Payments stream is suspended while all listeners are suspended.
+     */
+    private void updateSuspension() {
+        if (stream == null) {
+            return;
+        }
+        if (suspendedListeners.size() == listeners.size()) {
+            stream.suspend();
+        } else {
+            stream.resume();
+        }
+    }
+
+    private void routePayment(PaymentInfo payment) {
+        if (watchedAccounts.contains(payment.destinationPublicKey())
+            || watchedAccounts.contains(payment.sourcePublicKey())) {
+            for (EventDispatcher<PaymentInfo> listener : listeners) {
+                listener.onEvent(payment);
+            }
+        }
+    }
+}
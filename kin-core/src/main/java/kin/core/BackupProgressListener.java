@@ -0,0 +1,15 @@
+package kin.core;
+
+
+/**
+ * Progress of an account(s) export or import.
+ * <p><b>Note:</b> Progress is reported on background thread.</p>
+ */
+public interface BackupProgressListener {
+
+    /**
+     * @param completedSteps number of completed steps (key derivations and accounts encryptions/decryptions)
+     * @param totalSteps total number of steps
+     */
+    void onProgress(int completedSteps, int totalSteps);
+}
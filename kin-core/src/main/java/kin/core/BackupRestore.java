@@ -2,17 +2,42 @@ package kin.core;
 
 
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import java.util.List;
 import kin.core.exception.CorruptedDataException;
 import kin.core.exception.CryptoException;
 import org.stellar.sdk.KeyPair;
 
 interface BackupRestore {
 
+    /**
+     * Sets the target duration of backup key derivation, export key derivation limits will be calibrated on the
+     * current device to take about this duration (but no less than libsodium interactive limits). Calibration starts
+     * in background right away, exports wait for it only if started before it's done.
+     *
+     * @param targetDurationMillis target duration in millis, 0 for default (interactive) limits
+     */
+    void setKdfTargetDuration(long targetDurationMillis);
+
+    @NonNull
+    String exportWallet(@NonNull KeyPair keyPair, @NonNull String passphrase,
+        @Nullable BackupProgressListener progressListener) throws CryptoException;
+
+    @NonNull
+    KeyPair importWallet(@NonNull String exportedJson, @NonNull String passphrase,
+        @Nullable BackupProgressListener progressListener) throws CryptoException, CorruptedDataException;
+
+    /**
+     * Exports multiple accounts into a single backup, all seeds are encrypted with a single key derivation.
+     */
     @NonNull
-    String exportWallet(@NonNull KeyPair keyPair, @NonNull String passphrase)
-        throws CryptoException;
+    String exportWallets(@NonNull List<KeyPair> keyPairs, @NonNull String passphrase,
+        @Nullable BackupProgressListener progressListener) throws CryptoException;
 
+    /**
+     * Imports all accounts of a backup created by {@link #exportWallets(List, String, BackupProgressListener)}.
+     */
     @NonNull
-    KeyPair importWallet(@NonNull String exportedJson, @NonNull String passphrase)
-        throws CryptoException, CorruptedDataException;
+    List<KeyPair> importWallets(@NonNull String exportedJson, @NonNull String passphrase,
+        @Nullable BackupProgressListener progressListener) throws CryptoException, CorruptedDataException;
 }
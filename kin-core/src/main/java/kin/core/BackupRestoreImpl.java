@@ -1,9 +1,24 @@
 package kin.core;
 
+import static kin.core.Utils.bytesToHex;
+
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import kin.core.exception.CorruptedDataException;
 import kin.core.exception.CryptoException;
+import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 import org.libsodium.jni.NaCl;
@@ -15,27 +30,65 @@ class BackupRestoreImpl implements BackupRestore {
     private static final String JSON_KEY_PUBLIC_KEY = "pkey";
     private static final String JSON_KEY_SEED = "seed";
     private static final String JSON_KEY_SALT = "salt";
+    private static final String JSON_KEY_ACCOUNTS = "accounts";
+    private static final String JSON_KEY_OPS_LIMIT = "opslimit";
+    private static final String JSON_KEY_MEM_LIMIT = "memlimit";
     private static final int SALT_LENGTH_BYTES = 16;
     private static final int HASH_LENGTH_BYTES = 32;
     private static final int OUPUT_JSON_INDENT_SPACES = 2;
+    private static final long NO_TARGET_DURATION = 0;
+    //calibration runs when the target is set, ahead of the first export
+    private static final ExecutorService calibrationExecutor = Executors.newSingleThreadExecutor(
+        new ThreadFactory() {
+            @Override
+            public Thread newThread(@NonNull Runnable runnable) {
+                Thread thread = new Thread(runnable, "kin-kdf-calibration");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
     private boolean initialized = false;
+    //null for interactive limits
+    private Future<KdfParams> kdfParams;
+
+    @Override
+    public synchronized void setKdfTargetDuration(final long targetDurationMillis) {
+        if (targetDurationMillis < 0) {
+            throw new IllegalArgumentException("targetDurationMillis cannot be negative.");
+        }
+        if (targetDurationMillis == NO_TARGET_DURATION) {
+            kdfParams = null;
+            return;
+        }
+        kdfParams = calibrationExecutor.submit(new Callable<KdfParams>() {
+            @Override
+            public KdfParams call() throws Exception {
+                NaCl.sodium();
+                return KdfCalibrator.calibrate(targetDurationMillis);
+            }
+        });
+    }
 
     @Override
     @NonNull
-    public String exportWallet(@NonNull KeyPair keyPair, @NonNull String passphrase)
-        throws CryptoException {
+    public String exportWallet(@NonNull KeyPair keyPair, @NonNull String passphrase,
+        @Nullable BackupProgressListener progressListener) throws CryptoException {
         initIfNeeded();
+        Progress progress = new Progress(progressListener, 2);
+        KdfParams kdfParams = getExportKdfParams();
         byte[] saltBytes = generateRandomBytes(SALT_LENGTH_BYTES);
 
         byte[] passphraseBytes = stringToUTF8ByteArray(passphrase);
-        byte[] hash = keyHash(passphraseBytes, saltBytes);
+        byte[] hash = keyHash(passphraseBytes, saltBytes, kdfParams);
+        progress.step();
         byte[] secretSeedBytes = keyPair.getRawSecretSeed();
 
         byte[] encryptedSeed = encryptSecretSeed(hash, secretSeedBytes);
+        progress.step();
 
         String salt = bytesToHex(saltBytes);
         String seed = bytesToHex(encryptedSeed);
-        return jsonify(keyPair.getAccountId(), salt, seed);
+        return jsonify(keyPair.getAccountId(), salt, seed, kdfParams);
     }
 
     private void initIfNeeded() {
@@ -45,22 +98,165 @@ class BackupRestoreImpl implements BackupRestore {
         }
     }
 
+    /**
+     * Returns the calibrated limits, waits only if an export follows setting the target before calibration is done.
+     */
+    private KdfParams getExportKdfParams() throws CryptoException {
+        Future<KdfParams> calibration;
+        synchronized (this) {
+            calibration = kdfParams;
+        }
+        if (calibration == null) {
+            return KdfParams.interactive();
+        }
+        try {
+            return calibration.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CryptoException("Operation interrupted", e);
+        } catch (ExecutionException e) {
+            throw new CryptoException(e.getCause());
+        }
+    }
+
     @Override
     @NonNull
-    public KeyPair importWallet(@NonNull String exportedJson, @NonNull String passphrase)
-        throws CryptoException, CorruptedDataException {
+    public KeyPair importWallet(@NonNull String exportedJson, @NonNull String passphrase,
+        @Nullable BackupProgressListener progressListener) throws CryptoException, CorruptedDataException {
         initIfNeeded();
+        Progress progress = new Progress(progressListener, 2);
         AccountJson accountJson = stringify(exportedJson);
 
         byte[] passphraseBytes = stringToUTF8ByteArray(passphrase);
         byte[] saltBytes = hexStringToByteArray(accountJson.getSaltHex());
-        byte[] keyHash = keyHash(passphraseBytes, saltBytes);
+        byte[] keyHash = keyHash(passphraseBytes, saltBytes, accountJson.getKdfParams());
+        progress.step();
         byte[] seedBytes = hexStringToByteArray(accountJson.getSeedHex());
 
         byte[] decryptedBytes = decryptSecretSeed(seedBytes, keyHash);
+        progress.step();
         return KeyPair.fromSecretSeed(decryptedBytes);
     }
 
+    @Override
+    @NonNull
+    public String exportWallets(@NonNull List<KeyPair> keyPairs, @NonNull String passphrase,
+        @Nullable BackupProgressListener progressListener) throws CryptoException {
+        initIfNeeded();
+        Progress progress = new Progress(progressListener, keyPairs.size() + 1);
+        KdfParams kdfParams = getExportKdfParams();
+        byte[] saltBytes = generateRandomBytes(SALT_LENGTH_BYTES);
+        //single key derivation for all accounts, each seed is sealed with its own random nonce
+        byte[] hash = keyHash(stringToUTF8ByteArray(passphrase), saltBytes, kdfParams);
+        progress.step();
+
+        try {
+            JSONArray accounts = new JSONArray();
+            for (KeyPair keyPair : keyPairs) {
+                byte[] encryptedSeed = encryptSecretSeed(hash, keyPair.getRawSecretSeed());
+                JSONObject accountJson = new JSONObject();
+                accountJson.put(JSON_KEY_PUBLIC_KEY, keyPair.getAccountId());
+                accountJson.put(JSON_KEY_SEED, bytesToHex(encryptedSeed));
+                accounts.put(accountJson);
+                progress.step();
+            }
+            JSONObject json = new JSONObject();
+            json.put(JSON_KEY_SALT, bytesToHex(saltBytes));
+            putKdfParams(json, kdfParams);
+            json.put(JSON_KEY_ACCOUNTS, accounts);
+            return json.toString(OUPUT_JSON_INDENT_SPACES);
+        } catch (JSONException e) {
+            throw new CryptoException("Json exception", e);
+        }
+    }
+
+    @Override
+    @NonNull
+    public List<KeyPair> importWallets(@NonNull String exportedJson, @NonNull String passphrase,
+        @Nullable BackupProgressListener progressListener) throws CryptoException, CorruptedDataException {
+        initIfNeeded();
+        List<AccountJson> accountsJson = stringifyAccounts(exportedJson);
+        byte[] passphraseBytes = stringToUTF8ByteArray(passphrase);
+
+        //derive key once per salt (all accounts share the backup salt, unless an account overrides it)
+        Map<String, byte[]> keyHashes = new HashMap<>();
+        for (AccountJson accountJson : accountsJson) {
+            keyHashes.put(accountJson.getKeyId(), null);
+        }
+        Progress progress = new Progress(progressListener, keyHashes.size() + accountsJson.size());
+        List<Callable<KeyPair>> decryptTasks = new ArrayList<>(accountsJson.size());
+        for (AccountJson accountJson : accountsJson) {
+            byte[] keyHash = keyHashes.get(accountJson.getKeyId());
+            if (keyHash == null) {
+                keyHash = keyHash(passphraseBytes, hexStringToByteArray(accountJson.getSaltHex()),
+                    accountJson.getKdfParams());
+                keyHashes.put(accountJson.getKeyId(), keyHash);
+                progress.step();
+            }
+            decryptTasks.add(createDecryptTask(accountJson, keyHash, progress));
+        }
+        return decryptAll(decryptTasks);
+    }
+
+    private Callable<KeyPair> createDecryptTask(final AccountJson accountJson, final byte[] keyHash,
+        final Progress progress) {
+        return new Callable<KeyPair>() {
+            @Override
+            public KeyPair call() throws Exception {
+                byte[] seedBytes = hexStringToByteArray(accountJson.getSeedHex());
+                KeyPair keyPair = KeyPair.fromSecretSeed(decryptSecretSeed(seedBytes, keyHash));
+                progress.step();
+                return keyPair;
+            }
+        };
+    }
+
+    private List<KeyPair> decryptAll(List<Callable<KeyPair>> decryptTasks) throws CryptoException {
+        int threads = Math.min(decryptTasks.size(), Runtime.getRuntime().availableProcessors());
+        if (threads <= 1) {
+            List<KeyPair> keyPairs = new ArrayList<>(decryptTasks.size());
+            for (Callable<KeyPair> decryptTask : decryptTasks) {
+                keyPairs.add(getDecryptResult(decryptTask));
+            }
+            return keyPairs;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<KeyPair>> futures = executor.invokeAll(decryptTasks);
+            List<KeyPair> keyPairs = new ArrayList<>(futures.size());
+            for (Future<KeyPair> future : futures) {
+                keyPairs.add(getDecryptResult(future));
+            }
+            return keyPairs;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CryptoException("Operation interrupted", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private KeyPair getDecryptResult(Callable<KeyPair> decryptTask) throws CryptoException {
+        try {
+            return decryptTask.call();
+        } catch (CryptoException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new CryptoException(e);
+        }
+    }
+
+    private KeyPair getDecryptResult(Future<KeyPair> future) throws CryptoException, InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof CryptoException) {
+                throw (CryptoException) e.getCause();
+            }
+            throw new CryptoException(e.getCause());
+        }
+    }
+
     private byte[] generateRandomBytes(int len) {
         byte[] randomBuffer = new byte[len];
         Sodium.randombytes_buf(randomBuffer, len);
@@ -94,35 +290,79 @@ class BackupRestoreImpl implements BackupRestore {
         return decryptedBytes;
     }
 
-    private String jsonify(String publicAddress, String salt, String seed) throws CryptoException {
+    private String jsonify(String publicAddress, String salt, String seed, KdfParams kdfParams)
+        throws CryptoException {
         JSONObject json = new JSONObject();
         try {
             json.put(JSON_KEY_PUBLIC_KEY, publicAddress);
             json.put(JSON_KEY_SEED, seed);
             json.put(JSON_KEY_SALT, salt);
+            putKdfParams(json, kdfParams);
             return json.toString(OUPUT_JSON_INDENT_SPACES);
         } catch (JSONException e) {
             throw new CryptoException("Json exception", e);
         }
     }
 
+    private void putKdfParams(JSONObject json, KdfParams kdfParams) throws JSONException {
+        //interactive limits are implied when absent, keeping default backups readable by older versions
+        if (!kdfParams.isInteractive()) {
+            json.put(JSON_KEY_OPS_LIMIT, kdfParams.getOpsLimit());
+            json.put(JSON_KEY_MEM_LIMIT, kdfParams.getMemLimit());
+        }
+    }
+
+    /**
+     * @throws CorruptedDataException limits are out of the range used for exports, a crafted backup could otherwise
+     * make key derivation run out of memory or practically never finish
+     */
+    private KdfParams getKdfParams(JSONObject json, KdfParams defaultParams) throws CorruptedDataException {
+        long opsLimit = json.optLong(JSON_KEY_OPS_LIMIT, defaultParams.getOpsLimit());
+        long memLimit = json.optLong(JSON_KEY_MEM_LIMIT, defaultParams.getMemLimit());
+        if (!KdfParams.isWithinLimits(opsLimit, memLimit)) {
+            throw new CorruptedDataException("Unexpected key derivation limits");
+        }
+        return new KdfParams((int) opsLimit, (int) memLimit);
+    }
+
     private AccountJson stringify(String exportedJson) throws CryptoException, CorruptedDataException {
         try {
             JSONObject json = new JSONObject(exportedJson);
             String seedHex = json.getString(JSON_KEY_SEED);
             String saltHex = json.getString(JSON_KEY_SALT);
-            return new AccountJson(seedHex, saltHex);
+            return new AccountJson(seedHex, saltHex, getKdfParams(json, KdfParams.interactive()));
+        } catch (JSONException e) {
+            throw new CorruptedDataException("Unexpected json format", e);
+        }
+    }
+
+    private List<AccountJson> stringifyAccounts(String exportedJson) throws CorruptedDataException {
+        try {
+            JSONObject json = new JSONObject(exportedJson);
+            String backupSaltHex = json.optString(JSON_KEY_SALT, null);
+            KdfParams backupKdfParams = getKdfParams(json, KdfParams.interactive());
+            JSONArray accounts = json.getJSONArray(JSON_KEY_ACCOUNTS);
+            List<AccountJson> accountsJson = new ArrayList<>(accounts.length());
+            for (int i = 0; i < accounts.length(); i++) {
+                JSONObject accountJson = accounts.getJSONObject(i);
+                String seedHex = accountJson.getString(JSON_KEY_SEED);
+                String saltHex = accountJson.optString(JSON_KEY_SALT, backupSaltHex);
+                if (saltHex == null) {
+                    throw new CorruptedDataException("Unexpected json format - missing salt");
+                }
+                accountsJson.add(new AccountJson(seedHex, saltHex, getKdfParams(accountJson, backupKdfParams)));
+            }
+            return accountsJson;
         } catch (JSONException e) {
             throw new CorruptedDataException("Unexpected json format", e);
         }
     }
 
-    private byte[] keyHash(byte[] passphraseBytes, byte[] saltBytes) throws CryptoException {
+    private byte[] keyHash(byte[] passphraseBytes, byte[] saltBytes, KdfParams kdfParams) throws CryptoException {
         int pwhashAlgoId = Sodium.crypto_pwhash_alg_default();
         byte[] hash = new byte[HASH_LENGTH_BYTES];
         if (Sodium.crypto_pwhash(hash, HASH_LENGTH_BYTES, passphraseBytes, passphraseBytes.length, saltBytes,
-            Sodium.crypto_pwhash_opslimit_interactive(), Sodium.crypto_pwhash_memlimit_interactive(), pwhashAlgoId)
-            != 0) {
+            kdfParams.getOpsLimit(), kdfParams.getMemLimit(), pwhashAlgoId) != 0) {
             throw new CryptoException("Generating hash failed.");
         }
         return hash;
@@ -146,22 +386,42 @@ class BackupRestoreImpl implements BackupRestore {
         return data;
     }
 
-    private String bytesToHex(byte[] bytes) {
-        StringBuilder sb = new StringBuilder();
-        for (byte b : bytes) {
-            sb.append(String.format("%02x", b));
+    /**
+     * Reports progress after each step, and aborts the operation between steps if the running thread was interrupted
+     * (i.e. {@link Request} was cancelled).
+     */
+    private static class Progress {
+
+        private final BackupProgressListener listener;
+        private final int totalSteps;
+        private final AtomicInteger completedSteps = new AtomicInteger();
+
+        Progress(@Nullable BackupProgressListener listener, int totalSteps) {
+            this.listener = listener;
+            this.totalSteps = totalSteps;
+        }
+
+        void step() throws CryptoException {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new CryptoException("Operation interrupted", new InterruptedException());
+            }
+            int completed = completedSteps.incrementAndGet();
+            if (listener != null) {
+                listener.onProgress(completed, totalSteps);
+            }
         }
-        return sb.toString();
     }
 
     private class AccountJson {
 
         private final String seedHex;
         private final String saltHex;
+        private final KdfParams kdfParams;
 
-        AccountJson(String seedHex, String saltHex) {
+        AccountJson(String seedHex, String saltHex, KdfParams kdfParams) {
             this.seedHex = seedHex;
             this.saltHex = saltHex;
+            this.kdfParams = kdfParams;
         }
 
 
@@ -173,5 +433,15 @@ class BackupRestoreImpl implements BackupRestore {
             return saltHex;
         }
 
+        KdfParams getKdfParams() {
+            return kdfParams;
+        }
+
+        /**
+         * Identifies the derived key, accounts with the same salt and kdf parameters share the same key.
+         */
+        String getKeyId() {
+            return saltHex + ':' + kdfParams.getOpsLimit() + ':' + kdfParams.getMemLimit();
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,70 @@
+package kin.core;
+
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import java.math.BigDecimal;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Persists the last known balance of each account, so it can be shown before the balance is fetched again.
+ */
+class BalanceCache {
+
+    private static final String STORE_KEY_PREFIX = "balance_";
+    private static final String JSON_KEY_VALUE = "value";
+    private static final String JSON_KEY_FETCHED_AT = "fetched_at";
+    private static final String JSON_KEY_LEDGER = "ledger";
+
+    private final Store store;
+
+    BalanceCache(@NonNull Store store) {
+        this.store = store;
+    }
+
+    /**
+     * @return the last stored balance, null if none
+     */
+    @Nullable
+    synchronized CachedBalance get(@NonNull String accountId) {
+        String json = store.getString(STORE_KEY_PREFIX + accountId);
+        if (json == null) {
+            return null;
+        }
+        try {
+            JSONObject jsonObject = new JSONObject(json);
+            return new CachedBalance(new BigDecimal(jsonObject.getString(JSON_KEY_VALUE)),
+                jsonObject.getLong(JSON_KEY_FETCHED_AT), jsonObject.getLong(JSON_KEY_LEDGER));
+        } catch (JSONException | NumberFormatException e) {
+            store.clear(STORE_KEY_PREFIX + accountId);
+            return null;
+        }
+    }
+
+    /**
+     * Stores a fetched balance, unless a balance of a later ledger is already stored, as concurrent fetches may
+     * complete out of order.
+     *
+     * @param ledger ledger the account was last modified at, 0 if unknown
+     */
+    synchronized void put(@NonNull String accountId, @NonNull BigDecimal value, long ledger) {
+        CachedBalance current = get(accountId);
+        if (current != null && ledger > 0 && current.ledger() > ledger) {
+            return;
+        }
+        try {
+            JSONObject json = new JSONObject();
+            json.put(JSON_KEY_VALUE, value.toPlainString());
+            json.put(JSON_KEY_FETCHED_AT, System.currentTimeMillis());
+            json.put(JSON_KEY_LEDGER, ledger);
+            store.saveString(STORE_KEY_PREFIX + accountId, json.toString());
+        } catch (JSONException e) {
+            //not expected, cache is best effort
+        }
+    }
+
+    synchronized void clear(@NonNull String accountId) {
+        store.clear(STORE_KEY_PREFIX + accountId);
+    }
+}
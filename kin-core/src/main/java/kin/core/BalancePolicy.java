@@ -0,0 +1,26 @@
+package kin.core;
+
+import static java.lang.annotation.RetentionPolicy.SOURCE;
+import static kin.core.BalancePolicy.CACHE_THEN_NETWORK;
+import static kin.core.BalancePolicy.NETWORK_ONLY;
+
+import android.support.annotation.IntDef;
+import java.lang.annotation.Retention;
+
+/**
+ * Source of balance results, see {@link KinAccount#getBalance(int)}.
+ */
+@Retention(SOURCE)
+@IntDef({NETWORK_ONLY, CACHE_THEN_NETWORK})
+public @interface BalancePolicy {
+
+    /**
+     * Balance is fetched from the network, same as {@link KinAccount#getBalance()}.
+     */
+    int NETWORK_ONLY = 0;
+    /**
+     * The last known balance, stored on the device, is delivered immediately as a {@link CachedBalance} to {@link
+     * CachedResultCallback#onCachedResult(Object)}, followed by the balance fetched from the network.
+     */
+    int CACHE_THEN_NETWORK = 1;
+}
@@ -0,0 +1,254 @@
+package kin.core;
+
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Local balance model of an account, applies outgoing payments as soon as they are sent and reconciles with balances
+ * fetched from horizon and trust line updates of the account transactions stream.
+ * <p>Stream updates are absolute balances, a payment reflected by a stream update (matched by transaction hash) is
+ * no longer pending, and is not deducted again when sending completes. A fetched balance is discarded if the
+ * confirmed balance changed since the fetch started, as it might predate a payment.</p>
+ */
+class BalanceTracker {
+
+    //hashes of recent stream transactions, whose effect is already in the confirmed balance
+    private static final int MAX_APPLIED_HASHES = 64;
+    private final BlockchainEvents blockchainEvents;
+    private final Telemetry telemetry;
+    private final List<EventDispatcher<LocalBalance>> listeners = new CopyOnWriteArrayList<>();
+    private final Map<Object, PendingPayment> pendingPayments = new HashMap<>();
+    private final Set<String> appliedHashes = new LinkedHashSet<>();
+    //guarded by listeners
+    private final Set<EventDispatcher<LocalBalance>> suspendedListeners = new HashSet<>();
+    private final EventListener<TransactionData> streamListener = new EventListener<TransactionData>() {
+        @Override
+        public void onEvent(TransactionData transaction) {
+            onStreamTransaction(transaction);
+        }
+    };
+    private BigDecimal confirmed;
+    private BigDecimal pending = BigDecimal.ZERO;
+    //incremented whenever confirmed balance changes by a payment or a stream update
+    private long confirmedVersion;
+    private ListenerRegistration streamRegistration;
+
+    BalanceTracker(BlockchainEvents blockchainEvents, Telemetry telemetry) {
+        this.blockchainEvents = blockchainEvents;
+        this.telemetry = telemetry;
+    }
+
+    /**
+     * @return local balance, null if no balance is known yet
+     */
+    @Nullable
+    synchronized LocalBalance getLocalBalance() {
+        return confirmed != null ? new LocalBalance(confirmed, pending) : null;
+    }
+
+    /**
+     * Registers an outgoing payment that is about to be sent.
+     *
+     * @return token identifying the payment for {@link #onPaymentSent(Object, String)} or {@link
+     * #onPaymentFailed(Object)}
+     */
+    @NonNull
+    Object onPaymentStarted(@NonNull BigDecimal amount) {
+        Object token = new Object();
+        LocalBalance localBalance;
+        synchronized (this) {
+            pendingPayments.put(token, new PendingPayment(amount));
+            pending = pending.add(amount);
+            localBalance = getLocalBalance();
+        }
+        notifyListeners(localBalance);
+        return token;
+    }
+
+    /**
+     * The payment transaction is about to be submitted, a stream update of this transaction settles the payment.
+     */
+    synchronized void onPaymentSubmitting(@NonNull Object token, @NonNull String hash) {
+        PendingPayment payment = pendingPayments.get(token);
+        if (payment != null) {
+            payment.hash = hash;
+        }
+    }
+
+    void onPaymentSent(@NonNull Object token, @NonNull String hash) {
+        LocalBalance localBalance;
+        synchronized (this) {
+            BigDecimal amount = removePending(token);
+            if (amount != null && confirmed != null && !appliedHashes.contains(hash)) {
+                confirmed = confirmed.subtract(amount);
+                confirmedVersion++;
+            }
+            localBalance = getLocalBalance();
+        }
+        notifyListeners(localBalance);
+    }
+
+    void onPaymentFailed(@NonNull Object token) {
+        LocalBalance localBalance;
+        synchronized (this) {
+            removePending(token);
+            localBalance = getLocalBalance();
+        }
+        notifyListeners(localBalance);
+    }
+
+    /**
+     * @return token of a balance fetch about to start, for {@link #onBalanceFetched(BigDecimal, long)}
+     */
+    synchronized long startBalanceFetch() {
+        return confirmedVersion;
+    }
+
+    /**
+     * Sets the confirmed balance, as fetched from horizon, unless it changed since the fetch started.
+     *
+     * @param fetch token returned by {@link #startBalanceFetch()} when the fetch started
+     */
+    void onBalanceFetched(@NonNull BigDecimal balance, long fetch) {
+        LocalBalance localBalance;
+        synchronized (this) {
+            if (fetch != confirmedVersion) {
+                return;
+            }
+            confirmed = balance;
+            localBalance = getLocalBalance();
+        }
+        notifyListeners(localBalance);
+    }
+
+    private void onStreamTransaction(final TransactionData transaction) {
+        blockchainEvents.extractBalanceChangeFromTransaction(transaction, new EventListener<Balance>() {
+            @Override
+            public void onEvent(Balance balance) {
+                onStreamBalance(transaction.getHash(), balance.value());
+            }
+        });
+    }
+
+    private void onStreamBalance(String hash, BigDecimal balance) {
+        LocalBalance localBalance;
+        synchronized (this) {
+            appliedHashes.add(hash);
+            if (appliedHashes.size() > MAX_APPLIED_HASHES) {
+                appliedHashes.remove(appliedHashes.iterator().next());
+            }
+            //the payment is in the absolute balance now, together with it so it's never counted twice
+            for (Map.Entry<Object, PendingPayment> payment : pendingPayments.entrySet()) {
+                if (hash.equals(payment.getValue().hash)) {
+                    removePending(payment.getKey());
+                    break;
+                }
+            }
+            confirmed = balance;
+            confirmedVersion++;
+            localBalance = getLocalBalance();
+        }
+        notifyListeners(localBalance);
+    }
+
+    private BigDecimal removePending(Object token) {
+        PendingPayment payment = pendingPayments.remove(token);
+        if (payment == null) {
+            return null;
+        }
+        pending = pending.subtract(payment.amount);
+        return payment.amount;
+    }
+
+    /**
+     * Adds a listener for local balance changes, the account transactions stream is open while there are listeners.
+     */
+    ListenerRegistration addListener(@NonNull EventListener<LocalBalance> listener,
+        @NonNull DispatchPolicy dispatchPolicy) {
+        final EventDispatcher<LocalBalance> dispatcher = new EventDispatcher<>(listener, dispatchPolicy, telemetry);
+        synchronized (listeners) {
+            listeners.add(dispatcher);
+            if (streamRegistration == null) {
+                streamRegistration = blockchainEvents.addTransactionListener(streamListener);
+            } else {
+                updateSuspension();
+            }
+        }
+        return new ListenerRegistration(dispatcher, new ListenerRegistration.Subscription() {
+            @Override
+            public void unsubscribe() {
+                synchronized (listeners) {
+                    listeners.remove(dispatcher);
+                    suspendedListeners.remove(dispatcher);
+                    if (listeners.isEmpty() && streamRegistration != null) {
+                        streamRegistration.remove();
+                        streamRegistration = null;
+                    } else {
+                        updateSuspension();
+                    }
+                }
+            }
+
+            @Override
+            public void setSuspended(boolean suspended) {
+                synchronized (listeners) {
+                    if (!listeners.contains(dispatcher)) {
+                        return;
+                    }
+                    if (suspended) {
+                        suspendedListeners.add(dispatcher);
+                    } else {
+                        suspendedListeners.remove(dispatcher);
+                    }
+                    updateSuspension();
+                }
+            }
+
+            @Nullable
+            @Override
+            public SupervisedStream getStream() {
+                synchronized (listeners) {
+                    return streamRegistration != null ? streamRegistration.getStream() : null;
+                }
+            }
+        });
+    }
+
+    /**
+     * Stream registration is suspended while all listeners are suspended.
+     */
+    private void updateSuspension() {
+        if (streamRegistration != null) {
+            streamRegistration.setSuspended(suspendedListeners.size() == listeners.size());
+        }
+    }
+
+    private void notifyListeners(@Nullable LocalBalance localBalance) {
+        if (localBalance == null) {
+            return;
+        }
+        for (EventDispatcher<LocalBalance> listener : listeners) {
+            listener.onEvent(localBalance);
+        }
+    }
+
+    private static final class PendingPayment {
+
+        private final BigDecimal amount;
+        //transaction hash, once known
+        private String hash;
+
+        PendingPayment(BigDecimal amount) {
+            this.amount = amount;
+        }
+    }
+}
@@ -4,86 +4,124 @@ package kin.core;
 import static kin.core.Utils.checkNotNull;
 
 import android.support.annotation.NonNull;
-import com.here.oksse.ServerSentEvent;
+import android.support.annotation.Nullable;
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 import kin.core.ServiceProvider.KinAsset;
+import kin.core.exception.OperationFailedException;
+import kin.core.exception.OperationTimeoutException;
+import org.stellar.sdk.Asset;
 import org.stellar.sdk.KeyPair;
-import org.stellar.sdk.LedgerEntryChange;
-import org.stellar.sdk.LedgerEntryChanges;
-import org.stellar.sdk.Memo;
-import org.stellar.sdk.MemoText;
 import org.stellar.sdk.Operation;
 import org.stellar.sdk.PaymentOperation;
-import org.stellar.sdk.Server;
-import org.stellar.sdk.TrustLineLedgerEntryChange;
-import org.stellar.sdk.responses.TransactionResponse;
+import org.stellar.sdk.xdr.TrustLineEntry;
 
 /**
  * Provides listeners, for various events happens on the blockchain.
  */
 public class BlockchainEvents {
 
-    private static final String CURSOR_FUTURE_ONLY = "now";
-    private final Server server;
+    private final HorizonClient horizonClient;
     private final KinAsset kinAsset;
-    private final KeyPair accountKeyPair;
+    private final String accountId;
+    private final TransactionStream transactionStream;
+    private final Telemetry telemetry;
+    //memo -> listeners waiting for payments with this memo, all served by a single stream subscriber
+    private final ConcurrentHashMap<String, List<EventDispatcher<PaymentInfo>>> memoListeners =
+        new ConcurrentHashMap<>();
+    //guarded by memoListeners
+    private final Set<EventDispatcher<PaymentInfo>> suspendedMemoListeners = new HashSet<>();
+    private final EventListener<TransactionData> memoRouter = new EventListener<TransactionData>() {
+        @Override
+        public void onEvent(TransactionData transaction) {
+            routePaymentsByMemo(transaction);
+        }
+    };
+    //guarded by memoListeners
+    private int memoListenerCount;
 
-    BlockchainEvents(Server server, String accountId, KinAsset kinAsset) {
-        this.server = server;
+    BlockchainEvents(HorizonClient horizonClient, String accountId, KinAsset kinAsset, Telemetry telemetry) {
+        this.horizonClient = horizonClient;
+        this.telemetry = telemetry;
         this.kinAsset = kinAsset;
-        this.accountKeyPair = KeyPair.fromAccountId(accountId);
+        this.accountId = accountId;
+        //balance and payment listeners share a single stream, so each transaction is parsed and decoded once
+        this.transactionStream = horizonClient.accountTransactions(accountId);
     }
 
     /**
      * Creates and adds listener for balance changes of this account, use returned {@link ListenerRegistration} to
-     * stop listening. <p><b>Note:</b> Events will be fired on background thread.</p>
+     * stop listening. <p><b>Note:</b> Events will be fired on background thread, balance events are coalesced, a
+     * listener that falls behind gets only the latest balance.</p>
      *
      * @param listener listener object for payment events
      */
-    public ListenerRegistration addBalanceListener(@NonNull final EventListener<Balance> listener) {
+    public ListenerRegistration addBalanceListener(@NonNull EventListener<Balance> listener) {
+        return addBalanceListener(listener, DispatchPolicy.defaultBalancePolicy());
+    }
+
+    /**
+     * Creates and adds listener for balance changes of this account, use returned {@link ListenerRegistration} to
+     * stop listening.
+     *
+     * @param listener listener object for balance events
+     * @param dispatchPolicy defines the thread and queueing of events delivery to {@code listener}
+     */
+    public ListenerRegistration addBalanceListener(@NonNull EventListener<Balance> listener,
+        @NonNull DispatchPolicy dispatchPolicy) {
         checkNotNull(listener, "listener");
-        ServerSentEvent serverSentEvent = server
-            .transactions()
-            .forAccount(accountKeyPair)
-            .cursor(CURSOR_FUTURE_ONLY)
-            .stream(new org.stellar.sdk.requests.EventListener<TransactionResponse>() {
-                @Override
-                public void onEvent(TransactionResponse transactionResponse) {
-                    extractBalanceChangeFromTransaction(transactionResponse, listener);
-                }
-            });
-        return new ListenerRegistration(serverSentEvent);
+        checkNotNull(dispatchPolicy, "dispatchPolicy");
+        final EventDispatcher<Balance> dispatcher = new EventDispatcher<>(listener, dispatchPolicy, telemetry);
+        return subscribe(transactionStream, dispatcher, new EventListener<TransactionData>() {
+            @Override
+            public void onEvent(TransactionData transaction) {
+                extractBalanceChangeFromTransaction(transaction, dispatcher);
+            }
+        });
+    }
+
+    /**
+     * Adds an internal listener for all transactions of this account, delivered on the stream thread, sharing the
+     * stream of balance and payment listeners.
+     */
+    ListenerRegistration addTransactionListener(@NonNull EventListener<TransactionData> listener) {
+        checkNotNull(listener, "listener");
+        EventDispatcher<TransactionData> dispatcher = new EventDispatcher<>(listener, DispatchPolicy.direct(),
+            telemetry);
+        return subscribe(transactionStream, dispatcher, dispatcher);
     }
 
-    private void extractBalanceChangeFromTransaction(TransactionResponse transactionResponse,
+    void extractBalanceChangeFromTransaction(TransactionData transaction,
         @NonNull EventListener<Balance> listener) {
-        List<LedgerEntryChanges> ledgerChanges = transactionResponse.getLedgerChanges();
-        if (ledgerChanges != null) {
-            for (LedgerEntryChanges ledgerChange : ledgerChanges) {
-                LedgerEntryChange[] ledgerEntryUpdates = ledgerChange.getLedgerEntryUpdates();
-                if (ledgerEntryUpdates != null) {
-                    for (LedgerEntryChange ledgerEntryUpdate : ledgerEntryUpdates) {
-                        extractBalanceFromTrustLineUpdate(listener, ledgerEntryUpdate);
-                    }
-                }
-            }
+        List<TrustLineEntry> trustLineUpdates;
+        try {
+            trustLineUpdates = transaction.getUpdatedTrustLines();
+        } catch (IOException e) {
+            //skip the event, balance is corrected by the next event or by the next balance fetch
+            telemetry.eventDecodeFailure(transaction.getHash(), e);
+            return;
+        }
+        for (TrustLineEntry trustLineUpdate : trustLineUpdates) {
+            extractBalanceFromTrustLineUpdate(listener, trustLineUpdate);
         }
     }
 
     private void extractBalanceFromTrustLineUpdate(@NonNull EventListener<Balance> listener,
-        LedgerEntryChange ledgerEntryUpdate) {
-        if (ledgerEntryUpdate instanceof TrustLineLedgerEntryChange) {
-            TrustLineLedgerEntryChange trustLineUpdate = (TrustLineLedgerEntryChange) ledgerEntryUpdate;
-            KeyPair account = trustLineUpdate.getAccount();
-            if (account != null) {
-                if (accountKeyPair.getAccountId().equals(account.getAccountId())
-                    && kinAsset.isKinAsset(trustLineUpdate.getAsset())) {
-                    BalanceImpl balance = new BalanceImpl(
-                        new BigDecimal(trustLineUpdate.getBalance()));
-                    listener.onEvent(balance);
-                }
-            }
+        TrustLineEntry trustLineUpdate) {
+        KeyPair account = KeyPair.fromXdrPublicKey(trustLineUpdate.getAccountID().getAccountID());
+        if (accountId.equals(account.getAccountId())
+            && kinAsset.isKinAsset(Asset.fromXdr(trustLineUpdate.getAsset()))) {
+            BalanceImpl balance = new BalanceImpl(
+                Utils.fromXdrAmount(trustLineUpdate.getBalance().getInt64()));
+            listener.onEvent(balance);
         }
     }
 
@@ -93,19 +131,236 @@ public class BlockchainEvents {
      *
      * @param listener listener object for payment events
      */
-    public ListenerRegistration addPaymentListener(@NonNull final EventListener<PaymentInfo> listener) {
+    public ListenerRegistration addPaymentListener(@NonNull EventListener<PaymentInfo> listener) {
+        return addPaymentListener(listener, DispatchPolicy.defaultPaymentPolicy());
+    }
+
+    /**
+     * Creates and adds listener for payments concerning this account, use returned {@link ListenerRegistration} to
+     * stop listening.
+     *
+     * @param listener listener object for payment events
+     * @param dispatchPolicy defines the thread and queueing of events delivery to {@code listener}
+     */
+    public ListenerRegistration addPaymentListener(@NonNull EventListener<PaymentInfo> listener,
+        @NonNull DispatchPolicy dispatchPolicy) {
         checkNotNull(listener, "listener");
-        ServerSentEvent serverSentEvent = server
-            .transactions()
-            .forAccount(accountKeyPair)
-            .cursor(CURSOR_FUTURE_ONLY)
-            .stream(new org.stellar.sdk.requests.EventListener<TransactionResponse>() {
-                @Override
-                public void onEvent(TransactionResponse transactionResponse) {
-                    extractPaymentsFromTransaction(transactionResponse, listener);
+        checkNotNull(dispatchPolicy, "dispatchPolicy");
+        final EventDispatcher<PaymentInfo> dispatcher = new EventDispatcher<>(listener, dispatchPolicy, telemetry);
+        return subscribe(transactionStream, dispatcher, new EventListener<TransactionData>() {
+            @Override
+            public void onEvent(TransactionData transaction) {
+                extractPaymentsFromTransaction(transaction, dispatcher);
+            }
+        });
+    }
+
+    /**
+     * Creates and adds listener for payments concerning this account with the specified memo, use returned {@link
+     * ListenerRegistration} to stop listening. <p><b>Note:</b> Events will be fired on background thread.</p>
+     * <p>All memo listeners of the account are served by a single stream, and matched to incoming transactions
+     * using a memo index, so many pending memos (e.g. order ids) cost no more than one listener per event.</p>
+     *
+     * @param memo the payment memo to listen to
+     * @param listener listener object for payment events
+     */
+    public ListenerRegistration addPaymentListener(@NonNull String memo,
+        @NonNull EventListener<PaymentInfo> listener) {
+        return addPaymentListener(memo, listener, DispatchPolicy.defaultPaymentPolicy());
+    }
+
+    /**
+     * Creates and adds listener for payments concerning this account with the specified memo, use returned {@link
+     * ListenerRegistration} to stop listening, see {@link #addPaymentListener(String, EventListener)}.
+     *
+     * @param memo the payment memo to listen to
+     * @param listener listener object for payment events
+     * @param dispatchPolicy defines the thread and queueing of events delivery to {@code listener}
+     */
+    public ListenerRegistration addPaymentListener(@NonNull final String memo,
+        @NonNull EventListener<PaymentInfo> listener, @NonNull DispatchPolicy dispatchPolicy) {
+        checkNotNull(memo, "memo");
+        checkNotNull(listener, "listener");
+        checkNotNull(dispatchPolicy, "dispatchPolicy");
+        final EventDispatcher<PaymentInfo> dispatcher = new EventDispatcher<>(listener, dispatchPolicy, telemetry);
+        addMemoListener(memo, dispatcher);
+        return new ListenerRegistration(dispatcher, new ListenerRegistration.Subscription() {
+            @Override
+            public void unsubscribe() {
+                removeMemoListener(memo, dispatcher);
+            }
+
+            @Override
+            public void setSuspended(boolean suspended) {
+                setMemoListenerSuspended(memo, dispatcher, suspended);
+            }
+
+            @Nullable
+            @Override
+            public SupervisedStream getStream() {
+                return transactionStream.getStream();
+            }
+        });
+    }
+
+    /**
+     * Create {@link Request} for waiting to an incoming payment to this account with the specified memo.
+     * <p> See {@link #awaitPaymentSync(String, long, TimeUnit)} for possibles errors</p>
+     *
+     * @param memo the payment memo to wait for
+     * @param timeout maximum time to wait
+     * @param unit time unit of {@code timeout}
+     * @return {@code Request<PaymentInfo>}, the matching payment
+     */
+    @NonNull
+    public Request<PaymentInfo> awaitPayment(@NonNull final String memo, final long timeout,
+        @NonNull final TimeUnit unit) {
+        //started like any request, waiting holds no thread, so other requests are not held back
+        return new Request<>(new Request.AsyncCallable<PaymentInfo>() {
+            @Override
+            public PendingResult<PaymentInfo> start() {
+                return startAwaitPayment(memo, timeout, unit);
+            }
+        }, telemetry, "awaitPayment");
+    }
+
+    /**
+     * Waits for an incoming payment to this account with the specified memo.
+     * <p><b>Note:</b> This method blocks until a matching payment arrives or timeout expires, do not call it from the
+     * main thread.</p>
+     * <p>Only payments that arrive after this call are matched, memo should be handed to the payer after the wait has
+     * started.</p>
+     *
+     * @param memo the payment memo to wait for
+     * @param timeout maximum time to wait
+     * @param unit time unit of {@code timeout}
+     * @return the matching payment
+     * @throws OperationTimeoutException no matching payment arrived within timeout
+     * @throws OperationFailedException waiting thread was interrupted
+     */
+    @NonNull
+    public PaymentInfo awaitPaymentSync(@NonNull String memo, long timeout, @NonNull TimeUnit unit)
+        throws OperationFailedException {
+        PendingResult<PaymentInfo> pending = startAwaitPayment(memo, timeout, unit);
+        try {
+            return pending.get();
+        } catch (InterruptedException e) {
+            pending.cancel();
+            Thread.currentThread().interrupt();
+            throw new OperationFailedException(e);
+        } catch (OperationFailedException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new OperationFailedException(e);
+        }
+    }
+
+    /**
+     * Adds a memo listener completing the returned result with the first incoming payment, the listener is removed
+     * once the result completes (payment, timeout or cancellation).
+     */
+    private PendingResult<PaymentInfo> startAwaitPayment(@NonNull String memo, long timeout, @NonNull TimeUnit unit) {
+        checkNotNull(memo, "memo");
+        checkNotNull(unit, "unit");
+        final PendingResult<PaymentInfo> pending = new PendingResult<>();
+        final ListenerRegistration registration = addPaymentListener(memo, new EventListener<PaymentInfo>() {
+            @Override
+            public void onEvent(PaymentInfo payment) {
+                if (accountId.equals(payment.destinationPublicKey())) {
+                    pending.setResult(payment);
+                }
+            }
+        }, DispatchPolicy.direct());
+        pending.withTimeout(timeout, unit,
+            new OperationTimeoutException("No payment with memo " + memo + " arrived within timeout"));
+        pending.addCallback(new ResultCallback<PaymentInfo>() {
+            @Override
+            public void onResult(PaymentInfo result) {
+                registration.remove();
+            }
+
+            @Override
+            public void onError(Exception e) {
+                registration.remove();
+            }
+        });
+        return pending;
+    }
+
+    private void addMemoListener(String memo, EventDispatcher<PaymentInfo> dispatcher) {
+        synchronized (memoListeners) {
+            boolean firstListener = memoListeners.isEmpty();
+            List<EventDispatcher<PaymentInfo>> listeners = memoListeners.get(memo);
+            if (listeners == null) {
+                listeners = new CopyOnWriteArrayList<>();
+                memoListeners.put(memo, listeners);
+            }
+            listeners.add(dispatcher);
+            memoListenerCount++;
+            if (firstListener) {
+                transactionStream.subscribe(memoRouter);
+            } else {
+                updateMemoRouterSuspension();
+            }
+        }
+    }
+
+    private void removeMemoListener(String memo, EventDispatcher<PaymentInfo> dispatcher) {
+        synchronized (memoListeners) {
+            List<EventDispatcher<PaymentInfo>> listeners = memoListeners.get(memo);
+            if (listeners == null || !listeners.remove(dispatcher)) {
+                return;
+            }
+            memoListenerCount--;
+            suspendedMemoListeners.remove(dispatcher);
+            if (listeners.isEmpty()) {
+                memoListeners.remove(memo);
+                if (memoListeners.isEmpty()) {
+                    transactionStream.unsubscribe(memoRouter);
+                    return;
                 }
-            });
-        return new ListenerRegistration(serverSentEvent);
+            }
+            updateMemoRouterSuspension();
+        }
+    }
+
+    private void setMemoListenerSuspended(String memo, EventDispatcher<PaymentInfo> dispatcher, boolean suspended) {
+        synchronized (memoListeners) {
+            List<EventDispatcher<PaymentInfo>> listeners = memoListeners.get(memo);
+            if (listeners == null || !listeners.contains(dispatcher)) {
+                return;
+            }
+            if (suspended) {
+                suspendedMemoListeners.add(dispatcher);
+            } else {
+                suspendedMemoListeners.remove(dispatcher);
+            }
+            updateMemoRouterSuspension();
+        }
+    }
+
+    /**
+     * Memo router is a single stream subscriber, suspended while all memo listeners are.
+     */
+    private void updateMemoRouterSuspension() {
+        transactionStream.setSuspended(memoRouter, suspendedMemoListeners.size() == memoListenerCount);
+    }
+
+    private void routePaymentsByMemo(TransactionData transaction) {
+        String memo = transaction.getMemo();
+        if (memo == null) {
+            return;
+        }
+        List<EventDispatcher<PaymentInfo>> listeners = memoListeners.get(memo);
+        //envelope is decoded only for transactions someone is waiting for
+        if (listeners == null) {
+            return;
+        }
+        for (PaymentInfo payment : extractPayments(transaction)) {
+            for (EventDispatcher<PaymentInfo> listener : listeners) {
+                listener.onEvent(payment);
+            }
+        }
     }
 
     /**
@@ -116,65 +371,96 @@ public class BlockchainEvents {
      */
     public ListenerRegistration addAccountCreationListener(final EventListener<Void> listener) {
         checkNotNull(listener, "listener");
-        ServerSentEvent serverSentEvent = server.transactions()
-            .forAccount(accountKeyPair)
-            .stream(new org.stellar.sdk.requests.EventListener<TransactionResponse>() {
-
-                private boolean eventOccurred = false;
-
-                @Override
-                public void onEvent(TransactionResponse transactionResponse) {
-                    //account creation is one time operation, fire event only once
-                    if (!eventOccurred) {
-                        eventOccurred = true;
-                        listener.onEvent(null);
-                    }
+        //streams from the first transaction (the account creation), can't share the future only stream
+        TransactionStream creationStream = new TransactionStream(horizonClient, accountId, null);
+        final EventDispatcher<Void> dispatcher = new EventDispatcher<>(listener,
+            DispatchPolicy.defaultPaymentPolicy(), telemetry);
+        return subscribe(creationStream, dispatcher, new EventListener<TransactionData>() {
+
+            private boolean eventOccurred = false;
+
+            @Override
+            public void onEvent(TransactionData transaction) {
+                //account creation is one time operation, fire event only once
+                if (!eventOccurred) {
+                    eventOccurred = true;
+                    dispatcher.onEvent(null);
                 }
-            });
-        return new ListenerRegistration(serverSentEvent);
+            }
+        });
+    }
+
+    private ListenerRegistration subscribe(final TransactionStream stream, EventDispatcher<?> dispatcher,
+        final EventListener<TransactionData> subscriber) {
+        stream.subscribe(subscriber);
+        return new ListenerRegistration(dispatcher, new ListenerRegistration.Subscription() {
+            @Override
+            public void unsubscribe() {
+                stream.unsubscribe(subscriber);
+            }
+
+            @Override
+            public void setSuspended(boolean suspended) {
+                stream.setSuspended(subscriber, suspended);
+            }
+
+            @Nullable
+            @Override
+            public SupervisedStream getStream() {
+                return stream.getStream();
+            }
+        });
     }
 
-    private void extractPaymentsFromTransaction(TransactionResponse transactionResponse,
+    private void extractPaymentsFromTransaction(TransactionData transaction,
         EventListener<PaymentInfo> listener) {
-        List<Operation> operations = transactionResponse.getOperations();
-        if (operations != null) {
-            for (Operation operation : operations) {
-                if (operation instanceof PaymentOperation) {
-                    PaymentOperation paymentOperation = (PaymentOperation) operation;
-                    if (isPaymentInKin(paymentOperation)) {
-                        PaymentInfo paymentInfo = new PaymentInfoImpl(
-                            transactionResponse.getCreatedAt(),
-                            paymentOperation.getDestination().getAccountId(),
-                            extractSourceAccountId(transactionResponse, paymentOperation),
-                            new BigDecimal(paymentOperation.getAmount()),
-                            new TransactionIdImpl(transactionResponse.getHash()),
-                            extractHashTextIfAny(transactionResponse)
-                        );
-                        listener.onEvent(paymentInfo);
-                    }
+        for (PaymentInfo payment : extractPayments(transaction)) {
+            listener.onEvent(payment);
+        }
+    }
+
+    /**
+     * @return kin payments of the transaction, empty if the transaction is skipped as it could not be decoded
+     */
+    List<PaymentInfo> extractPayments(TransactionData transaction) {
+        List<Operation> operations;
+        try {
+            operations = transaction.getOperations();
+        } catch (IOException e) {
+            telemetry.eventDecodeFailure(transaction.getHash(), e);
+            return Collections.emptyList();
+        }
+        if (operations.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<PaymentInfo> payments = new ArrayList<>(operations.size());
+        for (Operation operation : operations) {
+            if (operation instanceof PaymentOperation) {
+                PaymentOperation paymentOperation = (PaymentOperation) operation;
+                if (isPaymentInKin(paymentOperation)) {
+                    PaymentInfo paymentInfo = new PaymentInfoImpl(
+                        transaction.getCreatedAt(),
+                        paymentOperation.getDestination().getAccountId(),
+                        extractSourceAccountId(transaction, paymentOperation),
+                        new BigDecimal(paymentOperation.getAmount()),
+                        new TransactionIdImpl(transaction.getHash()),
+                        transaction.getMemo()
+                    );
+                    payments.add(paymentInfo);
                 }
             }
-
         }
+        return payments;
     }
 
-    private String extractSourceAccountId(TransactionResponse transactionResponse, Operation operation) {
+    private String extractSourceAccountId(TransactionData transaction, Operation operation) {
         //if payment was sent on behalf of other account - paymentOperation will contains this account, o.w. the source
         //is the transaction source account
         return operation.getSourceAccount() != null ? operation.getSourceAccount()
-            .getAccountId() : transactionResponse.getSourceAccount().getAccountId();
+            .getAccountId() : transaction.getSourceAccount();
     }
 
     private boolean isPaymentInKin(PaymentOperation paymentOperation) {
         return kinAsset.isKinAsset(paymentOperation.getAsset());
     }
-
-    private String extractHashTextIfAny(TransactionResponse transactionResponse) {
-        String memoString = null;
-        Memo memo = transactionResponse.getMemo();
-        if (memo instanceof MemoText) {
-            memoString = ((MemoText) memo).getText();
-        }
-        return memoString;
-    }
 }
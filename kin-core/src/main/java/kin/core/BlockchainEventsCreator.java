@@ -2,20 +2,25 @@ package kin.core;
 
 
 import kin.core.ServiceProvider.KinAsset;
-import org.stellar.sdk.Server;
 
 class BlockchainEventsCreator {
 
-    private final Server server;
+    private final HorizonClient horizonClient;
     private final KinAsset kinAsset;
+    private final Telemetry telemetry;
 
 
-    BlockchainEventsCreator(Server server, KinAsset kinAsset) {
-        this.server = server;
+    BlockchainEventsCreator(HorizonClient horizonClient, KinAsset kinAsset, Telemetry telemetry) {
+        this.horizonClient = horizonClient;
         this.kinAsset = kinAsset;
+        this.telemetry = telemetry;
     }
 
     BlockchainEvents create(String accountId) {
-        return new BlockchainEvents(server, accountId, kinAsset);
+        return new BlockchainEvents(horizonClient, accountId, kinAsset, telemetry);
+    }
+
+    AccountWatcher createAccountWatcher() {
+        return new AccountWatcher(horizonClient, telemetry);
     }
 }
@@ -0,0 +1,136 @@
+package kin.core;
+
+
+import android.support.annotation.NonNull;
+import android.util.Base64;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import kin.core.ServiceProvider.KinAsset;
+import kin.core.exception.OperationFailedException;
+import org.stellar.sdk.Account;
+import org.stellar.sdk.KeyPair;
+import org.stellar.sdk.Memo;
+import org.stellar.sdk.PaymentOperation;
+import org.stellar.sdk.Transaction;
+import org.stellar.sdk.xdr.TransactionEnvelope;
+import org.stellar.sdk.xdr.XdrDataOutputStream;
+
+/**
+ * Builds and signs many payment transactions offline, with no network access.
+ * <p>Payments are split to contiguous chunks, one per available core, each chunk is built and signed on its own
+ * thread, encoding envelopes into a single reusable XDR buffer.</p>
+ */
+class BulkSigner {
+
+    private static final int ENVELOPE_BUFFER_SIZE = 512;
+    private final KinAsset kinAsset;
+    private final TransactionSigner transactionSigner;
+
+    BulkSigner(KinAsset kinAsset, TransactionSigner transactionSigner) {
+        this.kinAsset = kinAsset;
+        this.transactionSigner = transactionSigner;
+    }
+
+    @NonNull
+    List<SignedTransaction> sign(@NonNull KeyPair from, @NonNull List<PaymentSpec> payments)
+        throws OperationFailedException {
+        Utils.checkNotNull(from, "account");
+        Utils.checkNotNull(payments, "payments");
+        int threads = Math.min(payments.size(), Runtime.getRuntime().availableProcessors());
+        if (threads <= 1) {
+            return signChunk(from, payments);
+        }
+        List<Callable<List<SignedTransaction>>> tasks = new ArrayList<>(threads);
+        int chunkSize = (payments.size() + threads - 1) / threads;
+        for (int start = 0; start < payments.size(); start += chunkSize) {
+            tasks.add(createSignTask(from, payments.subList(start, Math.min(start + chunkSize, payments.size()))));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(tasks.size());
+        try {
+            List<SignedTransaction> signedTransactions = new ArrayList<>(payments.size());
+            for (Future<List<SignedTransaction>> future : executor.invokeAll(tasks)) {
+                signedTransactions.addAll(future.get());
+            }
+            return signedTransactions;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OperationFailedException("Operation interrupted", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof OperationFailedException ? (OperationFailedException) e.getCause()
+                : new OperationFailedException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Callable<List<SignedTransaction>> createSignTask(final KeyPair from, final List<PaymentSpec> chunk) {
+        return new Callable<List<SignedTransaction>>() {
+            @Override
+            public List<SignedTransaction> call() throws Exception {
+                return signChunk(from, chunk);
+            }
+        };
+    }
+
+    private List<SignedTransaction> signChunk(KeyPair from, List<PaymentSpec> chunk)
+        throws OperationFailedException {
+        EnvelopeBuffer buffer = new EnvelopeBuffer();
+        XdrDataOutputStream xdrOutputStream = new XdrDataOutputStream(buffer);
+        List<SignedTransaction> signedTransactions = new ArrayList<>(chunk.size());
+        for (PaymentSpec payment : chunk) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new OperationFailedException("Operation interrupted", new InterruptedException());
+            }
+            Transaction transaction = buildTransaction(from, payment);
+            transactionSigner.sign(transaction, from);
+            signedTransactions.add(new SignedTransaction(new TransactionIdImpl(Utils.bytesToHex(transaction.hash())),
+                encodeEnvelope(transaction, buffer, xdrOutputStream), transaction.getSequenceNumber()));
+        }
+        return signedTransactions;
+    }
+
+    private Transaction buildTransaction(KeyPair from, PaymentSpec payment) {
+        //builder increments the source account sequence for the built transaction
+        Transaction.Builder transactionBuilder = new Transaction.Builder(
+            new Account(from, payment.getSequenceNumber() - 1))
+            .addOperation(new PaymentOperation.Builder(payment.getDestination(), kinAsset.getStellarAsset(),
+                payment.getAmount().toPlainString()).build());
+        if (payment.getMemo() != null) {
+            transactionBuilder.addMemo(Memo.text(payment.getMemo()));
+        }
+        return transactionBuilder.build();
+    }
+
+    private String encodeEnvelope(Transaction transaction, EnvelopeBuffer buffer,
+        XdrDataOutputStream xdrOutputStream) throws OperationFailedException {
+        buffer.reset();
+        try {
+            TransactionEnvelope.encode(xdrOutputStream, transaction.toEnvelopeXdr());
+            xdrOutputStream.flush();
+        } catch (IOException e) {
+            throw new OperationFailedException(e);
+        }
+        return Base64.encodeToString(buffer.array(), 0, buffer.size(), Base64.NO_WRAP);
+    }
+
+    /**
+     * Exposes the backing array, saves a copy per encoded envelope.
+     */
+    private static class EnvelopeBuffer extends ByteArrayOutputStream {
+
+        EnvelopeBuffer() {
+            super(ENVELOPE_BUFFER_SIZE);
+        }
+
+        byte[] array() {
+            return buf;
+        }
+    }
+}
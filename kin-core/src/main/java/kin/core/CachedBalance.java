@@ -0,0 +1,44 @@
+package kin.core;
+
+
+import java.math.BigDecimal;
+
+/**
+ * Last known balance of an account as stored on the device, see {@link KinAccount#getCachedBalance()}.
+ */
+public final class CachedBalance implements Balance {
+
+    private final BigDecimal value;
+    private final long fetchedAt;
+    private final long ledger;
+
+    CachedBalance(BigDecimal value, long fetchedAt, long ledger) {
+        this.value = value;
+        this.fetchedAt = fetchedAt;
+        this.ledger = ledger;
+    }
+
+    @Override
+    public BigDecimal value() {
+        return value;
+    }
+
+    @Override
+    public String value(int precision) {
+        return value.setScale(precision, BigDecimal.ROUND_FLOOR).toString();
+    }
+
+    /**
+     * Time the balance was fetched from the network, in milliseconds since epoch.
+     */
+    public long fetchedAt() {
+        return fetchedAt;
+    }
+
+    /**
+     * Ledger the account was last modified at when fetched, 0 if unknown.
+     */
+    public long ledger() {
+        return ledger;
+    }
+}
@@ -0,0 +1,18 @@
+package kin.core;
+
+/**
+ * {@link ResultCallback} of requests that may deliver a cached result ahead of their own result, such as {@link
+ * KinAccount#getBalance(int)} with {@link BalancePolicy#CACHE_THEN_NETWORK}.
+ * <p>Cached results are delivered only to callbacks implementing this interface, {@link #onResult(Object)} is called
+ * once, with the request own result.</p>
+ */
+public interface CachedResultCallback<T> extends ResultCallback<T> {
+
+    /**
+     * Method will be called with a cached result, before the request completes. Not called if there's no cached
+     * result, or if the request completed first.
+     *
+     * @param result the cached result
+     */
+    void onCachedResult(T result);
+}
@@ -0,0 +1,22 @@
+package kin.core;
+
+
+import java.io.IOException;
+
+/**
+ * A horizon request was not sent as the circuit of every endpoint is open, see {@link EndpointPool}, surfaced to
+ * callers as {@link kin.core.exception.CircuitOpenException}.
+ */
+class CircuitOpenIOException extends IOException {
+
+    private final long retryAfterMillis;
+
+    CircuitOpenIOException(long retryAfterMillis) {
+        super("circuit open, retry after " + retryAfterMillis + " ms");
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+}
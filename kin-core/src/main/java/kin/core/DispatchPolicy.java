@@ -0,0 +1,117 @@
+package kin.core;
+
+
+import static kin.core.Utils.checkNotNull;
+
+import android.support.annotation.NonNull;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Defines how {@link BlockchainEvents} events are delivered to a listener.
+ * <p>Events are queued by the stream and delivered to the listener sequentially, in order, on the policy executor,
+ * so a slow listener never holds up the stream, the queue size and {@link OverflowStrategy} decides what happens when
+ * the listener falls behind.</p>
+ * <p>Default policies never wait for a listener, as all listeners of an account share a single stream reader.
+ * {@link OverflowStrategy#BLOCK} must be requested explicitly.</p>
+ */
+public final class DispatchPolicy {
+
+    private static final int DEFAULT_QUEUE_SIZE = 256;
+    private static final ExecutorService defaultExecutor = Executors.newCachedThreadPool(new ThreadFactory() {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(@NonNull Runnable runnable) {
+            Thread thread = new Thread(runnable, "kin-events-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    private final Executor executor;
+    private final int queueSize;
+    @OverflowStrategy
+    private final int overflowStrategy;
+
+    private DispatchPolicy(Executor executor, int queueSize, @OverflowStrategy int overflowStrategy) {
+        this.executor = executor;
+        this.queueSize = queueSize;
+        this.overflowStrategy = overflowStrategy;
+    }
+
+    /**
+     * Creates a dispatch policy.
+     *
+     * @param executor executor listener will be invoked on, events are delivered one at a time even on a multi
+     * threaded executor
+     * @param queueSize maximum number of undelivered events kept for the listener
+     * @param overflowStrategy what to do with new events when queue is full
+     */
+    public static DispatchPolicy create(@NonNull Executor executor, int queueSize,
+        @OverflowStrategy int overflowStrategy) {
+        checkNotNull(executor, "executor");
+        if (queueSize <= 0) {
+            throw new IllegalArgumentException("queueSize must be positive.");
+        }
+        if (overflowStrategy != OverflowStrategy.BLOCK && overflowStrategy != OverflowStrategy.DROP_OLDEST
+            && overflowStrategy != OverflowStrategy.COALESCE) {
+            throw new IllegalArgumentException("Unknown overflow strategy - " + overflowStrategy);
+        }
+        return new DispatchPolicy(executor, queueSize, overflowStrategy);
+    }
+
+    /**
+     * Creates a dispatch policy that delivers only the latest undelivered event, see {@link
+     * OverflowStrategy#COALESCE}.
+     *
+     * @param executor executor listener will be invoked on
+     */
+    public static DispatchPolicy coalescing(@NonNull Executor executor) {
+        return create(executor, 1, OverflowStrategy.COALESCE);
+    }
+
+    /**
+     * Default balance listener policy, coalescing events on a shared background executor.
+     */
+    static DispatchPolicy defaultBalancePolicy() {
+        return new DispatchPolicy(defaultExecutor, 1, OverflowStrategy.COALESCE);
+    }
+
+    /**
+     * Default payment (and account creation) listener policy, bounded queue on a shared background executor, a
+     * listener that falls behind by a full queue loses its oldest events (reported by {@link
+     * KinMetrics#onEventDropped()}) rather than holding back the stream.
+     */
+    static DispatchPolicy defaultPaymentPolicy() {
+        return new DispatchPolicy(defaultExecutor, DEFAULT_QUEUE_SIZE, OverflowStrategy.DROP_OLDEST);
+    }
+
+    /**
+     * Delivers events on the stream thread, for internal listeners only, that never run application code.
+     */
+    static DispatchPolicy direct() {
+        return new DispatchPolicy(new Executor() {
+            @Override
+            public void execute(@NonNull Runnable command) {
+                command.run();
+            }
+        }, 1, OverflowStrategy.DROP_OLDEST);
+    }
+
+    Executor getExecutor() {
+        return executor;
+    }
+
+    int getQueueSize() {
+        return queueSize;
+    }
+
+    @OverflowStrategy
+    int getOverflowStrategy() {
+        return overflowStrategy;
+    }
+}
@@ -0,0 +1,285 @@
+package kin.core;
+
+
+import android.support.annotation.NonNull;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import okhttp3.HttpUrl;
+
+/**
+ * Horizon endpoints of a {@link HorizonClient}, ranked by health and latency.
+ * <p>Latency is tracked as an exponentially weighted moving average of response times. An endpoint failing to respond
+ * is considered unhealthy for an exponentially growing backoff period, after which it is tried again. Endpoints with no
+ * latency measured yet are ranked first, so every endpoint gets measured.</p>
+ * <p>Each endpoint also has a circuit breaker, opened after consecutive failures or when too many recent reads were
+ * slow. Requests must not be sent to an endpoint with an open circuit, see {@link #tryAcquire(Endpoint)}, so callers
+ * fail fast instead of waiting out timeouts. Once the open period ends the circuit is half open, a single trial
+ * request is let through, its success closes the circuit, its failure opens it again for twice as long.</p>
+ */
+class EndpointPool {
+
+    //weight of the latest sample in the latency average
+    static final double LATENCY_EWMA_ALPHA = 0.3;
+    static final long MIN_BACKOFF_MILLIS = 1000;
+    static final long MAX_BACKOFF_MILLIS = 60 * 1000;
+    static final int CIRCUIT_FAILURE_THRESHOLD = 5;
+    static final long SLOW_CALL_NANOS = TimeUnit.SECONDS.toNanos(5);
+    static final int SLOW_CALL_WINDOW = 20;
+    //calls in the window before the slow call rate is considered
+    static final int SLOW_CALL_MIN_CALLS = 10;
+    static final double SLOW_CALL_RATE_THRESHOLD = 0.5;
+    static final long MIN_OPEN_MILLIS = 15 * 1000;
+    static final long MAX_OPEN_MILLIS = 2 * 60 * 1000;
+    //a trial request with no outcome reported by then is considered lost
+    static final long TRIAL_TIMEOUT_MILLIS = 30 * 1000;
+    private final List<Endpoint> endpoints;
+    private final Telemetry telemetry;
+    private final long minOpenMillis;
+
+    EndpointPool(@NonNull List<HttpUrl> urls) {
+        this(urls, new Telemetry());
+    }
+
+    EndpointPool(@NonNull List<HttpUrl> urls, @NonNull Telemetry telemetry) {
+        this(urls, telemetry, MIN_OPEN_MILLIS);
+    }
+
+    /**
+     * @param minOpenMillis open period of a circuit, doubled each time a trial request fails
+     */
+    EndpointPool(@NonNull List<HttpUrl> urls, @NonNull Telemetry telemetry, long minOpenMillis) {
+        if (urls.isEmpty()) {
+            throw new IllegalArgumentException("at least one horizon url is required");
+        }
+        List<Endpoint> endpoints = new ArrayList<>(urls.size());
+        for (HttpUrl url : urls) {
+            endpoints.add(new Endpoint(url));
+        }
+        this.endpoints = Collections.unmodifiableList(endpoints);
+        this.telemetry = telemetry;
+        this.minOpenMillis = minOpenMillis;
+    }
+
+    /**
+     * @return all endpoints, in the order they were provided
+     */
+    @NonNull
+    List<Endpoint> all() {
+        return endpoints;
+    }
+
+    /**
+     * @return all endpoints, best first: healthy ones by latency, then unhealthy ones by the end of their backoff
+     */
+    @NonNull
+    synchronized List<Endpoint> ranked() {
+        List<Endpoint> ranked = new ArrayList<>(endpoints);
+        if (ranked.size() > 1) {
+            final long now = System.currentTimeMillis();
+            Collections.sort(ranked, new Comparator<Endpoint>() {
+                @Override
+                public int compare(Endpoint first, Endpoint second) {
+                    boolean firstHealthy = first.isHealthy(now);
+                    if (firstHealthy != second.isHealthy(now)) {
+                        return firstHealthy ? -1 : 1;
+                    }
+                    if (!firstHealthy) {
+                        return compareLongs(first.unhealthyUntil, second.unhealthyUntil);
+                    }
+                    return Double.compare(first.latencyNanos, second.latencyNanos);
+                }
+            });
+        }
+        return ranked;
+    }
+
+    @NonNull
+    Endpoint best() {
+        return ranked().get(0);
+    }
+
+    synchronized void onSuccess(@NonNull Endpoint endpoint, long latencyNanos) {
+        endpoint.latencyNanos = endpoint.latencyNanos == Endpoint.NOT_MEASURED ? latencyNanos :
+            LATENCY_EWMA_ALPHA * latencyNanos + (1 - LATENCY_EWMA_ALPHA) * endpoint.latencyNanos;
+        endpoint.failures = 0;
+        endpoint.unhealthyUntil = 0;
+        boolean slow = latencyNanos > SLOW_CALL_NANOS;
+        endpoint.recordCall(slow);
+        if (endpoint.circuitState == Endpoint.CIRCUIT_HALF_OPEN) {
+            if (slow) {
+                openCircuit(endpoint, System.currentTimeMillis());
+            } else {
+                closeCircuit(endpoint);
+            }
+        } else if (endpoint.circuitState == Endpoint.CIRCUIT_CLOSED && endpoint.isSlowCallRateExceeded()) {
+            openCircuit(endpoint, System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * Endpoint responded, with a response time that is not representative of its latency.
+     */
+    synchronized void onAvailable(@NonNull Endpoint endpoint) {
+        endpoint.failures = 0;
+        endpoint.unhealthyUntil = 0;
+        if (endpoint.circuitState == Endpoint.CIRCUIT_HALF_OPEN) {
+            closeCircuit(endpoint);
+        }
+    }
+
+    /**
+     * @return latency average of the endpoint, {@link Endpoint#NOT_MEASURED} if unknown
+     */
+    synchronized double getLatencyNanos(@NonNull Endpoint endpoint) {
+        return endpoint.latencyNanos;
+    }
+
+    synchronized boolean isHealthy(@NonNull Endpoint endpoint) {
+        return endpoint.isHealthy(System.currentTimeMillis());
+    }
+
+    synchronized void onFailure(@NonNull Endpoint endpoint) {
+        long now = System.currentTimeMillis();
+        endpoint.failures++;
+        long backoff = MIN_BACKOFF_MILLIS << Math.min(endpoint.failures - 1, 16);
+        endpoint.unhealthyUntil = now + Math.min(backoff, MAX_BACKOFF_MILLIS);
+        if (endpoint.circuitState == Endpoint.CIRCUIT_HALF_OPEN
+            || (endpoint.circuitState == Endpoint.CIRCUIT_CLOSED && endpoint.failures >= CIRCUIT_FAILURE_THRESHOLD)) {
+            openCircuit(endpoint, now);
+        }
+    }
+
+    /**
+     * Checks whether a request may be sent to the endpoint, a half open circuit lets a single trial request through.
+     *
+     * @return false if the endpoint circuit is open, the request should not be sent
+     */
+    synchronized boolean tryAcquire(@NonNull Endpoint endpoint) {
+        long now = System.currentTimeMillis();
+        switch (endpoint.circuitState) {
+            case Endpoint.CIRCUIT_OPEN:
+                if (now < endpoint.openUntil) {
+                    return false;
+                }
+                endpoint.circuitState = Endpoint.CIRCUIT_HALF_OPEN;
+                endpoint.trialStart = now;
+                return true;
+            case Endpoint.CIRCUIT_HALF_OPEN:
+                if (now - endpoint.trialStart < TRIAL_TIMEOUT_MILLIS) {
+                    return false;
+                }
+                endpoint.trialStart = now;
+                return true;
+            default:
+                return true;
+        }
+    }
+
+    synchronized boolean isCircuitOpen(@NonNull Endpoint endpoint) {
+        return endpoint.circuitState != Endpoint.CIRCUIT_CLOSED;
+    }
+
+    /**
+     * @return time until the first endpoint with an open circuit accepts a trial request, 0 if any circuit is closed
+     */
+    synchronized long getRetryAfterMillis() {
+        long now = System.currentTimeMillis();
+        long retryAfter = Long.MAX_VALUE;
+        for (Endpoint endpoint : endpoints) {
+            long until = endpoint.circuitState == Endpoint.CIRCUIT_CLOSED ? now :
+                (endpoint.circuitState == Endpoint.CIRCUIT_OPEN ? endpoint.openUntil :
+                    endpoint.trialStart + TRIAL_TIMEOUT_MILLIS);
+            retryAfter = Math.min(retryAfter, Math.max(0, until - now));
+        }
+        return retryAfter;
+    }
+
+    private void openCircuit(Endpoint endpoint, long now) {
+        boolean reopened = endpoint.circuitState == Endpoint.CIRCUIT_HALF_OPEN;
+        endpoint.openMillis = reopened ? Math.min(endpoint.openMillis * 2, MAX_OPEN_MILLIS) : minOpenMillis;
+        endpoint.openUntil = now + endpoint.openMillis;
+        endpoint.circuitState = Endpoint.CIRCUIT_OPEN;
+        if (!reopened) {
+            telemetry.circuitOpen(endpoint.toString());
+        }
+    }
+
+    private void closeCircuit(Endpoint endpoint) {
+        endpoint.circuitState = Endpoint.CIRCUIT_CLOSED;
+        endpoint.clearCalls();
+        telemetry.circuitClose(endpoint.toString());
+    }
+
+    private static int compareLongs(long first, long second) {
+        return first < second ? -1 : (first == second ? 0 : 1);
+    }
+
+    static final class Endpoint {
+
+        static final double NOT_MEASURED = -1;
+        private static final int CIRCUIT_CLOSED = 0;
+        private static final int CIRCUIT_OPEN = 1;
+        private static final int CIRCUIT_HALF_OPEN = 2;
+        private final HttpUrl baseUrl;
+        //ring of recent calls, true for slow calls, guarded by the pool as the fields below
+        private final boolean[] calls = new boolean[SLOW_CALL_WINDOW];
+        private double latencyNanos = NOT_MEASURED;
+        private int failures;
+        private long unhealthyUntil;
+        private int circuitState = CIRCUIT_CLOSED;
+        private long openUntil;
+        private long openMillis;
+        private long trialStart;
+        private int callCount;
+        private int nextCall;
+        private int slowCalls;
+
+        private Endpoint(HttpUrl baseUrl) {
+            this.baseUrl = baseUrl;
+        }
+
+        @NonNull
+        HttpUrl baseUrl() {
+            return baseUrl;
+        }
+
+        private boolean isHealthy(long now) {
+            return unhealthyUntil <= now;
+        }
+
+        private void recordCall(boolean slow) {
+            if (callCount == SLOW_CALL_WINDOW) {
+                if (calls[nextCall]) {
+                    slowCalls--;
+                }
+            } else {
+                callCount++;
+            }
+            calls[nextCall] = slow;
+            if (slow) {
+                slowCalls++;
+            }
+            nextCall = (nextCall + 1) % SLOW_CALL_WINDOW;
+        }
+
+        private boolean isSlowCallRateExceeded() {
+            return callCount >= SLOW_CALL_MIN_CALLS && slowCalls >= SLOW_CALL_RATE_THRESHOLD * callCount;
+        }
+
+        private void clearCalls() {
+            Arrays.fill(calls, false);
+            callCount = 0;
+            nextCall = 0;
+            slowCalls = 0;
+        }
+
+        @Override
+        public String toString() {
+            return baseUrl.toString();
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package kin.core;
+
+
+import android.support.annotation.NonNull;
+import java.util.ArrayDeque;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Queues events for a single listener and delivers them sequentially on the {@link DispatchPolicy} executor.
+ * <p>{@link #onEvent(Object)} is called by the stream reader thread, it never runs the listener itself, and waits
+ * only when the queue is full and the policy is {@link OverflowStrategy#BLOCK}.</p>
+ */
+class EventDispatcher<T> implements EventListener<T> {
+
+    //ArrayDeque doesn't accept nulls, used for queueing null events (e.g. account creation)
+    private static final Object NULL_EVENT = new Object();
+    private final EventListener<T> listener;
+    private final DispatchPolicy policy;
+    private final Telemetry telemetry;
+    private final ArrayDeque<Object> queue = new ArrayDeque<>();
+    private final Object lock = new Object();
+    private final Runnable drainTask = new Runnable() {
+        @Override
+        public void run() {
+            drain();
+        }
+    };
+    private boolean draining;
+    private boolean cancelled;
+
+    EventDispatcher(@NonNull EventListener<T> listener, @NonNull DispatchPolicy policy,
+        @NonNull Telemetry telemetry) {
+        this.listener = listener;
+        this.policy = policy;
+        this.telemetry = telemetry;
+    }
+
+    @Override
+    public void onEvent(T event) {
+        synchronized (lock) {
+            if (!enqueue(event) || draining) {
+                return;
+            }
+            draining = true;
+        }
+        schedule();
+    }
+
+    private boolean enqueue(T event) {
+        switch (policy.getOverflowStrategy()) {
+            case OverflowStrategy.COALESCE:
+                queue.clear();
+                break;
+            case OverflowStrategy.DROP_OLDEST:
+                while (queue.size() >= policy.getQueueSize()) {
+                    queue.poll();
+                    telemetry.eventDropped();
+                }
+                break;
+            case OverflowStrategy.BLOCK:
+            default:
+                while (queue.size() >= policy.getQueueSize() && !cancelled) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return false;
+                    }
+                }
+                break;
+        }
+        if (cancelled) {
+            return false;
+        }
+        Object queuedEvent = event == null ? NULL_EVENT : event;
+        //arrival time is recorded (wrapped with the event) only while metrics or tracing are enabled
+        queue.add(telemetry.isEnabled() ? new TimedEvent(queuedEvent, System.nanoTime()) : queuedEvent);
+        return true;
+    }
+
+    private void schedule() {
+        try {
+            policy.getExecutor().execute(drainTask);
+        } catch (RejectedExecutionException e) {
+            synchronized (lock) {
+                draining = false;
+                queue.clear();
+                lock.notifyAll();
+            }
+        }
+    }
+
+    private void drain() {
+        boolean completed = false;
+        try {
+            while (true) {
+                Object event;
+                synchronized (lock) {
+                    event = queue.poll();
+                    if (event == null) {
+                        draining = false;
+                        completed = true;
+                        return;
+                    }
+                    lock.notifyAll();
+                }
+                deliver(event);
+            }
+        } finally {
+            if (!completed) {
+                //listener threw, keep delivering the rest of the queued events on a new task
+                boolean reschedule;
+                synchronized (lock) {
+                    reschedule = !queue.isEmpty();
+                    draining = reschedule;
+                }
+                if (reschedule) {
+                    schedule();
+                }
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void deliver(Object event) {
+        if (event instanceof TimedEvent) {
+            deliverTimed((TimedEvent) event);
+            return;
+        }
+        listener.onEvent(event == NULL_EVENT ? null : (T) event);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void deliverTimed(TimedEvent timedEvent) {
+        KinTracer.Span eventSpan = telemetry.eventDispatched(timedEvent.arrivalTime);
+        long listenerStart = eventSpan != null ? System.nanoTime() : Telemetry.NOT_TIMED;
+        RuntimeException error = null;
+        try {
+            listener.onEvent(timedEvent.event == NULL_EVENT ? null : (T) timedEvent.event);
+        } catch (RuntimeException e) {
+            error = e;
+            throw e;
+        } finally {
+            telemetry.eventDelivered(eventSpan, listenerStart, error);
+        }
+    }
+
+    /**
+     * Drops all undelivered events and stops accepting new ones, releases a stream reader blocked on a full queue.
+     */
+    void cancel() {
+        synchronized (lock) {
+            cancelled = true;
+            queue.clear();
+            lock.notifyAll();
+        }
+    }
+
+    private static final class TimedEvent {
+
+        private final Object event;
+        private final long arrivalTime;
+
+        TimedEvent(Object event, long arrivalTime) {
+            this.event = event;
+            this.arrivalTime = arrivalTime;
+        }
+    }
+}
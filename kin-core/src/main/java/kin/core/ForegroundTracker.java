@@ -0,0 +1,87 @@
+package kin.core;
+
+
+import android.app.Activity;
+import android.app.ActivityManager;
+import android.app.ActivityManager.RunningAppProcessInfo;
+import android.app.Application;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.NonNull;
+
+/**
+ * Suspends a {@link ListenerScope} while the app is in background, and resumes it when an activity starts.
+ * <p>Started activities are counted as triggers only, activities started before registration are not counted, so the
+ * process importance is checked before suspending.</p>
+ */
+class ForegroundTracker implements Application.ActivityLifecycleCallbacks {
+
+    //grace period after the last activity stopped, rides out configuration changes and activity transitions
+    static final long BACKGROUND_DELAY_MILLIS = 1000;
+    private final ListenerScope scope;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable backgroundCheck = new Runnable() {
+        @Override
+        public void run() {
+            if (startedActivities == 0 && !isProcessVisible()) {
+                scope.suspend();
+            }
+        }
+    };
+    //accessed on the main thread only
+    private int startedActivities;
+
+    private ForegroundTracker(ListenerScope scope) {
+        this.scope = scope;
+    }
+
+    static void register(@NonNull Application application, @NonNull ListenerScope scope) {
+        if (!isProcessVisible()) {
+            scope.suspend();
+        }
+        application.registerActivityLifecycleCallbacks(new ForegroundTracker(scope));
+    }
+
+    @Override
+    public void onActivityStarted(Activity activity) {
+        startedActivities++;
+        handler.removeCallbacks(backgroundCheck);
+        scope.resume();
+    }
+
+    @Override
+    public void onActivityStopped(Activity activity) {
+        startedActivities = Math.max(0, startedActivities - 1);
+        if (startedActivities == 0) {
+            handler.removeCallbacks(backgroundCheck);
+            handler.postDelayed(backgroundCheck, BACKGROUND_DELAY_MILLIS);
+        }
+    }
+
+    @Override
+    public void onActivityCreated(Activity activity, Bundle savedInstanceState) {
+    }
+
+    @Override
+    public void onActivityResumed(Activity activity) {
+    }
+
+    @Override
+    public void onActivityPaused(Activity activity) {
+    }
+
+    @Override
+    public void onActivitySaveInstanceState(Activity activity, Bundle outState) {
+    }
+
+    @Override
+    public void onActivityDestroyed(Activity activity) {
+    }
+
+    private static boolean isProcessVisible() {
+        RunningAppProcessInfo processInfo = new RunningAppProcessInfo();
+        ActivityManager.getMyMemoryState(processInfo);
+        return processInfo.importance <= RunningAppProcessInfo.IMPORTANCE_VISIBLE;
+    }
+}
@@ -0,0 +1,193 @@
+package kin.core;
+
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import kin.core.EndpointPool.Endpoint;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.stellar.sdk.responses.HttpResponseException;
+
+/**
+ * A read sent to a primary endpoint, and also to a secondary endpoint if the primary did not respond within the
+ * hedging delay and the {@link Hedger} budget allows it. The first usable response is used and the other request is
+ * cancelled.
+ * <p>The caller holds a {@link RateLimiter} permit and the circuit breaker permission for the primary request, the
+ * secondary request is sent only if its endpoint circuit allows it and a rate limiter permit is available right
+ * away.</p>
+ */
+class HedgedRead {
+
+    private static final int HTTP_SERVER_ERROR = 500;
+    private final OkHttpClient httpClient;
+    private final EndpointPool endpointPool;
+    private final Hedger hedger;
+    private final RateLimiter rateLimiter;
+    private final Telemetry telemetry;
+    private final String route;
+    private final BlockingQueue<Outcome> outcomes = new LinkedBlockingQueue<>();
+    private final List<Call> calls = new ArrayList<>(2);
+    private boolean done;
+    private int attempts;
+    private IOException lastError;
+
+    HedgedRead(OkHttpClient httpClient, EndpointPool endpointPool, Hedger hedger, RateLimiter rateLimiter,
+        Telemetry telemetry, String route) {
+        this.httpClient = httpClient;
+        this.endpointPool = endpointPool;
+        this.hedger = hedger;
+        this.rateLimiter = rateLimiter;
+        this.telemetry = telemetry;
+        this.route = route;
+    }
+
+    /**
+     * @param delayNanos time to wait for the primary response before hedging
+     * @return the first usable response, or null if all requests sent failed, see {@link #attempts()} and {@link
+     * #lastError()}
+     * @throws InterruptedIOException waiting thread was interrupted
+     */
+    @Nullable
+    Response execute(@NonNull Request primaryRequest, @NonNull Endpoint primary, @NonNull Request secondaryRequest,
+        @NonNull Endpoint secondary, long delayNanos) throws InterruptedIOException {
+        start(primaryRequest, primary);
+        try {
+            Outcome outcome = outcomes.poll(delayNanos, TimeUnit.NANOSECONDS);
+            if (outcome == null) {
+                if (hedger.tryHedge() && endpointPool.tryAcquire(secondary)
+                    && rateLimiter.tryAcquire(System.nanoTime())) {
+                    telemetry.hedge(route);
+                    start(secondaryRequest, secondary);
+                }
+                outcome = outcomes.take();
+            }
+            int pending = attempts;
+            while (outcome.response == null) {
+                lastError = outcome.error;
+                if (--pending == 0) {
+                    finish(null);
+                    return null;
+                }
+                outcome = outcomes.take();
+            }
+            finish(outcome.call);
+            return outcome.response;
+        } catch (InterruptedException e) {
+            finish(null);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while waiting for " + route);
+        }
+    }
+
+    /**
+     * @return number of endpoints the read was sent to
+     */
+    int attempts() {
+        return attempts;
+    }
+
+    /**
+     * @return error of the last failed request, {@link HttpResponseException} for server errors, {@link
+     * RateLimitException} for rate limited requests
+     */
+    @Nullable
+    IOException lastError() {
+        return lastError;
+    }
+
+    private void start(Request request, final Endpoint endpoint) {
+        final long start = System.nanoTime();
+        final long telemetryStart = telemetry.start();
+        Call call = httpClient.newCall(request);
+        calls.add(call);
+        attempts++;
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(@NonNull Call call, @NonNull IOException e) {
+                synchronized (HedgedRead.this) {
+                    if (done) {
+                        //cancelled loser
+                        return;
+                    }
+                }
+                telemetry.httpFailure(route, e, telemetryStart);
+                endpointPool.onFailure(endpoint);
+                offer(new Outcome(call, null, e));
+            }
+
+            @Override
+            public void onResponse(@NonNull Call call, @NonNull Response response) {
+                telemetry.httpResponse(route, response.code(), telemetryStart);
+                long retryAfterMillis = rateLimiter.onResponse(response, System.nanoTime());
+                if (response.code() == RateLimiter.HTTP_TOO_MANY_REQUESTS) {
+                    telemetry.rateLimited(route, retryAfterMillis);
+                    response.close();
+                    offer(new Outcome(call, null, new RateLimitException(retryAfterMillis)));
+                } else if (response.code() >= HTTP_SERVER_ERROR) {
+                    endpointPool.onFailure(endpoint);
+                    response.close();
+                    offer(new Outcome(call, null, new HttpResponseException(response.code(), response.message())));
+                } else {
+                    long latency = System.nanoTime() - start;
+                    endpointPool.onSuccess(endpoint, latency);
+                    hedger.onLatency(latency);
+                    offer(new Outcome(call, response, null));
+                }
+            }
+        });
+    }
+
+    private void offer(Outcome outcome) {
+        synchronized (this) {
+            if (!done) {
+                outcomes.add(outcome);
+                return;
+            }
+        }
+        if (outcome.response != null) {
+            outcome.response.close();
+        }
+    }
+
+    private void finish(@Nullable Call winner) {
+        synchronized (this) {
+            done = true;
+        }
+        for (Call call : calls) {
+            if (call != winner) {
+                call.cancel();
+            }
+        }
+        Outcome outcome;
+        while ((outcome = outcomes.poll()) != null) {
+            if (outcome.response != null) {
+                outcome.response.close();
+            }
+        }
+    }
+
+    private static final class Outcome {
+
+        final Call call;
+        @Nullable
+        final Response response;
+        @Nullable
+        final IOException error;
+
+        Outcome(Call call, @Nullable Response response, @Nullable IOException error) {
+            this.call = call;
+            this.response = response;
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package kin.core;
+
+
+import android.support.annotation.Nullable;
+import java.util.Arrays;
+
+/**
+ * Decides when reads are hedged according to the {@link HedgingPolicy} in use, based on a window of recent read
+ * latencies.
+ * <p>Hedges are paid for out of a budget, every read adds the policy max hedge ratio to it and every hedge costs one,
+ * so hedged reads never exceed that ratio beyond a small burst.</p>
+ */
+class Hedger {
+
+    static final long NO_HEDGE = -1;
+    //reads measured before hedging starts, a percentile of fewer samples is meaningless
+    static final int MIN_SAMPLES = 20;
+    static final int MAX_SAMPLES = 128;
+    static final double MAX_BUDGET = 10;
+    private final long[] samples = new long[MAX_SAMPLES];
+    private HedgingPolicy policy;
+    private int sampleCount;
+    private int nextSample;
+    private double budget;
+
+    /**
+     * @param policy the policy to use, null for disabling hedging
+     */
+    synchronized void setPolicy(@Nullable HedgingPolicy policy) {
+        this.policy = policy;
+        budget = 0;
+    }
+
+    synchronized void onLatency(long latencyNanos) {
+        samples[nextSample] = latencyNanos;
+        nextSample = (nextSample + 1) % MAX_SAMPLES;
+        sampleCount = Math.min(sampleCount + 1, MAX_SAMPLES);
+    }
+
+    /**
+     * Registers a hedgeable read, adding to the budget.
+     *
+     * @return delay after which the read should be hedged, in nanoseconds, or {@link #NO_HEDGE}
+     */
+    synchronized long onRead() {
+        if (policy == null) {
+            return NO_HEDGE;
+        }
+        budget = Math.min(MAX_BUDGET, budget + policy.getMaxHedgeRatio());
+        if (sampleCount < MIN_SAMPLES) {
+            return NO_HEDGE;
+        }
+        long[] sorted = Arrays.copyOf(samples, sampleCount);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(policy.getDelayPercentile() * sampleCount) - 1;
+        return sorted[Math.max(0, index)];
+    }
+
+    /**
+     * @return true if the budget allows hedging a read, which is then charged
+     */
+    synchronized boolean tryHedge() {
+        if (budget < 1) {
+            return false;
+        }
+        budget -= 1;
+        return true;
+    }
+}
@@ -0,0 +1,46 @@
+package kin.core;
+
+
+/**
+ * Defines hedging of latency sensitive reads, such as balance and account status queries, see {@link
+ * KinClient#setHedgingPolicy(HedgingPolicy)}.
+ * <p>When a read to the best horizon endpoint does not complete within the latency percentile of recent reads, the same
+ * read is sent to the next endpoint, the first response is used and the other request is cancelled. Hedging requires
+ * multiple endpoints, see {@link ServiceProvider#ServiceProvider(java.util.List, String)}.</p>
+ */
+public final class HedgingPolicy {
+
+    private final double delayPercentile;
+    private final double maxHedgeRatio;
+
+    private HedgingPolicy(double delayPercentile, double maxHedgeRatio) {
+        this.delayPercentile = delayPercentile;
+        this.maxHedgeRatio = maxHedgeRatio;
+    }
+
+    /**
+     * Creates a hedging policy.
+     *
+     * @param delayPercentile percentile of recent reads latency after which a read is hedged, between 0 and 1, such as
+     * 0.95
+     * @param maxHedgeRatio maximum ratio of hedged reads out of all reads, between 0 and 1, such as 0.05, caps the
+     * extra load hedging puts on the endpoints
+     */
+    public static HedgingPolicy create(double delayPercentile, double maxHedgeRatio) {
+        if (!(delayPercentile > 0 && delayPercentile <= 1)) {
+            throw new IllegalArgumentException("delayPercentile must be in (0, 1].");
+        }
+        if (!(maxHedgeRatio > 0 && maxHedgeRatio <= 1)) {
+            throw new IllegalArgumentException("maxHedgeRatio must be in (0, 1].");
+        }
+        return new HedgingPolicy(delayPercentile, maxHedgeRatio);
+    }
+
+    double getDelayPercentile() {
+        return delayPercentile;
+    }
+
+    double getMaxHedgeRatio() {
+        return maxHedgeRatio;
+    }
+}
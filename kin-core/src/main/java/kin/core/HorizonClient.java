@@ -0,0 +1,669 @@
+package kin.core;
+
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.VisibleForTesting;
+import com.here.oksse.OkSse;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import kin.core.EndpointPool.Endpoint;
+import kin.core.ServiceProvider.KinAsset;
+import okhttp3.FormBody;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.stellar.sdk.Transaction;
+import org.stellar.sdk.responses.HttpResponseException;
+
+/**
+ * Horizon access, using {@link HorizonParser} for parsing only the fields kin-core needs out of the responses.
+ * <p>Requests are routed to the fastest healthy endpoint of an {@link EndpointPool}, and fail over to the next
+ * endpoints on network errors and server errors, endpoints with an open circuit breaker are skipped. All requests but
+ * streams go through a {@link RateLimiter}. Streams are kept alive and reconnected by {@link SupervisedStream}.</p>
+ */
+class HorizonClient {
+
+    private static final String PATH_ACCOUNTS = "accounts";
+    private static final String PATH_TRANSACTIONS = "transactions";
+    private static final String PATH_PAYMENTS = "payments";
+    private static final String QUERY_CURSOR = "cursor";
+    private static final String CURSOR_FUTURE_ONLY = "now";
+    private static final String QUERY_ORDER = "order";
+    private static final String QUERY_LIMIT = "limit";
+    //streams only events that happen after the stream was opened
+    private static final String CURSOR_NOW = "now";
+    private static final String PARAM_TRANSACTION = "tx";
+    //horizon responds to failed transactions with 400 and a body holding the result codes
+    private static final int HTTP_BAD_REQUEST = 400;
+    private static final String TX_FAILED_RESULT_CODE = "tx_failed";
+    private static final String TX_BAD_SEQ_RESULT_CODE = "tx_bad_seq";
+    private static final int HTTP_SERVER_ERROR = 500;
+    private static final int HTTP_NOT_MODIFIED = 304;
+    private static final int HTTP_NOT_FOUND = 404;
+    private static final String HEADER_ETAG = "ETag";
+    private static final String HEADER_IF_NONE_MATCH = "If-None-Match";
+    //attempts of a request answered with 429, each waiting for the pause horizon requested
+    private static final int MAX_RATE_LIMITED_ATTEMPTS = 3;
+    private final OkHttpClient httpClient;
+    private final OkSse okSse;
+    private final EndpointPool endpointPool;
+    private final KinAsset kinAsset;
+    private final Telemetry telemetry;
+    private final TransactionTracker transactionTracker;
+    private final Hedger hedger = new Hedger();
+    private final AccountETagCache accountETagCache = new AccountETagCache();
+    private final RateLimiter rateLimiter;
+    private final Set<SupervisedStream> streams =
+        Collections.newSetFromMap(new ConcurrentHashMap<SupervisedStream, Boolean>());
+    //account id -> stream of the account future transactions, shared by listeners and transaction awaits
+    private final ConcurrentHashMap<String, TransactionStream> accountStreams = new ConcurrentHashMap<>();
+    private volatile long streamIdleTimeoutMillis = SupervisedStream.DEFAULT_IDLE_TIMEOUT_MILLIS;
+    private volatile long streamMinBackoffMillis = SupervisedStream.DEFAULT_MIN_BACKOFF_MILLIS;
+    private volatile long streamMaxBackoffMillis = SupervisedStream.DEFAULT_MAX_BACKOFF_MILLIS;
+
+    HorizonClient(@NonNull OkHttpClient httpClient, @NonNull String url, @NonNull KinAsset kinAsset,
+        @NonNull Telemetry telemetry) {
+        this(httpClient, url, kinAsset, telemetry, new TransactionTracker());
+    }
+
+    HorizonClient(@NonNull OkHttpClient httpClient, @NonNull String url, @NonNull KinAsset kinAsset,
+        @NonNull Telemetry telemetry, @NonNull TransactionTracker transactionTracker) {
+        this(httpClient, Collections.singletonList(url), kinAsset, telemetry, transactionTracker);
+    }
+
+    HorizonClient(@NonNull OkHttpClient httpClient, @NonNull List<String> urls, @NonNull KinAsset kinAsset,
+        @NonNull Telemetry telemetry, @NonNull TransactionTracker transactionTracker) {
+        this(httpClient, urls, kinAsset, telemetry, transactionTracker, new RateLimiter());
+    }
+
+    HorizonClient(@NonNull OkHttpClient httpClient, @NonNull List<String> urls, @NonNull KinAsset kinAsset,
+        @NonNull Telemetry telemetry, @NonNull TransactionTracker transactionTracker,
+        @NonNull RateLimiter rateLimiter) {
+        List<HttpUrl> baseUrls = new ArrayList<>(urls.size());
+        for (String url : urls) {
+            HttpUrl baseUrl = url != null ? HttpUrl.parse(url) : null;
+            if (baseUrl == null) {
+                throw new IllegalArgumentException("Invalid horizon url - " + url);
+            }
+            baseUrls.add(baseUrl);
+        }
+        this.httpClient = httpClient;
+        this.okSse = new OkSse(httpClient);
+        this.endpointPool = new EndpointPool(baseUrls, telemetry);
+        this.kinAsset = kinAsset;
+        this.telemetry = telemetry;
+        this.transactionTracker = transactionTracker;
+        this.rateLimiter = rateLimiter;
+    }
+
+    /**
+     * Fetch account details.
+     *
+     * @return the account data, or null if horizon returned an empty response
+     * @throws HttpResponseException horizon returned http error, 404 if account does not exist
+     * @throws IOException network or parsing error
+     */
+    @Nullable
+    AccountData getAccount(@NonNull String accountId) throws IOException {
+        return getAccount(accountId, false);
+    }
+
+    /**
+     * Fetch account details.
+     * <p>Fetches are conditional when horizon provided an ETag for the account, an unchanged account is served from
+     * the latest fetched copy.</p>
+     *
+     * @param hedge true for hedging the read according to the {@link HedgingPolicy} in use, for latency sensitive
+     * reads
+     * @see #getAccount(String)
+     */
+    @Nullable
+    AccountData getAccount(@NonNull String accountId, boolean hedge) throws IOException {
+        AccountETagCache.Entry cached = accountETagCache.get(accountId);
+        Response response = executeRead(KinMetrics.ROUTE_ACCOUNT, hedge, cached != null ? cached.eTag() : null,
+            PATH_ACCOUNTS, accountId);
+        try {
+            if (response.code() == HTTP_NOT_MODIFIED && cached != null) {
+                return cached.accountData();
+            }
+            if (!response.isSuccessful()) {
+                accountETagCache.remove(accountId);
+                throw new HttpResponseException(response.code(), response.message());
+            }
+            ResponseBody body = response.body();
+            if (body == null || body.contentLength() == 0) {
+                accountETagCache.remove(accountId);
+                return null;
+            }
+            AccountData accountData = HorizonParser.parseAccount(body.charStream(), kinAsset);
+            String eTag = response.header(HEADER_ETAG);
+            if (eTag != null) {
+                accountETagCache.put(accountId, eTag, accountData);
+            } else {
+                accountETagCache.remove(accountId);
+            }
+            return accountData;
+        } finally {
+            response.close();
+        }
+    }
+
+    /**
+     * Fetch a transaction by its hash, the outcome is recorded in the {@link TransactionTracker}.
+     *
+     * @return the transaction, or null if horizon returned an empty response
+     * @throws HttpResponseException horizon returned http error, 404 if transaction is not on the blockchain
+     * @throws IOException network or parsing error
+     */
+    @Nullable
+    TransactionData getTransaction(@NonNull String hash) throws IOException {
+        Response response = executeRead(KinMetrics.ROUTE_TRANSACTION, false, null, PATH_TRANSACTIONS, hash);
+        return parseTransaction(response);
+    }
+
+    @Nullable
+    private TransactionData parseTransaction(Response response) throws IOException {
+        try {
+            if (!response.isSuccessful()) {
+                throw new HttpResponseException(response.code(), response.message());
+            }
+            ResponseBody body = response.body();
+            if (body == null || body.contentLength() == 0) {
+                return null;
+            }
+            TransactionData transaction = HorizonParser.parseTransaction(body.charStream());
+            transactionTracker.onTransaction(transaction);
+            return transaction;
+        } finally {
+            response.close();
+        }
+    }
+
+    /**
+     * Submits a signed transaction, and waits for the ledger it was included in to close.
+     * <p>Submission fails over to the next endpoint on network errors and server errors. As the transaction may have
+     * been applied by a failed attempt, a {@code tx_bad_seq} result of a later attempt is resolved by looking up the
+     * transaction.</p>
+     *
+     * @return the submit result, successful or failed transaction, or null if horizon returned an empty response
+     * @throws HttpResponseException horizon returned http error other than a failed transaction
+     * @throws IOException network or parsing error
+     */
+    @Nullable
+    SubmitResult submitTransaction(@NonNull Transaction transaction) throws IOException {
+        FormBody formBody = new FormBody.Builder()
+            .add(PARAM_TRANSACTION, transaction.toEnvelopeXdrBase64())
+            .build();
+        String hash = Utils.bytesToHex(transaction.hash());
+        transactionTracker.onSubmitted(hash, transaction.getSourceAccount().getAccountId());
+        IOException lastError = null;
+        int attempt = 0;
+        for (Endpoint endpoint : endpointPool.ranked()) {
+            if (!endpointPool.tryAcquire(endpoint)) {
+                continue;
+            }
+            if (++attempt > 1) {
+                telemetry.retry(KinMetrics.ROUTE_SUBMIT_TRANSACTION, attempt);
+            }
+            HttpUrl url = endpoint.baseUrl().newBuilder()
+                .addPathSegment(PATH_TRANSACTIONS)
+                .build();
+            long submitStart = telemetry.start();
+            Response response;
+            try {
+                response = execute(new Request.Builder().url(url).post(formBody).build(),
+                    KinMetrics.ROUTE_SUBMIT_TRANSACTION, RateLimiter.PRIORITY_SUBMIT);
+            } catch (RateLimitException e) {
+                throw e;
+            } catch (IOException e) {
+                endpointPool.onFailure(endpoint);
+                lastError = e;
+                continue;
+            }
+            telemetry.phase(TransactionPhase.SUBMIT, submitStart);
+            if (response.code() >= HTTP_SERVER_ERROR) {
+                endpointPool.onFailure(endpoint);
+                response.close();
+                lastError = new HttpResponseException(response.code(), response.message());
+                continue;
+            }
+            //submit latency includes ledger close time, it's not a measure of the endpoint
+            endpointPool.onAvailable(endpoint);
+            SubmitResult result = parseSubmitResult(response, hash);
+            if (attempt > 1 && result != null && TX_BAD_SEQ_RESULT_CODE.equals(result.getTransactionResultCode())) {
+                return resolveBadSequence(endpoint, hash, result);
+            }
+            return result;
+        }
+        throw lastError != null ? lastError : new CircuitOpenIOException(endpointPool.getRetryAfterMillis());
+    }
+
+    @Nullable
+    private SubmitResult parseSubmitResult(Response response, String hash) throws IOException {
+        try {
+            if (!response.isSuccessful() && response.code() != HTTP_BAD_REQUEST) {
+                throw new HttpResponseException(response.code(), response.message());
+            }
+            long parseStart = telemetry.start();
+            ResponseBody body = response.body();
+            if (body == null || body.contentLength() == 0) {
+                return null;
+            }
+            SubmitResult result = HorizonParser.parseSubmitResult(body.charStream());
+            telemetry.phase(TransactionPhase.RESULT_PARSE, parseStart);
+            telemetry.transactionResult(result.getTransactionResultCode(), result.getOperationsResultCodes());
+            if (result.isSuccess()) {
+                transactionTracker.onResult(hash, TransactionStatus.SUCCEEDED);
+            } else if (TX_FAILED_RESULT_CODE.equals(result.getTransactionResultCode())) {
+                //other failures are rejections, the transaction was not included in a ledger
+                transactionTracker.onResult(hash, TransactionStatus.FAILED);
+            }
+            return result;
+        } finally {
+            response.close();
+        }
+    }
+
+    /**
+     * A failed over submission was rejected for its sequence number, which is the case when a previous attempt was
+     * applied after all.
+     */
+    private SubmitResult resolveBadSequence(Endpoint endpoint, String hash, SubmitResult badSequenceResult)
+        throws IOException {
+        HttpUrl url = endpoint.baseUrl().newBuilder()
+            .addPathSegment(PATH_TRANSACTIONS)
+            .addPathSegment(hash)
+            .build();
+        TransactionData transaction;
+        try {
+            transaction = parseTransaction(execute(new Request.Builder().url(url).get().build(),
+                KinMetrics.ROUTE_TRANSACTION, RateLimiter.PRIORITY_SUBMIT));
+        } catch (HttpResponseException e) {
+            return badSequenceResult;
+        }
+        if (transaction == null) {
+            return badSequenceResult;
+        }
+        return transaction.isSuccessful() ? new SubmitResult(hash, 0, null, null) :
+            new SubmitResult(null, 0, TX_FAILED_RESULT_CODE, null);
+    }
+
+    /**
+     * Measures latency of all endpoints using a request to the horizon root, unreachable endpoints are marked
+     * unhealthy. Health checks are background requests, skipped when rate limited, and serve as trial requests of
+     * half open circuits.
+     */
+    void checkHealth() {
+        for (Endpoint endpoint : endpointPool.all()) {
+            if (!endpointPool.tryAcquire(endpoint)) {
+                continue;
+            }
+            long start = System.nanoTime();
+            try {
+                Response response = execute(new Request.Builder().url(endpoint.baseUrl()).get().build(),
+                    KinMetrics.ROUTE_ROOT, RateLimiter.PRIORITY_BACKGROUND);
+                response.close();
+                if (response.code() >= HTTP_SERVER_ERROR) {
+                    endpointPool.onFailure(endpoint);
+                } else {
+                    endpointPool.onSuccess(endpoint, System.nanoTime() - start);
+                }
+            } catch (RateLimitException e) {
+                //not worth waiting for, endpoints are ranked as requests go
+                return;
+            } catch (IOException e) {
+                endpointPool.onFailure(endpoint);
+            }
+        }
+    }
+
+    /**
+     * Executes a GET request on the best endpoint, failing over to the next endpoints on network errors and server
+     * errors. Endpoints with an open circuit are skipped.
+     *
+     * @param hedge true for hedging the request on the two best endpoints, see {@link HedgedRead}
+     * @param eTag ETag of the cached resource for a conditional request, null for none
+     * @throws CircuitOpenIOException all endpoints have an open circuit
+     */
+    private Response executeRead(String route, boolean hedge, @Nullable String eTag, String... pathSegments)
+        throws IOException {
+        List<Endpoint> endpoints = endpointPool.ranked();
+        IOException lastError = null;
+        int first = 0;
+        int attempt = 0;
+        long hedgeDelay = hedge && endpoints.size() > 1 ? hedger.onRead() : Hedger.NO_HEDGE;
+        if (hedgeDelay != Hedger.NO_HEDGE && endpointPool.tryAcquire(endpoints.get(0))) {
+            acquirePermit(route, RateLimiter.PRIORITY_READ);
+            HedgedRead hedgedRead = new HedgedRead(httpClient, endpointPool, hedger, rateLimiter, telemetry, route);
+            Response response = hedgedRead.execute(createReadRequest(endpoints.get(0), eTag, pathSegments),
+                endpoints.get(0), createReadRequest(endpoints.get(1), eTag, pathSegments), endpoints.get(1),
+                hedgeDelay);
+            if (response != null) {
+                return response;
+            }
+            first = hedgedRead.attempts();
+            attempt = hedgedRead.attempts();
+            lastError = hedgedRead.lastError();
+        }
+        for (int i = first; i < endpoints.size(); i++) {
+            Endpoint endpoint = endpoints.get(i);
+            if (!endpointPool.tryAcquire(endpoint)) {
+                continue;
+            }
+            if (++attempt > 1) {
+                telemetry.retry(route, attempt);
+            }
+            long start = System.nanoTime();
+            Response response;
+            try {
+                response = execute(createReadRequest(endpoint, eTag, pathSegments), route,
+                    RateLimiter.PRIORITY_READ);
+            } catch (RateLimitException e) {
+                throw e;
+            } catch (IOException e) {
+                endpointPool.onFailure(endpoint);
+                lastError = e;
+                continue;
+            }
+            if (response.code() >= HTTP_SERVER_ERROR) {
+                endpointPool.onFailure(endpoint);
+                response.close();
+                lastError = new HttpResponseException(response.code(), response.message());
+                continue;
+            }
+            long latency = System.nanoTime() - start;
+            endpointPool.onSuccess(endpoint, latency);
+            hedger.onLatency(latency);
+            return response;
+        }
+        throw lastError != null ? lastError : new CircuitOpenIOException(endpointPool.getRetryAfterMillis());
+    }
+
+    /**
+     * Responses are gzip compressed, OkHttp requests it and decompresses transparently as long as no
+     * {@code Accept-Encoding} header is set here.
+     */
+    private Request createReadRequest(Endpoint endpoint, @Nullable String eTag, String... pathSegments) {
+        HttpUrl.Builder urlBuilder = endpoint.baseUrl().newBuilder();
+        for (String pathSegment : pathSegments) {
+            urlBuilder.addPathSegment(pathSegment);
+        }
+        Request.Builder requestBuilder = new Request.Builder().url(urlBuilder.build()).get();
+        if (eTag != null) {
+            requestBuilder.header(HEADER_IF_NONE_MATCH, eTag);
+        }
+        return requestBuilder.build();
+    }
+
+    /**
+     * @param policy hedging policy of latency sensitive reads, null for not hedging
+     */
+    void setHedgingPolicy(@Nullable HedgingPolicy policy) {
+        hedger.setPolicy(policy);
+    }
+
+    /**
+     * @param permitsPerSecond client side request rate limit, 0 for no client side limit
+     * @param burst max requests sent at once after an idle period
+     */
+    void setRateLimit(double permitsPerSecond, int burst) {
+        rateLimiter.setRate(permitsPerSecond, burst);
+    }
+
+    /**
+     * Executes a request once a rate limiter permit is granted, requests answered with 429 are retried after the pause
+     * requested by horizon.
+     *
+     * @param priority one of the {@link RateLimiter} {@code PRIORITY_} constants
+     * @throws RateLimitException request was shed by the rate limiter, or still rate limited by horizon
+     */
+    private Response execute(Request request, String route, int priority) throws IOException {
+        for (int attempt = 1; ; attempt++) {
+            acquirePermit(route, priority);
+            long start = telemetry.start();
+            Response response;
+            try {
+                response = httpClient.newCall(request).execute();
+            } catch (IOException e) {
+                telemetry.httpFailure(route, e, start);
+                throw e;
+            }
+            telemetry.httpResponse(route, response.code(), start);
+            long retryAfterMillis = rateLimiter.onResponse(response, System.nanoTime());
+            if (response.code() != RateLimiter.HTTP_TOO_MANY_REQUESTS) {
+                return response;
+            }
+            response.close();
+            telemetry.rateLimited(route, retryAfterMillis);
+            if (attempt == MAX_RATE_LIMITED_ATTEMPTS) {
+                throw new RateLimitException(retryAfterMillis);
+            }
+            telemetry.retry(route, attempt + 1);
+        }
+    }
+
+    private void acquirePermit(String route, int priority) throws IOException {
+        long wait;
+        try {
+            wait = rateLimiter.reserve(priority, System.nanoTime());
+        } catch (RateLimitException e) {
+            telemetry.rateLimitShed(route);
+            throw e;
+        }
+        if (wait > 0) {
+            telemetry.rateLimitWait(route, wait);
+            try {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("interrupted while rate limited, " + route);
+            }
+        }
+    }
+
+    /**
+     * Shared stream of future transactions of an account, a single connection serves all of its subscribers. The
+     * connection is open only while there are subscribers.
+     */
+    @NonNull
+    TransactionStream accountTransactions(@NonNull String accountId) {
+        TransactionStream stream = accountStreams.get(accountId);
+        if (stream == null) {
+            TransactionStream created = new TransactionStream(this, accountId, CURSOR_FUTURE_ONLY);
+            stream = accountStreams.putIfAbsent(accountId, created);
+            if (stream == null) {
+                stream = created;
+            }
+        }
+        return stream;
+    }
+
+    /**
+     * Opens a server sent events stream of transactions concerning the specified account.
+     *
+     * @param cursor stream start position, null for streaming from the first transaction
+     */
+    @NonNull
+    SupervisedStream streamTransactions(@NonNull String accountId, @Nullable String cursor,
+        @NonNull EventListener<TransactionData> listener) {
+        return openStream(cursor, new JsonStreamSource<TransactionData>(KinMetrics.ROUTE_STREAM_TRANSACTIONS, listener,
+            KinMetrics.ROUTE_ACCOUNT_TRANSACTIONS, PATH_ACCOUNTS, accountId, PATH_TRANSACTIONS) {
+            @Override
+            TransactionData parse(String json) throws IOException {
+                TransactionData transaction = HorizonParser.parseTransaction(new StringReader(json));
+                transactionTracker.onTransaction(transaction);
+                return transaction;
+            }
+        });
+    }
+
+    /**
+     * Opens a server sent events stream of all kin payments on the network.
+     *
+     * @param cursor stream start position, null for streaming from the first payment
+     */
+    @NonNull
+    SupervisedStream streamPayments(@Nullable String cursor, @NonNull EventListener<PaymentInfo> listener) {
+        return openStream(cursor, new JsonStreamSource<PaymentInfo>(KinMetrics.ROUTE_STREAM_PAYMENTS, listener,
+            KinMetrics.ROUTE_PAYMENTS, PATH_PAYMENTS) {
+            @Override
+            PaymentInfo parse(String json) throws IOException {
+                return HorizonParser.parseKinPayment(new StringReader(json), kinAsset);
+            }
+        });
+    }
+
+    /**
+     * Network connectivity was restored or the network changed, open streams reconnect right away, as their
+     * connections might be bound to a network that is gone.
+     */
+    void onNetworkRestored() {
+        for (SupervisedStream stream : streams) {
+            if (stream.getState() == StreamState.CLOSED) {
+                streams.remove(stream);
+            } else {
+                stream.reconnectNow();
+            }
+        }
+    }
+
+    /**
+     * @param idleTimeoutMillis idle timeout of streams opened from now on, 0 for default
+     */
+    void setStreamIdleTimeout(long idleTimeoutMillis) {
+        this.streamIdleTimeoutMillis =
+            idleTimeoutMillis > 0 ? idleTimeoutMillis : SupervisedStream.DEFAULT_IDLE_TIMEOUT_MILLIS;
+    }
+
+    @VisibleForTesting
+    void setStreamTimeouts(long idleTimeoutMillis, long minBackoffMillis, long maxBackoffMillis) {
+        this.streamIdleTimeoutMillis = idleTimeoutMillis;
+        this.streamMinBackoffMillis = minBackoffMillis;
+        this.streamMaxBackoffMillis = maxBackoffMillis;
+    }
+
+    private SupervisedStream openStream(@Nullable String cursor, JsonStreamSource<?> source) {
+        //closed streams are dropped here, as well as on network changes
+        for (SupervisedStream stream : streams) {
+            if (stream.getState() == StreamState.CLOSED) {
+                streams.remove(stream);
+            }
+        }
+        SupervisedStream stream = new SupervisedStream(okSse, source, telemetry, source.route, cursor,
+            streamIdleTimeoutMillis, streamMinBackoffMillis, streamMaxBackoffMillis);
+        streams.add(stream);
+        stream.start();
+        return stream;
+    }
+
+    /**
+     * Stream source, which also routes the stream to the best endpoint when opened or reconnecting.
+     */
+    private abstract class JsonStreamSource<T> implements SupervisedStream.Source {
+
+        private final String route;
+        private final EventListener<T> listener;
+        //route of the request resolving the latest position of the stream
+        private final String cursorRoute;
+        private final String[] pathSegments;
+        private volatile Endpoint endpoint;
+
+        JsonStreamSource(String route, EventListener<T> listener, String cursorRoute, String... pathSegments) {
+            this.route = route;
+            this.listener = listener;
+            this.cursorRoute = cursorRoute;
+            this.pathSegments = pathSegments;
+        }
+
+        @NonNull
+        @Override
+        public Request createRequest(@Nullable String cursor) {
+            endpoint = endpointPool.best();
+            HttpUrl.Builder urlBuilder = createUrlBuilder(endpoint);
+            if (cursor != null) {
+                urlBuilder.addQueryParameter(QUERY_CURSOR, cursor);
+            }
+            return new Request.Builder().url(urlBuilder.build()).build();
+        }
+
+        @Nullable
+        @Override
+        public String resolveCursor(@Nullable String cursor) {
+            if (!CURSOR_NOW.equals(cursor)) {
+                return cursor;
+            }
+            //latest record, its paging token is the position of "now"
+            HttpUrl url = createUrlBuilder(endpointPool.best())
+                .addQueryParameter(QUERY_ORDER, "desc")
+                .addQueryParameter(QUERY_LIMIT, "1")
+                .build();
+            try {
+                Response response = execute(new Request.Builder().url(url).get().build(), cursorRoute,
+                    RateLimiter.PRIORITY_READ);
+                try {
+                    if (response.code() == HTTP_NOT_FOUND) {
+                        //account not created yet, streaming from the start misses nothing
+                        return null;
+                    }
+                    ResponseBody body = response.body();
+                    if (!response.isSuccessful() || body == null) {
+                        return cursor;
+                    }
+                    return HorizonParser.parseLatestPagingToken(body.charStream());
+                } finally {
+                    response.close();
+                }
+            } catch (IOException | RuntimeException e) {
+                return cursor;
+            }
+        }
+
+        private HttpUrl.Builder createUrlBuilder(Endpoint endpoint) {
+            HttpUrl.Builder urlBuilder = endpoint.baseUrl().newBuilder();
+            for (String pathSegment : pathSegments) {
+                urlBuilder.addPathSegment(pathSegment);
+            }
+            return urlBuilder;
+        }
+
+        /**
+         * @return parsed event, or null if event should be ignored
+         */
+        @Nullable
+        abstract T parse(String json) throws IOException;
+
+        @Override
+        public void onMessage(@NonNull String message) {
+            //horizon sends a "hello" message when stream is opened, only json objects are actual events
+            if (!message.startsWith("{")) {
+                return;
+            }
+            T data;
+            try {
+                data = parse(message);
+            } catch (IOException | RuntimeException e) {
+                //skip the event, the stream carries on with the next ones
+                telemetry.eventParseFailure(route, e);
+                return;
+            }
+            if (data != null) {
+                listener.onEvent(data);
+            }
+        }
+
+        @Override
+        public void onFailure() {
+            endpointPool.onFailure(endpoint);
+        }
+    }
+}
@@ -0,0 +1,375 @@
+package kin.core;
+
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import kin.core.ServiceProvider.KinAsset;
+
+/**
+ * Streaming parser for horizon responses, pulls out only the fields kin-core uses and skips everything else
+ * (links, thresholds, flags, data entries, signatures, fee meta etc.) without materializing it.
+ */
+final class HorizonParser {
+
+    private static final String MEMO_TYPE_TEXT = "text";
+    private static final String OPERATION_TYPE_PAYMENT = "payment";
+
+    private HorizonParser() {
+        //no instances
+    }
+
+    /**
+     * Parses horizon account response (/accounts/{account_id}).
+     *
+     * @param kinAsset the kin asset, used to pick the kin balance out of the account balances
+     */
+    @NonNull
+    static AccountData parseAccount(@NonNull Reader reader, @NonNull KinAsset kinAsset) throws IOException {
+        JsonReader jsonReader = new JsonReader(reader);
+        String accountId = null;
+        long sequenceNumber = 0;
+        BigDecimal kinBalance = null;
+        int masterKeyWeight = AccountData.NO_SIGNER_WEIGHT;
+        long lastModifiedLedger = 0;
+
+        jsonReader.beginObject();
+        while (jsonReader.hasNext()) {
+            switch (jsonReader.nextName()) {
+                case "account_id":
+                    accountId = jsonReader.nextString();
+                    break;
+                case "sequence":
+                    sequenceNumber = Long.parseLong(jsonReader.nextString());
+                    break;
+                case "balances":
+                    kinBalance = parseKinBalance(jsonReader, kinAsset);
+                    break;
+                case "signers":
+                    masterKeyWeight = parseFirstSignerWeight(jsonReader);
+                    break;
+                case "last_modified_ledger":
+                    lastModifiedLedger = jsonReader.nextLong();
+                    break;
+                default:
+                    jsonReader.skipValue();
+            }
+        }
+        jsonReader.endObject();
+
+        if (accountId == null) {
+            throw new IOException("Unexpected account response - missing account id");
+        }
+        return new AccountData(accountId, sequenceNumber, kinBalance, masterKeyWeight, lastModifiedLedger);
+    }
+
+    @Nullable
+    private static BigDecimal parseKinBalance(JsonReader jsonReader, KinAsset kinAsset) throws IOException {
+        BigDecimal kinBalance = null;
+        jsonReader.beginArray();
+        while (jsonReader.hasNext()) {
+            String balance = null;
+            String assetCode = null;
+            String assetIssuer = null;
+            jsonReader.beginObject();
+            while (jsonReader.hasNext()) {
+                switch (jsonReader.nextName()) {
+                    case "balance":
+                        balance = jsonReader.nextString();
+                        break;
+                    case "asset_code":
+                        assetCode = jsonReader.nextString();
+                        break;
+                    case "asset_issuer":
+                        assetIssuer = jsonReader.nextString();
+                        break;
+                    default:
+                        jsonReader.skipValue();
+                }
+            }
+            jsonReader.endObject();
+            if (kinBalance == null && balance != null && kinAsset.isKinAsset(assetCode, assetIssuer)) {
+                kinBalance = new BigDecimal(balance);
+            }
+        }
+        jsonReader.endArray();
+        return kinBalance;
+    }
+
+    private static int parseFirstSignerWeight(JsonReader jsonReader) throws IOException {
+        int weight = AccountData.NO_SIGNER_WEIGHT;
+        jsonReader.beginArray();
+        while (jsonReader.hasNext()) {
+            if (weight != AccountData.NO_SIGNER_WEIGHT) {
+                jsonReader.skipValue();
+                continue;
+            }
+            jsonReader.beginObject();
+            while (jsonReader.hasNext()) {
+                if ("weight".equals(jsonReader.nextName())) {
+                    weight = jsonReader.nextInt();
+                } else {
+                    jsonReader.skipValue();
+                }
+            }
+            jsonReader.endObject();
+        }
+        jsonReader.endArray();
+        return weight;
+    }
+
+    /**
+     * Parses horizon transaction response (/transactions/{hash} or a single transactions stream event).
+     */
+    @NonNull
+    static TransactionData parseTransaction(@NonNull Reader reader) throws IOException {
+        JsonReader jsonReader = new JsonReader(reader);
+        String hash = null;
+        String createdAt = null;
+        String sourceAccount = null;
+        String pagingToken = null;
+        String memoType = null;
+        String memo = null;
+        String envelopeXdr = null;
+        String resultMetaXdr = null;
+        //older horizon versions record only successful transactions, with no successful field
+        boolean successful = true;
+
+        jsonReader.beginObject();
+        while (jsonReader.hasNext()) {
+            switch (jsonReader.nextName()) {
+                case "hash":
+                    hash = jsonReader.nextString();
+                    break;
+                case "created_at":
+                    createdAt = jsonReader.nextString();
+                    break;
+                case "source_account":
+                    sourceAccount = jsonReader.nextString();
+                    break;
+                case "paging_token":
+                    pagingToken = jsonReader.nextString();
+                    break;
+                case "memo_type":
+                    memoType = jsonReader.nextString();
+                    break;
+                case "memo":
+                    memo = nextNullableString(jsonReader);
+                    break;
+                case "envelope_xdr":
+                    envelopeXdr = jsonReader.nextString();
+                    break;
+                case "result_meta_xdr":
+                    resultMetaXdr = jsonReader.nextString();
+                    break;
+                case "successful":
+                    successful = jsonReader.nextBoolean();
+                    break;
+                default:
+                    jsonReader.skipValue();
+            }
+        }
+        jsonReader.endObject();
+
+        if (hash == null) {
+            throw new IOException("Unexpected transaction response - missing hash");
+        }
+        return new TransactionData(hash, createdAt, sourceAccount, pagingToken,
+            MEMO_TYPE_TEXT.equals(memoType) ? memo : null, envelopeXdr, resultMetaXdr, successful);
+    }
+
+    /**
+     * Parses horizon payments stream operation (/payments).
+     * <p>Operation records carry no memo, returned payments memo is always null.</p>
+     *
+     * @return the payment, or null if the operation is not a kin payment
+     */
+    @Nullable
+    static PaymentInfo parseKinPayment(@NonNull Reader reader, @NonNull KinAsset kinAsset) throws IOException {
+        JsonReader jsonReader = new JsonReader(reader);
+        String type = null;
+        String createdAt = null;
+        String transactionHash = null;
+        String from = null;
+        String to = null;
+        String amount = null;
+        String assetCode = null;
+        String assetIssuer = null;
+
+        jsonReader.beginObject();
+        while (jsonReader.hasNext()) {
+            switch (jsonReader.nextName()) {
+                case "type":
+                    type = jsonReader.nextString();
+                    break;
+                case "created_at":
+                    createdAt = jsonReader.nextString();
+                    break;
+                case "transaction_hash":
+                    transactionHash = jsonReader.nextString();
+                    break;
+                case "from":
+                    from = jsonReader.nextString();
+                    break;
+                case "to":
+                    to = jsonReader.nextString();
+                    break;
+                case "amount":
+                    amount = jsonReader.nextString();
+                    break;
+                case "asset_code":
+                    assetCode = jsonReader.nextString();
+                    break;
+                case "asset_issuer":
+                    assetIssuer = jsonReader.nextString();
+                    break;
+                default:
+                    jsonReader.skipValue();
+            }
+        }
+        jsonReader.endObject();
+
+        if (!OPERATION_TYPE_PAYMENT.equals(type) || !kinAsset.isKinAsset(assetCode, assetIssuer)) {
+            return null;
+        }
+        if (from == null || to == null || amount == null || transactionHash == null) {
+            throw new IOException("Unexpected payment response - missing payment fields");
+        }
+        return new PaymentInfoImpl(createdAt, to, from, new BigDecimal(amount), new TransactionIdImpl(transactionHash),
+            null);
+    }
+
+    /**
+     * Parses horizon transaction submit response, both success (200) and transaction failure (400) responses.
+     */
+    @NonNull
+    static SubmitResult parseSubmitResult(@NonNull Reader reader) throws IOException {
+        JsonReader jsonReader = new JsonReader(reader);
+        String hash = null;
+        long ledger = 0;
+        SubmitResult failure = null;
+
+        jsonReader.beginObject();
+        while (jsonReader.hasNext()) {
+            switch (jsonReader.nextName()) {
+                case "hash":
+                    hash = jsonReader.nextString();
+                    break;
+                case "ledger":
+                    ledger = jsonReader.nextLong();
+                    break;
+                case "extras":
+                    failure = parseSubmitExtras(jsonReader);
+                    break;
+                default:
+                    jsonReader.skipValue();
+            }
+        }
+        jsonReader.endObject();
+
+        if (failure != null) {
+            return failure;
+        }
+        return new SubmitResult(hash, ledger, null, null);
+    }
+
+    private static SubmitResult parseSubmitExtras(JsonReader jsonReader) throws IOException {
+        String transactionResultCode = null;
+        List<String> operationsResultCodes = null;
+        jsonReader.beginObject();
+        while (jsonReader.hasNext()) {
+            if (!"result_codes".equals(jsonReader.nextName()) || jsonReader.peek() != JsonToken.BEGIN_OBJECT) {
+                jsonReader.skipValue();
+                continue;
+            }
+            jsonReader.beginObject();
+            while (jsonReader.hasNext()) {
+                switch (jsonReader.nextName()) {
+                    case "transaction":
+                        transactionResultCode = nextNullableString(jsonReader);
+                        break;
+                    case "operations":
+                        operationsResultCodes = parseStringArray(jsonReader);
+                        break;
+                    default:
+                        jsonReader.skipValue();
+                }
+            }
+            jsonReader.endObject();
+        }
+        jsonReader.endObject();
+        return new SubmitResult(null, 0, transactionResultCode, operationsResultCodes);
+    }
+
+    /**
+     * Parses the first record paging token of a horizon records page ({@code ?order=desc&limit=1} for the latest).
+     *
+     * @return the paging token, or null if the page is empty
+     */
+    @Nullable
+    static String parseLatestPagingToken(@NonNull Reader reader) throws IOException {
+        JsonReader jsonReader = new JsonReader(reader);
+        String pagingToken = null;
+        jsonReader.beginObject();
+        while (jsonReader.hasNext()) {
+            if (!"_embedded".equals(jsonReader.nextName())) {
+                jsonReader.skipValue();
+                continue;
+            }
+            jsonReader.beginObject();
+            while (jsonReader.hasNext()) {
+                if (!"records".equals(jsonReader.nextName())) {
+                    jsonReader.skipValue();
+                    continue;
+                }
+                jsonReader.beginArray();
+                while (jsonReader.hasNext()) {
+                    jsonReader.beginObject();
+                    while (jsonReader.hasNext()) {
+                        String name = jsonReader.nextName();
+                        if (pagingToken == null && "paging_token".equals(name)) {
+                            pagingToken = jsonReader.nextString();
+                        } else {
+                            jsonReader.skipValue();
+                        }
+                    }
+                    jsonReader.endObject();
+                }
+                jsonReader.endArray();
+            }
+            jsonReader.endObject();
+        }
+        jsonReader.endObject();
+        return pagingToken;
+    }
+
+    @Nullable
+    private static List<String> parseStringArray(JsonReader jsonReader) throws IOException {
+        if (jsonReader.peek() == JsonToken.NULL) {
+            jsonReader.nextNull();
+            return null;
+        }
+        List<String> values = new ArrayList<>();
+        jsonReader.beginArray();
+        while (jsonReader.hasNext()) {
+            values.add(jsonReader.nextString());
+        }
+        jsonReader.endArray();
+        return values;
+    }
+
+    @Nullable
+    private static String nextNullableString(JsonReader jsonReader) throws IOException {
+        if (jsonReader.peek() == JsonToken.NULL) {
+            jsonReader.nextNull();
+            return null;
+        }
+        return jsonReader.nextString();
+    }
+}
@@ -0,0 +1,75 @@
+package kin.core;
+
+
+import org.libsodium.jni.Sodium;
+
+/**
+ * Picks key derivation limits that take about a target duration on the current device.
+ * <p>Limits never go below libsodium interactive limits, memory is grown first (up to moderate limit), as it's the
+ * more effective protection against hardware attacks, then ops (up to sensitive limit). Each memory step and the
+ * final limits are measured, a derivation that fails (e.g. out of memory) or overshoots the target is not used.</p>
+ */
+final class KdfCalibrator {
+
+    private static final int HASH_LENGTH_BYTES = 32;
+    private static final int SALT_LENGTH_BYTES = 16;
+    private static final long FAILED = -1;
+
+    private KdfCalibrator() {
+        //no instances
+    }
+
+    static KdfParams calibrate(long targetDurationMillis) {
+        int opsLimit = Sodium.crypto_pwhash_opslimit_interactive();
+        int memLimit = Sodium.crypto_pwhash_memlimit_interactive();
+        long durationMillis = measure(opsLimit, memLimit);
+        if (durationMillis == FAILED) {
+            return KdfParams.interactive();
+        }
+        durationMillis = Math.max(1, durationMillis);
+
+        while ((long) memLimit * 2 <= Sodium.crypto_pwhash_memlimit_moderate()) {
+            long stepDurationMillis = measure(opsLimit, memLimit * 2);
+            if (stepDurationMillis == FAILED || stepDurationMillis > targetDurationMillis) {
+                break;
+            }
+            memLimit *= 2;
+            durationMillis = Math.max(1, stepDurationMillis);
+        }
+
+        //derivation time is roughly linear in ops
+        int scaledOpsLimit = scaleOpsLimit(opsLimit, targetDurationMillis, durationMillis);
+        if (scaledOpsLimit > opsLimit) {
+            long scaledDurationMillis = measure(scaledOpsLimit, memLimit);
+            if (scaledDurationMillis != FAILED) {
+                opsLimit = scaledDurationMillis > targetDurationMillis ?
+                    scaleOpsLimit(scaledOpsLimit, targetDurationMillis, Math.max(1, scaledDurationMillis))
+                    : scaledOpsLimit;
+            }
+        }
+        return new KdfParams(opsLimit, memLimit);
+    }
+
+    private static int scaleOpsLimit(int opsLimit, long targetDurationMillis, long durationMillis) {
+        long scaledOpsLimit = opsLimit * targetDurationMillis / durationMillis;
+        return (int) Math.max(Sodium.crypto_pwhash_opslimit_interactive(),
+            Math.min(scaledOpsLimit, Sodium.crypto_pwhash_opslimit_sensitive()));
+    }
+
+    /**
+     * @return derivation duration in millis, {@link #FAILED} if derivation failed
+     */
+    private static long measure(int opsLimit, int memLimit) {
+        byte[] passphrase = new byte[HASH_LENGTH_BYTES];
+        byte[] salt = new byte[SALT_LENGTH_BYTES];
+        Sodium.randombytes_buf(passphrase, passphrase.length);
+        Sodium.randombytes_buf(salt, salt.length);
+        byte[] hash = new byte[HASH_LENGTH_BYTES];
+        long start = System.nanoTime();
+        if (Sodium.crypto_pwhash(hash, HASH_LENGTH_BYTES, passphrase, passphrase.length, salt, opsLimit, memLimit,
+            Sodium.crypto_pwhash_alg_default()) != 0) {
+            return FAILED;
+        }
+        return (System.nanoTime() - start) / 1000000;
+    }
+}
@@ -0,0 +1,49 @@
+package kin.core;
+
+
+import org.libsodium.jni.Sodium;
+
+/**
+ * Backup key derivation (crypto_pwhash) cost parameters.
+ */
+final class KdfParams {
+
+    private final int opsLimit;
+    private final int memLimit;
+
+    KdfParams(int opsLimit, int memLimit) {
+        this.opsLimit = opsLimit;
+        this.memLimit = memLimit;
+    }
+
+    /**
+     * libsodium interactive limits, used by backups that do not specify their parameters.
+     */
+    static KdfParams interactive() {
+        return new KdfParams(Sodium.crypto_pwhash_opslimit_interactive(), Sodium.crypto_pwhash_memlimit_interactive());
+    }
+
+    int getOpsLimit() {
+        return opsLimit;
+    }
+
+    int getMemLimit() {
+        return memLimit;
+    }
+
+    /**
+     * @return true if limits are between libsodium interactive limits, and moderate memory limit and sensitive ops
+     * limit, the range used for exports
+     */
+    static boolean isWithinLimits(long opsLimit, long memLimit) {
+        return opsLimit >= Sodium.crypto_pwhash_opslimit_interactive()
+            && opsLimit <= Sodium.crypto_pwhash_opslimit_sensitive()
+            && memLimit >= Sodium.crypto_pwhash_memlimit_interactive()
+            && memLimit <= Sodium.crypto_pwhash_memlimit_moderate();
+    }
+
+    boolean isInteractive() {
+        return opsLimit == Sodium.crypto_pwhash_opslimit_interactive()
+            && memLimit == Sodium.crypto_pwhash_memlimit_interactive();
+    }
+}
@@ -1,6 +1,7 @@
 package kin.core;
 
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 import java.util.List;
 import kin.core.exception.CorruptedDataException;
 import kin.core.exception.CreateAccountException;
@@ -17,7 +18,24 @@ interface KeyStore {
 
     KeyPair newAccount() throws CreateAccountException;
 
-    KeyPair importAccount(@NonNull String json, @NonNull String passphrase)
+    /**
+     * Creates multiple new accounts, stored with a single write.
+     */
+    @NonNull
+    List<KeyPair> newAccounts(int count) throws CreateAccountException;
+
+    KeyPair importAccount(@NonNull String json, @NonNull String passphrase,
+        @Nullable BackupProgressListener progressListener)
+        throws CryptoException, CreateAccountException, CorruptedDataException;
+
+    /**
+     * Imports all accounts of a multiple accounts backup, accounts already in the store are not added again.
+     *
+     * @return all backup accounts, including the ones that were already stored
+     */
+    @NonNull
+    List<KeyPair> importAccounts(@NonNull String json, @NonNull String passphrase,
+        @Nullable BackupProgressListener progressListener)
         throws CryptoException, CreateAccountException, CorruptedDataException;
 
     void clearAllAccounts();
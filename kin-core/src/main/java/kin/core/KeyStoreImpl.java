@@ -2,8 +2,11 @@ package kin.core;
 
 
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import kin.core.exception.CorruptedDataException;
 import kin.core.exception.CreateAccountException;
 import kin.core.exception.CryptoException;
@@ -90,6 +93,30 @@ class KeyStoreImpl implements KeyStore {
         return addKeyPairToStorage(KeyPair.random());
     }
 
+    @NonNull
+    @Override
+    public List<KeyPair> newAccounts(int count) throws CreateAccountException {
+        List<KeyPair> keyPairs = new ArrayList<>(count);
+        try {
+            JSONArray jsonArray = loadJsonArray();
+            if (jsonArray == null) {
+                jsonArray = new JSONArray();
+            }
+            for (int i = 0; i < count; i++) {
+                KeyPair keyPair = KeyPair.random();
+                jsonArray.put(createAccountJson(String.valueOf(keyPair.getSecretSeed()), keyPair.getAccountId()));
+                keyPairs.add(keyPair);
+            }
+            //single write for all accounts
+            JSONObject accountsJson = new JSONObject();
+            accountsJson.put(JSON_KEY_ACCOUNTS_ARRAY, jsonArray);
+            store.saveString(STORE_KEY_ACCOUNTS, accountsJson.toString());
+            return keyPairs;
+        } catch (JSONException e) {
+            throw new CreateAccountException(e);
+        }
+    }
+
     private KeyPair addKeyPairToStorage(KeyPair newKeyPair) throws CreateAccountException {
         try {
             String encryptedSeed = String.valueOf(newKeyPair.getSecretSeed());
@@ -103,12 +130,51 @@ class KeyStoreImpl implements KeyStore {
     }
 
     @Override
-    public KeyPair importAccount(@NonNull String json, @NonNull String passphrase)
+    public KeyPair importAccount(@NonNull String json, @NonNull String passphrase,
+        @Nullable BackupProgressListener progressListener)
         throws CryptoException, CreateAccountException, CorruptedDataException {
-        KeyPair keyPair = backupRestore.importWallet(json, passphrase);
+        KeyPair keyPair = backupRestore.importWallet(json, passphrase, progressListener);
         return addKeyPairToStorage(keyPair);
     }
 
+    @NonNull
+    @Override
+    public List<KeyPair> importAccounts(@NonNull String json, @NonNull String passphrase,
+        @Nullable BackupProgressListener progressListener)
+        throws CryptoException, CreateAccountException, CorruptedDataException {
+        List<KeyPair> keyPairs = backupRestore.importWallets(json, passphrase, progressListener);
+        try {
+            JSONArray jsonArray = loadJsonArray();
+            if (jsonArray == null) {
+                jsonArray = new JSONArray();
+            }
+            Set<String> storedAccounts = new HashSet<>();
+            for (int i = 0; i < jsonArray.length(); i++) {
+                storedAccounts.add(jsonArray.getJSONObject(i).getString(JSON_KEY_PUBLIC_KEY));
+            }
+            for (KeyPair keyPair : keyPairs) {
+                if (storedAccounts.add(keyPair.getAccountId())) {
+                    jsonArray.put(createAccountJson(String.valueOf(keyPair.getSecretSeed()), keyPair.getAccountId()));
+                }
+            }
+            //single write for all accounts
+            JSONObject accountsJson = new JSONObject();
+            accountsJson.put(JSON_KEY_ACCOUNTS_ARRAY, jsonArray);
+            store.saveString(STORE_KEY_ACCOUNTS, accountsJson.toString());
+            return keyPairs;
+        } catch (JSONException e) {
+            throw new CreateAccountException(e);
+        }
+    }
+
+    private JSONObject createAccountJson(@NonNull String encryptedSeed, @NonNull String accountId)
+        throws JSONException {
+        JSONObject accountJson = new JSONObject();
+        accountJson.put(JSON_KEY_ENCRYPTED_SEED, encryptedSeed);
+        accountJson.put(JSON_KEY_PUBLIC_KEY, accountId);
+        return accountJson;
+    }
+
     private JSONObject addKeyPairToAccountsJson(@NonNull String encryptedSeed, @NonNull String accountId)
         throws JSONException {
         JSONArray jsonArray = loadJsonArray();
@@ -116,10 +182,7 @@ class KeyStoreImpl implements KeyStore {
             jsonArray = new JSONArray();
         }
 
-        JSONObject accountJson = new JSONObject();
-        accountJson.put(JSON_KEY_ENCRYPTED_SEED, encryptedSeed);
-        accountJson.put(JSON_KEY_PUBLIC_KEY, accountId);
-        jsonArray.put(accountJson);
+        jsonArray.put(createAccountJson(encryptedSeed, accountId));
         JSONObject json = new JSONObject();
         json.put(JSON_KEY_ACCOUNTS_ARRAY, jsonArray);
         return json;
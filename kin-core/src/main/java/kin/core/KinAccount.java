@@ -3,6 +3,7 @@ package kin.core;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import java.math.BigDecimal;
+import java.util.List;
 import kin.core.exception.AccountDeletedException;
 import kin.core.exception.AccountNotActivatedException;
 import kin.core.exception.AccountNotFoundException;
@@ -133,6 +134,29 @@ public interface KinAccount {
     @NonNull
     Balance getBalanceSync() throws OperationFailedException;
 
+    /**
+     * Create {@link Request} for getting the balance in kin according to a {@link BalancePolicy}.
+     * <p>With {@link BalancePolicy#CACHE_THEN_NETWORK}, if a balance of this account is stored on the device and
+     * the callback is a {@link CachedResultCallback}, {@link CachedResultCallback#onCachedResult(Object)} is called
+     * first with it as a {@link CachedBalance}, without waiting for other requests, then {@link
+     * ResultCallback#onResult(Object)} is called with the fetched balance, or {@link ResultCallback#onError(Exception)}
+     * if fetching failed.</p>
+     * <p> See {@link KinAccount#getBalanceSync()} for possibles errors</p>
+     *
+     * @return {@code Request<Balance>} Balance - the balance in kin
+     */
+    @NonNull
+    Request<Balance> getBalance(@BalancePolicy int policy);
+
+    /**
+     * Returns the last balance fetched for this account, stored on the device and kept across app launches, with no
+     * network access.
+     *
+     * @return the cached balance, or null if no balance was fetched yet
+     */
+    @Nullable
+    CachedBalance getCachedBalance();
+
     /**
      * Create {@link Request} for allowing an account to receive kin.
      * <p> See {@link KinAccount#activateSync()} for possibles errors</p>
@@ -152,6 +176,90 @@ public interface KinAccount {
      */
     void activateSync() throws OperationFailedException;
 
+    /**
+     * Create {@link Request} for creating and activating a new account, sponsored by this account.
+     * <p> See {@link KinAccount#createAndActivateAccountSync(KinAccount, BigDecimal)} for possibles errors</p>
+     *
+     * @param newAccount the account to create, an account of the same {@link KinClient}
+     * @param startingBalance native (fee) balance the new account is funded with by this account
+     * @return {@code Request<TransactionId>}, TransactionId - the transaction identifier
+     */
+    @NonNull
+    Request<TransactionId> createAndActivateAccount(@NonNull KinAccount newAccount,
+        @NonNull BigDecimal startingBalance);
+
+    /**
+     * Creates a new account on the blockchain and activates it for kin, in a single transaction funded and paid for by
+     * this account (the sponsor).
+     * <p>The transaction is signed by both accounts, so the new account is ready to send and receive kin after a
+     * single ledger close, with no need for {@link #activateSync()}.</p>
+     * <p><b>Note:</b> This method accesses the network, and should not be called on the android main thread.</p>
+     *
+     * @param newAccount the account to create, an account of the same {@link KinClient}
+     * @param startingBalance native (fee) balance the new account is funded with by this account, should cover the
+     * minimum balance of an account with a single trust line
+     * @return TransactionId the transaction identifier
+     * @throws AccountNotFoundException if this account was not created
+     * @throws AccountDeletedException if this account or {@code newAccount} is deleted
+     * @throws TransactionFailedException if the transaction failed, contains blockchain failure details, such as
+     * {@code op_already_exists} if the new account already exists
+     * @throws OperationFailedException any other error
+     */
+    @NonNull
+    TransactionId createAndActivateAccountSync(@NonNull KinAccount newAccount, @NonNull BigDecimal startingBalance)
+        throws OperationFailedException;
+
+    /**
+     * Create {@link Request} for creating and activating multiple new accounts, sponsored by this account.
+     * <p> See {@link KinAccount#createAndActivateAccountsSync(List, BigDecimal)} for possibles errors</p>
+     *
+     * @param newAccounts the accounts to create, accounts of the same {@link KinClient}
+     * @param startingBalance native (fee) balance each new account is funded with by this account
+     * @return {@code Request<List<AccountCreationResult>>}, result per account, in the order of {@code newAccounts}
+     */
+    @NonNull
+    Request<List<AccountCreationResult>> createAndActivateAccounts(@NonNull List<KinAccount> newAccounts,
+        @NonNull BigDecimal startingBalance);
+
+    /**
+     * Creates new accounts on the blockchain and activates them for kin, in batched transactions funded and paid for
+     * by this account (the sponsor), see {@link #createAndActivateAccountSync(KinAccount, BigDecimal)}.
+     * <p>Each transaction creates up to 19 accounts, as a transaction is limited to 20 signatures. Failures are
+     * reported per account, an account failure (such as an already existing account) doesn't fail the other accounts
+     * of its batch.</p>
+     * <p><b>Note:</b> This method accesses the network, and should not be called on the android main thread.</p>
+     *
+     * @param newAccounts the accounts to create, accounts of the same {@link KinClient}
+     * @param startingBalance native (fee) balance each new account is funded with by this account
+     * @return result per account, in the order of {@code newAccounts}
+     * @throws AccountDeletedException if this account or any of {@code newAccounts} is deleted
+     */
+    @NonNull
+    List<AccountCreationResult> createAndActivateAccountsSync(@NonNull List<KinAccount> newAccounts,
+        @NonNull BigDecimal startingBalance) throws OperationFailedException;
+
+    /**
+     * Returns the locally tracked balance of this account, with no network access.
+     * <p>Outgoing payments sent using {@link #sendTransactionSync(String, BigDecimal)} are applied immediately as
+     * pending, and deducted from the confirmed balance once completed. The confirmed balance is updated by {@link
+     * #getBalanceSync()} results, and by the account transactions stream while local balance listeners are
+     * registered.</p>
+     *
+     * @return the local balance, or null if no balance was fetched or streamed yet
+     */
+    @Nullable
+    LocalBalance getLocalBalance();
+
+    /**
+     * Creates and adds listener for local balance changes of this account, see {@link #getLocalBalance()}, use
+     * returned {@link ListenerRegistration} to stop listening.
+     * <p><b>Note:</b> Events will be fired on background thread, events are coalesced, a listener that falls behind
+     * gets only the latest local balance.</p>
+     *
+     * @param listener listener object for local balance events
+     */
+    ListenerRegistration addLocalBalanceListener(@NonNull EventListener<LocalBalance> listener);
+
     /**
      * Get current account status on blockchain network.
      *
@@ -183,4 +291,41 @@ public interface KinAccount {
      * @return A JSON representation of the data as a string
      */
     String export(@NonNull String passphrase) throws CryptoException;
+
+    /**
+     * Create {@link Request} for exporting the account data as a JSON string. The seed is encrypted.
+     * <p>Key derivation is CPU and memory intensive, and may take a while on low end devices, use this method to
+     * export from a background thread, with progress reporting and cancellation via {@link Request#cancel(boolean)}.
+     * See {@link KinAccount#export(String)} for possibles errors.</p>
+     *
+     * @param passphrase The passphrase with which to encrypt the seed
+     * @param progressListener optional progress listener
+     * @return {@code Request<String>}, A JSON representation of the data as a string
+     */
+    @NonNull
+    Request<String> export(@NonNull String passphrase, @Nullable BackupProgressListener progressListener);
+
+    /**
+     * Builds and signs a payment transaction for each of the given payments, without submitting them.
+     * <p>Signing is done in parallel and requires no network access, sequence numbers are taken from the payments
+     * as is, and are not verified against the blockchain.</p>
+     * <p><b>Note:</b> This method is CPU intensive, and should not be called on the android main thread.</p>
+     *
+     * @param payments payments to sign
+     * @return signed transactions, in the order of {@code payments}
+     * @throws AccountDeletedException if account is deleted
+     * @throws OperationFailedException any other error
+     */
+    @NonNull
+    List<SignedTransaction> signPaymentsSync(@NonNull List<PaymentSpec> payments) throws OperationFailedException;
+
+    /**
+     * Create {@link Request} for building and signing a payment transaction for each of the given payments.
+     * <p> See {@link KinAccount#signPaymentsSync(List)} for possibles errors</p>
+     *
+     * @param payments payments to sign
+     * @return {@code Request<List<SignedTransaction>>}, signed transactions, in the order of {@code payments}
+     */
+    @NonNull
+    Request<List<SignedTransaction>> signPayments(@NonNull List<PaymentSpec> payments);
 }
@@ -3,6 +3,9 @@ package kin.core;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
 import kin.core.exception.AccountDeletedException;
 import kin.core.exception.CryptoException;
 import kin.core.exception.OperationFailedException;
@@ -17,17 +20,27 @@ final class KinAccountImpl extends AbstractKinAccount {
     private final AccountActivator accountActivator;
     private final AccountInfoRetriever accountInfoRetriever;
     private final BlockchainEvents blockchainEvents;
+    private final BalanceTracker balanceTracker;
+    private final Telemetry telemetry;
     private boolean isDeleted = false;
 
     KinAccountImpl(KeyPair account, BackupRestore backupRestore, TransactionSender transactionSender,
         AccountActivator accountActivator,
-        AccountInfoRetriever accountInfoRetriever, BlockchainEventsCreator blockchainEventsCreator) {
+        AccountInfoRetriever accountInfoRetriever, BlockchainEventsCreator blockchainEventsCreator,
+        Telemetry telemetry) {
         this.account = account;
+        this.telemetry = telemetry;
         this.backupRestore = backupRestore;
         this.transactionSender = transactionSender;
         this.accountActivator = accountActivator;
         this.accountInfoRetriever = accountInfoRetriever;
         this.blockchainEvents = blockchainEventsCreator.create(account.getAccountId());
+        this.balanceTracker = new BalanceTracker(blockchainEvents, telemetry);
+    }
+
+    @Override
+    Telemetry getTelemetry() {
+        return telemetry;
     }
 
     @Override
@@ -43,7 +56,16 @@ final class KinAccountImpl extends AbstractKinAccount {
     public TransactionId sendTransactionSync(@NonNull String publicAddress, @NonNull BigDecimal amount)
         throws OperationFailedException {
         checkValidAccount();
-        return transactionSender.sendTransaction(account, publicAddress, amount);
+        Object payment = balanceTracker.onPaymentStarted(amount);
+        try {
+            TransactionId transactionId = transactionSender.sendTransaction(account, publicAddress, amount, null,
+                submitListener(payment));
+            balanceTracker.onPaymentSent(payment, transactionId.id());
+            return transactionId;
+        } catch (OperationFailedException | RuntimeException e) {
+            balanceTracker.onPaymentFailed(payment);
+            throw e;
+        }
     }
 
     @NonNull
@@ -51,7 +73,16 @@ final class KinAccountImpl extends AbstractKinAccount {
     public TransactionId sendTransactionSync(@NonNull String publicAddress, @NonNull BigDecimal amount,
         @Nullable String memo) throws OperationFailedException {
         checkValidAccount();
-        return transactionSender.sendTransaction(account, publicAddress, amount, memo);
+        Object payment = balanceTracker.onPaymentStarted(amount);
+        try {
+            TransactionId transactionId = transactionSender.sendTransaction(account, publicAddress, amount, memo,
+                submitListener(payment));
+            balanceTracker.onPaymentSent(payment, transactionId.id());
+            return transactionId;
+        } catch (OperationFailedException | RuntimeException e) {
+            balanceTracker.onPaymentFailed(payment);
+            throw e;
+        }
     }
 
     @NonNull
@@ -71,7 +102,31 @@ final class KinAccountImpl extends AbstractKinAccount {
     @Override
     public Balance getBalanceSync() throws OperationFailedException {
         checkValidAccount();
-        return accountInfoRetriever.getBalance(account.getAccountId());
+        long fetch = balanceTracker.startBalanceFetch();
+        Balance balance = accountInfoRetriever.getBalance(account.getAccountId());
+        balanceTracker.onBalanceFetched(balance.value(), fetch);
+        return balance;
+    }
+
+    @Nullable
+    @Override
+    public CachedBalance getCachedBalance() {
+        if (isDeleted) {
+            return null;
+        }
+        return accountInfoRetriever.getCachedBalance(account.getAccountId());
+    }
+
+    @Nullable
+    @Override
+    public LocalBalance getLocalBalance() {
+        return balanceTracker.getLocalBalance();
+    }
+
+    @Override
+    public ListenerRegistration addLocalBalanceListener(@NonNull EventListener<LocalBalance> listener) {
+        Utils.checkNotNull(listener, "listener");
+        return balanceTracker.addListener(listener, DispatchPolicy.defaultBalancePolicy());
     }
 
     @Override
@@ -80,12 +135,52 @@ final class KinAccountImpl extends AbstractKinAccount {
         accountActivator.activate(account);
     }
 
+    @NonNull
+    @Override
+    public TransactionId createAndActivateAccountSync(@NonNull KinAccount newAccount,
+        @NonNull BigDecimal startingBalance) throws OperationFailedException {
+        checkValidAccount();
+        Utils.checkNotNull(newAccount, "newAccount");
+        if (!(newAccount instanceof KinAccountImpl)) {
+            throw new IllegalArgumentException("newAccount must be an account of a KinClient");
+        }
+        KinAccountImpl newAccountImpl = (KinAccountImpl) newAccount;
+        newAccountImpl.checkValidAccount();
+        return accountActivator.createAndActivate(account, newAccountImpl.getKeyPair(), startingBalance);
+    }
+
+    @NonNull
+    @Override
+    public List<AccountCreationResult> createAndActivateAccountsSync(@NonNull List<KinAccount> newAccounts,
+        @NonNull BigDecimal startingBalance) throws OperationFailedException {
+        checkValidAccount();
+        Utils.checkNotNull(newAccounts, "newAccounts");
+        List<KeyPair> keyPairs = new ArrayList<>(newAccounts.size());
+        for (KinAccount newAccount : newAccounts) {
+            if (!(newAccount instanceof KinAccountImpl)) {
+                throw new IllegalArgumentException("newAccounts must be accounts of a KinClient");
+            }
+            KinAccountImpl newAccountImpl = (KinAccountImpl) newAccount;
+            newAccountImpl.checkValidAccount();
+            keyPairs.add(newAccountImpl.getKeyPair());
+        }
+        return accountActivator.createAndActivate(account, keyPairs, startingBalance);
+    }
+
     @Override
     public int getStatusSync() throws OperationFailedException {
         checkValidAccount();
         return accountInfoRetriever.getStatus(account.getAccountId());
     }
 
+    @NonNull
+    @Override
+    public List<SignedTransaction> signPaymentsSync(@NonNull List<PaymentSpec> payments)
+        throws OperationFailedException {
+        checkValidAccount();
+        return transactionSender.signPayments(account, payments);
+    }
+
     @Override
     public BlockchainEvents blockchainEvents() {
         return blockchainEvents;
@@ -93,7 +188,24 @@ final class KinAccountImpl extends AbstractKinAccount {
 
     @Override
     public String export(@NonNull String passphrase) throws CryptoException {
-        return backupRestore.exportWallet(account, passphrase);
+        return backupRestore.exportWallet(account, passphrase, null);
+    }
+
+    @NonNull
+    @Override
+    public Request<String> export(@NonNull final String passphrase,
+        @Nullable final BackupProgressListener progressListener) {
+        return new Request<>(new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                return backupRestore.exportWallet(account, passphrase, progressListener);
+            }
+        }, telemetry, "export");
+    }
+
+    @NonNull
+    KeyPair getKeyPair() {
+        return account;
     }
 
     void markAsDeleted() {
@@ -106,4 +218,12 @@ final class KinAccountImpl extends AbstractKinAccount {
         }
     }
 
+    private TransactionSender.SubmitListener submitListener(final Object payment) {
+        return new TransactionSender.SubmitListener() {
+            @Override
+            public void onSubmitting(@NonNull String hash) {
+                balanceTracker.onPaymentSubmitting(payment, hash);
+            }
+        };
+    }
 }
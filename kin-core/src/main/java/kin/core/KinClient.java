@@ -5,15 +5,21 @@ import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.support.annotation.VisibleForTesting;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
 import kin.core.exception.CorruptedDataException;
 import kin.core.exception.CreateAccountException;
 import kin.core.exception.CryptoException;
 import kin.core.exception.DeleteAccountException;
+import kin.core.exception.OperationFailedException;
+import kin.core.exception.OperationTimeoutException;
+import okhttp3.OkHttpClient;
 import org.stellar.sdk.KeyPair;
 import org.stellar.sdk.Network;
-import org.stellar.sdk.Server;
 
 /**
  * An account manager for a {@link KinAccount}.
@@ -21,16 +27,25 @@ import org.stellar.sdk.Server;
 public class KinClient {
 
     private static final String STORE_NAME_PREFIX = "KinKeyStore_";
+    private static final String BALANCE_STORE_NAME_PREFIX = "KinBalanceCache_";
     private static final int TRANSACTIONS_TIMEOUT = 30;
     private final ServiceProvider serviceProvider;
+    //null when created for testing with mocked components
+    @Nullable
+    private final HorizonClient horizonClient;
     private final KeyStore keyStore;
     private final TransactionSender transactionSender;
     private final AccountActivator accountActivator;
     private final AccountInfoRetriever accountInfoRetriever;
     private final BlockchainEventsCreator blockchainEventsCreator;
+    private final TransactionStatusRetriever transactionStatusRetriever;
     private final BackupRestore backupRestore;
+    private final AccountWatcher accountWatcher;
+    private final TransactionSigner transactionSigner;
+    private final Telemetry telemetry;
     @NonNull
-    private final List<KinAccountImpl> kinAccounts = new ArrayList<>(1);
+    //read from any thread, key store and list changes are made together while holding the list lock
+    private final List<KinAccountImpl> kinAccounts = new CopyOnWriteArrayList<>();
 
     /**
      * KinClient is an account manager for a {@link KinAccount}.
@@ -43,12 +58,20 @@ public class KinClient {
         Utils.checkNotNull(storeKey, "storeKey");
         this.serviceProvider = provider;
         this.backupRestore = new BackupRestoreImpl();
-        Server server = initServer();
+        this.telemetry = new Telemetry();
+        Network.use(serviceProvider.getNetwork());
+        TransactionTracker transactionTracker = new TransactionTracker();
+        horizonClient = initHorizonClient(transactionTracker);
+        NetworkMonitor.register(context, horizonClient);
         keyStore = initKeyStore(context.getApplicationContext(), storeKey);
-        transactionSender = new TransactionSender(server, provider.getKinAsset());
-        accountActivator = new AccountActivator(server, provider.getKinAsset());
-        accountInfoRetriever = new AccountInfoRetriever(server, provider.getKinAsset());
-        blockchainEventsCreator = new BlockchainEventsCreator(server, provider.getKinAsset());
+        transactionSigner = new TransactionSigner();
+        transactionSender = new TransactionSender(horizonClient, provider.getKinAsset(), transactionSigner, telemetry);
+        accountActivator = new AccountActivator(horizonClient, provider.getKinAsset(), transactionSigner, telemetry);
+        accountInfoRetriever = new AccountInfoRetriever(horizonClient,
+            initBalanceCache(context.getApplicationContext(), storeKey));
+        blockchainEventsCreator = new BlockchainEventsCreator(horizonClient, provider.getKinAsset(), telemetry);
+        transactionStatusRetriever = new TransactionStatusRetriever(horizonClient, transactionTracker);
+        accountWatcher = blockchainEventsCreator.createAccountWatcher();
 
         loadAccounts();
     }
@@ -66,20 +89,43 @@ public class KinClient {
     @VisibleForTesting
     KinClient(ServiceProvider serviceProvider, KeyStore keyStore, TransactionSender transactionSender,
         AccountActivator accountActivator, AccountInfoRetriever accountInfoRetriever,
-        BlockchainEventsCreator blockchainEventsCreator, BackupRestore backupRestore) {
+        BlockchainEventsCreator blockchainEventsCreator, TransactionStatusRetriever transactionStatusRetriever,
+        BackupRestore backupRestore) {
         this.serviceProvider = serviceProvider;
+        this.horizonClient = null;
         this.keyStore = keyStore;
         this.transactionSender = transactionSender;
         this.accountActivator = accountActivator;
         this.accountInfoRetriever = accountInfoRetriever;
         this.blockchainEventsCreator = blockchainEventsCreator;
+        this.transactionStatusRetriever = transactionStatusRetriever;
         this.backupRestore = backupRestore;
+        this.accountWatcher = blockchainEventsCreator.createAccountWatcher();
+        this.transactionSigner = new TransactionSigner();
+        this.telemetry = new Telemetry();
         loadAccounts();
     }
 
-    private Server initServer() {
-        Network.use(serviceProvider.getNetwork());
-        return new Server(serviceProvider.getProviderUrl(), TRANSACTIONS_TIMEOUT, TimeUnit.SECONDS);
+    private HorizonClient initHorizonClient(TransactionTracker transactionTracker) {
+        OkHttpClient httpClient = new OkHttpClient.Builder()
+            .connectTimeout(TRANSACTIONS_TIMEOUT, TimeUnit.SECONDS)
+            .writeTimeout(TRANSACTIONS_TIMEOUT, TimeUnit.SECONDS)
+            .readTimeout(TRANSACTIONS_TIMEOUT, TimeUnit.SECONDS)
+            .build();
+        final HorizonClient horizonClient = new HorizonClient(httpClient, serviceProvider.getProviderUrls(),
+            serviceProvider.getKinAsset(), telemetry, transactionTracker);
+        if (serviceProvider.getProviderUrls().size() > 1) {
+            //initial latency ranking of the endpoints, one off, on its own daemon thread
+            Thread healthCheck = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    horizonClient.checkHealth();
+                }
+            }, "kin-health-check");
+            healthCheck.setDaemon(true);
+            healthCheck.start();
+        }
+        return horizonClient;
     }
 
     private KeyStore initKeyStore(Context context, String id) {
@@ -88,6 +134,11 @@ public class KinClient {
         return new KeyStoreImpl(store, backupRestore);
     }
 
+    private BalanceCache initBalanceCache(Context context, String id) {
+        return new BalanceCache(new SharedPrefStore(
+            context.getSharedPreferences(BALANCE_STORE_NAME_PREFIX + id, Context.MODE_PRIVATE)));
+    }
+
     private void loadAccounts() {
         List<KeyPair> accounts = null;
         try {
@@ -96,9 +147,11 @@ public class KinClient {
             e.printStackTrace();
         }
         if (accounts != null && !accounts.isEmpty()) {
+            List<KinAccountImpl> loadedAccounts = new ArrayList<>(accounts.size());
             for (KeyPair account : accounts) {
-                kinAccounts.add(createNewKinAccount(account));
+                loadedAccounts.add(createNewKinAccount(account));
             }
+            kinAccounts.addAll(loadedAccounts);
         }
     }
 
@@ -111,8 +164,30 @@ public class KinClient {
      */
     public @NonNull
     KinAccount addAccount() throws CreateAccountException {
-        KeyPair account = keyStore.newAccount();
-        return addKeyPair(account);
+        synchronized (kinAccounts) {
+            KeyPair account = keyStore.newAccount();
+            return addKeyPair(account);
+        }
+    }
+
+    /**
+     * Creates and adds multiple accounts.
+     * <p>All keys are stored with a single write, which makes provisioning many accounts considerably faster than
+     * calling {@link #addAccount()} repeatedly. Use {@link KinAccount#createAndActivateAccountsSync(List,
+     * java.math.BigDecimal)} of a funded account for creating them on the blockchain.</p>
+     *
+     * @param count number of accounts to create
+     * @return the created accounts
+     */
+    @NonNull
+    public List<KinAccount> addAccounts(int count) throws CreateAccountException {
+        if (count <= 0) {
+            throw new IllegalArgumentException("count must be positive");
+        }
+        synchronized (kinAccounts) {
+            List<KeyPair> keyPairs = keyStore.newAccounts(count);
+            return new ArrayList<KinAccount>(addKeyPairs(keyPairs));
+        }
     }
 
     /**
@@ -125,16 +200,151 @@ public class KinClient {
     public @NonNull
     KinAccount importAccount(@NonNull String exportedJson, @NonNull String passphrase)
         throws CryptoException, CreateAccountException, CorruptedDataException {
-        KeyPair account = keyStore.importAccount(exportedJson, passphrase);
-        KinAccount kinAccount = getAccountByPublicAddress(account.getAccountId());
-        return kinAccount != null ? kinAccount : addKeyPair(account);
+        return importKeyPair(exportedJson, passphrase, null);
+    }
+
+    private KinAccount importKeyPair(String exportedJson, String passphrase,
+        @Nullable BackupProgressListener progressListener)
+        throws CryptoException, CreateAccountException, CorruptedDataException {
+        synchronized (kinAccounts) {
+            KeyPair account = keyStore.importAccount(exportedJson, passphrase, progressListener);
+            KinAccount kinAccount = getAccountByPublicAddress(account.getAccountId());
+            return kinAccount != null ? kinAccount : addKeyPair(account);
+        }
+    }
+
+    /**
+     * Exports all accounts of this client as a single JSON-formatted string.
+     * <p>All seeds are encrypted with a single key derivation, which makes exporting many accounts considerably
+     * faster than exporting each account separately using {@link KinAccount#export(String)}.</p>
+     *
+     * @param passphrase The passphrase with which to encrypt the seeds
+     * @return A JSON representation of all accounts data as a string
+     */
+    @NonNull
+    public String exportAll(@NonNull String passphrase) throws CryptoException {
+        Utils.checkNotNull(passphrase, "passphrase");
+        return backupRestore.exportWallets(getKeyPairs(), passphrase, null);
+    }
+
+    private List<KeyPair> getKeyPairs() {
+        List<KeyPair> keyPairs = new ArrayList<>(kinAccounts.size());
+        for (KinAccountImpl kinAccount : kinAccounts) {
+            keyPairs.add(kinAccount.getKeyPair());
+        }
+        return keyPairs;
+    }
+
+    /**
+     * Import all accounts from a JSON-formatted string created by {@link #exportAll(String)}.
+     *
+     * @param exportedJson The exported JSON-formatted string.
+     * @param passphrase The passphrase to decrypt the secret keys.
+     * @return The imported accounts, in backup order, accounts that already exist are returned as is
+     */
+    @NonNull
+    public List<KinAccount> importAll(@NonNull String exportedJson, @NonNull String passphrase)
+        throws CryptoException, CreateAccountException, CorruptedDataException {
+        return importKeyPairs(exportedJson, passphrase, null);
+    }
+
+    private List<KinAccount> importKeyPairs(String exportedJson, String passphrase,
+        @Nullable BackupProgressListener progressListener)
+        throws CryptoException, CreateAccountException, CorruptedDataException {
+        synchronized (kinAccounts) {
+            List<KeyPair> keyPairs = keyStore.importAccounts(exportedJson, passphrase, progressListener);
+            Map<String, KeyPair> newKeyPairs = new LinkedHashMap<>();
+            for (KeyPair keyPair : keyPairs) {
+                if (getAccountByPublicAddress(keyPair.getAccountId()) == null) {
+                    newKeyPairs.put(keyPair.getAccountId(), keyPair);
+                }
+            }
+            //all added at once, readers never see a partial import
+            addKeyPairs(new ArrayList<>(newKeyPairs.values()));
+            List<KinAccount> importedAccounts = new ArrayList<>(keyPairs.size());
+            for (KeyPair keyPair : keyPairs) {
+                importedAccounts.add(getAccountByPublicAddress(keyPair.getAccountId()));
+            }
+            return importedAccounts;
+        }
+    }
+
+    /**
+     * Create {@link Request} for importing an account from a JSON-formatted string.
+     * <p>See {@link #importAccount(String, String)} for possibles errors, use {@link Request#cancel(boolean)} for
+     * cancelling the import.</p>
+     *
+     * @param exportedJson The exported JSON-formatted string.
+     * @param passphrase The passphrase to decrypt the secret key.
+     * @param progressListener optional progress listener
+     * @return {@code Request<KinAccount>}, the imported account
+     */
+    @NonNull
+    public Request<KinAccount> importAccount(@NonNull final String exportedJson, @NonNull final String passphrase,
+        @Nullable final BackupProgressListener progressListener) {
+        return new Request<>(new Callable<KinAccount>() {
+            @Override
+            public KinAccount call() throws Exception {
+                return importKeyPair(exportedJson, passphrase, progressListener);
+            }
+        }, telemetry, "importAccount");
+    }
+
+    /**
+     * Create {@link Request} for exporting all accounts, see {@link #exportAll(String)}.
+     *
+     * @param passphrase The passphrase with which to encrypt the seeds
+     * @param progressListener optional progress listener
+     * @return {@code Request<String>}, A JSON representation of all accounts data as a string
+     */
+    @NonNull
+    public Request<String> exportAll(@NonNull final String passphrase,
+        @Nullable final BackupProgressListener progressListener) {
+        final List<KeyPair> keyPairs = getKeyPairs();
+        return new Request<>(new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                return backupRestore.exportWallets(keyPairs, passphrase, progressListener);
+            }
+        }, telemetry, "exportAll");
+    }
+
+    /**
+     * Create {@link Request} for importing all accounts, see {@link #importAll(String, String)}.
+     *
+     * @param exportedJson The exported JSON-formatted string.
+     * @param passphrase The passphrase to decrypt the secret keys.
+     * @param progressListener optional progress listener
+     * @return {@code Request<List<KinAccount>>}, the imported accounts
+     */
+    @NonNull
+    public Request<List<KinAccount>> importAll(@NonNull final String exportedJson, @NonNull final String passphrase,
+        @Nullable final BackupProgressListener progressListener) {
+        return new Request<>(new Callable<List<KinAccount>>() {
+            @Override
+            public List<KinAccount> call() throws Exception {
+                return importKeyPairs(exportedJson, passphrase, progressListener);
+            }
+        }, telemetry, "importAll");
+    }
+
+    /**
+     * Sets the target duration of the key derivation used for encrypting exported accounts.
+     * <p>Key derivation cost is calibrated on the device to take about this duration, higher cost means better
+     * protection of backups against passphrase brute force. Calibration runs in background right after this call,
+     * call it at startup so exports don't wait for it. Cost parameters are stored in the exported data, so imports are
+     * not affected. Default is libsodium interactive limits, which are also the minimum.</p>
+     *
+     * @param targetDurationMillis target key derivation duration in millis, 0 for default
+     */
+    public void setBackupKdfTargetDuration(long targetDurationMillis) {
+        backupRestore.setKdfTargetDuration(targetDurationMillis);
     }
 
     @Nullable
     private KinAccount getAccountByPublicAddress(String accountId) {
         KinAccount kinAccount = null;
-        for (int i = 0; i < kinAccounts.size(); i++) {
-            final KinAccount account = kinAccounts.get(i);
+        for (KinAccount account : kinAccounts) {
             if (accountId.equals(account.getPublicAddress())) {
                 kinAccount = account;
             }
@@ -149,14 +359,28 @@ public class KinClient {
         return newAccount;
     }
 
+    @NonNull
+    private List<KinAccountImpl> addKeyPairs(List<KeyPair> keyPairs) {
+        List<KinAccountImpl> newAccounts = new ArrayList<>(keyPairs.size());
+        for (KeyPair keyPair : keyPairs) {
+            newAccounts.add(createNewKinAccount(keyPair));
+        }
+        kinAccounts.addAll(newAccounts);
+        return newAccounts;
+    }
+
     /**
      * Returns an account at input index.
      *
      * @return the account at the input index or null if there is no such account
      */
     public KinAccount getAccount(int index) {
-        if (index >= 0 && kinAccounts.size() > index) {
-            return kinAccounts.get(index);
+        //iterates a snapshot, safe while accounts are added or deleted on another thread
+        int i = 0;
+        for (KinAccountImpl kinAccount : kinAccounts) {
+            if (i++ == index) {
+                return kinAccount;
+            }
         }
         return null;
     }
@@ -180,10 +404,14 @@ public class KinClient {
      * Deletes the account at input index (if it exists)
      */
     public void deleteAccount(int index) throws DeleteAccountException {
-        if (index >= 0 && getAccountCount() > index) {
-            keyStore.deleteAccount(index);
-            KinAccountImpl removedAccount = kinAccounts.remove(index);
-            removedAccount.markAsDeleted();
+        synchronized (kinAccounts) {
+            if (index >= 0 && getAccountCount() > index) {
+                keyStore.deleteAccount(index);
+                KinAccountImpl removedAccount = kinAccounts.remove(index);
+                accountInfoRetriever.clearCachedBalance(removedAccount.getKeyPair().getAccountId());
+                removedAccount.markAsDeleted();
+                transactionSigner.clearKeys();
+            }
         }
     }
 
@@ -192,11 +420,188 @@ public class KinClient {
      */
     @SuppressWarnings("WeakerAccess")
     public void clearAllAccounts() {
-        keyStore.clearAllAccounts();
-        for (KinAccountImpl kinAccount : kinAccounts) {
-            kinAccount.markAsDeleted();
+        synchronized (kinAccounts) {
+            keyStore.clearAllAccounts();
+            for (KinAccountImpl kinAccount : kinAccounts) {
+                accountInfoRetriever.clearCachedBalance(kinAccount.getKeyPair().getAccountId());
+                kinAccount.markAsDeleted();
+            }
+            kinAccounts.clear();
+            transactionSigner.clearKeys();
+        }
+    }
+
+    /**
+     * Selects the implementation used for signing transactions of this client accounts, defaults to {@link
+     * SigningBackend#JAVA}.
+     * <p>{@link SigningBackend#NATIVE} falls back to {@link SigningBackend#JAVA} if libsodium native library
+     * cannot be loaded.</p>
+     *
+     * @return the backend actually in use
+     */
+    @SigningBackend
+    public int setSigningBackend(@SigningBackend int signingBackend) {
+        return transactionSigner.setBackend(signingBackend);
+    }
+
+    @SigningBackend
+    public int getSigningBackend() {
+        return transactionSigner.getBackend();
+    }
+
+    /**
+     * Sets hedging of latency sensitive reads: balance and account status queries, and the addressee account check
+     * when sending kin. Disabled by default.
+     * <p>Hedging applies only when multiple horizon servers are provided, see {@link HedgingPolicy}.</p>
+     *
+     * @param policy the hedging policy, null for disabling hedging
+     */
+    public void setHedgingPolicy(@Nullable HedgingPolicy policy) {
+        if (horizonClient != null) {
+            horizonClient.setHedgingPolicy(policy);
+        }
+    }
+
+    /**
+     * Sets a client side limit of the horizon request rate, for apps that would rather queue requests than exceed the
+     * rate horizon allows. Disabled by default.
+     * <p>Whether limited or not, requests are paused when horizon responds with 429 or reports an exhausted rate limit,
+     * until the time horizon asks for. While limited, requests without a permit wait for one, submissions up to 30
+     * seconds and reads up to 5 seconds, background requests don't wait; requests not getting a permit in time fail
+     * with {@link kin.core.exception.RateLimitedException}.</p>
+     *
+     * @param requestsPerSecond steady request rate, 0 for disabling the client side limit
+     * @param burst max requests sent at once after an idle period, at least 1 when limiting
+     * @throws IllegalArgumentException for a negative rate, or a burst below 1 when limiting
+     */
+    public void setRateLimit(double requestsPerSecond, int burst) {
+        if (horizonClient != null) {
+            horizonClient.setRateLimit(requestsPerSecond, burst);
         }
-        kinAccounts.clear();
+    }
+
+    /**
+     * Sets how long a listener stream may stay quiet (no events or heartbeats) before its connection is reopened.
+     * <p>Reopening a quiet connection resumes from the last received event, and is not reported as a reconnect. A
+     * reopened connection that doesn't open within the timeout is considered lost, and reconnected with backoff.
+     * Applies to streams opened from now on, default is 60 seconds.</p>
+     *
+     * @param idleTimeoutMillis stream idle timeout in millis, 0 for default
+     */
+    public void setStreamIdleTimeout(long idleTimeoutMillis) {
+        if (horizonClient != null) {
+            horizonClient.setStreamIdleTimeout(idleTimeoutMillis);
+        }
+    }
+
+    /**
+     * Registers a metrics listener, receiving timings and outcomes of this client operations, such as transaction
+     * phases durations, http status codes, horizon result codes and stream reconnects.
+     * <p>Measurements are taken only while a listener is registered.</p>
+     *
+     * @param metrics the metrics listener, null for unregistering
+     */
+    public void setMetrics(@Nullable KinMetrics metrics) {
+        telemetry.setMetrics(metrics);
+    }
+
+    /**
+     * Registers a tracer, receiving spans of this client requests, transaction phases, http calls and stream events
+     * delivery, see {@link KinTracer} for the traced spans.
+     * <p>Spans are reported only while a tracer is registered.</p>
+     *
+     * @param tracer the tracer, null for unregistering
+     */
+    public void setTracer(@Nullable KinTracer tracer) {
+        telemetry.setTracer(tracer);
+    }
+
+    /**
+     * Get the status of a transaction on the blockchain network.
+     * <p>Final statuses of recent transactions (sent by this client, looked up, or seen on an account stream) are
+     * cached, and returned with no network access, otherwise the transaction is looked up by its hash.</p>
+     * <p><b>Note:</b> This method may access the network, and should not be called on the android main thread.</p>
+     *
+     * @param transactionId the transaction id, as returned by {@link KinAccount#sendTransactionSync(String,
+     * java.math.BigDecimal)} or {@link PaymentInfo#hash()}
+     * @return the transaction status
+     * @throws OperationFailedException lookup failed
+     */
+    @TransactionStatus
+    public int getTransactionStatusSync(@NonNull TransactionId transactionId) throws OperationFailedException {
+        Utils.checkNotNull(transactionId, "transactionId");
+        return transactionStatusRetriever.getStatus(transactionId.id());
+    }
+
+    /**
+     * Create {@link Request} for getting the status of a transaction on the blockchain network.
+     * <p> See {@link #getTransactionStatusSync(TransactionId)} for possibles errors</p>
+     *
+     * @param transactionId the transaction id
+     * @return {@code Request<Integer>}, one of the {@link TransactionStatus} values
+     */
+    @NonNull
+    public Request<Integer> getTransactionStatus(@NonNull final TransactionId transactionId) {
+        return new Request<>(new Callable<Integer>() {
+            @Override
+            public Integer call() throws Exception {
+                return getTransactionStatusSync(transactionId);
+            }
+        }, telemetry, "getTransactionStatus");
+    }
+
+    /**
+     * Waits for a transaction to be applied, e.g. after {@link KinAccount#sendTransactionSync(String,
+     * java.math.BigDecimal)} timed out with no known outcome.
+     * <p>The transaction is looked up when waiting starts and when timeout expires, in between its outcome is taken
+     * from open account streams, transactions sent by this client are awaited on their source account stream, so
+     * waiting involves no polling.</p>
+     * <p><b>Note:</b> This method blocks until the transaction is found or timeout expires, do not call it from the
+     * main thread.</p>
+     *
+     * @param transactionId the transaction id
+     * @param timeout maximum time to wait
+     * @param unit time unit of {@code timeout}
+     * @return {@link TransactionStatus#SUCCEEDED} or {@link TransactionStatus#FAILED}
+     * @throws OperationTimeoutException transaction was not found within timeout
+     * @throws OperationFailedException lookup failed or waiting thread was interrupted
+     */
+    @TransactionStatus
+    public int awaitTransactionSync(@NonNull TransactionId transactionId, long timeout, @NonNull TimeUnit unit)
+        throws OperationFailedException {
+        Utils.checkNotNull(transactionId, "transactionId");
+        return transactionStatusRetriever.await(transactionId.id(), timeout, unit);
+    }
+
+    /**
+     * Create {@link Request} for waiting for a transaction to be applied.
+     * <p> See {@link #awaitTransactionSync(TransactionId, long, TimeUnit)} for possibles errors</p>
+     *
+     * @param transactionId the transaction id
+     * @param timeout maximum time to wait
+     * @param unit time unit of {@code timeout}
+     * @return {@code Request<Integer>}, {@link TransactionStatus#SUCCEEDED} or {@link TransactionStatus#FAILED}
+     */
+    @NonNull
+    public Request<Integer> awaitTransaction(@NonNull final TransactionId transactionId, final long timeout,
+        @NonNull final TimeUnit unit) {
+        //started like any request, waiting holds no thread, so other requests are not held back
+        return new Request<>(new Request.AsyncCallable<Integer>() {
+            @Override
+            public PendingResult<Integer> start() {
+                Utils.checkNotNull(transactionId, "transactionId");
+                return transactionStatusRetriever.startAwait(transactionId.id(), timeout, unit);
+            }
+        }, telemetry, "awaitTransaction");
+    }
+
+    /**
+     * Returns the watch-only registry of this client, for monitoring payments of accounts that are not stored by
+     * this client.
+     */
+    @NonNull
+    public AccountWatcher getAccountWatcher() {
+        return accountWatcher;
     }
 
     public ServiceProvider getServiceProvider() {
@@ -206,7 +611,7 @@ public class KinClient {
     @NonNull
     private KinAccountImpl createNewKinAccount(KeyPair account) {
         return new KinAccountImpl(account, backupRestore, transactionSender, accountActivator, accountInfoRetriever,
-            blockchainEventsCreator);
+            blockchainEventsCreator, telemetry);
     }
 
 }
@@ -0,0 +1,194 @@
+package kin.core;
+
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Receives timing and outcome measurements of a {@link KinClient}, register using {@link
+ * KinClient#setMetrics(KinMetrics)}.
+ * <p>Override only the callbacks of interest, all default implementations do nothing. Callbacks are invoked
+ * synchronously on the measuring thread (request, stream or dispatch threads), implementations should be fast and
+ * thread safe, exceptions thrown by callbacks are ignored.</p>
+ * <p>All durations are in nanoseconds. When no metrics are registered, measurements are not taken at all.</p>
+ */
+public abstract class KinMetrics {
+
+    /**
+     * Route of account fetching requests.
+     */
+    public static final String ROUTE_ACCOUNT = "GET /accounts/{id}";
+    /**
+     * Route of transaction submitting requests.
+     */
+    public static final String ROUTE_SUBMIT_TRANSACTION = "POST /transactions";
+    /**
+     * Route of transaction lookup requests.
+     */
+    public static final String ROUTE_TRANSACTION = "GET /transactions/{hash}";
+    /**
+     * Route of endpoint health check requests.
+     */
+    public static final String ROUTE_ROOT = "GET /";
+    /**
+     * Route of latest account transaction lookups, resolving the position of suspended transactions streams.
+     */
+    public static final String ROUTE_ACCOUNT_TRANSACTIONS = "GET /accounts/{id}/transactions";
+    /**
+     * Route of latest payment lookups, resolving the position of the suspended payments stream.
+     */
+    public static final String ROUTE_PAYMENTS = "GET /payments";
+    /**
+     * Route of account transactions streams.
+     */
+    public static final String ROUTE_STREAM_TRANSACTIONS = "SSE /accounts/{id}/transactions";
+    /**
+     * Route of the network wide payments stream.
+     */
+    public static final String ROUTE_STREAM_PAYMENTS = "SSE /payments";
+
+    /**
+     * Duration of a single step of sending a transaction (or of activating an account).
+     */
+    public void onTransactionPhase(@TransactionPhase int phase, long durationNanos) {
+    }
+
+    /**
+     * A horizon http request completed with a response.
+     *
+     * @param route one of the {@code ROUTE_} constants
+     * @param statusCode http status code
+     * @param durationNanos time from sending the request until the response headers arrived
+     */
+    public void onHttpResponse(@NonNull String route, int statusCode, long durationNanos) {
+    }
+
+    /**
+     * A horizon http request failed without a response (connection, timeout or protocol error).
+     *
+     * @param route one of the {@code ROUTE_} constants
+     */
+    public void onHttpFailure(@NonNull String route, @NonNull IOException error, long durationNanos) {
+    }
+
+    /**
+     * Horizon result of a submitted transaction, {@code "tx_success"} for successful transactions.
+     *
+     * @param operationsResultCodes result code of each operation, null when not provided by horizon
+     */
+    public void onTransactionResult(@Nullable String transactionResultCode,
+        @Nullable List<String> operationsResultCodes) {
+    }
+
+    /**
+     * A failed horizon request is about to be retried.
+     *
+     * @param route one of the {@code ROUTE_} constants
+     * @param attempt number of the upcoming attempt, starting at 2 for the first retry
+     */
+    public void onRetry(@NonNull String route, int attempt) {
+    }
+
+    /**
+     * A slow horizon read was sent to another endpoint as well, see {@link HedgingPolicy}.
+     *
+     * @param route one of the {@code ROUTE_} constants
+     */
+    public void onHedge(@NonNull String route) {
+    }
+
+    /**
+     * A horizon request was delayed by the client side rate limiter.
+     *
+     * @param route one of the {@code ROUTE_} constants
+     * @param waitNanos time the request waited for a permit
+     */
+    public void onRateLimitWait(@NonNull String route, long waitNanos) {
+    }
+
+    /**
+     * A horizon request was not sent, as the client side rate limiter could not grant it a permit in time.
+     *
+     * @param route one of the {@code ROUTE_} constants
+     */
+    public void onRateLimitShed(@NonNull String route) {
+    }
+
+    /**
+     * Horizon rejected a request for exceeding its rate limits (http 429), requests are paused accordingly.
+     *
+     * @param route one of the {@code ROUTE_} constants
+     * @param retryAfterMillis pause requested by horizon
+     */
+    public void onRateLimited(@NonNull String route, long retryAfterMillis) {
+    }
+
+    /**
+     * The circuit breaker of a horizon endpoint opened after repeated failures or slow responses, requests are not
+     * sent to the endpoint until a trial request succeeds.
+     *
+     * @param endpoint base url of the endpoint
+     */
+    public void onCircuitOpen(@NonNull String endpoint) {
+    }
+
+    /**
+     * The circuit breaker of a horizon endpoint closed after a successful trial request.
+     *
+     * @param endpoint base url of the endpoint
+     */
+    public void onCircuitClose(@NonNull String endpoint) {
+    }
+
+    /**
+     * A server sent events stream lost its connection and is reconnecting.
+     *
+     * @param route one of the {@code SSE} {@code ROUTE_} constants
+     */
+    public void onStreamReconnect(@NonNull String route) {
+    }
+
+    /**
+     * An undelivered event was dropped, as its listener fell behind by a full queue, see {@link
+     * OverflowStrategy#DROP_OLDEST}.
+     */
+    public void onEventDropped() {
+    }
+
+    /**
+     * A streamed transaction could not be decoded, and was skipped by a blockchain events listener.
+     *
+     * @param transactionHash hash of the skipped transaction
+     * @param error the decoding failure
+     */
+    public void onEventDecodeFailure(@NonNull String transactionHash, @NonNull IOException error) {
+    }
+
+    /**
+     * A streamed event could not be parsed, and was skipped.
+     *
+     * @param route the stream route, {@link #ROUTE_STREAM_TRANSACTIONS} or {@link #ROUTE_STREAM_PAYMENTS}
+     * @param error the parsing failure
+     */
+    public void onEventParseFailure(@NonNull String route, @NonNull Exception error) {
+    }
+
+    /**
+     * An event was delivered to a blockchain events listener.
+     *
+     * @param lagNanos time the event waited in the listener queue, from arriving on the stream until the listener
+     * was called
+     */
+    public void onEventDispatched(long lagNanos) {
+    }
+
+    /**
+     * A {@link Request} started running.
+     *
+     * @param queueWaitNanos time from {@link Request#run(ResultCallback)} until the request started running
+     */
+    public void onRequestStarted(long queueWaitNanos) {
+    }
+}
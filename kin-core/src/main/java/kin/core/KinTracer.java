@@ -0,0 +1,67 @@
+package kin.core;
+
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+/**
+ * Exports per operation traces of a {@link KinClient} to a tracing system, register using {@link
+ * KinClient#setTracer(KinTracer)}.
+ * <p>Each {@link Request} is traced as a {@value #SPAN_REQUEST} span, with child spans for the time it waited in the
+ * queue ({@value #SPAN_REQUEST_QUEUE}), each transaction phase ({@value #SPAN_PHASE_PREFIX}{@code <phase>}), each
+ * horizon http call ({@value #SPAN_HTTP}) and the main thread callback post ({@value #SPAN_REQUEST_CALLBACK}). Stream
+ * events are traced as {@value #SPAN_EVENT} root spans, from receipt on the stream until delivered to the listener,
+ * with a {@value #SPAN_EVENT_LISTENER} child span for the listener run. Spans of synchronous calls made by the
+ * application are children of the span returned by {@link #currentSpan()}, if any.</p>
+ * <p>Most spans are reported once their duration is known, so start times are passed explicitly. All times are in
+ * {@link System#nanoTime()} units. Implementations must be thread safe, exceptions thrown are ignored.</p>
+ */
+public interface KinTracer {
+
+    String SPAN_REQUEST = "kin.request";
+    String SPAN_REQUEST_QUEUE = "kin.request.queue";
+    String SPAN_REQUEST_CALLBACK = "kin.request.callback";
+    String SPAN_PHASE_PREFIX = "kin.phase.";
+    String SPAN_HTTP = "kin.http";
+    String SPAN_EVENT = "kin.event";
+    String SPAN_EVENT_LISTENER = "kin.event.listener";
+    /**
+     * {@link KinAccount} or {@link KinClient} method name of a {@value #SPAN_REQUEST} span.
+     */
+    String ATTRIBUTE_OPERATION = "kin.operation";
+    /**
+     * One of the {@link KinMetrics} {@code ROUTE_} constants, of {@value #SPAN_HTTP} spans.
+     */
+    String ATTRIBUTE_HTTP_ROUTE = "http.route";
+    String ATTRIBUTE_HTTP_STATUS_CODE = "http.status_code";
+    /**
+     * Exception class name, set on spans of failed operations.
+     */
+    String ATTRIBUTE_ERROR = "error";
+
+    /**
+     * Starts a span.
+     *
+     * @param parent parent span, null for a root span
+     * @param startNanos span start time
+     */
+    @NonNull
+    Span startSpan(@NonNull String name, @Nullable Span parent, long startNanos);
+
+    /**
+     * Returns the span of the application operation running on the calling thread, used as the parent of spans of
+     * synchronous calls, null for none.
+     */
+    @Nullable
+    Span currentSpan();
+
+    interface Span {
+
+        void setAttribute(@NonNull String key, @NonNull String value);
+
+        /**
+         * @param endNanos span end time
+         */
+        void end(long endNanos);
+    }
+}
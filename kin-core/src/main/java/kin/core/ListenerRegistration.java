@@ -1,23 +1,125 @@
 package kin.core;
 
 
-import com.here.oksse.ServerSentEvent;
+import static kin.core.Utils.checkNotNull;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 
 /**
  * Represents a listener to {@link BlockchainEvents}, that can be removed using {@link #remove()}.
+ * <p>Health of the horizon stream serving the listener is available through {@link #getStreamState()}, {@link
+ * #getLastActivityMillis()} and {@link #getReconnectCount()}, streams reconnect on their own when connection is
+ * lost.</p>
  */
 public class ListenerRegistration {
 
-    private final ServerSentEvent serverSentEvent;
+    private final EventDispatcher<?> dispatcher;
+    private final Subscription subscription;
+    private volatile boolean removed;
+    @Nullable
+    private ListenerScope scope;
 
-    ListenerRegistration(ServerSentEvent serverSentEvent) {
-        this.serverSentEvent = serverSentEvent;
+    ListenerRegistration(EventDispatcher<?> dispatcher, Subscription subscription) {
+        this.dispatcher = dispatcher;
+        this.subscription = subscription;
     }
 
     /**
-     * Remove and unregisters this listener.
+     * Remove and unregisters this listener, events not yet delivered to the listener are dropped.
      */
     public void remove() {
-        serverSentEvent.close();
+        removed = true;
+        ListenerScope boundScope;
+        synchronized (this) {
+            boundScope = scope;
+            scope = null;
+        }
+        if (boundScope != null) {
+            boundScope.remove(this);
+        }
+        dispatcher.cancel();
+        subscription.unsubscribe();
+    }
+
+    /**
+     * Binds this listener to a scope, the listener is suspended while the scope is suspended, see {@link
+     * ListenerScope}. A listener is bound to a single scope, binding again moves it to the new scope.
+     *
+     * @return this registration
+     */
+    @NonNull
+    public ListenerRegistration bindTo(@NonNull ListenerScope scope) {
+        checkNotNull(scope, "scope");
+        ListenerScope previousScope;
+        synchronized (this) {
+            if (removed) {
+                return this;
+            }
+            previousScope = this.scope;
+            this.scope = scope;
+        }
+        if (previousScope != null && previousScope != scope) {
+            previousScope.remove(this);
+        }
+        scope.add(this);
+        return this;
+    }
+
+    /**
+     * @return connection state of the stream serving this listener, {@link StreamState#CLOSED} once removed
+     */
+    @StreamState
+    public int getStreamState() {
+        SupervisedStream stream = getStream();
+        return stream != null ? stream.getState() : StreamState.CLOSED;
+    }
+
+    /**
+     * @return wall clock time (as in {@link System#currentTimeMillis()}) of the last event or heartbeat received by
+     * the stream serving this listener, 0 if nothing was received yet
+     */
+    public long getLastActivityMillis() {
+        SupervisedStream stream = getStream();
+        return stream != null ? stream.getLastActivityMillis() : 0;
+    }
+
+    /**
+     * @return times the stream serving this listener reconnected, after errors, idle timeouts or network changes
+     */
+    public int getReconnectCount() {
+        SupervisedStream stream = getStream();
+        return stream != null ? stream.getReconnectCount() : 0;
+    }
+
+    void setSuspended(boolean suspended) {
+        if (!removed) {
+            subscription.setSuspended(suspended);
+        }
+    }
+
+    @Nullable
+    SupervisedStream getStream() {
+        return removed ? null : subscription.getStream();
+    }
+
+    /**
+     * Stream side of a listener, streams are replaced when all of their listeners are removed and new ones are added.
+     */
+    interface Subscription {
+
+        void unsubscribe();
+
+        /**
+         * A suspended listener does not need the stream to stay open, the stream is suspended while all of its
+         * listeners are.
+         */
+        void setSuspended(boolean suspended);
+
+        /**
+         * @return the stream currently serving the listener
+         */
+        @Nullable
+        SupervisedStream getStream();
     }
 }
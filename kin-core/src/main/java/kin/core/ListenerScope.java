@@ -0,0 +1,99 @@
+package kin.core;
+
+
+import static kin.core.Utils.checkNotNull;
+
+import android.app.Application;
+import android.content.Context;
+import android.support.annotation.NonNull;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A group of listeners that can be suspended and resumed together, bind listeners using {@link
+ * ListenerRegistration#bindTo(ListenerScope)}.
+ * <p>While suspended, streams serving only suspended listeners are closed and hold no horizon connection. On resume,
+ * each stream reconnects once from its last received event, and events that happened meanwhile are delivered before
+ * new ones, so no event is missed. Streams that also serve listeners outside of the scope stay open.</p>
+ * <p>Use {@link #appForeground(Context)} for suspending listeners while the app is in background, or create a scope
+ * and call {@link #suspend()} and {@link #resume()} from any lifecycle.</p>
+ */
+public class ListenerScope {
+
+    private static ListenerScope appForegroundScope;
+    private final Set<ListenerRegistration> registrations = new LinkedHashSet<>();
+    private boolean suspended;
+
+    /**
+     * Returns the app foreground scope, suspended while none of the app activities is started (after a short grace
+     * period, so configuration changes and activity transitions do not suspend it), and resumed when an activity
+     * starts.
+     *
+     * @param context any context of the app
+     */
+    @NonNull
+    public static synchronized ListenerScope appForeground(@NonNull Context context) {
+        checkNotNull(context, "context");
+        if (appForegroundScope == null) {
+            ListenerScope scope = new ListenerScope();
+            ForegroundTracker.register((Application) context.getApplicationContext(), scope);
+            appForegroundScope = scope;
+        }
+        return appForegroundScope;
+    }
+
+    /**
+     * Suspends all listeners of the scope, listeners bound while suspended are suspended right away.
+     */
+    public void suspend() {
+        setSuspended(true);
+    }
+
+    /**
+     * Resumes all listeners of the scope.
+     */
+    public void resume() {
+        setSuspended(false);
+    }
+
+    public synchronized boolean isSuspended() {
+        return suspended;
+    }
+
+    /**
+     * Removes all listeners bound to the scope, for scopes that end (e.g. a screen that is closed).
+     */
+    public void removeAll() {
+        List<ListenerRegistration> bound;
+        synchronized (this) {
+            bound = new ArrayList<>(registrations);
+        }
+        for (ListenerRegistration registration : bound) {
+            registration.remove();
+        }
+    }
+
+    synchronized void add(@NonNull ListenerRegistration registration) {
+        if (registrations.add(registration) && suspended) {
+            registration.setSuspended(true);
+        }
+    }
+
+    synchronized void remove(@NonNull ListenerRegistration registration) {
+        if (registrations.remove(registration) && suspended) {
+            registration.setSuspended(false);
+        }
+    }
+
+    private synchronized void setSuspended(boolean suspended) {
+        if (this.suspended == suspended) {
+            return;
+        }
+        this.suspended = suspended;
+        for (ListenerRegistration registration : registrations) {
+            registration.setSuspended(suspended);
+        }
+    }
+}
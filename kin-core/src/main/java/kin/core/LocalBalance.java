@@ -0,0 +1,43 @@
+package kin.core;
+
+
+import android.support.annotation.NonNull;
+import java.math.BigDecimal;
+
+/**
+ * Locally tracked balance of an account, see {@link KinAccount#getLocalBalance()}.
+ */
+public final class LocalBalance {
+
+    private final BigDecimal confirmed;
+    private final BigDecimal pending;
+
+    LocalBalance(BigDecimal confirmed, BigDecimal pending) {
+        this.confirmed = confirmed;
+        this.pending = pending;
+    }
+
+    /**
+     * Balance on the blockchain, including payments sent by this account that completed.
+     */
+    @NonNull
+    public BigDecimal confirmed() {
+        return confirmed;
+    }
+
+    /**
+     * Total amount of outgoing payments that are being sent and not completed yet.
+     */
+    @NonNull
+    public BigDecimal pending() {
+        return pending;
+    }
+
+    /**
+     * Balance available for spending, confirmed balance minus pending outgoing payments.
+     */
+    @NonNull
+    public BigDecimal available() {
+        return confirmed.subtract(pending);
+    }
+}
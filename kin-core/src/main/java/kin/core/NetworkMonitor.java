@@ -0,0 +1,78 @@
+package kin.core;
+
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.net.ConnectivityManager;
+import android.net.NetworkInfo;
+import android.support.annotation.NonNull;
+import java.lang.ref.WeakReference;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Reconnects horizon streams as soon as network connectivity is restored or the device switches networks, instead of
+ * waiting for the stream backoff or idle timeout.
+ * <p>A single receiver is registered per process, horizon clients are held weakly, so a client no longer used by the
+ * app is not kept alive by the receiver.</p>
+ */
+class NetworkMonitor extends BroadcastReceiver {
+
+    private static final int TYPE_NONE = -1;
+    //guarded by NetworkMonitor.class
+    private static NetworkMonitor instance;
+    private final List<WeakReference<HorizonClient>> horizonClients = new CopyOnWriteArrayList<>();
+    private int connectedType = TYPE_NONE;
+
+    private NetworkMonitor() {
+    }
+
+    static synchronized void register(@NonNull Context context, @NonNull HorizonClient horizonClient) {
+        if (instance == null) {
+            instance = new NetworkMonitor();
+            context.getApplicationContext().registerReceiver(instance,
+                new IntentFilter(ConnectivityManager.CONNECTIVITY_ACTION));
+        }
+        instance.removeCollected();
+        instance.horizonClients.add(new WeakReference<>(horizonClient));
+    }
+
+    @Override
+    public void onReceive(Context context, Intent intent) {
+        NetworkInfo networkInfo = getActiveNetworkInfo(context);
+        int type = networkInfo != null && networkInfo.isConnected() ? networkInfo.getType() : TYPE_NONE;
+        //the sticky broadcast delivered on registration reports the current network, not a change
+        boolean changed = !isInitialStickyBroadcast() && type != connectedType;
+        connectedType = type;
+        if (changed && type != TYPE_NONE) {
+            for (WeakReference<HorizonClient> reference : horizonClients) {
+                HorizonClient horizonClient = reference.get();
+                if (horizonClient != null) {
+                    horizonClient.onNetworkRestored();
+                }
+            }
+        }
+        removeCollected();
+    }
+
+    private void removeCollected() {
+        for (WeakReference<HorizonClient> reference : horizonClients) {
+            if (reference.get() == null) {
+                horizonClients.remove(reference);
+            }
+        }
+    }
+
+    private static NetworkInfo getActiveNetworkInfo(Context context) {
+        ConnectivityManager connectivityManager =
+            (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+        try {
+            return connectivityManager != null ? connectivityManager.getActiveNetworkInfo() : null;
+        } catch (SecurityException e) {
+            //ACCESS_NETWORK_STATE removed from the merged manifest
+            return null;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package kin.core;
+
+import static java.lang.annotation.RetentionPolicy.SOURCE;
+import static kin.core.OverflowStrategy.BLOCK;
+import static kin.core.OverflowStrategy.COALESCE;
+import static kin.core.OverflowStrategy.DROP_OLDEST;
+
+import android.support.annotation.IntDef;
+import java.lang.annotation.Retention;
+
+/**
+ * What to do with a new event when the {@link DispatchPolicy} queue of a listener is full.
+ */
+@Retention(SOURCE)
+@IntDef({BLOCK, DROP_OLDEST, COALESCE})
+public @interface OverflowStrategy {
+
+    /**
+     * Wait until the listener drains an event from the queue, no events are lost, but a listener that falls behind by
+     * a full queue will hold back the stream reader, and with it all other listeners of the stream, long enough
+     * waits also trip the stream idle timeout. Opt-in only, use with a queue large enough for bursts, and listeners
+     * that never block.
+     */
+    int BLOCK = 0;
+    /**
+     * Drop the oldest undelivered event, to make room for the new one. Default for payment listeners.
+     */
+    int DROP_OLDEST = 1;
+    /**
+     * Keep only the latest undelivered event, events that were not delivered yet are replaced by the new one, queue
+     * size is ignored. Suits state events like balance, where only the most recent value matters.
+     */
+    int COALESCE = 2;
+}
@@ -0,0 +1,69 @@
+package kin.core;
+
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import java.math.BigDecimal;
+import org.stellar.sdk.KeyPair;
+
+/**
+ * A single payment to be signed by {@link KinAccount#signPaymentsSync(java.util.List)}, with a pre-assigned
+ * transaction sequence number.
+ */
+public final class PaymentSpec {
+
+    private final KeyPair destination;
+    private final BigDecimal amount;
+    @Nullable
+    private final String memo;
+    private final long sequenceNumber;
+
+    /**
+     * @param destinationAddress the account address to send the specified kin amount to
+     * @param amount the amount of kin to transfer
+     * @param memo optional string, up to 28 characters
+     * @param sequenceNumber sequence number of the signed transaction, each transaction of the sending account must
+     * use the next sequence number (current account sequence + 1 for the first one)
+     * @throws IllegalArgumentException if any of the parameters is invalid
+     */
+    public PaymentSpec(@NonNull String destinationAddress, @NonNull BigDecimal amount, @Nullable String memo,
+        long sequenceNumber) {
+        Utils.checkNotNull(destinationAddress, "destinationAddress");
+        Utils.checkNotNull(amount, "amount");
+        if (amount.signum() == -1) {
+            throw new IllegalArgumentException("Amount can't be negative");
+        }
+        if (memo != null && memo.length() > TransactionSender.MEMO_LENGTH_LIMIT) {
+            throw new IllegalArgumentException("Memo cannot be longer that 28 characters");
+        }
+        try {
+            this.destination = KeyPair.fromAccountId(destinationAddress);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Invalid destination address format - " + destinationAddress, e);
+        }
+        this.amount = amount;
+        this.memo = memo;
+        this.sequenceNumber = sequenceNumber;
+    }
+
+    public String getDestinationAddress() {
+        return destination.getAccountId();
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    @Nullable
+    public String getMemo() {
+        return memo;
+    }
+
+    public long getSequenceNumber() {
+        return sequenceNumber;
+    }
+
+    KeyPair getDestination() {
+        return destination;
+    }
+}
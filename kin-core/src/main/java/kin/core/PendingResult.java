@@ -0,0 +1,144 @@
+package kin.core;
+
+
+import android.support.annotation.NonNull;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Result of an operation completing asynchronously, such as waiting for blockchain events, no thread is held while
+ * the result is pending.
+ * <p>Completed once, by a result, an error, a timeout or cancellation, later completions are ignored. Callbacks are
+ * called on the shared await scheduler, never on the completing thread (e.g. a stream reader).</p>
+ */
+final class PendingResult<T> {
+
+    //single daemon thread for timers only: firing wait timeouts and notifying callbacks, nothing slow runs on it
+    private static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+        new ThreadFactory() {
+            @Override
+            public Thread newThread(@NonNull Runnable runnable) {
+                Thread thread = new Thread(runnable, "kin-await");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    private final List<ResultCallback<T>> callbacks = new ArrayList<>();
+    private boolean done;
+    private T result;
+    private Exception error;
+    private ScheduledFuture<?> timeout;
+
+    static ScheduledExecutorService scheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Fails with {@code timeoutError} unless completed within {@code timeout}.
+     */
+    synchronized PendingResult<T> withTimeout(long timeout, @NonNull TimeUnit unit,
+        @NonNull final Exception timeoutError) {
+        if (!done) {
+            this.timeout = scheduler.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    setError(timeoutError);
+                }
+            }, timeout, unit);
+        }
+        return this;
+    }
+
+    boolean setResult(T result) {
+        return complete(result, null);
+    }
+
+    boolean setError(@NonNull Exception error) {
+        return complete(null, error);
+    }
+
+    void cancel() {
+        setError(new CancellationException());
+    }
+
+    synchronized boolean isDone() {
+        return done;
+    }
+
+    /**
+     * Adds a callback notified once on completion, right away if already completed.
+     */
+    void addCallback(@NonNull ResultCallback<T> callback) {
+        synchronized (this) {
+            if (!done) {
+                callbacks.add(callback);
+                return;
+            }
+        }
+        notifyLater(callback);
+    }
+
+    /**
+     * Blocks the calling thread until completed.
+     *
+     * @return the result
+     * @throws Exception the error completing this result
+     */
+    synchronized T get() throws Exception {
+        while (!done) {
+            wait();
+        }
+        if (error != null) {
+            throw error;
+        }
+        return result;
+    }
+
+    private boolean complete(T result, Exception error) {
+        List<ResultCallback<T>> completedCallbacks;
+        synchronized (this) {
+            if (done) {
+                return false;
+            }
+            done = true;
+            this.result = result;
+            this.error = error;
+            if (timeout != null) {
+                timeout.cancel(false);
+                timeout = null;
+            }
+            completedCallbacks = new ArrayList<>(callbacks);
+            callbacks.clear();
+            notifyAll();
+        }
+        for (ResultCallback<T> callback : completedCallbacks) {
+            notifyLater(callback);
+        }
+        return true;
+    }
+
+    private void notifyLater(final ResultCallback<T> callback) {
+        scheduler.execute(new Runnable() {
+            @Override
+            public void run() {
+                T result;
+                Exception error;
+                synchronized (PendingResult.this) {
+                    result = PendingResult.this.result;
+                    error = PendingResult.this.error;
+                }
+                if (error != null) {
+                    callback.onError(error);
+                } else {
+                    callback.onResult(result);
+                }
+            }
+        });
+    }
+}
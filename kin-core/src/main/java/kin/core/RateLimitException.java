@@ -0,0 +1,22 @@
+package kin.core;
+
+
+import java.io.IOException;
+
+/**
+ * A horizon request was shed by the {@link RateLimiter}, surfaced to callers as {@link
+ * kin.core.exception.RateLimitedException}.
+ */
+class RateLimitException extends IOException {
+
+    private final long retryAfterMillis;
+
+    RateLimitException(long retryAfterMillis) {
+        super("rate limited, retry after " + retryAfterMillis + " ms");
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+}
@@ -0,0 +1,162 @@
+package kin.core;
+
+
+import android.support.annotation.NonNull;
+import java.util.concurrent.TimeUnit;
+import okhttp3.Response;
+
+/**
+ * Limits the rate of horizon requests, so a busy client backs off when horizon rate limits it, instead of retrying into
+ * a wall of 429 responses.
+ * <p>Horizon 429 responses and exhausted rate limit headers always pause all requests until horizon's reset time.
+ * An optional client side token bucket, off by default, is set with {@link #setRate(double, int)}: every request takes
+ * a permit, permits refill at a steady rate up to a burst size.</p>
+ * <p>A request finding no permit waits for one, up to the max wait of its priority, beyond that it is shed with a
+ * {@link RateLimitException}. Submissions wait the longest, background requests are shed right away.</p>
+ */
+class RateLimiter {
+
+    static final int PRIORITY_BACKGROUND = 0;
+    static final int PRIORITY_READ = 1;
+    static final int PRIORITY_SUBMIT = 2;
+    //pause after a 429 response without a usable Retry-After header
+    static final long DEFAULT_RETRY_AFTER_MILLIS = 1000;
+    static final int HTTP_TOO_MANY_REQUESTS = 429;
+    static final String HEADER_RETRY_AFTER = "Retry-After";
+    static final String HEADER_RATE_LIMIT_REMAINING = "X-Ratelimit-Remaining";
+    //seconds until horizon's rate limit window resets
+    static final String HEADER_RATE_LIMIT_RESET = "X-Ratelimit-Reset";
+    private static final long[] MAX_WAIT_MILLIS = {0, 5 * 1000, 30 * 1000};
+    //0 while the token bucket is off
+    private double nanosPerPermit;
+    private int burst;
+    private double permits;
+    //permits refill from this time on, in the future while paused
+    private long refillTime;
+
+    RateLimiter() {
+        this(0, 0);
+    }
+
+    RateLimiter(double permitsPerSecond, int burst) {
+        this.refillTime = System.nanoTime();
+        setRate(permitsPerSecond, burst);
+    }
+
+    /**
+     * Sets the client side token bucket.
+     *
+     * @param permitsPerSecond steady request rate, 0 turns the token bucket off
+     * @param burst max requests sent at once after an idle period, ignored while the token bucket is off
+     */
+    synchronized void setRate(double permitsPerSecond, int burst) {
+        if (permitsPerSecond < 0 || (permitsPerSecond > 0 && burst < 1)) {
+            throw new IllegalArgumentException("Invalid rate limit - " + permitsPerSecond + "/s, burst " + burst);
+        }
+        boolean wasLimited = isLimited();
+        refill(System.nanoTime());
+        this.nanosPerPermit = permitsPerSecond > 0 ? TimeUnit.SECONDS.toNanos(1) / permitsPerSecond : 0;
+        this.burst = burst;
+        this.permits = wasLimited ? Math.min(permits, burst) : burst;
+    }
+
+    /**
+     * Takes a permit, which might be available only in the future.
+     *
+     * @param priority one of the {@code PRIORITY_} constants
+     * @param now current {@link System#nanoTime()}
+     * @return time to wait before sending the request, in nanoseconds
+     * @throws RateLimitException the wait exceeds the max wait of the priority, no permit was taken
+     */
+    synchronized long reserve(int priority, long now) throws RateLimitException {
+        refill(now);
+        long readyTime = Math.max(now, refillTime);
+        if (isLimited() && permits < 1) {
+            readyTime += (long) Math.ceil((1 - permits) * nanosPerPermit);
+        }
+        long wait = readyTime - now;
+        if (wait > TimeUnit.MILLISECONDS.toNanos(MAX_WAIT_MILLIS[priority])) {
+            throw new RateLimitException(toMillisCeil(wait));
+        }
+        if (isLimited()) {
+            permits -= 1;
+        }
+        return wait;
+    }
+
+    /**
+     * Takes a permit only if one is available right away.
+     */
+    boolean tryAcquire(long now) {
+        try {
+            return reserve(PRIORITY_BACKGROUND, now) == 0;
+        } catch (RateLimitException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Applies horizon rate limit feedback of a response.
+     *
+     * @param now current {@link System#nanoTime()}
+     * @return requested pause in milliseconds for 429 responses, 0 for other responses
+     */
+    synchronized long onResponse(@NonNull Response response, long now) {
+        if (response.code() == HTTP_TOO_MANY_REQUESTS) {
+            long retryAfterMillis = parseSeconds(response.header(HEADER_RETRY_AFTER), DEFAULT_RETRY_AFTER_MILLIS);
+            pause(now, retryAfterMillis);
+            return retryAfterMillis;
+        }
+        String remainingHeader = response.header(HEADER_RATE_LIMIT_REMAINING);
+        if (remainingHeader != null) {
+            try {
+                long remaining = Long.parseLong(remainingHeader.trim());
+                if (remaining <= 0) {
+                    pause(now, parseSeconds(response.header(HEADER_RATE_LIMIT_RESET), DEFAULT_RETRY_AFTER_MILLIS));
+                } else if (isLimited() && remaining < permits) {
+                    refill(now);
+                    permits = Math.min(permits, remaining);
+                }
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        return 0;
+    }
+
+    private void pause(long now, long millis) {
+        refill(now);
+        permits = Math.min(permits, 0);
+        refillTime = Math.max(refillTime, now + TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    private void refill(long now) {
+        if (now > refillTime) {
+            if (isLimited()) {
+                permits = Math.min(burst, permits + (now - refillTime) / nanosPerPermit);
+            }
+            refillTime = now;
+        }
+    }
+
+    private boolean isLimited() {
+        return nanosPerPermit > 0;
+    }
+
+    private static long parseSeconds(String header, long defaultMillis) {
+        if (header != null) {
+            try {
+                long seconds = Long.parseLong(header.trim());
+                if (seconds >= 0) {
+                    return TimeUnit.SECONDS.toMillis(seconds);
+                }
+            } catch (NumberFormatException ignored) {
+                //http date form is not used by horizon
+            }
+        }
+        return defaultMillis;
+    }
+
+    private static long toMillisCeil(long nanos) {
+        return (nanos + TimeUnit.MILLISECONDS.toNanos(1) - 1) / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
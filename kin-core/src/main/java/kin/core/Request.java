@@ -3,40 +3,167 @@ package kin.core;
 
 import android.os.Handler;
 import android.os.Looper;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
 /**
- * Represents {@link KinAccount} method invocation, each request will run sequentially on background thread,
- * and will notify {@link ResultCallback} witch success or error on main thread.
+ * Represents {@link KinAccount} method invocation, notifying {@link ResultCallback} with success or error on main
+ * thread.
+ * <p>Most requests run sequentially on a shared background thread. Requests that may block for long run on their own
+ * executor instead, and await requests only start on the background thread, completing later without holding a thread.
+ * Requests with a cached result may deliver it first, read on a separate background thread.</p>
  *
  * @param <T> request result type
  */
 public class Request<T> {
 
     private static final ExecutorService executorService = Executors.newSingleThreadExecutor();
+    //reads cached results, so they are not held back by running requests, and are not read on the main thread
+    private static final ExecutorService cacheExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(@NonNull Runnable runnable) {
+            Thread thread = new Thread(runnable, "kin-cache");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+    private final ExecutorService requestExecutor;
     private final Handler mainHandler;
     private final Callable<T> callable;
+    private final AsyncCallable<T> asyncCallable;
+    private final Telemetry telemetry;
+    private final String operation;
     private boolean cancelled;
     private boolean executed;
     private Future<?> future;
+    private PendingResult<T> pendingResult;
     private ResultCallback<T> resultCallback;
+    //span of a completed request, until its result is delivered on the main thread
+    private KinTracer.Span pendingSpan;
+    //provides a result delivered as soon as the request is run, ahead of the request own result
+    private Callable<T> cachedResult;
+    //request own result (or error) was posted, a cached result is no longer delivered
+    private boolean completed;
 
     Request(Callable<T> callable) {
+        this(callable, executorService, null, "");
+    }
+
+    /**
+     * @param telemetry reports queue wait and traces this request, null for not measuring
+     * @param operation name of the invoked method, for tracing
+     */
+    Request(Callable<T> callable, @Nullable Telemetry telemetry, String operation) {
+        this(callable, executorService, telemetry, operation);
+    }
+
+    /**
+     * @param requestExecutor executor to run this request on, instead of the default sequential one, for requests that
+     * may block for long (waiting for blockchain events) and shouldn't hold back other requests
+     * @param telemetry reports queue wait and traces this request, null for not measuring
+     * @param operation name of the invoked method, for tracing
+     */
+    Request(Callable<T> callable, ExecutorService requestExecutor, @Nullable Telemetry telemetry, String operation) {
         checkNotNull(callable, "callable");
         this.callable = callable;
+        this.asyncCallable = null;
+        this.requestExecutor = requestExecutor;
+        this.telemetry = telemetry;
+        this.operation = operation;
         this.mainHandler = new Handler(Looper.getMainLooper());
     }
 
+    /**
+     * @param asyncCallable started on the default sequential executor, should return quickly, the request completes
+     * with its {@link PendingResult}, no thread is held while the result is pending
+     * @param telemetry reports queue wait and traces this request, null for not measuring
+     * @param operation name of the invoked method, for tracing
+     */
+    Request(AsyncCallable<T> asyncCallable, @Nullable Telemetry telemetry, String operation) {
+        this(asyncCallable, executorService, telemetry, operation);
+    }
+
+    /**
+     * @param asyncCallable started on {@code requestExecutor}, the request completes with its {@link PendingResult},
+     * no thread is held while the result is pending
+     * @param telemetry reports queue wait and traces this request, null for not measuring
+     * @param operation name of the invoked method, for tracing
+     */
+    Request(AsyncCallable<T> asyncCallable, ExecutorService requestExecutor, @Nullable Telemetry telemetry,
+        String operation) {
+        checkNotNull(asyncCallable, "asyncCallable");
+        this.callable = null;
+        this.asyncCallable = asyncCallable;
+        this.requestExecutor = requestExecutor;
+        this.telemetry = telemetry;
+        this.operation = operation;
+        this.mainHandler = new Handler(Looper.getMainLooper());
+    }
+
+    /**
+     * Sets a provider of a cached result, delivered to {@link CachedResultCallback#onCachedResult(Object)} as soon as
+     * this request is run, if the request did not complete first. The provider is called on a background thread, a
+     * null result is not delivered.
+     */
+    Request<T> withCachedResult(Callable<T> cachedResult) {
+        this.cachedResult = cachedResult;
+        return this;
+    }
+
     /**
      * Run request asynchronously, notify {@code callback} with successful result or error
      */
     synchronized public void run(ResultCallback<T> callback) {
         checkBeforeRun(callback);
         executed = true;
-        submitFuture(callable, callback);
+        if (cachedResult != null && callback instanceof CachedResultCallback) {
+            deliverCachedResult((CachedResultCallback<T>) callback);
+        }
+        if (asyncCallable != null) {
+            submitAsync(asyncCallable, callback);
+        } else {
+            submitFuture(callable, callback);
+        }
+    }
+
+    private void deliverCachedResult(final CachedResultCallback<T> callback) {
+        final Callable<T> cachedResult = this.cachedResult;
+        cacheExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final T result;
+                try {
+                    result = cachedResult.call();
+                } catch (Exception e) {
+                    //best effort, the request result follows anyway
+                    return;
+                }
+                if (result != null) {
+                    postCachedResult(callback, result);
+                }
+            }
+        });
+    }
+
+    private synchronized void postCachedResult(final CachedResultCallback<T> callback, final T result) {
+        //posted under the same lock as the request result, so it's never delivered after it
+        if (cancelled || completed) {
+            return;
+        }
+        mainHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                if (resultCallback != null) {
+                    callback.onCachedResult(result);
+                }
+            }
+        });
     }
 
     private void checkBeforeRun(ResultCallback<T> callback) {
@@ -57,32 +184,147 @@ public class Request<T> {
 
     private void submitFuture(final Callable<T> callable, ResultCallback<T> callback) {
         this.resultCallback = callback;
-        future = executorService.submit(new Runnable() {
+        final long queuedAt = telemetry != null ? telemetry.start() : Telemetry.NOT_TIMED;
+        //trace context of the calling thread, parent of this request span
+        final KinTracer.Span parentSpan = queuedAt != Telemetry.NOT_TIMED ? telemetry.currentSpan() : null;
+        future = requestExecutor.submit(new Runnable() {
             @Override
             public void run() {
+                KinTracer.Span requestSpan = queuedAt != Telemetry.NOT_TIMED ?
+                    telemetry.requestStarted(parentSpan, operation, queuedAt) : null;
                 try {
-                    final T result = callable.call();
-                    executeOnMainThreadIfNotCancelled(new Runnable() {
-                        @Override
-                        public void run() {
-                            resultCallback.onResult(result);
-                        }
-                    });
-                } catch (final Exception e) {
-                    executeOnMainThreadIfNotCancelled(new Runnable() {
-                        @Override
-                        public void run() {
-                            resultCallback.onError(e);
-                        }
-                    });
+                    deliverResult(call(callable, requestSpan), requestSpan);
+                } catch (Exception e) {
+                    deliverError(e, requestSpan);
                 }
             }
         });
     }
 
-    private synchronized void executeOnMainThreadIfNotCancelled(Runnable runnable) {
-        if (!cancelled) {
+    private void submitAsync(final AsyncCallable<T> asyncCallable, ResultCallback<T> callback) {
+        this.resultCallback = callback;
+        final long queuedAt = telemetry != null ? telemetry.start() : Telemetry.NOT_TIMED;
+        final KinTracer.Span parentSpan = queuedAt != Telemetry.NOT_TIMED ? telemetry.currentSpan() : null;
+        future = requestExecutor.submit(new Runnable() {
+            @Override
+            public void run() {
+                //request span stays open until the pending result completes
+                final KinTracer.Span requestSpan = queuedAt != Telemetry.NOT_TIMED ?
+                    telemetry.requestStarted(parentSpan, operation, queuedAt) : null;
+                PendingResult<T> pending;
+                try {
+                    pending = start(asyncCallable, requestSpan);
+                } catch (Exception e) {
+                    deliverError(e, requestSpan);
+                    return;
+                }
+                setPendingResult(pending);
+                pending.addCallback(new ResultCallback<T>() {
+                    @Override
+                    public void onResult(T result) {
+                        deliverResult(result, requestSpan);
+                    }
+
+                    @Override
+                    public void onError(Exception e) {
+                        deliverError(e, requestSpan);
+                    }
+                });
+            }
+        });
+    }
+
+    private void deliverResult(final T result, @Nullable KinTracer.Span requestSpan) {
+        executeOnMainThreadIfNotCancelled(new Runnable() {
+            @Override
+            public void run() {
+                resultCallback.onResult(result);
+            }
+        }, requestSpan);
+    }
+
+    private void deliverError(final Exception e, @Nullable KinTracer.Span requestSpan) {
+        if (requestSpan != null) {
+            telemetry.setAttribute(requestSpan, KinTracer.ATTRIBUTE_ERROR, e.getClass().getName());
+        }
+        executeOnMainThreadIfNotCancelled(new Runnable() {
+            @Override
+            public void run() {
+                resultCallback.onError(e);
+            }
+        }, requestSpan);
+    }
+
+    private T call(Callable<T> callable, @Nullable KinTracer.Span requestSpan) throws Exception {
+        if (requestSpan == null) {
+            return callable.call();
+        }
+        KinTracer.Span previousSpan = telemetry.attach(requestSpan);
+        try {
+            return callable.call();
+        } finally {
+            telemetry.detach(previousSpan);
+        }
+    }
+
+    private PendingResult<T> start(AsyncCallable<T> asyncCallable, @Nullable KinTracer.Span requestSpan)
+        throws Exception {
+        if (requestSpan == null) {
+            return asyncCallable.start();
+        }
+        KinTracer.Span previousSpan = telemetry.attach(requestSpan);
+        try {
+            return asyncCallable.start();
+        } finally {
+            telemetry.detach(previousSpan);
+        }
+    }
+
+    private synchronized void setPendingResult(PendingResult<T> pending) {
+        if (cancelled) {
+            pending.cancel();
+        } else {
+            pendingResult = pending;
+        }
+    }
+
+    private synchronized void executeOnMainThreadIfNotCancelled(final Runnable runnable,
+        @Nullable KinTracer.Span requestSpan) {
+        if (cancelled) {
+            endCancelledSpan(requestSpan);
+            return;
+        }
+        completed = true;
+        if (requestSpan == null) {
             mainHandler.post(runnable);
+            return;
+        }
+        pendingSpan = requestSpan;
+        final long postedAt = System.nanoTime();
+        mainHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                KinTracer.Span span = takePendingSpan();
+                if (span != null) {
+                    long now = System.nanoTime();
+                    telemetry.endSpan(telemetry.startSpan(KinTracer.SPAN_REQUEST_CALLBACK, span, postedAt), now);
+                    telemetry.endSpan(span, now);
+                }
+                runnable.run();
+            }
+        });
+    }
+
+    private synchronized KinTracer.Span takePendingSpan() {
+        KinTracer.Span span = pendingSpan;
+        pendingSpan = null;
+        return span;
+    }
+
+    private void endCancelledSpan(@Nullable KinTracer.Span span) {
+        if (span != null) {
+            telemetry.setAttribute(span, KinTracer.ATTRIBUTE_ERROR, CancellationException.class.getName());
+            telemetry.endSpan(span, System.nanoTime());
         }
     }
 
@@ -100,6 +342,11 @@ public class Request<T> {
                 future.cancel(mayInterruptIfRunning);
             }
             future = null;
+            if (pendingResult != null) {
+                pendingResult.cancel();
+                pendingResult = null;
+            }
+            endCancelledSpan(takePendingSpan());
             mainHandler.removeCallbacksAndMessages(null);
             mainHandler.post(new Runnable() {
                 @Override
@@ -110,4 +357,14 @@ public class Request<T> {
         }
     }
 
+    /**
+     * Starts an operation that completes asynchronously, such as waiting for blockchain events.
+     */
+    interface AsyncCallable<T> {
+
+        /**
+         * Starts the operation, without waiting for it to complete.
+         */
+        PendingResult<T> start() throws Exception;
+    }
 }
@@ -2,11 +2,13 @@ package kin.core;
 
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import org.stellar.sdk.Asset;
 import org.stellar.sdk.AssetTypeCreditAlphaNum;
 import org.stellar.sdk.KeyPair;
 import org.stellar.sdk.Network;
-import org.stellar.sdk.responses.AccountResponse;
 
 /**
  * Provides blockchain network details
@@ -26,7 +28,7 @@ public class ServiceProvider {
     private static final String TEST_NETWORK_ISSUER = "GBC3SG6NGTSZ2OMH3FFGB7UVRQWILW367U4GSOOF4TFSZONV42UJXUH7";
     private static final String KIN_ASSET_CODE = "KIN";
 
-    private final String providerUrl;
+    private final List<String> providerUrls;
     private final Network network;
     @Nullable
     private KinAsset kinAsset;
@@ -39,7 +41,22 @@ public class ServiceProvider {
      * @param networkId the network id, use {@link #NETWORK_ID_MAIN} or {@link #NETWORK_ID_TEST} for public main/testnet
      */
     public ServiceProvider(String providerUrl, String networkId) {
-        this.providerUrl = providerUrl;
+        this(Collections.singletonList(providerUrl), networkId);
+    }
+
+    /**
+     * A ServiceProvider used to connect to a horizon network through multiple horizon servers.
+     * <p>Requests are routed to the server with the lowest measured latency among the healthy ones, and fail over to
+     * the other servers when a server does not respond or responds with a server error.</p>
+     *
+     * @param providerUrls the horizon servers to use, all of the same network
+     * @param networkId the network id, use {@link #NETWORK_ID_MAIN} or {@link #NETWORK_ID_TEST} for public main/testnet
+     */
+    public ServiceProvider(@NonNull List<String> providerUrls, String networkId) {
+        if (providerUrls == null || providerUrls.isEmpty()) {
+            throw new IllegalArgumentException("providerUrls cannot be empty.");
+        }
+        this.providerUrls = Collections.unmodifiableList(new ArrayList<>(providerUrls));
         this.network = new Network(networkId);
     }
 
@@ -59,8 +76,15 @@ public class ServiceProvider {
         return KIN_ASSET_CODE;
     }
 
+    /**
+     * Returns the first horizon server.
+     */
     final public String getProviderUrl() {
-        return providerUrl;
+        return providerUrls.get(0);
+    }
+
+    final public List<String> getProviderUrls() {
+        return providerUrls;
     }
 
     final public String getNetworkId() {
@@ -95,15 +119,9 @@ public class ServiceProvider {
             return asset != null && stellarKinAsset.equals(asset);
         }
 
-        boolean hasKinTrust(@NonNull AccountResponse addresseeAccount) {
-            AccountResponse.Balance balances[] = addresseeAccount.getBalances();
-            boolean hasTrust = false;
-            for (AccountResponse.Balance balance : balances) {
-                if (isKinAsset(balance.getAsset())) {
-                    hasTrust = true;
-                }
-            }
-            return hasTrust;
+        boolean isKinAsset(@Nullable String assetCode, @Nullable String assetIssuer) {
+            return stellarKinAsset.getCode().equals(assetCode)
+                && stellarKinAsset.getIssuer().getAccountId().equals(assetIssuer);
         }
 
         @NonNull
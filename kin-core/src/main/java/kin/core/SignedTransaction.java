@@ -0,0 +1,40 @@
+package kin.core;
+
+
+import android.support.annotation.NonNull;
+
+/**
+ * A signed transaction ready for submission, result of {@link KinAccount#signPaymentsSync(java.util.List)}.
+ */
+public final class SignedTransaction {
+
+    private final TransactionId id;
+    private final String envelopeXdr;
+    private final long sequenceNumber;
+
+    SignedTransaction(TransactionId id, String envelopeXdr, long sequenceNumber) {
+        this.id = id;
+        this.envelopeXdr = envelopeXdr;
+        this.sequenceNumber = sequenceNumber;
+    }
+
+    /**
+     * Transaction hash, the id the transaction will have once submitted.
+     */
+    @NonNull
+    public TransactionId id() {
+        return id;
+    }
+
+    /**
+     * Base64 encoded transaction envelope XDR, as expected by horizon transaction submission endpoint.
+     */
+    @NonNull
+    public String envelopeXdr() {
+        return envelopeXdr;
+    }
+
+    public long sequenceNumber() {
+        return sequenceNumber;
+    }
+}
@@ -0,0 +1,25 @@
+package kin.core;
+
+import static java.lang.annotation.RetentionPolicy.SOURCE;
+import static kin.core.SigningBackend.JAVA;
+import static kin.core.SigningBackend.NATIVE;
+
+import android.support.annotation.IntDef;
+import java.lang.annotation.Retention;
+
+/**
+ * Implementation used for signing transactions, see {@link KinClient#setSigningBackend(int)}.
+ */
+@Retention(SOURCE)
+@IntDef({JAVA, NATIVE})
+public @interface SigningBackend {
+
+    /**
+     * Pure java ed25519 implementation of the stellar sdk, the default.
+     */
+    int JAVA = 0;
+    /**
+     * Native libsodium ed25519 implementation, faster when signing many transactions.
+     */
+    int NATIVE = 1;
+}
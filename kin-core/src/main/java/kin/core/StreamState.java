@@ -0,0 +1,41 @@
+package kin.core;
+
+import static java.lang.annotation.RetentionPolicy.SOURCE;
+import static kin.core.StreamState.CLOSED;
+import static kin.core.StreamState.CONNECTED;
+import static kin.core.StreamState.CONNECTING;
+import static kin.core.StreamState.RECONNECTING;
+import static kin.core.StreamState.SUSPENDED;
+
+import android.support.annotation.IntDef;
+import java.lang.annotation.Retention;
+
+/**
+ * Connection state of the horizon stream serving a listener, see {@link ListenerRegistration#getStreamState()}.
+ */
+@Retention(SOURCE)
+@IntDef({CONNECTING, CONNECTED, RECONNECTING, CLOSED, SUSPENDED})
+public @interface StreamState {
+
+    /**
+     * Stream is being opened, for the first time or when resumed.
+     */
+    int CONNECTING = 0;
+    /**
+     * Stream is open and alive, events or heartbeats arrive within the idle timeout.
+     */
+    int CONNECTED = 1;
+    /**
+     * Stream lost its connection (error, server close or idle timeout), and is waiting to reconnect or reconnecting.
+     */
+    int RECONNECTING = 2;
+    /**
+     * Stream is closed, no more events will be delivered.
+     */
+    int CLOSED = 3;
+    /**
+     * Stream holds no connection while all of its listeners are suspended, see {@link ListenerScope}, it resumes from
+     * the last received event.
+     */
+    int SUSPENDED = 4;
+}
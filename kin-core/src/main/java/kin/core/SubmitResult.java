@@ -0,0 +1,51 @@
+package kin.core;
+
+
+import android.support.annotation.Nullable;
+import java.util.List;
+
+/**
+ * Horizon response of a transaction submit (/transactions POST).
+ */
+final class SubmitResult {
+
+    static final String RESULT_CODE_SUCCESS = "tx_success";
+    private final String hash;
+    private final long ledger;
+    private final String transactionResultCode;
+    private final List<String> operationsResultCodes;
+
+    SubmitResult(@Nullable String hash, long ledger, @Nullable String transactionResultCode,
+        @Nullable List<String> operationsResultCodes) {
+        this.hash = hash;
+        this.ledger = ledger;
+        this.transactionResultCode = transactionResultCode;
+        this.operationsResultCodes = operationsResultCodes;
+    }
+
+    boolean isSuccess() {
+        return hash != null;
+    }
+
+    @Nullable
+    String getHash() {
+        return hash;
+    }
+
+    long getLedger() {
+        return ledger;
+    }
+
+    /**
+     * @return transaction result code, {@link #RESULT_CODE_SUCCESS} for successful transactions
+     */
+    @Nullable
+    String getTransactionResultCode() {
+        return isSuccess() ? RESULT_CODE_SUCCESS : transactionResultCode;
+    }
+
+    @Nullable
+    List<String> getOperationsResultCodes() {
+        return operationsResultCodes;
+    }
+}
@@ -0,0 +1,411 @@
+package kin.core;
+
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import com.here.oksse.OkSse;
+import com.here.oksse.ServerSentEvent;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * A server sent events stream that stays connected until closed.
+ * <p>Horizon doesn't guarantee heartbeats, so a connection that was open and then stayed quiet for the idle timeout
+ * is reopened right away from the id of the last received event, which is not a failure: no backoff, no reconnect
+ * telemetry. If the reopened connection doesn't open within the idle timeout either, or a connection never opened,
+ * it's considered dead, which also catches half open sockets that never report an error. Lost connections are
+ * reopened with exponential backoff, resuming from the id of the last received event. {@link #reconnectNow()} skips
+ * the backoff, for when network connectivity is restored.</p>
+ * <p>A suspended stream holds no connection, when resumed it connects once from the last received event, and horizon
+ * replays the events missed meanwhile before streaming new ones.</p>
+ */
+class SupervisedStream {
+
+    static final long DEFAULT_IDLE_TIMEOUT_MILLIS = 60 * 1000;
+    static final long DEFAULT_MIN_BACKOFF_MILLIS = 1000;
+    static final long DEFAULT_MAX_BACKOFF_MILLIS = 60 * 1000;
+    private static final int MAX_CURSOR_THREADS = 2;
+    private static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+        new ThreadFactory() {
+            @Override
+            public Thread newThread(@NonNull Runnable runnable) {
+                Thread thread = new Thread(runnable, "kin-stream");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    //cursor resolving requests, off the scheduler thread, suspending many streams at once queues them
+    private static final ThreadPoolExecutor cursorExecutor = new ThreadPoolExecutor(MAX_CURSOR_THREADS,
+        MAX_CURSOR_THREADS, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(@NonNull Runnable runnable) {
+            Thread thread = new Thread(runnable, "kin-stream-cursor-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    static {
+        cursorExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    private final OkSse okSse;
+    private final Source source;
+    private final Telemetry telemetry;
+    private final String route;
+    private final long idleTimeoutNanos;
+    private final long minBackoffMillis;
+    private final long maxBackoffMillis;
+    private final Random random = new Random();
+    @Nullable
+    private volatile String cursor;
+    private volatile int state = StreamState.CONNECTING;
+    private volatile long lastActivityMillis;
+    private volatile long lastActivityNanos;
+    private volatile int reconnectCount;
+    private boolean suspended;
+    //incremented on resume, cancelling a suspension still resolving its cursor
+    private int resumeCount;
+    //incremented whenever the connection is dropped, callbacks and tasks of older connections are ignored
+    private int generation;
+    private int failureCount;
+    //the connection was reopened after being idle, and nothing arrived since
+    private boolean idleRefresh;
+    private ServerSentEvent serverSentEvent;
+    //idle watchdog while connected, backoff reconnect while disconnected
+    private ScheduledFuture<?> pendingTask;
+
+    /**
+     * Provides the requests of a stream and consumes its events.
+     */
+    interface Source {
+
+        /**
+         * @param cursor stream start position, null for streaming from the start
+         */
+        @NonNull
+        Request createRequest(@Nullable String cursor);
+
+        void onMessage(@NonNull String message);
+
+        /**
+         * The connection to the endpoint of the latest request was lost.
+         */
+        void onFailure();
+
+        /**
+         * Resolves a relative cursor ("now") to the position of the latest event, so a stream suspended for a while
+         * resumes without missing events. Called on a background thread.
+         *
+         * @return cursor to resume from, the given cursor if it is already a position or could not be resolved
+         */
+        @Nullable
+        String resolveCursor(@Nullable String cursor);
+    }
+
+    SupervisedStream(@NonNull OkSse okSse, @NonNull Source source, @NonNull Telemetry telemetry,
+        @NonNull String route, @Nullable String cursor, long idleTimeoutMillis, long minBackoffMillis,
+        long maxBackoffMillis) {
+        this.okSse = okSse;
+        this.source = source;
+        this.telemetry = telemetry;
+        this.route = route;
+        this.cursor = cursor;
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMillis);
+        this.minBackoffMillis = minBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+    }
+
+    synchronized void start() {
+        connect();
+    }
+
+    /**
+     * Closes the stream, no more events will be delivered.
+     */
+    synchronized void close() {
+        if (state == StreamState.CLOSED) {
+            return;
+        }
+        state = StreamState.CLOSED;
+        cancelPendingTask();
+        closeConnection();
+    }
+
+    /**
+     * Drops the current connection (which might be bound to a network that is gone) and reconnects right away,
+     * without waiting for the backoff.
+     */
+    void reconnectNow() {
+        scheduler.execute(new Runnable() {
+            @Override
+            public void run() {
+                synchronized (SupervisedStream.this) {
+                    if (state == StreamState.CLOSED || state == StreamState.SUSPENDED) {
+                        return;
+                    }
+                    cancelPendingTask();
+                    closeConnection();
+                    failureCount = 0;
+                    reconnect();
+                }
+            }
+        });
+    }
+
+    /**
+     * Closes the connection until {@link #resume()}, the cursor is resolved first (a request), so events that happen
+     * while suspended are delivered on resume.
+     */
+    void suspend() {
+        final int resumption;
+        synchronized (this) {
+            if (suspended || state == StreamState.CLOSED) {
+                return;
+            }
+            suspended = true;
+            resumption = resumeCount;
+        }
+        cursorExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                String startCursor = cursor;
+                String resolvedCursor = source.resolveCursor(startCursor);
+                synchronized (SupervisedStream.this) {
+                    if (resumption != resumeCount || state == StreamState.CLOSED) {
+                        return;
+                    }
+                    //events that arrived meanwhile carry a later position
+                    if (startCursor == null ? cursor == null : startCursor.equals(cursor)) {
+                        cursor = resolvedCursor;
+                    }
+                    cancelPendingTask();
+                    closeConnection();
+                    state = StreamState.SUSPENDED;
+                }
+            }
+        });
+    }
+
+    /**
+     * Reopens a suspended stream from the last received event.
+     */
+    synchronized void resume() {
+        if (!suspended) {
+            return;
+        }
+        suspended = false;
+        resumeCount++;
+        if (state == StreamState.SUSPENDED) {
+            state = StreamState.CONNECTING;
+            failureCount = 0;
+            connect();
+        }
+    }
+
+    @StreamState
+    int getState() {
+        return state;
+    }
+
+    /**
+     * @return wall clock time of the last event, comment or heartbeat, 0 if nothing arrived yet
+     */
+    long getLastActivityMillis() {
+        return lastActivityMillis;
+    }
+
+    /**
+     * @return number of reconnects after a lost connection, reopening an idle connection is not counted
+     */
+    int getReconnectCount() {
+        return reconnectCount;
+    }
+
+    /**
+     * @return id of the last received event, or the start cursor if no event arrived yet
+     */
+    @Nullable
+    String getCursor() {
+        return cursor;
+    }
+
+    private void connect() {
+        int connection = ++generation;
+        lastActivityNanos = System.nanoTime();
+        serverSentEvent = okSse.newServerSentEvent(source.createRequest(cursor), new ConnectionListener(connection));
+        scheduleWatchdog(connection, idleTimeoutNanos);
+    }
+
+    private void reconnect() {
+        state = StreamState.RECONNECTING;
+        reconnectCount++;
+        telemetry.streamReconnect(route);
+        connect();
+    }
+
+    private void scheduleWatchdog(final int connection, long delayNanos) {
+        pendingTask = scheduler.schedule(new Runnable() {
+            @Override
+            public void run() {
+                checkIdle(connection);
+            }
+        }, delayNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private synchronized void checkIdle(int connection) {
+        if (connection != generation) {
+            return;
+        }
+        long idleNanos = System.nanoTime() - lastActivityNanos;
+        if (idleNanos < idleTimeoutNanos) {
+            scheduleWatchdog(connection, idleTimeoutNanos - idleNanos);
+        } else if (state == StreamState.CONNECTED && !idleRefresh) {
+            refreshIdleConnection();
+        } else {
+            onConnectionLost(connection);
+        }
+    }
+
+    /**
+     * Reopens a quiet connection, horizon replays anything missed since the last received event.
+     */
+    private void refreshIdleConnection() {
+        cancelPendingTask();
+        closeConnection();
+        idleRefresh = true;
+        connect();
+    }
+
+    private synchronized void onConnectionLost(int connection) {
+        if (connection != generation || state == StreamState.CLOSED) {
+            return;
+        }
+        cancelPendingTask();
+        closeConnection();
+        source.onFailure();
+        idleRefresh = false;
+        state = StreamState.RECONNECTING;
+        failureCount++;
+        final int reconnection = generation;
+        pendingTask = scheduler.schedule(new Runnable() {
+            @Override
+            public void run() {
+                synchronized (SupervisedStream.this) {
+                    if (reconnection == generation && state != StreamState.CLOSED) {
+                        reconnect();
+                    }
+                }
+            }
+        }, backoffMillis(failureCount), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Exponential backoff with jitter, so clients disconnected together do not reconnect together.
+     */
+    private long backoffMillis(int failures) {
+        long backoff = Math.min(maxBackoffMillis, minBackoffMillis << Math.min(failures - 1, 16));
+        return backoff / 2 + (long) (random.nextDouble() * (backoff / 2));
+    }
+
+    private void closeConnection() {
+        //stale before closing, close callbacks of the connection are ignored
+        generation++;
+        if (serverSentEvent != null) {
+            serverSentEvent.close();
+            serverSentEvent = null;
+        }
+    }
+
+    private void cancelPendingTask() {
+        if (pendingTask != null) {
+            pendingTask.cancel(false);
+            pendingTask = null;
+        }
+    }
+
+    private synchronized boolean onActivity(int connection, @Nullable String eventId) {
+        if (connection != generation) {
+            return false;
+        }
+        lastActivityNanos = System.nanoTime();
+        lastActivityMillis = System.currentTimeMillis();
+        idleRefresh = false;
+        if (eventId != null) {
+            cursor = eventId;
+        }
+        return true;
+    }
+
+    /**
+     * Listener of a single connection, OkSse retries are disabled, reconnecting is up to the stream.
+     */
+    private class ConnectionListener implements ServerSentEvent.Listener {
+
+        private final int connection;
+
+        ConnectionListener(int connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public void onOpen(ServerSentEvent sse, Response response) {
+            synchronized (SupervisedStream.this) {
+                if (onActivity(connection, null)) {
+                    state = StreamState.CONNECTED;
+                }
+            }
+        }
+
+        @Override
+        public void onMessage(ServerSentEvent sse, String id, String event, String message) {
+            synchronized (SupervisedStream.this) {
+                if (!onActivity(connection, id)) {
+                    return;
+                }
+                //the connection works, next failure starts the backoff over
+                failureCount = 0;
+            }
+            if (message != null) {
+                source.onMessage(message);
+            }
+        }
+
+        @Override
+        public void onComment(ServerSentEvent sse, String comment) {
+            onActivity(connection, null);
+        }
+
+        @Override
+        public boolean onRetryTime(ServerSentEvent sse, long milliseconds) {
+            return true;
+        }
+
+        @Override
+        public boolean onRetryError(ServerSentEvent sse, Throwable throwable, Response response) {
+            onConnectionLost(connection);
+            return false;
+        }
+
+        @Override
+        public void onClosed(ServerSentEvent sse) {
+            onConnectionLost(connection);
+        }
+
+        @Override
+        public Request onPreRetry(ServerSentEvent sse, Request originalRequest) {
+            return originalRequest;
+        }
+    }
+}
@@ -0,0 +1,374 @@
+package kin.core;
+
+
+import android.support.annotation.Nullable;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Reports measurements to the {@link KinMetrics} and spans to the {@link KinTracer} registered on a {@link
+ * KinClient}, if any.
+ * <p>Disabled path is a couple of volatile reads, measuring code should take timestamps using {@link #start()}, which
+ * doesn't read the clock when both metrics and tracing are disabled. Spans of a timed step are reported at its end,
+ * as a child of the current span of the calling thread.</p>
+ */
+final class Telemetry {
+
+    static final long NOT_TIMED = Long.MIN_VALUE;
+    private static final String[] PHASE_SPAN_NAMES = {
+        KinTracer.SPAN_PHASE_PREFIX + "addressee_load",
+        KinTracer.SPAN_PHASE_PREFIX + "source_load",
+        KinTracer.SPAN_PHASE_PREFIX + "build",
+        KinTracer.SPAN_PHASE_PREFIX + "sign",
+        KinTracer.SPAN_PHASE_PREFIX + "submit",
+        KinTracer.SPAN_PHASE_PREFIX + "result_parse"
+    };
+    //span of the request running on the thread, parent of the spans reported by it
+    private final ThreadLocal<KinTracer.Span> currentSpan = new ThreadLocal<>();
+    private volatile KinMetrics metrics;
+    private volatile KinTracer tracer;
+
+    void setMetrics(@Nullable KinMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    void setTracer(@Nullable KinTracer tracer) {
+        this.tracer = tracer;
+    }
+
+    boolean isEnabled() {
+        return metrics != null || tracer != null;
+    }
+
+    /**
+     * @return current time for measuring a duration, or {@link #NOT_TIMED} if metrics and tracing are disabled
+     */
+    long start() {
+        return isEnabled() ? System.nanoTime() : NOT_TIMED;
+    }
+
+    void phase(@TransactionPhase int phase, long start) {
+        if (start == NOT_TIMED) {
+            return;
+        }
+        long end = System.nanoTime();
+        KinMetrics metrics = this.metrics;
+        if (metrics != null) {
+            try {
+                metrics.onTransactionPhase(phase, end - start);
+            } catch (RuntimeException ignored) {
+            }
+        }
+        endSpan(startSpan(PHASE_SPAN_NAMES[phase], currentSpan(), start), end);
+    }
+
+    void httpResponse(String route, int statusCode, long start) {
+        if (start == NOT_TIMED) {
+            return;
+        }
+        long end = System.nanoTime();
+        KinMetrics metrics = this.metrics;
+        if (metrics != null) {
+            try {
+                metrics.onHttpResponse(route, statusCode, end - start);
+            } catch (RuntimeException ignored) {
+            }
+        }
+        KinTracer.Span span = startSpan(KinTracer.SPAN_HTTP, currentSpan(), start);
+        setAttribute(span, KinTracer.ATTRIBUTE_HTTP_ROUTE, route);
+        setAttribute(span, KinTracer.ATTRIBUTE_HTTP_STATUS_CODE, String.valueOf(statusCode));
+        endSpan(span, end);
+    }
+
+    void httpFailure(String route, IOException error, long start) {
+        if (start == NOT_TIMED) {
+            return;
+        }
+        long end = System.nanoTime();
+        KinMetrics metrics = this.metrics;
+        if (metrics != null) {
+            try {
+                metrics.onHttpFailure(route, error, end - start);
+            } catch (RuntimeException ignored) {
+            }
+        }
+        KinTracer.Span span = startSpan(KinTracer.SPAN_HTTP, currentSpan(), start);
+        setAttribute(span, KinTracer.ATTRIBUTE_HTTP_ROUTE, route);
+        setAttribute(span, KinTracer.ATTRIBUTE_ERROR, error.getClass().getName());
+        endSpan(span, end);
+    }
+
+    void transactionResult(@Nullable String transactionResultCode, @Nullable List<String> operationsResultCodes) {
+        KinMetrics metrics = this.metrics;
+        if (metrics == null) {
+            return;
+        }
+        try {
+            metrics.onTransactionResult(transactionResultCode, operationsResultCodes);
+        } catch (RuntimeException ignored) {
+        }
+    }
+
+    void retry(String route, int attempt) {
+        KinMetrics metrics = this.metrics;
+        if (metrics == null) {
+            return;
+        }
+        try {
+            metrics.onRetry(route, attempt);
+        } catch (RuntimeException ignored) {
+        }
+    }
+
+    void hedge(String route) {
+        KinMetrics metrics = this.metrics;
+        if (metrics == null) {
+            return;
+        }
+        try {
+            metrics.onHedge(route);
+        } catch (RuntimeException ignored) {
+        }
+    }
+
+    void rateLimitWait(String route, long waitNanos) {
+        KinMetrics metrics = this.metrics;
+        if (metrics == null) {
+            return;
+        }
+        try {
+            metrics.onRateLimitWait(route, waitNanos);
+        } catch (RuntimeException ignored) {
+        }
+    }
+
+    void rateLimitShed(String route) {
+        KinMetrics metrics = this.metrics;
+        if (metrics == null) {
+            return;
+        }
+        try {
+            metrics.onRateLimitShed(route);
+        } catch (RuntimeException ignored) {
+        }
+    }
+
+    void rateLimited(String route, long retryAfterMillis) {
+        KinMetrics metrics = this.metrics;
+        if (metrics == null) {
+            return;
+        }
+        try {
+            metrics.onRateLimited(route, retryAfterMillis);
+        } catch (RuntimeException ignored) {
+        }
+    }
+
+    void circuitOpen(String endpoint) {
+        KinMetrics metrics = this.metrics;
+        if (metrics == null) {
+            return;
+        }
+        try {
+            metrics.onCircuitOpen(endpoint);
+        } catch (RuntimeException ignored) {
+        }
+    }
+
+    void circuitClose(String endpoint) {
+        KinMetrics metrics = this.metrics;
+        if (metrics == null) {
+            return;
+        }
+        try {
+            metrics.onCircuitClose(endpoint);
+        } catch (RuntimeException ignored) {
+        }
+    }
+
+    void streamReconnect(String route) {
+        KinMetrics metrics = this.metrics;
+        if (metrics == null) {
+            return;
+        }
+        try {
+            metrics.onStreamReconnect(route);
+        } catch (RuntimeException ignored) {
+        }
+    }
+
+    void eventDropped() {
+        KinMetrics metrics = this.metrics;
+        if (metrics == null) {
+            return;
+        }
+        try {
+            metrics.onEventDropped();
+        } catch (RuntimeException ignored) {
+        }
+    }
+
+    void eventDecodeFailure(String transactionHash, IOException error) {
+        KinMetrics metrics = this.metrics;
+        if (metrics == null) {
+            return;
+        }
+        try {
+            metrics.onEventDecodeFailure(transactionHash, error);
+        } catch (RuntimeException ignored) {
+        }
+    }
+
+    void eventParseFailure(String route, Exception error) {
+        KinMetrics metrics = this.metrics;
+        if (metrics == null) {
+            return;
+        }
+        try {
+            metrics.onEventParseFailure(route, error);
+        } catch (RuntimeException ignored) {
+        }
+    }
+
+    /**
+     * Reports an event dispatch lag, the event span is returned for reporting the listener run using {@link
+     * #eventDelivered(KinTracer.Span, long, Throwable)}.
+     *
+     * @param start event arrival time
+     * @return the event span, null if tracing is disabled
+     */
+    @Nullable
+    KinTracer.Span eventDispatched(long start) {
+        if (start == NOT_TIMED) {
+            return null;
+        }
+        long end = System.nanoTime();
+        KinMetrics metrics = this.metrics;
+        if (metrics != null) {
+            try {
+                metrics.onEventDispatched(end - start);
+            } catch (RuntimeException ignored) {
+            }
+        }
+        return startSpan(KinTracer.SPAN_EVENT, null, start);
+    }
+
+    /**
+     * Reports the listener run of an event, ends the event span.
+     *
+     * @param listenerStart time the listener was called
+     * @param error exception thrown by the listener, null if none
+     */
+    void eventDelivered(@Nullable KinTracer.Span eventSpan, long listenerStart, @Nullable Throwable error) {
+        if (eventSpan == null) {
+            return;
+        }
+        long end = System.nanoTime();
+        KinTracer.Span listenerSpan = startSpan(KinTracer.SPAN_EVENT_LISTENER, eventSpan, listenerStart);
+        if (error != null) {
+            setAttribute(listenerSpan, KinTracer.ATTRIBUTE_ERROR, error.getClass().getName());
+        }
+        endSpan(listenerSpan, end);
+        endSpan(eventSpan, end);
+    }
+
+    /**
+     * Reports a request queue wait, and starts the request span.
+     *
+     * @param parent span of the thread that ran the request
+     * @param start time the request was queued
+     * @return the request span, null if tracing is disabled
+     */
+    @Nullable
+    KinTracer.Span requestStarted(@Nullable KinTracer.Span parent, String operation, long start) {
+        if (start == NOT_TIMED) {
+            return null;
+        }
+        long end = System.nanoTime();
+        KinMetrics metrics = this.metrics;
+        if (metrics != null) {
+            try {
+                metrics.onRequestStarted(end - start);
+            } catch (RuntimeException ignored) {
+            }
+        }
+        KinTracer.Span requestSpan = startSpan(KinTracer.SPAN_REQUEST, parent, start);
+        setAttribute(requestSpan, KinTracer.ATTRIBUTE_OPERATION, operation);
+        endSpan(startSpan(KinTracer.SPAN_REQUEST_QUEUE, requestSpan, start), end);
+        return requestSpan;
+    }
+
+    /**
+     * @return span of the request running on the calling thread, or the application span if not called by a request
+     */
+    @Nullable
+    KinTracer.Span currentSpan() {
+        KinTracer.Span span = currentSpan.get();
+        if (span != null) {
+            return span;
+        }
+        KinTracer tracer = this.tracer;
+        if (tracer == null) {
+            return null;
+        }
+        try {
+            return tracer.currentSpan();
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Sets the span of the calling thread, parent of spans reported by the thread until {@link
+     * #detach(KinTracer.Span)}.
+     *
+     * @return previous span of the thread, to be restored using {@link #detach(KinTracer.Span)}
+     */
+    @Nullable
+    KinTracer.Span attach(@Nullable KinTracer.Span span) {
+        KinTracer.Span previous = currentSpan.get();
+        currentSpan.set(span);
+        return previous;
+    }
+
+    void detach(@Nullable KinTracer.Span previous) {
+        if (previous == null) {
+            currentSpan.remove();
+        } else {
+            currentSpan.set(previous);
+        }
+    }
+
+    @Nullable
+    KinTracer.Span startSpan(String name, @Nullable KinTracer.Span parent, long start) {
+        KinTracer tracer = this.tracer;
+        if (tracer == null || start == NOT_TIMED) {
+            return null;
+        }
+        try {
+            return tracer.startSpan(name, parent, start);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    void setAttribute(@Nullable KinTracer.Span span, String key, String value) {
+        if (span == null) {
+            return;
+        }
+        try {
+            span.setAttribute(key, value);
+        } catch (RuntimeException ignored) {
+        }
+    }
+
+    void endSpan(@Nullable KinTracer.Span span, long end) {
+        if (span == null) {
+            return;
+        }
+        try {
+            span.end(end);
+        } catch (RuntimeException ignored) {
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package kin.core;
+
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.Base64;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.stellar.sdk.Operation;
+import org.stellar.sdk.xdr.LedgerEntry.LedgerEntryData;
+import org.stellar.sdk.xdr.LedgerEntryChange;
+import org.stellar.sdk.xdr.LedgerEntryChangeType;
+import org.stellar.sdk.xdr.LedgerEntryType;
+import org.stellar.sdk.xdr.OperationMeta;
+import org.stellar.sdk.xdr.TransactionEnvelope;
+import org.stellar.sdk.xdr.TransactionMeta;
+import org.stellar.sdk.xdr.TrustLineEntry;
+import org.stellar.sdk.xdr.XdrDataInputStream;
+
+/**
+ * The subset of a horizon transaction response used by kin-core, see {@link HorizonParser#parseTransaction}.
+ * <p>Envelope and meta are kept as raw XDR, and decoded only when operations or ledger changes are requested, each
+ * at most once per instance, as the same instance is shared by all listeners of a stream.</p>
+ */
+final class TransactionData {
+
+    private final String hash;
+    private final String createdAt;
+    private final String sourceAccount;
+    private final String pagingToken;
+    @Nullable
+    private final String memo;
+    private final String envelopeXdr;
+    private final String resultMetaXdr;
+    private final boolean successful;
+    private List<Operation> operations;
+    private List<TrustLineEntry> updatedTrustLines;
+    private IOException operationsError;
+    private IOException updatedTrustLinesError;
+
+    TransactionData(String hash, String createdAt, String sourceAccount, String pagingToken, @Nullable String memo,
+        String envelopeXdr, String resultMetaXdr, boolean successful) {
+        this.hash = hash;
+        this.createdAt = createdAt;
+        this.sourceAccount = sourceAccount;
+        this.pagingToken = pagingToken;
+        this.memo = memo;
+        this.envelopeXdr = envelopeXdr;
+        this.resultMetaXdr = resultMetaXdr;
+        this.successful = successful;
+    }
+
+    String getHash() {
+        return hash;
+    }
+
+    String getCreatedAt() {
+        return createdAt;
+    }
+
+    String getSourceAccount() {
+        return sourceAccount;
+    }
+
+    String getPagingToken() {
+        return pagingToken;
+    }
+
+    /**
+     * @return the memo text, or null if the transaction has no text memo
+     */
+    @Nullable
+    String getMemo() {
+        return memo;
+    }
+
+    /**
+     * @return false if the transaction was included in a ledger but its operations failed
+     */
+    boolean isSuccessful() {
+        return successful;
+    }
+
+    /**
+     * Decodes the transaction envelope operations, decoded operations (or the decoding failure) are cached.
+     *
+     * @throws IOException if the envelope is malformed
+     */
+    @NonNull
+    synchronized List<Operation> getOperations() throws IOException {
+        if (operations == null && operationsError == null) {
+            try {
+                operations = decodeOperations();
+            } catch (IOException e) {
+                operationsError = e;
+            }
+        }
+        if (operationsError != null) {
+            throw operationsError;
+        }
+        return operations;
+    }
+
+    /**
+     * Decodes the transaction result meta, and returns all trust lines updated by this transaction, decoded trust lines
+     * (or the decoding failure) are cached.
+     *
+     * @throws IOException if the result meta is malformed
+     */
+    @NonNull
+    synchronized List<TrustLineEntry> getUpdatedTrustLines() throws IOException {
+        if (updatedTrustLines == null && updatedTrustLinesError == null) {
+            try {
+                updatedTrustLines = decodeUpdatedTrustLines();
+            } catch (IOException e) {
+                updatedTrustLinesError = e;
+            }
+        }
+        if (updatedTrustLinesError != null) {
+            throw updatedTrustLinesError;
+        }
+        return updatedTrustLines;
+    }
+
+    private List<Operation> decodeOperations() throws IOException {
+        if (envelopeXdr == null) {
+            return Collections.emptyList();
+        }
+        try {
+            TransactionEnvelope envelope = TransactionEnvelope.decode(xdrInputStream(envelopeXdr));
+            org.stellar.sdk.xdr.Operation[] xdrOperations = envelope.getTx().getOperations();
+            List<Operation> operations = new ArrayList<>(xdrOperations.length);
+            for (org.stellar.sdk.xdr.Operation xdrOperation : xdrOperations) {
+                operations.add(Operation.fromXdr(xdrOperation));
+            }
+            return Collections.unmodifiableList(operations);
+        } catch (RuntimeException e) {
+            //bad base64 or an operation type unknown to the sdk
+            throw new IOException("Malformed transaction envelope of " + hash, e);
+        }
+    }
+
+    private List<TrustLineEntry> decodeUpdatedTrustLines() throws IOException {
+        if (resultMetaXdr == null) {
+            return Collections.emptyList();
+        }
+        try {
+            TransactionMeta meta = TransactionMeta.decode(xdrInputStream(resultMetaXdr));
+            List<TrustLineEntry> trustLines = new ArrayList<>();
+            for (OperationMeta operationMeta : meta.getOperations()) {
+                for (LedgerEntryChange change : operationMeta.getChanges().getLedgerEntryChanges()) {
+                    if (change.getDiscriminant() == LedgerEntryChangeType.LEDGER_ENTRY_UPDATED) {
+                        LedgerEntryData data = change.getUpdated().getData();
+                        if (data.getDiscriminant() == LedgerEntryType.TRUSTLINE) {
+                            trustLines.add(data.getTrustLine());
+                        }
+                    }
+                }
+            }
+            return Collections.unmodifiableList(trustLines);
+        } catch (RuntimeException e) {
+            throw new IOException("Malformed transaction result meta of " + hash, e);
+        }
+    }
+
+    private static XdrDataInputStream xdrInputStream(String base64Xdr) {
+        byte[] bytes = Base64.decode(base64Xdr, Base64.DEFAULT);
+        return new XdrDataInputStream(new ByteArrayInputStream(bytes));
+    }
+}
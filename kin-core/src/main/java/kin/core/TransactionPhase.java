@@ -0,0 +1,45 @@
+package kin.core;
+
+import static java.lang.annotation.RetentionPolicy.SOURCE;
+import static kin.core.TransactionPhase.ADDRESSEE_LOAD;
+import static kin.core.TransactionPhase.BUILD;
+import static kin.core.TransactionPhase.RESULT_PARSE;
+import static kin.core.TransactionPhase.SIGN;
+import static kin.core.TransactionPhase.SOURCE_LOAD;
+import static kin.core.TransactionPhase.SUBMIT;
+
+import android.support.annotation.IntDef;
+import java.lang.annotation.Retention;
+
+/**
+ * Steps of sending a transaction, timed by {@link KinMetrics#onTransactionPhase(int, long)}.
+ */
+@Retention(SOURCE)
+@IntDef({ADDRESSEE_LOAD, SOURCE_LOAD, BUILD, SIGN, SUBMIT, RESULT_PARSE})
+public @interface TransactionPhase {
+
+    /**
+     * Fetching the destination account, verifying it exists and trusts kin.
+     */
+    int ADDRESSEE_LOAD = 0;
+    /**
+     * Fetching the source account, for its sequence number.
+     */
+    int SOURCE_LOAD = 1;
+    /**
+     * Building the transaction operations.
+     */
+    int BUILD = 2;
+    /**
+     * Signing the transaction.
+     */
+    int SIGN = 3;
+    /**
+     * Posting the transaction to horizon, until the response headers arrive (ledger close included).
+     */
+    int SUBMIT = 4;
+    /**
+     * Reading and parsing the submit response body.
+     */
+    int RESULT_PARSE = 5;
+}
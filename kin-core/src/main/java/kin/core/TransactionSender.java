@@ -15,28 +15,41 @@ import kin.core.exception.InsufficientKinException;
 import kin.core.exception.OperationFailedException;
 import kin.core.exception.TransactionFailedException;
 
+import org.stellar.sdk.Account;
 import org.stellar.sdk.ChangeTrustOperation;
 import org.stellar.sdk.KeyPair;
 import org.stellar.sdk.Memo;
 import org.stellar.sdk.PaymentOperation;
-import org.stellar.sdk.Server;
 import org.stellar.sdk.SetOptionsOperation;
 import org.stellar.sdk.Transaction;
 import org.stellar.sdk.Transaction.Builder;
-import org.stellar.sdk.responses.AccountResponse;
 import org.stellar.sdk.responses.HttpResponseException;
-import org.stellar.sdk.responses.SubmitTransactionResponse;
 
 class TransactionSender {
 
-    private static final int MEMO_LENGTH_LIMIT = 28; //Stellar text memo length limitation
+    static final int MEMO_LENGTH_LIMIT = 28; //Stellar text memo length limitation
     private static final String INSUFFICIENT_KIN_RESULT_CODE = "op_underfunded";
-    private final Server server; //horizon server
+    private final HorizonClient horizonClient;
     private final KinAsset kinAsset;
+    private final TransactionSigner transactionSigner;
+    private final BulkSigner bulkSigner;
+    private final Telemetry telemetry;
 
-    TransactionSender(Server server, KinAsset kinAsset) {
-        this.server = server;
+    /**
+     * Notified of a signed transaction about to be submitted.
+     */
+    interface SubmitListener {
+
+        void onSubmitting(@NonNull String hash);
+    }
+
+    TransactionSender(HorizonClient horizonClient, KinAsset kinAsset, TransactionSigner transactionSigner,
+        Telemetry telemetry) {
+        this.horizonClient = horizonClient;
         this.kinAsset = kinAsset;
+        this.transactionSigner = transactionSigner;
+        this.bulkSigner = new BulkSigner(kinAsset, transactionSigner);
+        this.telemetry = telemetry;
     }
 
     @NonNull
@@ -50,12 +63,28 @@ class TransactionSender {
     TransactionId sendTransaction(@NonNull KeyPair from, @NonNull String publicAddress, @NonNull BigDecimal amount,
                                   @Nullable String memo)
             throws OperationFailedException {
+        return sendTransaction(from, publicAddress, amount, memo, null);
+    }
+
+    /**
+     * @param submitListener notified with the transaction hash right before it's submitted, null for none
+     */
+    @NonNull
+    TransactionId sendTransaction(@NonNull KeyPair from, @NonNull String publicAddress, @NonNull BigDecimal amount,
+                                  @Nullable String memo, @Nullable SubmitListener submitListener)
+            throws OperationFailedException {
 
         checkParams(from, publicAddress, amount, memo);
         KeyPair addressee = generateAddresseeKeyPair(publicAddress);
+        long start = telemetry.start();
         verifyAddresseeAccount(addressee);
-        AccountResponse sourceAccount = loadSourceAccount(from);
-        Transaction transaction = buildTransaction(from, amount, addressee, sourceAccount, memo);
+        telemetry.phase(TransactionPhase.ADDRESSEE_LOAD, start);
+        Account sourceAccount = loadSourceAccount(from);
+        Transaction transaction = buildTransaction(amount, addressee, sourceAccount, memo);
+        sign(transaction, from);
+        if (submitListener != null) {
+            submitListener.onSubmitting(Utils.bytesToHex(transaction.hash()));
+        }
         return sendTransaction(transaction);
     }
 
@@ -63,11 +92,18 @@ class TransactionSender {
     TransactionId sendBurnTransaction(@NonNull KeyPair from, @NonNull BigDecimal balance)
             throws OperationFailedException {
         Utils.checkNotNull(from, "account");
-        AccountResponse sourceAccount = loadSourceAccount(from);
-        Transaction transaction = buildBurnTransaction(from, sourceAccount, balance);
+        Account sourceAccount = loadSourceAccount(from);
+        Transaction transaction = buildBurnTransaction(sourceAccount, balance);
+        sign(transaction, from);
         return sendTransaction(transaction);
     }
 
+    @NonNull
+    List<SignedTransaction> signPayments(@NonNull KeyPair from, @NonNull List<PaymentSpec> payments)
+        throws OperationFailedException {
+        return bulkSigner.sign(from, payments);
+    }
+
     private void checkParams(@NonNull KeyPair from, @NonNull String publicAddress, @NonNull BigDecimal amount,
                              @Nullable String memo) {
         Utils.checkNotNull(from, "account");
@@ -106,9 +142,9 @@ class TransactionSender {
     }
 
     @NonNull
-    private Transaction buildTransaction(@NonNull KeyPair from, @NonNull BigDecimal amount, KeyPair addressee,
-                                         AccountResponse sourceAccount, @Nullable String memo) {
-
+    private Transaction buildTransaction(@NonNull BigDecimal amount, KeyPair addressee, Account sourceAccount,
+                                         @Nullable String memo) {
+        long start = telemetry.start();
         Builder transactionBuilder = new Builder(sourceAccount)
                 .addOperation(
                         new PaymentOperation.Builder(addressee, kinAsset.getStellarAsset(), amount.toString()).build());
@@ -116,30 +152,41 @@ class TransactionSender {
             transactionBuilder.addMemo(Memo.text(memo));
         }
         Transaction transaction = transactionBuilder.build();
-        transaction.sign(from);
+        telemetry.phase(TransactionPhase.BUILD, start);
         return transaction;
     }
 
     @NonNull
-    private Transaction buildBurnTransaction(@NonNull KeyPair from, AccountResponse sourceAccount, BigDecimal balance) {
+    private Transaction buildBurnTransaction(Account sourceAccount, BigDecimal balance) {
+        long start = telemetry.start();
         Builder transactionBuilder = new Builder(sourceAccount)
                 .addOperation(new ChangeTrustOperation.Builder(kinAsset.getStellarAsset(), balance.toString()).build())
                 .addOperation(new SetOptionsOperation.Builder().setMasterKeyWeight(0).build());
         Transaction transaction = transactionBuilder.build();
-        transaction.sign(from);
+        telemetry.phase(TransactionPhase.BUILD, start);
         return transaction;
     }
 
+    private void sign(Transaction transaction, KeyPair from) {
+        long start = telemetry.start();
+        transactionSigner.sign(transaction, from);
+        telemetry.phase(TransactionPhase.SIGN, start);
+    }
+
     private void verifyAddresseeAccount(KeyPair addressee) throws OperationFailedException {
-        AccountResponse addresseeAccount;
-        addresseeAccount = loadAccount(addressee);
+        AccountData addresseeAccount;
+        addresseeAccount = loadAccount(addressee, true);
         checkKinTrust(addresseeAccount);
     }
 
-    private AccountResponse loadAccount(@NonNull KeyPair from) throws OperationFailedException {
-        AccountResponse sourceAccount;
+    /**
+     * @param hedge true for hedging the read, not used for the source account, as a lagging endpoint answering first
+     * would provide an outdated sequence number
+     */
+    private AccountData loadAccount(@NonNull KeyPair from, boolean hedge) throws OperationFailedException {
+        AccountData sourceAccount;
         try {
-            sourceAccount = server.accounts().account(from);
+            sourceAccount = horizonClient.getAccount(from.getAccountId(), hedge);
         } catch (HttpResponseException httpError) {
             if (httpError.getStatusCode() == 404) {
                 throw new AccountNotFoundException(from.getAccountId());
@@ -147,7 +194,7 @@ class TransactionSender {
                 throw new OperationFailedException(httpError);
             }
         } catch (IOException e) {
-            throw new OperationFailedException(e);
+            throw Utils.createOperationFailedException(e);
         }
         if (sourceAccount == null) {
             throw new OperationFailedException("can't retrieve data for account " + from.getAccountId());
@@ -155,23 +202,25 @@ class TransactionSender {
         return sourceAccount;
     }
 
-    private void checkKinTrust(AccountResponse accountResponse) throws AccountNotActivatedException {
-        if (!kinAsset.hasKinTrust(accountResponse)) {
-            throw new AccountNotActivatedException(accountResponse.getKeypair().getAccountId());
+    private void checkKinTrust(AccountData accountData) throws AccountNotActivatedException {
+        if (!accountData.hasKinTrust()) {
+            throw new AccountNotActivatedException(accountData.getAccountId());
         }
     }
 
-    private AccountResponse loadSourceAccount(@NonNull KeyPair from) throws OperationFailedException {
-        AccountResponse sourceAccount;
-        sourceAccount = loadAccount(from);
+    private Account loadSourceAccount(@NonNull KeyPair from) throws OperationFailedException {
+        long start = telemetry.start();
+        AccountData sourceAccount;
+        sourceAccount = loadAccount(from, false);
         checkKinTrust(sourceAccount);
-        return sourceAccount;
+        telemetry.phase(TransactionPhase.SOURCE_LOAD, start);
+        return sourceAccount.toSourceAccount(from);
     }
 
     @NonNull
     private TransactionId sendTransaction(Transaction transaction) throws OperationFailedException {
         try {
-            SubmitTransactionResponse response = server.submitTransaction(transaction);
+            SubmitResult response = horizonClient.submitTransaction(transaction);
             if (response == null) {
                 throw new OperationFailedException("can't get transaction response");
             }
@@ -181,11 +230,11 @@ class TransactionSender {
                 return createFailureException(response);
             }
         } catch (IOException e) {
-            throw new OperationFailedException(e);
+            throw Utils.createOperationFailedException(e);
         }
     }
 
-    private TransactionId createFailureException(SubmitTransactionResponse response)
+    private TransactionId createFailureException(SubmitResult response)
             throws TransactionFailedException, InsufficientKinException {
         TransactionFailedException transactionException = Utils.createTransactionException(response);
         if (isInsufficientKinException(transactionException)) {
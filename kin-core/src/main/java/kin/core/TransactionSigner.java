@@ -0,0 +1,99 @@
+package kin.core;
+
+
+import android.support.annotation.NonNull;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.libsodium.jni.NaCl;
+import org.libsodium.jni.Sodium;
+import org.stellar.sdk.KeyPair;
+import org.stellar.sdk.Transaction;
+import org.stellar.sdk.xdr.DecoratedSignature;
+import org.stellar.sdk.xdr.Signature;
+
+/**
+ * Signs transactions using the selected {@link SigningBackend}.
+ * <p>Native backend caches the expanded (64 bytes) libsodium secret key of recently used accounts, so repeated
+ * signing by the same account skips the seed expansion. Both backends produce identical signatures, as ed25519
+ * signing is deterministic.</p>
+ */
+class TransactionSigner {
+
+    private static final int MAX_CACHED_KEYS = 32;
+    private final Map<String, byte[]> expandedKeys = new LinkedHashMap<String, byte[]>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, byte[]> eldest) {
+            return size() > MAX_CACHED_KEYS;
+        }
+    };
+    @SigningBackend
+    private volatile int backend = SigningBackend.JAVA;
+
+    /**
+     * Selects signing backend, falls back to {@link SigningBackend#JAVA} if native library cannot be loaded.
+     *
+     * @return the backend actually in use
+     */
+    @SigningBackend
+    synchronized int setBackend(@SigningBackend int backend) {
+        if (backend == SigningBackend.NATIVE) {
+            try {
+                NaCl.sodium();
+            } catch (UnsatisfiedLinkError e) {
+                backend = SigningBackend.JAVA;
+            }
+        }
+        if (backend == SigningBackend.JAVA) {
+            clearKeys();
+        }
+        this.backend = backend;
+        return backend;
+    }
+
+    @SigningBackend
+    int getBackend() {
+        return backend;
+    }
+
+    void sign(@NonNull Transaction transaction, @NonNull KeyPair signer) {
+        if (backend == SigningBackend.NATIVE) {
+            transaction.getSignatures().add(signDecorated(signer, transaction.hash()));
+        } else {
+            transaction.sign(signer);
+        }
+    }
+
+    private DecoratedSignature signDecorated(KeyPair signer, byte[] data) {
+        Signature signature = new Signature();
+        signature.setSignature(signNative(signer, data));
+        DecoratedSignature decoratedSignature = new DecoratedSignature();
+        decoratedSignature.setHint(signer.getSignatureHint());
+        decoratedSignature.setSignature(signature);
+        return decoratedSignature;
+    }
+
+    byte[] signNative(@NonNull KeyPair signer, @NonNull byte[] data) {
+        byte[] signature = new byte[Sodium.crypto_sign_bytes()];
+        Sodium.crypto_sign_detached(signature, new int[1], data, data.length, getExpandedKey(signer));
+        return signature;
+    }
+
+    private synchronized byte[] getExpandedKey(KeyPair signer) {
+        String accountId = signer.getAccountId();
+        byte[] expandedKey = expandedKeys.get(accountId);
+        if (expandedKey == null) {
+            byte[] publicKey = new byte[Sodium.crypto_sign_publickeybytes()];
+            expandedKey = new byte[Sodium.crypto_sign_secretkeybytes()];
+            Sodium.crypto_sign_seed_keypair(publicKey, expandedKey, signer.getRawSecretSeed());
+            expandedKeys.put(accountId, expandedKey);
+        }
+        return expandedKey;
+    }
+
+    /**
+     * Drops cached secret keys, should be called when accounts are deleted.
+     */
+    synchronized void clearKeys() {
+        expandedKeys.clear();
+    }
+}
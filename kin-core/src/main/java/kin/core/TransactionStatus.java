@@ -0,0 +1,30 @@
+package kin.core;
+
+import static java.lang.annotation.RetentionPolicy.SOURCE;
+import static kin.core.TransactionStatus.FAILED;
+import static kin.core.TransactionStatus.NOT_FOUND;
+import static kin.core.TransactionStatus.SUCCEEDED;
+
+import android.support.annotation.IntDef;
+import java.lang.annotation.Retention;
+
+/**
+ * Status of a transaction on the blockchain network, see {@link KinClient#getTransactionStatus(TransactionId)}.
+ */
+@Retention(SOURCE)
+@IntDef({NOT_FOUND, SUCCEEDED, FAILED})
+public @interface TransactionStatus {
+
+    /**
+     * Transaction is not on the blockchain, it may still be pending, or it was rejected and will never be applied.
+     */
+    int NOT_FOUND = 0;
+    /**
+     * Transaction was applied successfully.
+     */
+    int SUCCEEDED = 1;
+    /**
+     * Transaction was included in a ledger but its operations failed, no operation took effect.
+     */
+    int FAILED = 2;
+}
@@ -0,0 +1,191 @@
+package kin.core;
+
+
+import android.support.annotation.NonNull;
+import java.io.IOException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import kin.core.exception.OperationFailedException;
+import kin.core.exception.OperationTimeoutException;
+import org.stellar.sdk.responses.HttpResponseException;
+
+class TransactionStatusRetriever {
+
+    private static final int MAX_LOOKUP_THREADS = 2;
+    //lookups of awaited transactions, a thread is busy for the http call only, never for the wait
+    private static final ThreadPoolExecutor lookupExecutor = new ThreadPoolExecutor(MAX_LOOKUP_THREADS,
+        MAX_LOOKUP_THREADS, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(@NonNull Runnable runnable) {
+            Thread thread = new Thread(runnable, "kin-lookup-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    static {
+        lookupExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    private final HorizonClient horizonClient;
+    private final TransactionTracker transactionTracker;
+
+    TransactionStatusRetriever(HorizonClient horizonClient, TransactionTracker transactionTracker) {
+        this.horizonClient = horizonClient;
+        this.transactionTracker = transactionTracker;
+    }
+
+    /**
+     * Get transaction status, from the recent results cache or using a single hash lookup.
+     *
+     * @throws OperationFailedException lookup failed
+     */
+    @TransactionStatus
+    int getStatus(@NonNull String hash) throws OperationFailedException {
+        Utils.checkNotNull(hash, "transactionId");
+        Integer result = transactionTracker.getResult(hash);
+        if (result != null) {
+            return result;
+        }
+        return lookup(hash);
+    }
+
+    /**
+     * Waits for a transaction final status, blocking the calling thread, see {@link #startAwait(String, long,
+     * TimeUnit)}.
+     *
+     * @return {@link TransactionStatus#SUCCEEDED} or {@link TransactionStatus#FAILED}
+     * @throws OperationTimeoutException transaction was not found within timeout
+     * @throws OperationFailedException lookup failed or waiting thread was interrupted
+     */
+    @TransactionStatus
+    int await(@NonNull String hash, long timeout, @NonNull TimeUnit unit) throws OperationFailedException {
+        PendingResult<Integer> pending = startAwait(hash, timeout, unit);
+        try {
+            return pending.get();
+        } catch (InterruptedException e) {
+            pending.cancel();
+            Thread.currentThread().interrupt();
+            throw new OperationFailedException(e);
+        } catch (OperationFailedException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new OperationFailedException(e);
+        }
+    }
+
+    /**
+     * Starts waiting for a transaction final status, no thread is held while waiting.
+     * <p>Transaction is looked up once when waiting starts, and once more if no outcome arrived within timeout. In
+     * between, outcomes are taken from submission results and open account transactions streams, for transactions
+     * submitted by this client the source account shared stream is kept open for the wait duration. A failed first
+     * lookup is ignored, the stream or the lookup on timeout decides.</p>
+     *
+     * @return {@link TransactionStatus#SUCCEEDED} or {@link TransactionStatus#FAILED}, fails with {@link
+     * OperationTimeoutException} if transaction was not found within timeout, or {@link OperationFailedException} if
+     * lookup failed
+     */
+    @NonNull
+    PendingResult<Integer> startAwait(@NonNull final String hash, long timeout, @NonNull TimeUnit unit) {
+        Utils.checkNotNull(hash, "transactionId");
+        Utils.checkNotNull(unit, "unit");
+        final PendingResult<Integer> waiter = transactionTracker.addWaiter(hash);
+        if (waiter.isDone()) {
+            return waiter;
+        }
+        //outcomes are collected by the tracker, subscriber only keeps the stream open
+        final EventListener<TransactionData> keepOpen = new EventListener<TransactionData>() {
+            @Override
+            public void onEvent(TransactionData data) {
+            }
+        };
+        String sourceAccount = transactionTracker.getPendingSource(hash);
+        final TransactionStream stream =
+            sourceAccount != null ? horizonClient.accountTransactions(sourceAccount) : null;
+        if (stream != null) {
+            stream.subscribe(keepOpen);
+        }
+        lookupExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                completeWithLookup(hash, waiter, false);
+            }
+        });
+        final ScheduledFuture<?> timeoutFuture = PendingResult.scheduler().schedule(new Runnable() {
+            @Override
+            public void run() {
+                //stream may have connected after the transaction was applied
+                lookupExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        completeWithLookup(hash, waiter, true);
+                    }
+                });
+            }
+        }, timeout, unit);
+        waiter.addCallback(new ResultCallback<Integer>() {
+            @Override
+            public void onResult(Integer result) {
+                release();
+            }
+
+            @Override
+            public void onError(Exception e) {
+                release();
+            }
+
+            private void release() {
+                timeoutFuture.cancel(false);
+                transactionTracker.removeWaiter(hash, waiter);
+                if (stream != null) {
+                    stream.unsubscribe(keepOpen);
+                }
+            }
+        });
+        return waiter;
+    }
+
+    private void completeWithLookup(String hash, PendingResult<Integer> waiter, boolean timedOut) {
+        if (waiter.isDone()) {
+            return;
+        }
+        try {
+            int status = getStatus(hash);
+            if (status != TransactionStatus.NOT_FOUND) {
+                waiter.setResult(status);
+            } else if (timedOut) {
+                waiter.setError(new OperationTimeoutException("Transaction " + hash + " was not found within timeout"));
+            }
+        } catch (OperationFailedException e) {
+            //transient errors while waiting are ignored, only the final lookup fails the wait
+            if (timedOut) {
+                waiter.setError(e);
+            }
+        }
+    }
+
+    @TransactionStatus
+    private int lookup(String hash) throws OperationFailedException {
+        try {
+            TransactionData transaction = horizonClient.getTransaction(hash);
+            if (transaction == null) {
+                throw new OperationFailedException("can't retrieve data for transaction " + hash);
+            }
+            //recorded in the tracker by the horizon client
+            return transaction.isSuccessful() ? TransactionStatus.SUCCEEDED : TransactionStatus.FAILED;
+        } catch (HttpResponseException httpError) {
+            if (httpError.getStatusCode() == 404) {
+                return TransactionStatus.NOT_FOUND;
+            }
+            throw new OperationFailedException(httpError);
+        } catch (IOException e) {
+            throw Utils.createOperationFailedException(e);
+        }
+    }
+}
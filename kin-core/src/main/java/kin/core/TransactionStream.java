@@ -0,0 +1,89 @@
+package kin.core;
+
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * A single horizon transactions stream of an account, shared between all of its subscribers.
+ * <p>Stream is opened when the first subscriber is added, and closed when the last one is removed. Each streamed
+ * {@link TransactionData} instance is handed to all subscribers, so XDR decoded by one subscriber is reused by the
+ * others.</p>
+ * <p>Stream is suspended while all subscribers are suspended, suspended subscribers still get the events of a stream
+ * kept open by others.</p>
+ */
+class TransactionStream {
+
+    private final HorizonClient horizonClient;
+    private final String accountId;
+    @Nullable
+    private final String cursor;
+    private final List<EventListener<TransactionData>> subscribers = new CopyOnWriteArrayList<>();
+    private final Set<EventListener<TransactionData>> suspendedSubscribers = new HashSet<>();
+    private SupervisedStream stream;
+
+    TransactionStream(@NonNull HorizonClient horizonClient, @NonNull String accountId, @Nullable String cursor) {
+        this.horizonClient = horizonClient;
+        this.accountId = accountId;
+        this.cursor = cursor;
+    }
+
+    synchronized void subscribe(@NonNull EventListener<TransactionData> subscriber) {
+        subscribers.add(subscriber);
+        if (stream == null) {
+            stream = horizonClient.streamTransactions(accountId, cursor, new EventListener<TransactionData>() {
+                @Override
+                public void onEvent(TransactionData transaction) {
+                    for (EventListener<TransactionData> subscriber : subscribers) {
+                        subscriber.onEvent(transaction);
+                    }
+                }
+            });
+        } else {
+            stream.resume();
+        }
+    }
+
+    synchronized void unsubscribe(@NonNull EventListener<TransactionData> subscriber) {
+        subscribers.remove(subscriber);
+        suspendedSubscribers.remove(subscriber);
+        if (subscribers.isEmpty() && stream != null) {
+            stream.close();
+            stream = null;
+        } else {
+            updateSuspension();
+        }
+    }
+
+    synchronized void setSuspended(@NonNull EventListener<TransactionData> subscriber, boolean suspended) {
+        if (!subscribers.contains(subscriber)) {
+            return;
+        }
+        if (suspended) {
+            suspendedSubscribers.add(subscriber);
+        } else {
+            suspendedSubscribers.remove(subscriber);
+        }
+        updateSuspension();
+    }
+
+    @Nullable
+    synchronized SupervisedStream getStream() {
+        return stream;
+    }
+
+    private void updateSuspension() {
+        if (stream == null) {
+            return;
+        }
+        if (suspendedSubscribers.size() == subscribers.size()) {
+            stream.suspend();
+        } else {
+            stream.resume();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package kin.core;
+
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects transaction outcomes observed by a {@link HorizonClient}: submission results, lookups and transactions
+ * delivered by any open account transactions stream.
+ * <p>Final outcomes of recent transactions are kept in a small LRU cache, so repeated status checks need no network
+ * access, and complete the {@link PendingResult} of each wait for them.</p>
+ */
+class TransactionTracker {
+
+    static final int MAX_CACHED_TRANSACTIONS = 256;
+    //hash -> final status
+    private final Map<String, Integer> results = new LruMap<>();
+    //hash -> source account, of transactions submitted with no known outcome yet
+    private final Map<String, String> pendingSources = new LruMap<>();
+    private final Map<String, List<PendingResult<Integer>>> waiters = new HashMap<>();
+
+    synchronized void onSubmitted(@NonNull String hash, @NonNull String sourceAccount) {
+        if (!results.containsKey(hash)) {
+            pendingSources.put(hash, sourceAccount);
+        }
+    }
+
+    void onTransaction(@NonNull TransactionData transaction) {
+        onResult(transaction.getHash(),
+            transaction.isSuccessful() ? TransactionStatus.SUCCEEDED : TransactionStatus.FAILED);
+    }
+
+    /**
+     * @param status final status, {@link TransactionStatus#SUCCEEDED} or {@link TransactionStatus#FAILED}
+     */
+    void onResult(@NonNull String hash, @TransactionStatus int status) {
+        List<PendingResult<Integer>> hashWaiters;
+        synchronized (this) {
+            results.put(hash, status);
+            pendingSources.remove(hash);
+            hashWaiters = waiters.remove(hash);
+        }
+        if (hashWaiters != null) {
+            for (PendingResult<Integer> waiter : hashWaiters) {
+                waiter.setResult(status);
+            }
+        }
+    }
+
+    /**
+     * @return cached final status, null if unknown
+     */
+    @Nullable
+    synchronized Integer getResult(@NonNull String hash) {
+        return results.get(hash);
+    }
+
+    /**
+     * @return source account of a submitted transaction with no known outcome, null if unknown
+     */
+    @Nullable
+    synchronized String getPendingSource(@NonNull String hash) {
+        return pendingSources.get(hash);
+    }
+
+    /**
+     * Registers a waiter for the final status of a transaction, completed immediately if already known.
+     */
+    @NonNull
+    PendingResult<Integer> addWaiter(@NonNull String hash) {
+        PendingResult<Integer> waiter = new PendingResult<>();
+        Integer result;
+        synchronized (this) {
+            result = results.get(hash);
+            if (result == null) {
+                List<PendingResult<Integer>> hashWaiters = waiters.get(hash);
+                if (hashWaiters == null) {
+                    hashWaiters = new ArrayList<>(1);
+                    waiters.put(hash, hashWaiters);
+                }
+                hashWaiters.add(waiter);
+            }
+        }
+        if (result != null) {
+            waiter.setResult(result);
+        }
+        return waiter;
+    }
+
+    synchronized void removeWaiter(@NonNull String hash, @NonNull PendingResult<Integer> waiter) {
+        List<PendingResult<Integer>> hashWaiters = waiters.get(hash);
+        if (hashWaiters != null && hashWaiters.remove(waiter) && hashWaiters.isEmpty()) {
+            waiters.remove(hash);
+        }
+    }
+
+    private static final class LruMap<V> extends LinkedHashMap<String, V> {
+
+        LruMap() {
+            super(16, 0.75f, true);
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+            return size() > MAX_CACHED_TRANSACTIONS;
+        }
+    }
+}
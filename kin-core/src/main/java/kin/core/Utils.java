@@ -2,27 +2,40 @@ package kin.core;
 
 
 import android.support.annotation.NonNull;
-import java.util.ArrayList;
+import java.io.IOException;
+import java.math.BigDecimal;
+import kin.core.exception.CircuitOpenException;
+import kin.core.exception.OperationFailedException;
+import kin.core.exception.RateLimitedException;
 import kin.core.exception.TransactionFailedException;
-import org.stellar.sdk.responses.SubmitTransactionResponse;
-import org.stellar.sdk.responses.SubmitTransactionResponse.Extras.ResultCodes;
 
 final class Utils {
 
+    //amounts are represented on the blockchain as 64 bit integers, in units of 1/10^7 of asset unit
+    private static final int XDR_AMOUNT_SCALE = 7;
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
     private Utils() {
         //no instances
     }
 
-    static TransactionFailedException createTransactionException(@NonNull SubmitTransactionResponse response)
-        throws TransactionFailedException {
-        ArrayList<String> operationsResultCodes = null;
-        String transactionResultCode = null;
-        if (response.getExtras() != null && response.getExtras().getResultCodes() != null) {
-            ResultCodes resultCodes = response.getExtras().getResultCodes();
-            operationsResultCodes = resultCodes.getOperationsResultCodes();
-            transactionResultCode = resultCodes.getTransactionResultCode();
+    static TransactionFailedException createTransactionException(@NonNull SubmitResult response) {
+        return new TransactionFailedException(response.getTransactionResultCode(),
+            response.getOperationsResultCodes());
+    }
+
+    /**
+     * @return exception of a failed horizon request, {@link RateLimitedException} if the request was rate limited,
+     * {@link CircuitOpenException} if horizon circuits are open
+     */
+    static OperationFailedException createOperationFailedException(@NonNull IOException e) {
+        if (e instanceof RateLimitException) {
+            return new RateLimitedException(((RateLimitException) e).getRetryAfterMillis());
         }
-        return new TransactionFailedException(transactionResultCode, operationsResultCodes);
+        if (e instanceof CircuitOpenIOException) {
+            return new CircuitOpenException(((CircuitOpenIOException) e).getRetryAfterMillis());
+        }
+        return new OperationFailedException(e);
     }
 
     static void checkNotNull(Object obj, String paramName) {
@@ -30,4 +43,17 @@ final class Utils {
             throw new IllegalArgumentException(paramName + " == null");
         }
     }
+
+    static BigDecimal fromXdrAmount(long value) {
+        return BigDecimal.valueOf(value, XDR_AMOUNT_SCALE);
+    }
+
+    static String bytesToHex(byte[] bytes) {
+        char[] hex = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            hex[i * 2] = HEX_DIGITS[(bytes[i] >> 4) & 0xf];
+            hex[i * 2 + 1] = HEX_DIGITS[bytes[i] & 0xf];
+        }
+        return new String(hex);
+    }
 }
@@ -0,0 +1,23 @@
+package kin.core.exception;
+
+
+/**
+ * Request was not sent as horizon is failing, all endpoints have their circuit breaker open. Fails fast, fall back to
+ * cached data and retry after {@link #getRetryAfterMillis()}.
+ */
+public class CircuitOpenException extends OperationFailedException {
+
+    private final long retryAfterMillis;
+
+    public CircuitOpenException(long retryAfterMillis) {
+        super("Horizon unavailable, retry after " + retryAfterMillis + " ms");
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    /**
+     * @return time until a trial request to horizon is allowed, in milliseconds
+     */
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+}
@@ -0,0 +1,12 @@
+package kin.core.exception;
+
+
+/**
+ * Operation did not complete within the given timeout.
+ */
+public class OperationTimeoutException extends OperationFailedException {
+
+    public OperationTimeoutException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,22 @@
+package kin.core.exception;
+
+
+/**
+ * Request was not sent as horizon rate limits were exceeded, retry after {@link #getRetryAfterMillis()}.
+ */
+public class RateLimitedException extends OperationFailedException {
+
+    private final long retryAfterMillis;
+
+    public RateLimitedException(long retryAfterMillis) {
+        super("Horizon rate limit exceeded, retry after " + retryAfterMillis + " ms");
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    /**
+     * @return time until requests are expected to be accepted again, in milliseconds
+     */
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+}
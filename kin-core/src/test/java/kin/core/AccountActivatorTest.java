@@ -9,15 +9,20 @@ import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.isA;
+import static org.hamcrest.Matchers.notNullValue;
 import static org.junit.Assert.assertThat;
 
 import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
 import java.net.SocketTimeoutException;
 import java.util.concurrent.TimeUnit;
 import kin.core.ServiceProvider.KinAsset;
 import kin.core.exception.AccountNotFoundException;
 import kin.core.exception.OperationFailedException;
 import kin.core.exception.TransactionFailedException;
+import okhttp3.OkHttpClient;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
 import okhttp3.mockwebserver.SocketPolicy;
@@ -34,7 +39,6 @@ import org.robolectric.RobolectricTestRunner;
 import org.robolectric.annotation.Config;
 import org.stellar.sdk.KeyPair;
 import org.stellar.sdk.Network;
-import org.stellar.sdk.Server;
 import org.stellar.sdk.responses.HttpResponseException;
 
 @RunWith(RobolectricTestRunner.class)
@@ -51,7 +55,7 @@ public class AccountActivatorTest {
 
     @Mock
     private KeyStore mockKeyStore;
-    private Server server;
+    private HorizonClient horizonClient;
     private MockWebServer mockWebServer;
     private KeyPair account;
     private AccountActivator accountActivator;
@@ -60,19 +64,19 @@ public class AccountActivatorTest {
     public void setup() throws Exception {
         MockitoAnnotations.initMocks(this);
 
-        mockServer();
         Network.useTestNetwork();
 
         KinAsset kinAsset = createKinAsset(ACCOUNT_ID_KIN_ISSUER);
-        accountActivator = new AccountActivator(server, kinAsset);
+        mockServer(kinAsset);
+        accountActivator = new AccountActivator(horizonClient, kinAsset, new TransactionSigner(), new Telemetry());
         account = KeyPair.fromSecretSeed(SECRET_SEED_FROM);
     }
 
-    private void mockServer() throws IOException {
+    private void mockServer(KinAsset kinAsset) throws IOException {
         mockWebServer = new MockWebServer();
         mockWebServer.start();
         String url = mockWebServer.url("").toString();
-        server = new Server(url);
+        horizonClient = new HorizonClient(new OkHttpClient(), url, kinAsset, new Telemetry());
     }
 
     @Test
@@ -188,9 +192,12 @@ public class AccountActivatorTest {
     @Test(timeout = 500)
     public void activate_ChangeTimeOut() throws Exception {
         String url = mockWebServer.url("").toString();
-        server = new Server(url, 100, TimeUnit.MILLISECONDS);
+        OkHttpClient httpClient = new OkHttpClient.Builder()
+            .readTimeout(100, TimeUnit.MILLISECONDS)
+            .build();
         KinAsset kinAsset = createKinAsset(ACCOUNT_ID_KIN_ISSUER);
-        accountActivator = new AccountActivator(server, kinAsset);
+        horizonClient = new HorizonClient(httpClient, url, kinAsset, new Telemetry());
+        accountActivator = new AccountActivator(horizonClient, kinAsset, new TransactionSigner(), new Telemetry());
 
         mockWebServer.enqueue(TestUtils.generateSuccessMockResponse(this.getClass(), "activate_account_no_kin.json"));
         mockWebServer.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.NO_RESPONSE));
@@ -229,4 +236,125 @@ public class AccountActivatorTest {
         accountActivator.activate(null);
     }
 
+    @Test
+    public void createAndActivate_Success() throws Exception {
+        KinAsset kinAsset = createKinAsset(ACCOUNT_ID_KIN_ISSUER);
+        FakeHorizon fakeHorizon = new FakeHorizon(kinAsset);
+        try {
+            AccountActivator activator = fakeHorizonActivator(fakeHorizon, kinAsset);
+            KeyPair newAccount = KeyPair.random();
+            long sequence = fakeHorizon.getSequenceNumber(ACCOUNT_ID_FROM);
+
+            TransactionId transactionId = activator.createAndActivate(account, newAccount, new BigDecimal("2"));
+
+            assertThat(transactionId.id(), notNullValue());
+            assertThat(fakeHorizon.getSequenceNumber(ACCOUNT_ID_FROM), equalTo(sequence + 1));
+            assertThat(fakeHorizon.getKinBalance(newAccount.getAccountId()), equalTo(new BigDecimal("0.0000000")));
+        } finally {
+            fakeHorizon.shutdown();
+        }
+    }
+
+    @Test
+    public void createAndActivate_AccountExists_TransactionFailed() throws Exception {
+        KinAsset kinAsset = createKinAsset(ACCOUNT_ID_KIN_ISSUER);
+        FakeHorizon fakeHorizon = new FakeHorizon(kinAsset);
+        try {
+            AccountActivator activator = fakeHorizonActivator(fakeHorizon, kinAsset);
+            KeyPair newAccount = KeyPair.random();
+            fakeHorizon.createAccount(newAccount.getAccountId(), null);
+
+            expectedEx.expect(TransactionFailedException.class);
+            expectedEx.expect(new HasPropertyWithValue<>("operationsResultCodes", contains("op_already_exists")));
+
+            activator.createAndActivate(account, newAccount, new BigDecimal("2"));
+        } finally {
+            fakeHorizon.shutdown();
+        }
+    }
+
+    @Test
+    public void createAndActivate_SponsorNotExist() throws Exception {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(404));
+
+        expectedEx.expect(AccountNotFoundException.class);
+        expectedEx.expect(new HasPropertyWithValue<>("accountId", equalTo(ACCOUNT_ID_FROM)));
+
+        accountActivator.createAndActivate(account, KeyPair.random(), new BigDecimal("2"));
+    }
+
+    @Test
+    public void createAndActivate_NonPositiveBalance() throws Exception {
+        expectedEx.expect(IllegalArgumentException.class);
+        expectedEx.expectMessage("balance");
+
+        accountActivator.createAndActivate(account, KeyPair.random(), BigDecimal.ZERO);
+    }
+
+    @Test
+    public void createAndActivate_Self() throws Exception {
+        expectedEx.expect(IllegalArgumentException.class);
+
+        accountActivator.createAndActivate(account, account, new BigDecimal("2"));
+    }
+
+    @Test
+    public void createAndActivateBatch_AccountExists_OtherAccountsCreated() throws Exception {
+        KinAsset kinAsset = createKinAsset(ACCOUNT_ID_KIN_ISSUER);
+        FakeHorizon fakeHorizon = new FakeHorizon(kinAsset);
+        try {
+            AccountActivator activator = fakeHorizonActivator(fakeHorizon, kinAsset);
+            List<KeyPair> newAccounts = new ArrayList<>();
+            for (int i = 0; i < AccountActivator.MAX_ACCOUNTS_PER_TRANSACTION + 6; i++) {
+                newAccounts.add(KeyPair.random());
+            }
+            fakeHorizon.createAccount(newAccounts.get(3).getAccountId(), null);
+            long sequence = fakeHorizon.getSequenceNumber(ACCOUNT_ID_FROM);
+
+            List<AccountCreationResult> results = activator.createAndActivate(account, newAccounts,
+                new BigDecimal("2"));
+
+            assertThat(results, hasSize(newAccounts.size()));
+            for (int i = 0; i < newAccounts.size(); i++) {
+                AccountCreationResult result = results.get(i);
+                assertThat(result.publicAddress(), equalTo(newAccounts.get(i).getAccountId()));
+                assertThat(result.isSuccess(), equalTo(i != 3));
+            }
+            assertThat(results.get(3).error(), instanceOf(TransactionFailedException.class));
+            assertThat(((TransactionFailedException) results.get(3).error()).getOperationsResultCodes(),
+                contains("op_success", "op_success", "op_success", "op_success", "op_success", "op_success",
+                    "op_already_exists"));
+            assertThat(fakeHorizon.getKinBalance(newAccounts.get(0).getAccountId()),
+                equalTo(new BigDecimal("0.0000000")));
+            //failed batch, the batch without the existing account, and the second batch
+            assertThat(fakeHorizon.getSubmittedCount(), equalTo(3));
+            assertThat(fakeHorizon.getSequenceNumber(ACCOUNT_ID_FROM), equalTo(sequence + 3));
+        } finally {
+            fakeHorizon.shutdown();
+        }
+    }
+
+    @Test
+    public void createAndActivateBatch_SponsorNotExist_AllFailed() throws Exception {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(404));
+        List<KeyPair> newAccounts = new ArrayList<>();
+        newAccounts.add(KeyPair.random());
+        newAccounts.add(KeyPair.random());
+
+        List<AccountCreationResult> results = accountActivator.createAndActivate(account, newAccounts,
+            new BigDecimal("2"));
+
+        for (AccountCreationResult result : results) {
+            assertThat(result.isSuccess(), equalTo(false));
+            assertThat(result.error(), instanceOf(AccountNotFoundException.class));
+        }
+    }
+
+    private AccountActivator fakeHorizonActivator(FakeHorizon fakeHorizon, KinAsset kinAsset) throws IOException {
+        String url = fakeHorizon.start();
+        fakeHorizon.createAccount(ACCOUNT_ID_FROM, new BigDecimal("100"));
+        HorizonClient client = new HorizonClient(new OkHttpClient(), url, kinAsset, new Telemetry());
+        return new AccountActivator(client, kinAsset, new TransactionSigner(), new Telemetry());
+    }
+
 }
\ No newline at end of file
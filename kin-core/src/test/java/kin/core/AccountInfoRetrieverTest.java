@@ -4,6 +4,7 @@ import static kin.core.TestUtils.createKinAsset;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.isA;
+import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertThat;
 
 import java.io.IOException;
@@ -11,9 +12,15 @@ import kin.core.ServiceProvider.KinAsset;
 import kin.core.exception.AccountNotActivatedException;
 import kin.core.exception.AccountNotFoundException;
 import kin.core.exception.OperationFailedException;
+import okhttp3.OkHttpClient;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
 import okhttp3.mockwebserver.SocketPolicy;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.GzipSink;
+import okio.Okio;
 import org.hamcrest.Matchers;
 import org.hamcrest.beans.HasPropertyWithValue;
 import org.junit.Assert;
@@ -24,7 +31,6 @@ import org.junit.rules.ExpectedException;
 import org.junit.runner.RunWith;
 import org.robolectric.RobolectricTestRunner;
 import org.robolectric.annotation.Config;
-import org.stellar.sdk.Server;
 import org.stellar.sdk.responses.HttpResponseException;
 
 @RunWith(RobolectricTestRunner.class)
@@ -37,16 +43,14 @@ public class AccountInfoRetrieverTest {
     @Rule
     public ExpectedException expectedEx = ExpectedException.none();
 
-    private Server server;
+    private String url;
     private MockWebServer mockWebServer;
 
     @Before
     public void setup() throws IOException {
         mockWebServer = new MockWebServer();
         mockWebServer.start();
-        String url = mockWebServer.url("").toString();
-
-        server = new Server(url);
+        url = mockWebServer.url("").toString();
     }
 
     @Test
@@ -58,6 +62,62 @@ public class AccountInfoRetrieverTest {
         Assert.assertEquals("9999.9999800", balance.value().toPlainString());
     }
 
+    @Test
+    public void getBalance_WithCache_BalanceStored() throws Exception {
+        mockWebServer.enqueue(TestUtils.generateSuccessMockResponse(this.getClass(), "balance_res_success.json"));
+        AccountInfoRetriever accountInfoRetriever = new AccountInfoRetriever(
+            new HorizonClient(new OkHttpClient(), url, createKinAsset(ACCOUNT_ID_KIN_ISSUER), new Telemetry()),
+            new BalanceCache(new FakeStore()));
+        Assert.assertNull(accountInfoRetriever.getCachedBalance(ACCOUNT_ID));
+
+        accountInfoRetriever.getBalance(ACCOUNT_ID);
+
+        Assert.assertEquals("9999.9999800", accountInfoRetriever.getCachedBalance(ACCOUNT_ID).value().toPlainString());
+    }
+
+    @Test
+    public void getBalance_NotModified_FetchedCopyUsed() throws Exception {
+        mockWebServer.enqueue(TestUtils.generateSuccessMockResponse(this.getClass(), "balance_res_success.json")
+            .setHeader("ETag", "\"ledger-1\""));
+        mockWebServer.enqueue(new MockResponse().setResponseCode(304));
+        AccountInfoRetriever accountInfoRetriever = createAccountInfoRetriever(createKinAsset(ACCOUNT_ID_KIN_ISSUER));
+
+        accountInfoRetriever.getBalance(ACCOUNT_ID);
+        Balance balance = accountInfoRetriever.getBalance(ACCOUNT_ID);
+
+        Assert.assertEquals("9999.9999800", balance.value().toPlainString());
+        RecordedRequest first = mockWebServer.takeRequest();
+        assertThat(first.getHeader("If-None-Match"), nullValue());
+        assertThat(first.getHeader("Accept-Encoding"), equalTo("gzip"));
+        assertThat(mockWebServer.takeRequest().getHeader("If-None-Match"), equalTo("\"ledger-1\""));
+    }
+
+    @Test
+    public void getBalance_NoETag_FetchNotConditional() throws Exception {
+        mockWebServer.enqueue(TestUtils.generateSuccessMockResponse(this.getClass(), "balance_res_success.json"));
+        mockWebServer.enqueue(TestUtils.generateSuccessMockResponse(this.getClass(), "balance_res_success.json"));
+        AccountInfoRetriever accountInfoRetriever = createAccountInfoRetriever(createKinAsset(ACCOUNT_ID_KIN_ISSUER));
+
+        accountInfoRetriever.getBalance(ACCOUNT_ID);
+        accountInfoRetriever.getBalance(ACCOUNT_ID);
+
+        mockWebServer.takeRequest();
+        assertThat(mockWebServer.takeRequest().getHeader("If-None-Match"), nullValue());
+    }
+
+    @Test
+    public void getBalance_GzipResponse_Decompressed() throws Exception {
+        Buffer body = new Buffer();
+        BufferedSink gzipSink = Okio.buffer(new GzipSink(body));
+        gzipSink.writeUtf8(TestUtils.loadResource(this.getClass(), "balance_res_success.json"));
+        gzipSink.close();
+        mockWebServer.enqueue(new MockResponse().setHeader("Content-Encoding", "gzip").setBody(body));
+
+        Balance balance = getBalance(ACCOUNT_ID_KIN_ISSUER, ACCOUNT_ID);
+
+        Assert.assertEquals("9999.9999800", balance.value().toPlainString());
+    }
+
     @Test
     public void getStatus_CreatedAndActivated_StatusActivated() throws Exception {
         mockWebServer.enqueue(TestUtils.generateSuccessMockResponse(this.getClass(), "balance_res_success.json"));
@@ -203,7 +263,7 @@ public class AccountInfoRetrieverTest {
         );
         expectedEx.expect(IllegalArgumentException.class);
         KinAsset kinAsset = createKinAsset(ACCOUNT_ID_KIN_ISSUER);
-        AccountInfoRetriever accountInfoRetriever = new AccountInfoRetriever(server, kinAsset);
+        AccountInfoRetriever accountInfoRetriever = createAccountInfoRetriever(kinAsset);
         accountInfoRetriever.getBalance(null);
     }
 
@@ -215,20 +275,24 @@ public class AccountInfoRetrieverTest {
         );
         expectedEx.expect(IllegalArgumentException.class);
         KinAsset kinAsset = createKinAsset(ACCOUNT_ID_KIN_ISSUER);
-        AccountInfoRetriever accountInfoRetriever = new AccountInfoRetriever(server, kinAsset);
+        AccountInfoRetriever accountInfoRetriever = createAccountInfoRetriever(kinAsset);
         accountInfoRetriever.getStatus(null);
     }
 
     private Balance getBalance(String issuerAccountId, String accountId) throws OperationFailedException {
         KinAsset kinAsset = createKinAsset(issuerAccountId);
-        AccountInfoRetriever accountInfoRetriever = new AccountInfoRetriever(server, kinAsset);
+        AccountInfoRetriever accountInfoRetriever = createAccountInfoRetriever(kinAsset);
         return accountInfoRetriever.getBalance(accountId);
     }
 
     private int getStatus(String issuerAccountId, String accountId) throws OperationFailedException {
         KinAsset kinAsset = createKinAsset(issuerAccountId);
-        AccountInfoRetriever accountInfoRetriever = new AccountInfoRetriever(server, kinAsset);
+        AccountInfoRetriever accountInfoRetriever = createAccountInfoRetriever(kinAsset);
         return accountInfoRetriever.getStatus(accountId);
     }
 
-}
\ No newline at end of file
+    private AccountInfoRetriever createAccountInfoRetriever(KinAsset kinAsset) {
+        return new AccountInfoRetriever(new HorizonClient(new OkHttpClient(), url, kinAsset, new Telemetry()));
+    }
+
+}
@@ -0,0 +1,139 @@
+package kin.core;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.ArgumentMatchers.nullable;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+public class AccountWatcherTest {
+
+    private static final String ACCOUNT_ID_1 = "GBRXY5BAZAAB7M2PI3KG5WLIRARJAGUPV2IPC4AGIPTTZRM7UY2VVKN3";
+    private static final String ACCOUNT_ID_2 = "GD4YOKVYR6KPPXA7HXG2SQOTWGZ6FO6BNCDJ5IGIGWRLL3Z5ABPEEYD3";
+    private static final String ACCOUNT_ID_3 = "GBQUCJ755LJBUFFKFZCTV7XFA6JUR5NAAEJF66SPCN3XROHVKSG3VVUY";
+    private static final String ACCOUNT_ID_4 = "GBA2XHZRUAHEL4DZX7XNHR7HLBAUYPRNKLD2PIUKWV2LVVE6OJT4NDLM";
+
+    @Rule
+    public ExpectedException expectedEx = ExpectedException.none();
+    @Mock
+    private HorizonClient mockHorizonClient;
+    @Mock
+    private SupervisedStream mockStream;
+    private AccountWatcher accountWatcher;
+    private DispatchPolicy directPolicy;
+    private List<PaymentInfo> payments;
+    private EventListener<PaymentInfo> listener;
+
+    @Before
+    public void setup() {
+        MockitoAnnotations.initMocks(this);
+        when(mockHorizonClient.streamPayments(nullable(String.class),
+            ArgumentMatchers.<EventListener<PaymentInfo>>any())).thenReturn(mockStream);
+        accountWatcher = new AccountWatcher(mockHorizonClient, new Telemetry());
+        directPolicy = DispatchPolicy.create(new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                command.run();
+            }
+        }, 10, OverflowStrategy.BLOCK);
+        payments = new ArrayList<>();
+        listener = new EventListener<PaymentInfo>() {
+            @Override
+            public void onEvent(PaymentInfo data) {
+                payments.add(data);
+            }
+        };
+    }
+
+    @Test
+    public void addPaymentListener_OnlyWatchedAccountsPayments() {
+        accountWatcher.watch(ACCOUNT_ID_2);
+        accountWatcher.addPaymentListener(listener, directPolicy);
+        EventListener<PaymentInfo> stream = captureStreamListener();
+
+        stream.onEvent(createPayment(ACCOUNT_ID_1, ACCOUNT_ID_2));
+        stream.onEvent(createPayment(ACCOUNT_ID_3, ACCOUNT_ID_4));
+        stream.onEvent(createPayment(ACCOUNT_ID_2, ACCOUNT_ID_3));
+
+        assertThat(payments.size(), equalTo(2));
+        assertThat(payments.get(0).destinationPublicKey(), equalTo(ACCOUNT_ID_2));
+        assertThat(payments.get(1).sourcePublicKey(), equalTo(ACCOUNT_ID_2));
+    }
+
+    @Test
+    public void unwatch_NoPayments() {
+        accountWatcher.watch(ACCOUNT_ID_2);
+        accountWatcher.addPaymentListener(listener, directPolicy);
+        EventListener<PaymentInfo> stream = captureStreamListener();
+        accountWatcher.unwatch(ACCOUNT_ID_2);
+
+        stream.onEvent(createPayment(ACCOUNT_ID_1, ACCOUNT_ID_2));
+
+        assertThat(payments.size(), equalTo(0));
+        assertThat(accountWatcher.isWatching(ACCOUNT_ID_2), equalTo(false));
+    }
+
+    @Test
+    public void addPaymentListener_ManyListenersAndAccounts_SingleStream() {
+        accountWatcher.watch(ACCOUNT_ID_1);
+        accountWatcher.watch(ACCOUNT_ID_2);
+        accountWatcher.watch(ACCOUNT_ID_3);
+        ListenerRegistration registration1 = accountWatcher.addPaymentListener(listener, directPolicy);
+        ListenerRegistration registration2 = accountWatcher.addPaymentListener(listener, directPolicy);
+
+        verify(mockHorizonClient, times(1)).streamPayments(nullable(String.class),
+            ArgumentMatchers.<EventListener<PaymentInfo>>any());
+        assertThat(accountWatcher.getWatchedAccountsCount(), equalTo(3));
+
+        registration1.remove();
+        verify(mockStream, times(0)).close();
+        registration2.remove();
+        verify(mockStream).close();
+    }
+
+    @Test
+    public void addPaymentListener_StreamHealth() {
+        when(mockStream.getState()).thenReturn(StreamState.RECONNECTING);
+        when(mockStream.getReconnectCount()).thenReturn(2);
+        when(mockStream.getLastActivityMillis()).thenReturn(1000L);
+        ListenerRegistration registration = accountWatcher.addPaymentListener(listener, directPolicy);
+
+        assertThat(registration.getStreamState(), equalTo(StreamState.RECONNECTING));
+        assertThat(registration.getReconnectCount(), equalTo(2));
+        assertThat(registration.getLastActivityMillis(), equalTo(1000L));
+        registration.remove();
+        assertThat(registration.getStreamState(), equalTo(StreamState.CLOSED));
+    }
+
+    @Test
+    public void watch_InvalidAddress_IllegalArgumentException() {
+        expectedEx.expect(IllegalArgumentException.class);
+        accountWatcher.watch("invalid");
+    }
+
+    @SuppressWarnings("unchecked")
+    private EventListener<PaymentInfo> captureStreamListener() {
+        ArgumentCaptor<EventListener> captor = ArgumentCaptor.forClass(EventListener.class);
+        verify(mockHorizonClient).streamPayments(nullable(String.class), captor.capture());
+        return captor.getValue();
+    }
+
+    private static PaymentInfo createPayment(String from, String to) {
+        return new PaymentInfoImpl("2018-02-21T06:51:00Z", to, from, new BigDecimal("10"),
+            new TransactionIdImpl("hash"), null);
+    }
+}
@@ -0,0 +1,167 @@
+package kin.core;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+import org.stellar.sdk.KeyPair;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 23, manifest = Config.NONE)
+public class BalanceCacheTest {
+
+    private static final String ACCOUNT_ID = "GBQUCJ755LJBUFFKFZCTV7XFA6JUR5NAAEJF66SPCN3XROHVKSG3VVUY";
+    private static final String OTHER_ACCOUNT_ID = "GDKJAMCTGZGD6KM7RBEII6QUYAHQQUGERXKM3ESHBX2UUNTNAVNB3OGX";
+
+    private FakeStore store;
+    private BalanceCache balanceCache;
+
+    @Before
+    public void setup() {
+        store = new FakeStore();
+        balanceCache = new BalanceCache(store);
+    }
+
+    @Test
+    public void get_NothingStored_Null() {
+        assertThat(balanceCache.get(ACCOUNT_ID), nullValue());
+    }
+
+    @Test
+    public void put_StoredPerAccount() {
+        long before = System.currentTimeMillis();
+        balanceCache.put(ACCOUNT_ID, new BigDecimal("123.4500000"), 10);
+
+        CachedBalance cachedBalance = new BalanceCache(store).get(ACCOUNT_ID);
+        assertThat(cachedBalance.value(), equalTo(new BigDecimal("123.4500000")));
+        assertThat(cachedBalance.ledger(), equalTo(10L));
+        assertThat(cachedBalance.fetchedAt() >= before, equalTo(true));
+        assertThat(balanceCache.get(OTHER_ACCOUNT_ID), nullValue());
+    }
+
+    @Test
+    public void put_OlderLedger_NotOverwritten() {
+        balanceCache.put(ACCOUNT_ID, new BigDecimal("20"), 11);
+        balanceCache.put(ACCOUNT_ID, new BigDecimal("10"), 10);
+
+        assertThat(balanceCache.get(ACCOUNT_ID).value(), equalTo(new BigDecimal("20")));
+    }
+
+    @Test
+    public void put_UnknownLedger_Overwritten() {
+        balanceCache.put(ACCOUNT_ID, new BigDecimal("20"), 11);
+        balanceCache.put(ACCOUNT_ID, new BigDecimal("10"), 0);
+
+        assertThat(balanceCache.get(ACCOUNT_ID).value(), equalTo(new BigDecimal("10")));
+    }
+
+    @Test
+    public void get_CorruptedData_NullAndCleared() {
+        store.saveString("balance_" + ACCOUNT_ID, "{\"value\": \"abc\"}");
+
+        assertThat(balanceCache.get(ACCOUNT_ID), nullValue());
+        assertThat(store.getString("balance_" + ACCOUNT_ID), nullValue());
+    }
+
+    @Test
+    public void clear_Removed() {
+        balanceCache.put(ACCOUNT_ID, new BigDecimal("20"), 11);
+        balanceCache.clear(ACCOUNT_ID);
+
+        assertThat(balanceCache.get(ACCOUNT_ID), nullValue());
+    }
+
+    @Test
+    public void getBalance_CacheThenNetwork_CachedThenFetched() throws Exception {
+        AccountInfoRetriever mockAccountInfoRetriever = mock(AccountInfoRetriever.class);
+        when(mockAccountInfoRetriever.getCachedBalance(anyString()))
+            .thenReturn(new CachedBalance(new BigDecimal("10"), 1, 1));
+        when(mockAccountInfoRetriever.getBalance(anyString())).thenAnswer(new Answer<Balance>() {
+            @Override
+            public Balance answer(InvocationOnMock invocation) throws Throwable {
+                //network is slower than the cache
+                Thread.sleep(200);
+                return new BalanceImpl(new BigDecimal("20"));
+            }
+        });
+        KinAccountImpl kinAccount = new KinAccountImpl(KeyPair.random(), new FakeBackupRestore(),
+            mock(TransactionSender.class), mock(AccountActivator.class), mockAccountInfoRetriever,
+            mock(BlockchainEventsCreator.class), new Telemetry());
+
+        final List<Balance> cachedResults = new CopyOnWriteArrayList<>();
+        final List<Balance> results = new CopyOnWriteArrayList<>();
+        kinAccount.getBalance(BalancePolicy.CACHE_THEN_NETWORK).run(new CachedResultCallback<Balance>() {
+            @Override
+            public void onCachedResult(Balance result) {
+                cachedResults.add(result);
+            }
+
+            @Override
+            public void onResult(Balance result) {
+                assertThat(cachedResults.size(), equalTo(1));
+                results.add(result);
+            }
+
+            @Override
+            public void onError(Exception e) {
+            }
+        });
+        for (int i = 0; i < 500 && results.isEmpty(); i++) {
+            Thread.sleep(10);
+            ShadowLooper.runUiThreadTasks();
+        }
+
+        assertThat(cachedResults.size(), equalTo(1));
+        assertThat(cachedResults.get(0), instanceOf(CachedBalance.class));
+        assertThat(cachedResults.get(0).value(), equalTo(new BigDecimal("10")));
+        assertThat(results.size(), equalTo(1));
+        assertThat(results.get(0).value(), equalTo(new BigDecimal("20")));
+    }
+
+    @Test
+    public void getBalance_CacheThenNetworkPlainCallback_SingleResult() throws Exception {
+        AccountInfoRetriever mockAccountInfoRetriever = mock(AccountInfoRetriever.class);
+        when(mockAccountInfoRetriever.getCachedBalance(anyString()))
+            .thenReturn(new CachedBalance(new BigDecimal("10"), 1, 1));
+        when(mockAccountInfoRetriever.getBalance(anyString())).thenReturn(new BalanceImpl(new BigDecimal("20")));
+        KinAccountImpl kinAccount = new KinAccountImpl(KeyPair.random(), new FakeBackupRestore(),
+            mock(TransactionSender.class), mock(AccountActivator.class), mockAccountInfoRetriever,
+            mock(BlockchainEventsCreator.class), new Telemetry());
+
+        final List<Balance> results = new CopyOnWriteArrayList<>();
+        kinAccount.getBalance(BalancePolicy.CACHE_THEN_NETWORK).run(new ResultCallback<Balance>() {
+            @Override
+            public void onResult(Balance result) {
+                results.add(result);
+            }
+
+            @Override
+            public void onError(Exception e) {
+            }
+        });
+        for (int i = 0; i < 100 && results.isEmpty(); i++) {
+            Thread.sleep(10);
+            ShadowLooper.runUiThreadTasks();
+        }
+        Thread.sleep(100);
+        ShadowLooper.runUiThreadTasks();
+
+        assertThat(results.size(), equalTo(1));
+        assertThat(results.get(0).value(), equalTo(new BigDecimal("20")));
+    }
+}
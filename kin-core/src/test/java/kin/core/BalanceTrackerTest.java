@@ -0,0 +1,168 @@
+package kin.core;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+public class BalanceTrackerTest {
+
+    private static final String HASH = "8f1e0cd1d922f4c57cc1898ececcf47375e52ec4abf77a7e32d0d9bb4edecb69";
+
+    private BlockchainEvents mockBlockchainEvents;
+    private BalanceTracker balanceTracker;
+    private EventListener<TransactionData> streamListener;
+
+    @Before
+    public void setUp() {
+        mockBlockchainEvents = mock(BlockchainEvents.class);
+        when(mockBlockchainEvents.addTransactionListener(any(EventListener.class))).thenAnswer(
+            new Answer<ListenerRegistration>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public ListenerRegistration answer(InvocationOnMock invocation) {
+                    streamListener = invocation.getArgument(0);
+                    return mock(ListenerRegistration.class);
+                }
+            });
+        balanceTracker = new BalanceTracker(mockBlockchainEvents, new Telemetry());
+    }
+
+    @Test
+    public void getLocalBalance_NoBalance_Null() {
+        balanceTracker.onPaymentStarted(BigDecimal.ONE);
+
+        assertThat(balanceTracker.getLocalBalance(), nullValue());
+    }
+
+    @Test
+    public void paymentSent_PendingThenDeducted() {
+        fetched("100");
+
+        Object payment = balanceTracker.onPaymentStarted(new BigDecimal("10"));
+        assertLocalBalance("100", "10", "90");
+
+        balanceTracker.onPaymentSent(payment, HASH);
+        assertLocalBalance("90", "0", "90");
+    }
+
+    @Test
+    public void paymentFailed_PendingRemoved() {
+        fetched("100");
+
+        Object payment = balanceTracker.onPaymentStarted(new BigDecimal("10"));
+        balanceTracker.onPaymentFailed(payment);
+
+        assertLocalBalance("100", "0", "100");
+    }
+
+    @Test
+    public void paymentSent_AlreadyStreamed_NotDeductedTwice() {
+        balanceTracker.addListener(new EventListener<LocalBalance>() {
+            @Override
+            public void onEvent(LocalBalance data) {
+            }
+        }, DispatchPolicy.direct());
+        fetched("100");
+        Object payment = balanceTracker.onPaymentStarted(new BigDecimal("10"));
+
+        stream(HASH, "90");
+        balanceTracker.onPaymentSent(payment, HASH);
+
+        assertLocalBalance("90", "0", "90");
+    }
+
+    @Test
+    public void incomingPaymentStreamed_ConfirmedUpdated() {
+        balanceTracker.addListener(new EventListener<LocalBalance>() {
+            @Override
+            public void onEvent(LocalBalance data) {
+            }
+        }, DispatchPolicy.direct());
+        fetched("100");
+        balanceTracker.onPaymentStarted(new BigDecimal("10"));
+
+        stream(HASH, "150");
+
+        assertLocalBalance("150", "10", "140");
+    }
+
+    @Test
+    public void paymentStreamedBeforeSent_NotCountedTwice() {
+        listen();
+        fetched("100");
+        Object payment = balanceTracker.onPaymentStarted(new BigDecimal("10"));
+        balanceTracker.onPaymentSubmitting(payment, HASH);
+
+        stream(HASH, "90");
+        assertLocalBalance("90", "0", "90");
+
+        balanceTracker.onPaymentSent(payment, HASH);
+        assertLocalBalance("90", "0", "90");
+    }
+
+    @Test
+    public void fetchStartedBeforePayment_StaleBalanceDiscarded() {
+        fetched("100");
+        long fetch = balanceTracker.startBalanceFetch();
+        Object payment = balanceTracker.onPaymentStarted(new BigDecimal("10"));
+        balanceTracker.onPaymentSent(payment, HASH);
+
+        balanceTracker.onBalanceFetched(new BigDecimal("100"), fetch);
+
+        assertLocalBalance("90", "0", "90");
+    }
+
+    @Test
+    public void fetchStartedAfterPayment_BalanceSet() {
+        fetched("100");
+        Object payment = balanceTracker.onPaymentStarted(new BigDecimal("10"));
+        balanceTracker.onPaymentSent(payment, HASH);
+
+        fetched("95");
+
+        assertLocalBalance("95", "0", "95");
+    }
+
+    private void listen() {
+        balanceTracker.addListener(new EventListener<LocalBalance>() {
+            @Override
+            public void onEvent(LocalBalance data) {
+            }
+        }, DispatchPolicy.direct());
+    }
+
+    private void fetched(String balance) {
+        balanceTracker.onBalanceFetched(new BigDecimal(balance), balanceTracker.startBalanceFetch());
+    }
+
+    private void stream(String hash, final String balance) {
+        TransactionData transaction = new TransactionData(hash, null, null, null, null, null, null, true);
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) {
+                EventListener<Balance> listener = invocation.getArgument(1);
+                listener.onEvent(new BalanceImpl(new BigDecimal(balance)));
+                return null;
+            }
+        }).when(mockBlockchainEvents).extractBalanceChangeFromTransaction(eq(transaction), any(EventListener.class));
+        streamListener.onEvent(transaction);
+    }
+
+    private void assertLocalBalance(String confirmed, String pending, String available) {
+        LocalBalance localBalance = balanceTracker.getLocalBalance();
+        assertThat(localBalance.confirmed().compareTo(new BigDecimal(confirmed)), equalTo(0));
+        assertThat(localBalance.pending().compareTo(new BigDecimal(pending)), equalTo(0));
+        assertThat(localBalance.available().compareTo(new BigDecimal(available)), equalTo(0));
+    }
+}
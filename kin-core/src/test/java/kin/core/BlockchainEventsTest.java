@@ -4,75 +4,80 @@ import static kin.core.TestUtils.loadResource;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.IsNull.notNullValue;
-import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.nullable;
 import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
-import com.here.oksse.ServerSentEvent;
+import android.support.annotation.NonNull;
 import java.io.IOException;
+import java.io.StringReader;
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import kin.core.ServiceProvider.KinAsset;
+import kin.core.exception.OperationTimeoutException;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
 import org.mockito.ArgumentMatchers;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
-import org.stellar.sdk.KeyPair;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
 import org.stellar.sdk.Network;
-import org.stellar.sdk.Server;
-import org.stellar.sdk.requests.TransactionsRequestBuilder;
-import org.stellar.sdk.responses.GsonSingleton;
-import org.stellar.sdk.responses.TransactionResponse;
 
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 23, manifest = Config.NONE)
 public class BlockchainEventsTest {
 
     private static final String ACCOUNT_ID = "GBRXY5BAZAAB7M2PI3KG5WLIRARJAGUPV2IPC4AGIPTTZRM7UY2VVKN3";
     @Rule
     public ExpectedException expectedEx = ExpectedException.none();
     @Mock
-    private Server server;
+    private HorizonClient mockHorizonClient;
     @Mock
-    private TransactionsRequestBuilder mockTransactionsRequestBuilder;
-    @Mock
-    private ServerSentEvent mockServerSentEvent;
+    private SupervisedStream mockStream;
     private BlockchainEvents blockchainEvents;
-    private ConcurrentLinkedQueue<TransactionResponse> responsesQueue = new ConcurrentLinkedQueue<>();
+    private KinAsset kinAsset;
+    private ConcurrentLinkedQueue<TransactionData> responsesQueue = new ConcurrentLinkedQueue<>();
     private volatile boolean isCancelled = false;
 
     @Before
     public void setup() throws Exception {
         MockitoAnnotations.initMocks(this);
 
-        mockServer();
         Network.useTestNetwork();
 
         //use custom issuer that fake responses are use, to prevent testnet issuer address changes affect the tests
-        KinAsset kinAsset = new ServiceProvider("", ServiceProvider.NETWORK_ID_TEST) {
+        kinAsset = new ServiceProvider("", ServiceProvider.NETWORK_ID_TEST) {
             @Override
             protected String getIssuerAccountId() {
                 return "GCKG5WGBIJP74UDNRIRDFGENNIH5Y3KBI5IHREFAJKV4MQXLELT7EX6V";
             }
         }.getKinAsset();
-        blockchainEvents = new BlockchainEvents(server, ACCOUNT_ID, kinAsset);
+        when(mockHorizonClient.accountTransactions(anyString())).thenAnswer(new Answer<TransactionStream>() {
+            @Override
+            public TransactionStream answer(InvocationOnMock invocation) throws Throwable {
+                return new TransactionStream(mockHorizonClient, (String) invocation.getArgument(0), "now");
+            }
+        });
+        blockchainEvents = new BlockchainEvents(mockHorizonClient, ACCOUNT_ID, kinAsset, new Telemetry());
         createResponsesQueue();
     }
 
-    private void mockServer() throws IOException {
-        when(server.transactions()).thenReturn(mockTransactionsRequestBuilder);
-        when(mockTransactionsRequestBuilder.forAccount((KeyPair) any())).thenReturn(mockTransactionsRequestBuilder);
-        when(mockTransactionsRequestBuilder.cursor(anyString())).thenReturn(mockTransactionsRequestBuilder);
-    }
-
     //using MockWebServer to mock real network responses is the ideal, unfortunately, streaming mocking
     // is not supported by MockWebServer
     private void createResponsesQueue() {
@@ -82,19 +87,18 @@ public class BlockchainEventsTest {
                 isCancelled = true;
                 return null;
             }
-        }).when(mockServerSentEvent).close();
-        when(mockTransactionsRequestBuilder
-            .stream(ArgumentMatchers.<org.stellar.sdk.requests.EventListener<TransactionResponse>>any()))
+        }).when(mockStream).close();
+        when(mockHorizonClient.streamTransactions(anyString(), nullable(String.class),
+            ArgumentMatchers.<EventListener<TransactionData>>any()))
             .then(new Answer<Object>() {
                 @Override
                 public Object answer(InvocationOnMock invocation) throws Throwable {
-                    final org.stellar.sdk.requests.EventListener<TransactionResponse> listener = invocation
-                        .getArgument(0);
+                    final EventListener<TransactionData> listener = invocation.getArgument(2);
                     new Thread(new Runnable() {
                         @Override
                         public void run() {
                             while (!isCancelled) {
-                                TransactionResponse response = responsesQueue.poll();
+                                TransactionData response = responsesQueue.poll();
                                 if (response == null) {
                                     sleep();
                                 } else {
@@ -111,24 +115,23 @@ public class BlockchainEventsTest {
                             }
                         }
                     }).start();
-                    return mockServerSentEvent;
+                    return mockStream;
                 }
             });
     }
 
-    private void enqueueTransactionsResponses() throws InterruptedException {
+    private void enqueueTransactionsResponses() throws IOException {
         responsesQueue.add(createTransactionResponse("payment_listener_tx_response1.json"));
         responsesQueue.add(createTransactionResponse("payment_listener_tx_response2.json"));
     }
 
-    private void enqueueCreateAccountResponses() throws InterruptedException {
+    private void enqueueCreateAccountResponses() throws IOException {
         responsesQueue.add(createTransactionResponse("create_account_tx_response1.json"));
     }
 
-    private TransactionResponse createTransactionResponse(String res) {
-        return GsonSingleton.getInstance()
-            .fromJson(loadResource(BlockchainEventsTest.this.getClass(), res),
-                TransactionResponse.class);
+    private TransactionData createTransactionResponse(String res) throws IOException {
+        return HorizonParser.parseTransaction(
+            new StringReader(loadResource(BlockchainEventsTest.this.getClass(), res)));
     }
 
     @Test
@@ -256,7 +259,7 @@ public class BlockchainEventsTest {
                     latch.countDown();
                 }
             }
-        });
+        }, createBlockingPolicy());
         latch.await(1, TimeUnit.SECONDS);
 
         assertThat(actualResults.size(), equalTo(2));
@@ -270,6 +273,122 @@ public class BlockchainEventsTest {
         assertThat(balance2.value(), equalTo(new BigDecimal("5239.89036")));
     }
 
+    @Test
+    public void addBalanceListener_SlowListener_LatestBalanceDelivered() throws Exception {
+        final CountDownLatch firstEventLatch = new CountDownLatch(1);
+        final CountDownLatch releaseLatch = new CountDownLatch(1);
+        final CountDownLatch lastEventLatch = new CountDownLatch(1);
+        final List<Balance> actualResults = new ArrayList<>();
+        blockchainEvents.addBalanceListener(new EventListener<Balance>() {
+            @Override
+            public void onEvent(Balance data) {
+                actualResults.add(data);
+                firstEventLatch.countDown();
+                await(releaseLatch);
+                if (data.value().equals(new BigDecimal("5239.89036"))) {
+                    lastEventLatch.countDown();
+                }
+            }
+        });
+        responsesQueue.add(createTransactionResponse("payment_listener_tx_response1.json"));
+        firstEventLatch.await(1, TimeUnit.SECONDS);
+        //listener is stuck on the first balance, while 2 more balances arrive
+        responsesQueue.add(createTransactionResponse("payment_listener_tx_response1.json"));
+        responsesQueue.add(createTransactionResponse("payment_listener_tx_response2.json"));
+        Thread.sleep(500);
+        releaseLatch.countDown();
+        lastEventLatch.await(1, TimeUnit.SECONDS);
+
+        assertThat(actualResults.size(), equalTo(2));
+        assertThat(actualResults.get(0).value(), equalTo(new BigDecimal("5387.216")));
+        assertThat(actualResults.get(1).value(), equalTo(new BigDecimal("5239.89036")));
+    }
+
+    @Test
+    public void addPaymentListenerWithMemo_OnlyMatchingPayments() throws Exception {
+        enqueueTransactionsResponses();
+
+        final CountDownLatch latch = new CountDownLatch(1);
+        final List<PaymentInfo> actualResults = new ArrayList<>();
+        blockchainEvents.addPaymentListener("Test Transaction2", new EventListener<PaymentInfo>() {
+            @Override
+            public void onEvent(PaymentInfo data) {
+                actualResults.add(data);
+                latch.countDown();
+            }
+        });
+        latch.await(1, TimeUnit.SECONDS);
+        Thread.sleep(300);
+
+        assertThat(actualResults.size(), equalTo(1));
+        assertThat(actualResults.get(0).hash().id(),
+            equalTo("899a639e280d91c917e82816c803e4ec68025a6352fd2b3769403012a4ee3cb4"));
+    }
+
+    @Test
+    public void addPaymentListenerWithMemo_ManyMemos_SingleStream() throws Exception {
+        EventListener<PaymentInfo> listener = new EventListener<PaymentInfo>() {
+            @Override
+            public void onEvent(PaymentInfo data) {
+            }
+        };
+        List<ListenerRegistration> registrations = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            registrations.add(blockchainEvents.addPaymentListener("order" + i, listener));
+        }
+        registrations.add(blockchainEvents.addPaymentListener(listener));
+
+        verify(mockHorizonClient, times(1)).streamTransactions(anyString(), nullable(String.class),
+            ArgumentMatchers.<EventListener<TransactionData>>any());
+        for (ListenerRegistration registration : registrations) {
+            registration.remove();
+        }
+        verify(mockStream).close();
+    }
+
+    @Test
+    public void awaitPaymentSync_IncomingPayment() throws Exception {
+        BlockchainEvents destinationEvents = new BlockchainEvents(mockHorizonClient,
+            "GD4YOKVYR6KPPXA7HXG2SQOTWGZ6FO6BNCDJ5IGIGWRLL3Z5ABPEEYD3", kinAsset, new Telemetry());
+        enqueueTransactionsResponses();
+
+        PaymentInfo payment = destinationEvents.awaitPaymentSync("Test Transaction2", 2, TimeUnit.SECONDS);
+
+        assertThat(payment.hash().id(),
+            equalTo("899a639e280d91c917e82816c803e4ec68025a6352fd2b3769403012a4ee3cb4"));
+        assertThat(payment.amount(), equalTo(new BigDecimal("147.32564")));
+    }
+
+    @Test
+    public void awaitPaymentSync_OutgoingPayment_Timeout() throws Exception {
+        enqueueTransactionsResponses();
+
+        expectedEx.expect(OperationTimeoutException.class);
+        blockchainEvents.awaitPaymentSync("Test Transaction", 600, TimeUnit.MILLISECONDS);
+    }
+
+    @Test
+    public void awaitPaymentSync_NoMatchingMemo_Timeout() throws Exception {
+        BlockchainEvents destinationEvents = new BlockchainEvents(mockHorizonClient,
+            "GD4YOKVYR6KPPXA7HXG2SQOTWGZ6FO6BNCDJ5IGIGWRLL3Z5ABPEEYD3", kinAsset, new Telemetry());
+        enqueueTransactionsResponses();
+
+        expectedEx.expect(OperationTimeoutException.class);
+        destinationEvents.awaitPaymentSync("order1", 600, TimeUnit.MILLISECONDS);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static DispatchPolicy createBlockingPolicy() {
+        return DispatchPolicy.create(Executors.newSingleThreadExecutor(), 10, OverflowStrategy.BLOCK);
+    }
+
     @Test
     public void addBalanceListener_StopListener_NoEvents() throws Exception {
         final int[] eventsCount = {0};
@@ -286,6 +405,75 @@ public class BlockchainEventsTest {
         assertThat(eventsCount[0], equalTo(0));
     }
 
+    @Test
+    public void addBalanceAndPaymentListeners_SingleStream() throws Exception {
+        enqueueTransactionsResponses();
+
+        final CountDownLatch latch = new CountDownLatch(4);
+        final List<PaymentInfo> payments = new ArrayList<>();
+        final List<Balance> balances = new ArrayList<>();
+        blockchainEvents.addPaymentListener(new EventListener<PaymentInfo>() {
+            @Override
+            public void onEvent(PaymentInfo data) {
+                payments.add(data);
+                latch.countDown();
+            }
+        });
+        blockchainEvents.addBalanceListener(new EventListener<Balance>() {
+            @Override
+            public void onEvent(Balance data) {
+                balances.add(data);
+                latch.countDown();
+            }
+        }, createBlockingPolicy());
+        latch.await(1, TimeUnit.SECONDS);
+
+        verify(mockHorizonClient, times(1)).streamTransactions(anyString(), nullable(String.class),
+            ArgumentMatchers.<EventListener<TransactionData>>any());
+        assertThat(payments.size(), equalTo(2));
+        assertThat(balances.size(), equalTo(2));
+    }
+
+    @Test
+    public void addBalanceAndPaymentListeners_RemoveOne_StreamNotClosed() throws Exception {
+        ListenerRegistration paymentRegistration = blockchainEvents
+            .addPaymentListener(new EventListener<PaymentInfo>() {
+                @Override
+                public void onEvent(PaymentInfo data) {
+                }
+            });
+        ListenerRegistration balanceRegistration = blockchainEvents
+            .addBalanceListener(new EventListener<Balance>() {
+                @Override
+                public void onEvent(Balance data) {
+                }
+            });
+
+        paymentRegistration.remove();
+        verify(mockStream, never()).close();
+
+        balanceRegistration.remove();
+        verify(mockStream).close();
+    }
+
+    @Test
+    public void extractPayments_MalformedEnvelope_SkippedAndReported() throws Exception {
+        final List<String> failures = new ArrayList<>();
+        Telemetry telemetry = new Telemetry();
+        telemetry.setMetrics(new KinMetrics() {
+            @Override
+            public void onEventDecodeFailure(@NonNull String transactionHash, @NonNull IOException error) {
+                failures.add(transactionHash);
+            }
+        });
+        blockchainEvents = new BlockchainEvents(mockHorizonClient, ACCOUNT_ID, kinAsset, telemetry);
+        TransactionData transaction = new TransactionData("hash1", "2018-01-01T00:00:00Z", ACCOUNT_ID, "1", null,
+            "AAAA", "AAAA", true);
+
+        assertThat(blockchainEvents.extractPayments(transaction).isEmpty(), equalTo(true));
+        assertThat(failures, equalTo(Collections.singletonList("hash1")));
+    }
+
     @SuppressWarnings("ConstantConditions")
     @Test
     public void addPaymentListener_NullListener_IllegalArgumentException() throws Exception {
@@ -0,0 +1,107 @@
+package kin.core;
+
+import static kin.core.TestUtils.createKinAsset;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.Assert.assertThat;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.stellar.sdk.KeyPair;
+import org.stellar.sdk.Network;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 23, manifest = Config.NONE)
+public class BulkSignerTest {
+
+    private static final String ACCOUNT_ID_KIN_ISSUER = "GBA2XHZRUAHEL4DZX7XNHR7HLBAUYPRNKLD2PIUKWV2LVVE6OJT4NDLM";
+    private static final String SECRET_SEED_FROM = "SB6PCLT2WUQF44HVOTEGCXIDYNX2U4BJUPWUX453ODRGD4CXGPJP3HUX";
+    private static final String ACCOUNT_ID_TO = "GDJOJJVIWI6YVPUI3PX4BQCC4SQUZTRYIAMV2YBT6QVL54QGQUQSFKGM";
+    private static final long SEQUENCE = 29668946886000644L;
+    //same transaction as TransactionSenderTest sendTransaction_success
+    private static final String TX_ENVELOPE = "AAAAANSQMFM2TD8pn4hIhHoUwA8IUMSN1M2SRw31SjZtBVodAAAAZABpZ8AAAAAEAAAAAAAAAAAAAAABAAAAAAAAAAEAAAAA0uSmqLI9ir6I2+/AwELkoUzOOEAZXWAz9Cq+8gaFISIAAAABS0lOAAAAAABBq58xoA5F8Hm/7tPH51hBTD4tUsenooq1dLrUnnJnxgAAAAAA5OHAAAAAAAAAAAFtBVodAAAAQLLn6OJYeSG1KEki6SL/KYPX01Dzdid5aTNTMYTJ/O7cMQC1n/AWSmyVXJdm5zQCtn9vAzTVZpIbBmKKyHjtfw4=";
+    private static final String TX_HASH = "8f1e0cd1d922f4c57cc1898ececcf47375e52ec4abf77a7e32d0d9bb4edecb69";
+
+    @Rule
+    public ExpectedException expectedEx = ExpectedException.none();
+
+    private BulkSigner bulkSigner;
+    private KeyPair account;
+
+    @Before
+    public void setup() {
+        Network.useTestNetwork();
+        bulkSigner = new BulkSigner(createKinAsset(ACCOUNT_ID_KIN_ISSUER), new TransactionSigner());
+        account = KeyPair.fromSecretSeed(SECRET_SEED_FROM);
+    }
+
+    @Test
+    public void sign_SinglePayment_Success() throws Exception {
+        List<SignedTransaction> signedTransactions = bulkSigner.sign(account,
+            Collections.singletonList(new PaymentSpec(ACCOUNT_ID_TO, new BigDecimal("1.5"), null, SEQUENCE)));
+
+        assertThat(signedTransactions, hasSize(1));
+        assertThat(signedTransactions.get(0).envelopeXdr(), equalTo(TX_ENVELOPE));
+        assertThat(signedTransactions.get(0).id().id(), equalTo(TX_HASH));
+        assertThat(signedTransactions.get(0).sequenceNumber(), equalTo(SEQUENCE));
+    }
+
+    @Test
+    public void sign_ManyPayments_OrderPreserved() throws Exception {
+        List<PaymentSpec> payments = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            payments.add(new PaymentSpec(ACCOUNT_ID_TO, new BigDecimal("1.5"), "payout " + i, SEQUENCE + i));
+        }
+        payments.set(42, new PaymentSpec(ACCOUNT_ID_TO, new BigDecimal("1.5"), null, SEQUENCE + 42));
+
+        List<SignedTransaction> signedTransactions = bulkSigner.sign(account, payments);
+
+        assertThat(signedTransactions, hasSize(100));
+        for (int i = 0; i < signedTransactions.size(); i++) {
+            assertThat(signedTransactions.get(i).sequenceNumber(), equalTo(SEQUENCE + i));
+        }
+        assertThat(signedTransactions.get(42).envelopeXdr(), equalTo(TX_ENVELOPE));
+        assertThat(signedTransactions.get(42).id().id(), equalTo(TX_HASH));
+    }
+
+    @Test
+    public void sign_ExponentFormAmount_SameAsPlainAmount() throws Exception {
+        List<SignedTransaction> signedTransactions = bulkSigner.sign(account, Arrays.asList(
+            new PaymentSpec(ACCOUNT_ID_TO, new BigDecimal("1E+3"), null, SEQUENCE),
+            new PaymentSpec(ACCOUNT_ID_TO, new BigDecimal("1000"), null, SEQUENCE)));
+
+        assertThat(signedTransactions, hasSize(2));
+        assertThat(signedTransactions.get(0).envelopeXdr(), equalTo(signedTransactions.get(1).envelopeXdr()));
+    }
+
+    @Test
+    public void sign_EmptyList_EmptyResult() throws Exception {
+        List<SignedTransaction> signedTransactions = bulkSigner.sign(account, new ArrayList<PaymentSpec>());
+
+        assertThat(signedTransactions, hasSize(0));
+    }
+
+    @Test
+    public void paymentSpec_InvalidAddress_IllegalArgumentException() {
+        expectedEx.expect(IllegalArgumentException.class);
+
+        new PaymentSpec("GDJOJJVIWI6YVPUI3PX4BQCC4SQUZTRYIAMV2YBT6QVL54QGQUQSFKGX", BigDecimal.ONE, null, SEQUENCE);
+    }
+
+    @Test
+    public void paymentSpec_NegativeAmount_IllegalArgumentException() {
+        expectedEx.expect(IllegalArgumentException.class);
+
+        new PaymentSpec(ACCOUNT_ID_TO, new BigDecimal("-1"), null, SEQUENCE);
+    }
+}
@@ -0,0 +1,288 @@
+package kin.core;
+
+import static kin.core.TestUtils.createKinAsset;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import android.support.annotation.NonNull;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import kin.core.EndpointPool.Endpoint;
+import kin.core.ServiceProvider.KinAsset;
+import kin.core.exception.CircuitOpenException;
+import kin.core.exception.OperationFailedException;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.SocketPolicy;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.stellar.sdk.Account;
+import org.stellar.sdk.KeyPair;
+import org.stellar.sdk.Network;
+import org.stellar.sdk.PaymentOperation;
+import org.stellar.sdk.Transaction;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 23, manifest = Config.NONE)
+public class EndpointPoolTest {
+
+    private static final String ACCOUNT_ID_KIN_ISSUER = "GBA2XHZRUAHEL4DZX7XNHR7HLBAUYPRNKLD2PIUKWV2LVVE6OJT4NDLM";
+    private static final String ACCOUNT_ID = "GBQUCJ755LJBUFFKFZCTV7XFA6JUR5NAAEJF66SPCN3XROHVKSG3VVUY";
+    private static final String TX_BAD_SEQ_RESPONSE =
+        "{\"status\": 400, \"extras\": {\"result_codes\": {\"transaction\": \"tx_bad_seq\"}}}";
+
+    private MockWebServer server1;
+    private MockWebServer server2;
+    private KinAsset kinAsset;
+    private HorizonClient horizonClient;
+    private List<String> retries;
+    private List<String> circuitEvents;
+    private Telemetry telemetry;
+
+    @Before
+    public void setup() throws Exception {
+        Network.useTestNetwork();
+        server1 = new MockWebServer();
+        server1.start();
+        server2 = new MockWebServer();
+        server2.start();
+        kinAsset = createKinAsset(ACCOUNT_ID_KIN_ISSUER);
+        retries = new CopyOnWriteArrayList<>();
+        circuitEvents = new CopyOnWriteArrayList<>();
+        telemetry = new Telemetry();
+        telemetry.setMetrics(new KinMetrics() {
+            @Override
+            public void onRetry(@NonNull String route, int attempt) {
+                retries.add(route + " " + attempt);
+            }
+
+            @Override
+            public void onCircuitOpen(@NonNull String endpoint) {
+                circuitEvents.add("open " + endpoint);
+            }
+
+            @Override
+            public void onCircuitClose(@NonNull String endpoint) {
+                circuitEvents.add("close " + endpoint);
+            }
+        });
+        horizonClient = new HorizonClient(new OkHttpClient(),
+            Arrays.asList(server1.url("").toString(), server2.url("").toString()), kinAsset, telemetry,
+            new TransactionTracker());
+    }
+
+    @After
+    public void teardown() throws Exception {
+        server1.shutdown();
+        server2.shutdown();
+    }
+
+    @Test
+    public void ranked_UnmeasuredFirstThenByLatency() {
+        EndpointPool pool = createPool(3);
+        List<Endpoint> endpoints = pool.all();
+
+        pool.onSuccess(endpoints.get(0), 300);
+        pool.onSuccess(endpoints.get(1), 100);
+
+        assertThat(pool.ranked(), contains(endpoints.get(2), endpoints.get(1), endpoints.get(0)));
+    }
+
+    @Test
+    public void onSuccess_LatencyAveraged() {
+        EndpointPool pool = createPool(1);
+        Endpoint endpoint = pool.best();
+
+        pool.onSuccess(endpoint, 100);
+        pool.onSuccess(endpoint, 200);
+
+        assertThat(pool.getLatencyNanos(endpoint), closeTo(100 + EndpointPool.LATENCY_EWMA_ALPHA * 100, 0.001));
+    }
+
+    @Test
+    public void onFailure_UnhealthyRankedLast() {
+        EndpointPool pool = createPool(2);
+        List<Endpoint> endpoints = pool.all();
+        pool.onSuccess(endpoints.get(0), 100);
+        pool.onSuccess(endpoints.get(1), 300);
+
+        pool.onFailure(endpoints.get(0));
+
+        assertThat(pool.isHealthy(endpoints.get(0)), equalTo(false));
+        assertThat(pool.ranked(), contains(endpoints.get(1), endpoints.get(0)));
+
+        pool.onAvailable(endpoints.get(0));
+        assertThat(pool.isHealthy(endpoints.get(0)), equalTo(true));
+        assertThat(pool.best(), equalTo(endpoints.get(0)));
+    }
+
+    @Test
+    public void onFailure_ConsecutiveFailures_CircuitOpen() {
+        EndpointPool pool = new EndpointPool(Collections.singletonList(HttpUrl.parse("http://horizon.test/")),
+            telemetry);
+        Endpoint endpoint = pool.best();
+
+        for (int i = 0; i < EndpointPool.CIRCUIT_FAILURE_THRESHOLD - 1; i++) {
+            pool.onFailure(endpoint);
+        }
+        assertThat(pool.tryAcquire(endpoint), equalTo(true));
+        pool.onFailure(endpoint);
+
+        assertThat(pool.isCircuitOpen(endpoint), equalTo(true));
+        assertThat(pool.tryAcquire(endpoint), equalTo(false));
+        assertThat(pool.getRetryAfterMillis() > 0, equalTo(true));
+        assertThat(circuitEvents, contains("open http://horizon.test/"));
+    }
+
+    @Test
+    public void onSuccess_SlowCallRateExceeded_CircuitOpen() {
+        EndpointPool pool = createPool(1);
+        Endpoint endpoint = pool.best();
+
+        for (int i = 0; i < EndpointPool.SLOW_CALL_MIN_CALLS - 1; i++) {
+            pool.onSuccess(endpoint, i % 2 == 0 ? EndpointPool.SLOW_CALL_NANOS + 1 : 100);
+        }
+        assertThat(pool.isCircuitOpen(endpoint), equalTo(false));
+        pool.onSuccess(endpoint, 100);
+
+        assertThat(pool.isCircuitOpen(endpoint), equalTo(true));
+    }
+
+    @Test
+    public void tryAcquire_HalfOpen_SingleTrialClosesOrReopens() throws Exception {
+        EndpointPool pool = new EndpointPool(Collections.singletonList(HttpUrl.parse("http://horizon.test/")),
+            telemetry, 50);
+        Endpoint endpoint = pool.best();
+        for (int i = 0; i < EndpointPool.CIRCUIT_FAILURE_THRESHOLD; i++) {
+            pool.onFailure(endpoint);
+        }
+        Thread.sleep(60);
+
+        assertThat(pool.tryAcquire(endpoint), equalTo(true));
+        assertThat(pool.tryAcquire(endpoint), equalTo(false));
+        //failed trial, open for twice as long
+        pool.onFailure(endpoint);
+        Thread.sleep(60);
+        assertThat(pool.tryAcquire(endpoint), equalTo(false));
+        Thread.sleep(60);
+        assertThat(pool.tryAcquire(endpoint), equalTo(true));
+        pool.onSuccess(endpoint, 100);
+
+        assertThat(pool.isCircuitOpen(endpoint), equalTo(false));
+        assertThat(pool.tryAcquire(endpoint), equalTo(true));
+        assertThat(circuitEvents, contains("open http://horizon.test/", "close http://horizon.test/"));
+    }
+
+    @Test
+    public void getBalance_AllCircuitsOpen_FailFast() throws Exception {
+        for (int i = 0; i < EndpointPool.CIRCUIT_FAILURE_THRESHOLD; i++) {
+            server1.enqueue(new MockResponse().setResponseCode(503));
+            server2.enqueue(new MockResponse().setResponseCode(503));
+        }
+        AccountInfoRetriever accountInfoRetriever = new AccountInfoRetriever(horizonClient);
+        for (int i = 0; i < EndpointPool.CIRCUIT_FAILURE_THRESHOLD; i++) {
+            try {
+                accountInfoRetriever.getBalance(ACCOUNT_ID);
+                fail("endpoints down");
+            } catch (OperationFailedException e) {
+                assertThat(e, not(instanceOf(CircuitOpenException.class)));
+            }
+        }
+
+        try {
+            accountInfoRetriever.getBalance(ACCOUNT_ID);
+            fail("circuits open");
+        } catch (CircuitOpenException e) {
+            assertThat(e.getRetryAfterMillis() > 0, equalTo(true));
+        }
+        assertThat(server1.getRequestCount(), equalTo(EndpointPool.CIRCUIT_FAILURE_THRESHOLD));
+        assertThat(server2.getRequestCount(), equalTo(EndpointPool.CIRCUIT_FAILURE_THRESHOLD));
+    }
+
+    @Test
+    public void getAccount_EndpointDown_FailOverAndAvoided() throws Exception {
+        server1.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.DISCONNECT_AT_START));
+        server2.enqueue(TestUtils.generateSuccessMockResponse(this.getClass(), "balance_res_success.json"));
+        server2.enqueue(TestUtils.generateSuccessMockResponse(this.getClass(), "balance_res_success.json"));
+
+        assertThat(horizonClient.getAccount(ACCOUNT_ID).getAccountId(), equalTo(ACCOUNT_ID));
+        assertThat(horizonClient.getAccount(ACCOUNT_ID).getAccountId(), equalTo(ACCOUNT_ID));
+
+        //second read went directly to the healthy endpoint
+        assertThat(server2.getRequestCount(), equalTo(2));
+        assertThat(retries, contains(KinMetrics.ROUTE_ACCOUNT + " 2"));
+    }
+
+    @Test
+    public void getAccount_AfterHealthCheck_RoutedToFastest() throws Exception {
+        server1.enqueue(new MockResponse().setHeadersDelay(300, TimeUnit.MILLISECONDS));
+        server2.enqueue(new MockResponse());
+        horizonClient.checkHealth();
+        server2.enqueue(TestUtils.generateSuccessMockResponse(this.getClass(), "balance_res_success.json"));
+
+        horizonClient.getAccount(ACCOUNT_ID);
+
+        assertThat(server1.getRequestCount(), equalTo(1));
+        assertThat(server2.getRequestCount(), equalTo(2));
+        assertThat(server2.takeRequest().getPath(), equalTo("/"));
+        assertThat(server2.takeRequest().getPath(), equalTo("/accounts/" + ACCOUNT_ID));
+    }
+
+    @Test
+    public void submitTransaction_ServerError_FailOver() throws Exception {
+        server1.enqueue(new MockResponse().setResponseCode(503));
+        server2.enqueue(TestUtils.generateSuccessMockResponse(this.getClass(), "tx_success_res.json"));
+
+        SubmitResult result = horizonClient.submitTransaction(createTransaction());
+
+        assertThat(result.isSuccess(), equalTo(true));
+        assertThat(retries, contains(KinMetrics.ROUTE_SUBMIT_TRANSACTION + " 2"));
+    }
+
+    @Test
+    public void submitTransaction_AppliedByLostAttempt_ResolvedAsSuccess() throws Exception {
+        server1.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.DISCONNECT_AFTER_REQUEST));
+        server2.enqueue(new MockResponse().setResponseCode(400).setBody(TX_BAD_SEQ_RESPONSE));
+        server2.enqueue(TestUtils.generateSuccessMockResponse(this.getClass(), "payment_listener_tx_response1.json"));
+        Transaction transaction = createTransaction();
+
+        SubmitResult result = horizonClient.submitTransaction(transaction);
+
+        assertThat(result.isSuccess(), equalTo(true));
+        assertThat(result.getHash(), equalTo(Utils.bytesToHex(transaction.hash())));
+        server2.takeRequest();
+        assertThat(server2.takeRequest().getPath(), equalTo("/transactions/" + result.getHash()));
+    }
+
+    private EndpointPool createPool(int size) {
+        HttpUrl[] urls = new HttpUrl[size];
+        for (int i = 0; i < size; i++) {
+            urls[i] = HttpUrl.parse("http://horizon" + i + ".test/");
+        }
+        return new EndpointPool(Arrays.asList(urls));
+    }
+
+    private Transaction createTransaction() {
+        KeyPair source = KeyPair.random();
+        Transaction transaction = new Transaction.Builder(new Account(source, 1L))
+            .addOperation(new PaymentOperation.Builder(KeyPair.fromAccountId(ACCOUNT_ID), kinAsset.getStellarAsset(),
+                "1").build())
+            .build();
+        transaction.sign(source);
+        return transaction;
+    }
+}
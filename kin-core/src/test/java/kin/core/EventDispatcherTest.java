@@ -0,0 +1,227 @@
+package kin.core;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+public class EventDispatcherTest {
+
+    @Rule
+    public ExpectedException expectedEx = ExpectedException.none();
+    private ManualExecutor executor;
+    private List<Integer> events;
+    private EventListener<Integer> listener;
+
+    @Before
+    public void setup() {
+        executor = new ManualExecutor();
+        events = new ArrayList<>();
+        listener = new EventListener<Integer>() {
+            @Override
+            public void onEvent(Integer data) {
+                events.add(data);
+            }
+        };
+    }
+
+    @Test
+    public void onEvent_DeliveredOnExecutorInOrder() {
+        EventDispatcher<Integer> dispatcher = createDispatcher(10, OverflowStrategy.BLOCK);
+
+        dispatcher.onEvent(1);
+        dispatcher.onEvent(2);
+        dispatcher.onEvent(3);
+        assertThat(events, empty());
+
+        executor.runAll();
+        assertThat(events, contains(1, 2, 3));
+    }
+
+    @Test
+    public void onEvent_SingleDrainTaskScheduled() {
+        EventDispatcher<Integer> dispatcher = createDispatcher(10, OverflowStrategy.BLOCK);
+
+        dispatcher.onEvent(1);
+        dispatcher.onEvent(2);
+
+        assertThat(executor.tasks, hasSize(1));
+    }
+
+    @Test
+    public void onEvent_DropOldest_NewestEventsDelivered() {
+        EventDispatcher<Integer> dispatcher = createDispatcher(2, OverflowStrategy.DROP_OLDEST);
+
+        for (int i = 1; i <= 5; i++) {
+            dispatcher.onEvent(i);
+        }
+        executor.runAll();
+
+        assertThat(events, contains(4, 5));
+    }
+
+    @Test
+    public void onEvent_DropOldest_DroppedEventsReported() {
+        final List<Integer> dropped = new ArrayList<>();
+        Telemetry telemetry = new Telemetry();
+        telemetry.setMetrics(new KinMetrics() {
+            @Override
+            public void onEventDropped() {
+                dropped.add(1);
+            }
+        });
+        EventDispatcher<Integer> dispatcher = new EventDispatcher<>(listener,
+            DispatchPolicy.create(executor, 2, OverflowStrategy.DROP_OLDEST), telemetry);
+
+        for (int i = 1; i <= 5; i++) {
+            dispatcher.onEvent(i);
+        }
+
+        assertThat(dropped, hasSize(3));
+    }
+
+    @Test
+    public void defaultPaymentPolicy_NeverBlocksStream() {
+        assertThat(DispatchPolicy.defaultPaymentPolicy().getOverflowStrategy(),
+            equalTo(OverflowStrategy.DROP_OLDEST));
+    }
+
+    @Test
+    public void onEvent_Coalesce_LatestEventDelivered() {
+        EventDispatcher<Integer> dispatcher = createDispatcher(10, OverflowStrategy.COALESCE);
+
+        for (int i = 1; i <= 5; i++) {
+            dispatcher.onEvent(i);
+        }
+        executor.runAll();
+
+        assertThat(events, contains(5));
+    }
+
+    @Test
+    public void onEvent_BlockFullQueue_WaitsForListener() throws Exception {
+        final EventDispatcher<Integer> dispatcher = createDispatcher(1, OverflowStrategy.BLOCK);
+        dispatcher.onEvent(1);
+
+        final CountDownLatch enqueuedLatch = new CountDownLatch(1);
+        new Thread(new Runnable() {
+            @Override
+            public void run() {
+                dispatcher.onEvent(2);
+                enqueuedLatch.countDown();
+            }
+        }).start();
+
+        assertThat(enqueuedLatch.await(200, TimeUnit.MILLISECONDS), equalTo(false));
+        executor.runAll();
+        assertThat(enqueuedLatch.await(1, TimeUnit.SECONDS), equalTo(true));
+        executor.runAll();
+        assertThat(events, contains(1, 2));
+    }
+
+    @Test
+    public void cancel_BlockedStreamReleased_PendingEventsDropped() throws Exception {
+        final EventDispatcher<Integer> dispatcher = createDispatcher(1, OverflowStrategy.BLOCK);
+        dispatcher.onEvent(1);
+
+        final CountDownLatch releasedLatch = new CountDownLatch(1);
+        new Thread(new Runnable() {
+            @Override
+            public void run() {
+                dispatcher.onEvent(2);
+                releasedLatch.countDown();
+            }
+        }).start();
+        Thread.sleep(100);
+        dispatcher.cancel();
+
+        assertThat(releasedLatch.await(1, TimeUnit.SECONDS), equalTo(true));
+        executor.runAll();
+        assertThat(events, empty());
+    }
+
+    @Test
+    public void onEvent_ListenerThrows_RemainingEventsDelivered() {
+        EventDispatcher<Integer> dispatcher = new EventDispatcher<>(new EventListener<Integer>() {
+            @Override
+            public void onEvent(Integer data) {
+                events.add(data);
+                if (data == 1) {
+                    throw new IllegalStateException();
+                }
+            }
+        }, DispatchPolicy.create(executor, 10, OverflowStrategy.BLOCK), new Telemetry());
+        dispatcher.onEvent(1);
+        dispatcher.onEvent(2);
+
+        try {
+            executor.runNext();
+        } catch (IllegalStateException ignored) {
+        }
+        executor.runAll();
+
+        assertThat(events, contains(1, 2));
+    }
+
+    @Test
+    public void onEvent_NullEvent_DeliveredAsNull() {
+        EventDispatcher<Integer> dispatcher = createDispatcher(10, OverflowStrategy.BLOCK);
+
+        dispatcher.onEvent(null);
+        executor.runAll();
+
+        assertThat(events, hasSize(1));
+        assertThat(events.get(0), nullValue());
+    }
+
+    @Test
+    public void createPolicy_InvalidQueueSize_IllegalArgumentException() {
+        expectedEx.expect(IllegalArgumentException.class);
+        expectedEx.expectMessage("queueSize");
+        DispatchPolicy.create(executor, 0, OverflowStrategy.BLOCK);
+    }
+
+    private EventDispatcher<Integer> createDispatcher(int queueSize, @OverflowStrategy int overflowStrategy) {
+        return new EventDispatcher<>(listener, DispatchPolicy.create(executor, queueSize, overflowStrategy),
+            new Telemetry());
+    }
+
+    private static class ManualExecutor implements Executor {
+
+        private final List<Runnable> tasks = new ArrayList<>();
+
+        @Override
+        public synchronized void execute(Runnable command) {
+            tasks.add(command);
+        }
+
+        synchronized void runNext() {
+            tasks.remove(0).run();
+        }
+
+        void runAll() {
+            while (true) {
+                Runnable task;
+                synchronized (this) {
+                    if (tasks.isEmpty()) {
+                        return;
+                    }
+                    task = tasks.remove(0);
+                }
+                task.run();
+            }
+        }
+    }
+}
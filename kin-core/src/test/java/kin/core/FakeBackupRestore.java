@@ -2,6 +2,9 @@ package kin.core;
 
 
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
 import kin.core.exception.CryptoException;
 import org.json.JSONException;
 import org.json.JSONObject;
@@ -11,7 +14,13 @@ public class FakeBackupRestore implements BackupRestore {
 
     @NonNull
     @Override
-    public String exportWallet(@NonNull KeyPair keyPair, @NonNull String passphrase) throws CryptoException {
+    public void setKdfTargetDuration(long targetDurationMillis) {
+    }
+
+    @NonNull
+    @Override
+    public String exportWallet(@NonNull KeyPair keyPair, @NonNull String passphrase,
+        @Nullable BackupProgressListener progressListener) throws CryptoException {
         JSONObject json = new JSONObject();
         try {
             json.put("seed", new String(keyPair.getSecretSeed()));
@@ -24,7 +33,8 @@ public class FakeBackupRestore implements BackupRestore {
 
     @NonNull
     @Override
-    public KeyPair importWallet(@NonNull String exportedJson, @NonNull String passphrase) throws CryptoException {
+    public KeyPair importWallet(@NonNull String exportedJson, @NonNull String passphrase,
+        @Nullable BackupProgressListener progressListener) throws CryptoException {
         JSONObject json = new JSONObject();
         try {
             String seed = json.getString("seed");
@@ -39,4 +49,32 @@ public class FakeBackupRestore implements BackupRestore {
             throw new CryptoException(e);
         }
     }
+
+    //multiple wallets fake backup format is plain text, passphrase followed by seeds, one per line, so it can be used
+    //without org.json (not available on non Robolectric tests)
+    @NonNull
+    @Override
+    public String exportWallets(@NonNull List<KeyPair> keyPairs, @NonNull String passphrase,
+        @Nullable BackupProgressListener progressListener) {
+        StringBuilder sb = new StringBuilder(passphrase);
+        for (KeyPair keyPair : keyPairs) {
+            sb.append('\n').append(keyPair.getSecretSeed());
+        }
+        return sb.toString();
+    }
+
+    @NonNull
+    @Override
+    public List<KeyPair> importWallets(@NonNull String exportedJson, @NonNull String passphrase,
+        @Nullable BackupProgressListener progressListener) throws CryptoException {
+        String[] lines = exportedJson.split("\n");
+        if (!lines[0].equals(passphrase)) {
+            throw new CryptoException("incorrect passphrase");
+        }
+        List<KeyPair> keyPairs = new ArrayList<>();
+        for (int i = 1; i < lines.length; i++) {
+            keyPairs.add(KeyPair.fromSecretSeed(lines[i]));
+        }
+        return keyPairs;
+    }
 }
@@ -0,0 +1,792 @@
+package kin.core;
+
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.Base64;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.ByteBuffer;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.TimeZone;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import kin.core.ServiceProvider.KinAsset;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.stellar.sdk.AssetTypeCreditAlphaNum;
+import org.stellar.sdk.ChangeTrustOperation;
+import org.stellar.sdk.CreateAccountOperation;
+import org.stellar.sdk.KeyPair;
+import org.stellar.sdk.Network;
+import org.stellar.sdk.Operation;
+import org.stellar.sdk.PaymentOperation;
+import org.stellar.sdk.SetOptionsOperation;
+import org.stellar.sdk.Util;
+import org.stellar.sdk.xdr.AccountID;
+import org.stellar.sdk.xdr.DecoratedSignature;
+import org.stellar.sdk.xdr.EnvelopeType;
+import org.stellar.sdk.xdr.Int64;
+import org.stellar.sdk.xdr.LedgerEntry;
+import org.stellar.sdk.xdr.LedgerEntry.LedgerEntryExt;
+import org.stellar.sdk.xdr.LedgerEntryChange;
+import org.stellar.sdk.xdr.LedgerEntryChangeType;
+import org.stellar.sdk.xdr.LedgerEntryChanges;
+import org.stellar.sdk.xdr.LedgerEntryData;
+import org.stellar.sdk.xdr.LedgerEntryType;
+import org.stellar.sdk.xdr.MemoType;
+import org.stellar.sdk.xdr.OperationMeta;
+import org.stellar.sdk.xdr.Transaction;
+import org.stellar.sdk.xdr.TransactionEnvelope;
+import org.stellar.sdk.xdr.TransactionMeta;
+import org.stellar.sdk.xdr.TrustLineEntry;
+import org.stellar.sdk.xdr.TrustLineEntry.TrustLineEntryExt;
+import org.stellar.sdk.xdr.Uint32;
+import org.stellar.sdk.xdr.XdrDataInputStream;
+import org.stellar.sdk.xdr.XdrDataOutputStream;
+
+/**
+ * In-process horizon simulator, keeps real account state and applies submitted transactions.
+ * <p>Supports account details, transaction submission (signature and sequence validation, kin payments, account
+ * creation, kin trust and master key weight), per account transactions streams and network payments stream.
+ * Latency, ledger close wait and http errors can be injected for load and failure testing.</p>
+ * <p>Only the kin asset is tracked, native balance and fees are ignored.</p>
+ */
+class FakeHorizon {
+
+    private static final String KIN_LIMIT = "922337203685.4775807";
+    private static final int KIN_DECIMALS = 7;
+    //transaction xdr offset of the sequence number (source account public key + fee)
+    private static final int SEQUENCE_NUMBER_OFFSET = 40;
+    private static final long STREAM_KEEP_ALIVE_MILLIS = 5000;
+    private final KinAsset kinAsset;
+    private final String assetCode;
+    private final String assetIssuer;
+    private final Object lock = new Object();
+    private final Map<String, FakeAccount> accounts = new HashMap<>();
+    private final List<AppliedTransaction> history = new ArrayList<>();
+    private final List<StreamSubscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final Random random = new Random(0);
+    private final AtomicInteger submittedCount = new AtomicInteger();
+    private final AtomicInteger failNextCount = new AtomicInteger();
+    private final long startMillis = System.currentTimeMillis();
+    private HttpServer server;
+    private ExecutorService executor;
+    private volatile boolean running;
+    private volatile long latencyMillis;
+    private volatile long ledgerCloseMillis;
+    private volatile int failNextStatusCode;
+    private volatile double failureRate;
+    private volatile int failureStatusCode;
+    private long pagingToken;
+
+    FakeHorizon(@NonNull KinAsset kinAsset) {
+        this.kinAsset = kinAsset;
+        AssetTypeCreditAlphaNum asset = (AssetTypeCreditAlphaNum) kinAsset.getStellarAsset();
+        this.assetCode = asset.getCode();
+        this.assetIssuer = asset.getIssuer().getAccountId();
+    }
+
+    /**
+     * @return horizon url
+     */
+    String start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        executor = Executors.newCachedThreadPool();
+        server.setExecutor(executor);
+        server.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                try {
+                    dispatch(exchange);
+                } catch (JSONException e) {
+                    respond(exchange, 500, "{}");
+                } finally {
+                    exchange.close();
+                }
+            }
+        });
+        running = true;
+        server.start();
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+    }
+
+    void shutdown() {
+        running = false;
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    /**
+     * @param kinBalance initial kin balance, null for an account without kin trust
+     */
+    void createAccount(@NonNull String accountId, @Nullable BigDecimal kinBalance) {
+        synchronized (lock) {
+            FakeAccount account = new FakeAccount(accountId, currentLedger() << 32);
+            account.kinBalance = kinBalance != null ? toStroops(kinBalance.toPlainString()) : null;
+            accounts.put(accountId, account);
+        }
+    }
+
+    @Nullable
+    BigDecimal getKinBalance(@NonNull String accountId) {
+        synchronized (lock) {
+            FakeAccount account = accounts.get(accountId);
+            return account != null && account.kinBalance != null ? fromStroops(account.kinBalance) : null;
+        }
+    }
+
+    long getSequenceNumber(@NonNull String accountId) {
+        synchronized (lock) {
+            return accounts.get(accountId).sequenceNumber;
+        }
+    }
+
+    /**
+     * Delays all responses, except streamed events.
+     */
+    void setLatency(long latency, TimeUnit unit) {
+        latencyMillis = unit.toMillis(latency);
+    }
+
+    /**
+     * Submissions are answered (and streamed) only when the ledger they were applied to closes.
+     */
+    void setLedgerClose(long interval, TimeUnit unit) {
+        ledgerCloseMillis = unit.toMillis(interval);
+    }
+
+    void failNextRequests(int count, int statusCode) {
+        failNextStatusCode = statusCode;
+        failNextCount.set(count);
+    }
+
+    void setFailureRate(double rate, int statusCode) {
+        failureStatusCode = statusCode;
+        failureRate = rate;
+    }
+
+    int getSubmittedCount() {
+        return submittedCount.get();
+    }
+
+    /**
+     * @return number of open stream connections
+     */
+    int getStreamCount() {
+        return subscribers.size();
+    }
+
+    private void dispatch(HttpExchange exchange) throws IOException, JSONException {
+        String[] path = exchange.getRequestURI().getPath().replaceAll("^/+|/+$", "").split("/");
+        String method = exchange.getRequestMethod();
+        if ("GET".equals(method) && path.length == 3 && "accounts".equals(path[0]) && "transactions".equals(path[2])) {
+            stream(exchange, new StreamSubscriber(path[1]), exchange.getRequestURI().getQuery());
+            return;
+        }
+        if ("GET".equals(method) && path.length == 1 && "payments".equals(path[0])) {
+            stream(exchange, new StreamSubscriber(null), exchange.getRequestURI().getQuery());
+            return;
+        }
+        sleep(latencyMillis);
+        if (injectFailure(exchange)) {
+            return;
+        }
+        if ("GET".equals(method) && path.length == 2 && "accounts".equals(path[0])) {
+            getAccount(exchange, path[1]);
+        } else if ("POST".equals(method) && path.length == 1 && "transactions".equals(path[0])) {
+            submitTransaction(exchange);
+        } else if ("GET".equals(method) && path.length == 2 && "transactions".equals(path[0])) {
+            getTransaction(exchange, path[1]);
+        } else {
+            respondError(exchange, 404, "Resource Missing");
+        }
+    }
+
+    private boolean injectFailure(HttpExchange exchange) throws IOException, JSONException {
+        int statusCode = 0;
+        int remaining = failNextCount.get();
+        while (remaining > 0 && !failNextCount.compareAndSet(remaining, remaining - 1)) {
+            remaining = failNextCount.get();
+        }
+        if (remaining > 0) {
+            statusCode = failNextStatusCode;
+        } else {
+            synchronized (random) {
+                if (failureRate > 0 && random.nextDouble() < failureRate) {
+                    statusCode = failureStatusCode;
+                }
+            }
+        }
+        if (statusCode != 0) {
+            respondError(exchange, statusCode, "Injected Failure");
+            return true;
+        }
+        return false;
+    }
+
+    private void getAccount(HttpExchange exchange, String accountId) throws IOException, JSONException {
+        JSONObject json;
+        synchronized (lock) {
+            FakeAccount account = accounts.get(accountId);
+            if (account == null) {
+                respondError(exchange, 404, "Resource Missing");
+                return;
+            }
+            json = account.toJson();
+            json.put("last_modified_ledger", currentLedger());
+        }
+        respond(exchange, 200, json.toString());
+    }
+
+    private void getTransaction(HttpExchange exchange, String hash) throws IOException, JSONException {
+        String json = null;
+        synchronized (lock) {
+            for (AppliedTransaction applied : history) {
+                if (applied.hash.equals(hash)) {
+                    json = applied.json.toString();
+                }
+            }
+        }
+        if (json == null) {
+            respondError(exchange, 404, "Resource Missing");
+            return;
+        }
+        respond(exchange, 200, json);
+    }
+
+    private void submitTransaction(HttpExchange exchange) throws IOException, JSONException {
+        String envelopeXdr = null;
+        for (String param : readBody(exchange).split("&")) {
+            if (param.startsWith("tx=")) {
+                envelopeXdr = URLDecoder.decode(param.substring(3), "UTF-8");
+            }
+        }
+        TransactionEnvelope envelope;
+        try {
+            envelope = TransactionEnvelope.decode(new XdrDataInputStream(
+                new ByteArrayInputStream(Base64.decode(envelopeXdr, Base64.DEFAULT))));
+        } catch (RuntimeException | IOException e) {
+            respondError(exchange, 400, "Transaction Malformed");
+            return;
+        }
+        submittedCount.incrementAndGet();
+
+        AppliedTransaction applied;
+        synchronized (lock) {
+            applied = apply(envelope, envelopeXdr);
+        }
+        if (applied.errorJson != null) {
+            respond(exchange, 400, applied.errorJson.toString());
+            return;
+        }
+        waitForLedgerClose(applied.ledger);
+        publish(applied);
+        JSONObject json = new JSONObject();
+        json.put("hash", applied.hash);
+        json.put("ledger", applied.ledger);
+        json.put("envelope_xdr", envelopeXdr);
+        respond(exchange, 200, json.toString());
+    }
+
+    private AppliedTransaction apply(TransactionEnvelope envelope, String envelopeXdr) throws IOException,
+        JSONException {
+        Transaction tx = envelope.getTx();
+        byte[] txBytes = encode(tx);
+        String sourceId = KeyPair.fromXdrPublicKey(tx.getSourceAccount().getAccountID()).getAccountId();
+        long sequenceNumber = ByteBuffer.wrap(txBytes, SEQUENCE_NUMBER_OFFSET, 8).getLong();
+        byte[] hash = hash(txBytes);
+
+        FakeAccount source = accounts.get(sourceId);
+        if (source == null) {
+            return AppliedTransaction.failed(transactionFailure("tx_no_account", null));
+        }
+        if (sequenceNumber != source.sequenceNumber + 1) {
+            return AppliedTransaction.failed(transactionFailure("tx_bad_seq", null));
+        }
+        if (source.masterKeyWeight == 0 || !isSigned(envelope, sourceId, hash)) {
+            return AppliedTransaction.failed(transactionFailure("tx_bad_auth", null));
+        }
+        //operations of other accounts must be signed by them as well
+        for (org.stellar.sdk.xdr.Operation xdrOperation : tx.getOperations()) {
+            if (xdrOperation.getSourceAccount() != null) {
+                String operationSource = KeyPair.fromXdrPublicKey(xdrOperation.getSourceAccount().getAccountID())
+                    .getAccountId();
+                if (!isSigned(envelope, operationSource, hash)) {
+                    return AppliedTransaction.failed(transactionFailure("tx_bad_auth", null));
+                }
+            }
+        }
+        //sequence number is consumed even if operations fail
+        source.sequenceNumber = sequenceNumber;
+
+        //operations are applied to copies, committed only if all succeed
+        Map<String, FakeAccount> staged = new HashMap<>();
+        List<String> resultCodes = new ArrayList<>();
+        List<List<FakeAccount>> trustLineChanges = new ArrayList<>();
+        List<JSONObject> payments = new ArrayList<>();
+        List<String> involved = new ArrayList<>();
+        involved.add(sourceId);
+        boolean failed = false;
+        for (org.stellar.sdk.xdr.Operation xdrOperation : tx.getOperations()) {
+            Operation operation = Operation.fromXdr(xdrOperation);
+            String operationSource = operation.getSourceAccount() != null ?
+                operation.getSourceAccount().getAccountId() : sourceId;
+            List<FakeAccount> changes = new ArrayList<>();
+            String resultCode = applyOperation(operation, operationSource, staged, changes, payments, involved);
+            resultCodes.add(resultCode);
+            trustLineChanges.add(changes);
+            failed |= !"op_success".equals(resultCode);
+            if (failed) {
+                break;
+            }
+        }
+        if (failed) {
+            return AppliedTransaction.failed(transactionFailure("tx_failed", resultCodes));
+        }
+        accounts.putAll(staged);
+
+        AppliedTransaction applied = new AppliedTransaction();
+        applied.hash = Utils.bytesToHex(hash);
+        applied.ledger = currentLedger();
+        applied.involved = involved;
+        applied.json = new JSONObject();
+        applied.json.put("hash", applied.hash);
+        applied.json.put("ledger", applied.ledger);
+        applied.json.put("created_at", formatDate(new Date()));
+        applied.json.put("source_account", sourceId);
+        applied.json.put("paging_token", String.valueOf(++pagingToken));
+        applied.json.put("envelope_xdr", envelopeXdr);
+        applied.json.put("result_meta_xdr", createResultMeta(trustLineChanges, applied.ledger));
+        if (tx.getMemo().getDiscriminant() == MemoType.MEMO_TEXT) {
+            applied.json.put("memo_type", "text");
+            applied.json.put("memo", tx.getMemo().getText());
+        } else {
+            applied.json.put("memo_type", "none");
+        }
+        for (JSONObject payment : payments) {
+            payment.put("transaction_hash", applied.hash);
+            payment.put("created_at", applied.json.getString("created_at"));
+            payment.put("paging_token", String.valueOf(++pagingToken));
+        }
+        applied.payments = payments;
+        applied.pagingToken = pagingToken;
+        history.add(applied);
+        return applied;
+    }
+
+    private String applyOperation(Operation operation, String operationSource, Map<String, FakeAccount> staged,
+        List<FakeAccount> changes, List<JSONObject> payments, List<String> involved) throws JSONException {
+        FakeAccount source = stagedAccount(operationSource, staged);
+        if (source == null) {
+            return "op_no_source_account";
+        }
+        if (operation instanceof CreateAccountOperation) {
+            String destinationId = ((CreateAccountOperation) operation).getDestination().getAccountId();
+            if (stagedAccount(destinationId, staged) != null) {
+                return "op_already_exists";
+            }
+            staged.put(destinationId, new FakeAccount(destinationId, currentLedger() << 32));
+            involved.add(destinationId);
+            return "op_success";
+        } else if (operation instanceof ChangeTrustOperation) {
+            ChangeTrustOperation changeTrust = (ChangeTrustOperation) operation;
+            if (!kinAsset.isKinAsset(changeTrust.getAsset())) {
+                return "op_no_issuer";
+            }
+            if (source.kinBalance == null) {
+                source.kinBalance = 0L;
+            } else if (toStroops(changeTrust.getLimit()) < source.kinBalance) {
+                return "op_invalid_limit";
+            }
+            changes.add(source.copy());
+            return "op_success";
+        } else if (operation instanceof SetOptionsOperation) {
+            Integer masterKeyWeight = ((SetOptionsOperation) operation).getMasterKeyWeight();
+            if (masterKeyWeight != null) {
+                source.masterKeyWeight = masterKeyWeight;
+            }
+            return "op_success";
+        } else if (operation instanceof PaymentOperation) {
+            PaymentOperation payment = (PaymentOperation) operation;
+            String destinationId = payment.getDestination().getAccountId();
+            FakeAccount destination = stagedAccount(destinationId, staged);
+            long amount = toStroops(payment.getAmount());
+            if (!kinAsset.isKinAsset(payment.getAsset())) {
+                return "op_not_supported";
+            }
+            if (destination == null) {
+                return "op_no_destination";
+            }
+            if (source.kinBalance == null) {
+                return "op_src_no_trust";
+            }
+            if (destination.kinBalance == null) {
+                return "op_no_trust";
+            }
+            if (source.kinBalance < amount) {
+                return "op_underfunded";
+            }
+            source.kinBalance -= amount;
+            destination.kinBalance += amount;
+            changes.add(source.copy());
+            changes.add(destination.copy());
+            involved.add(destinationId);
+            payments.add(createPaymentJson(operationSource, destinationId, payment.getAmount()));
+            return "op_success";
+        }
+        return "op_not_supported";
+    }
+
+    @Nullable
+    private FakeAccount stagedAccount(String accountId, Map<String, FakeAccount> staged) {
+        FakeAccount account = staged.get(accountId);
+        if (account == null && accounts.containsKey(accountId)) {
+            account = accounts.get(accountId).copy();
+            staged.put(accountId, account);
+        }
+        return account;
+    }
+
+    private JSONObject createPaymentJson(String from, String to, String amount) throws JSONException {
+        JSONObject json = new JSONObject();
+        json.put("type", "payment");
+        json.put("from", from);
+        json.put("to", to);
+        json.put("amount", fromStroops(toStroops(amount)).toPlainString());
+        json.put("asset_type", "credit_alphanum4");
+        json.put("asset_code", assetCode);
+        json.put("asset_issuer", assetIssuer);
+        return json;
+    }
+
+    private String createResultMeta(List<List<FakeAccount>> trustLineChanges, long ledger) throws IOException {
+        OperationMeta[] operationsMeta = new OperationMeta[trustLineChanges.size()];
+        for (int i = 0; i < operationsMeta.length; i++) {
+            List<FakeAccount> changedAccounts = trustLineChanges.get(i);
+            LedgerEntryChange[] changes = new LedgerEntryChange[changedAccounts.size()];
+            for (int j = 0; j < changes.length; j++) {
+                changes[j] = createTrustLineChange(changedAccounts.get(j), ledger);
+            }
+            LedgerEntryChanges ledgerEntryChanges = new LedgerEntryChanges();
+            ledgerEntryChanges.setLedgerEntryChanges(changes);
+            operationsMeta[i] = new OperationMeta();
+            operationsMeta[i].setChanges(ledgerEntryChanges);
+        }
+        TransactionMeta meta = new TransactionMeta();
+        meta.setDiscriminant(0);
+        meta.setOperations(operationsMeta);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        TransactionMeta.encode(new XdrDataOutputStream(outputStream), meta);
+        return Base64.encodeToString(outputStream.toByteArray(), Base64.NO_WRAP);
+    }
+
+    private LedgerEntryChange createTrustLineChange(FakeAccount account, long ledger) {
+        AccountID accountID = new AccountID();
+        accountID.setAccountID(KeyPair.fromAccountId(account.accountId).getXdrPublicKey());
+        TrustLineEntry trustLine = new TrustLineEntry();
+        trustLine.setAccountID(accountID);
+        trustLine.setAsset(kinAsset.getStellarAsset().toXdr());
+        trustLine.setBalance(int64(account.kinBalance));
+        trustLine.setLimit(int64(Long.MAX_VALUE));
+        trustLine.setFlags(uint32(1));
+        TrustLineEntryExt trustLineExt = new TrustLineEntryExt();
+        trustLineExt.setDiscriminant(0);
+        trustLine.setExt(trustLineExt);
+
+        LedgerEntryData data = new LedgerEntryData();
+        data.setDiscriminant(LedgerEntryType.TRUSTLINE);
+        data.setTrustLine(trustLine);
+        LedgerEntry entry = new LedgerEntry();
+        entry.setLastModifiedLedgerSeq(uint32((int) ledger));
+        entry.setData(data);
+        LedgerEntryExt entryExt = new LedgerEntryExt();
+        entryExt.setDiscriminant(0);
+        entry.setExt(entryExt);
+
+        LedgerEntryChange change = new LedgerEntryChange();
+        change.setDiscriminant(LedgerEntryChangeType.LEDGER_ENTRY_UPDATED);
+        change.setUpdated(entry);
+        return change;
+    }
+
+    private boolean isSigned(TransactionEnvelope envelope, String accountId, byte[] hash) {
+        KeyPair signer = KeyPair.fromAccountId(accountId);
+        for (DecoratedSignature signature : envelope.getSignatures()) {
+            if (signer.verify(hash, signature.getSignature().getSignature())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private byte[] hash(byte[] txBytes) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        outputStream.write(Network.current().getNetworkId());
+        EnvelopeType.encode(new XdrDataOutputStream(outputStream), EnvelopeType.ENVELOPE_TYPE_TX);
+        outputStream.write(txBytes);
+        return Util.hash(outputStream.toByteArray());
+    }
+
+    private static byte[] encode(Transaction tx) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        Transaction.encode(new XdrDataOutputStream(outputStream), tx);
+        return outputStream.toByteArray();
+    }
+
+    private JSONObject transactionFailure(String transactionCode, @Nullable List<String> operationsCodes)
+        throws JSONException {
+        JSONObject resultCodes = new JSONObject();
+        resultCodes.put("transaction", transactionCode);
+        if (operationsCodes != null) {
+            resultCodes.put("operations", new JSONArray(operationsCodes));
+        }
+        JSONObject extras = new JSONObject();
+        extras.put("result_codes", resultCodes);
+        JSONObject json = new JSONObject();
+        json.put("type", "https://stellar.org/horizon-errors/transaction_failed");
+        json.put("title", "Transaction Failed");
+        json.put("status", 400);
+        json.put("extras", extras);
+        return json;
+    }
+
+    private void waitForLedgerClose(long ledger) {
+        long interval = ledgerCloseMillis;
+        if (interval > 0) {
+            sleep(startMillis + ledger * interval - System.currentTimeMillis());
+        }
+    }
+
+    private long currentLedger() {
+        long interval = ledgerCloseMillis;
+        return interval > 0 ? (System.currentTimeMillis() - startMillis) / interval + 1 : history.size() + 1;
+    }
+
+    private void publish(AppliedTransaction applied) {
+        for (StreamSubscriber subscriber : subscribers) {
+            subscriber.offer(applied);
+        }
+    }
+
+    private void stream(HttpExchange exchange, StreamSubscriber subscriber, @Nullable String query)
+        throws IOException {
+        String cursor = null;
+        if (query != null && query.startsWith("cursor=")) {
+            cursor = query.substring("cursor=".length());
+        }
+        exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, 0);
+        OutputStream outputStream = exchange.getResponseBody();
+        synchronized (lock) {
+            //cursor "now" streams future events only, otherwise past events after cursor are replayed first
+            if (!"now".equals(cursor)) {
+                long after = cursor != null ? Long.parseLong(cursor) : 0;
+                for (AppliedTransaction applied : history) {
+                    if (applied.pagingToken > after) {
+                        subscriber.offer(applied);
+                    }
+                }
+            }
+            subscribers.add(subscriber);
+        }
+        try {
+            write(outputStream, "retry: 1000\nevent: open\ndata: \"hello\"\n\n");
+            while (running) {
+                String event = subscriber.events.poll(STREAM_KEEP_ALIVE_MILLIS, TimeUnit.MILLISECONDS);
+                write(outputStream, event != null ? event : ": keep alive\n\n");
+            }
+        } catch (InterruptedException | IOException e) {
+            //client disconnected or server stopped
+        } finally {
+            subscribers.remove(subscriber);
+        }
+    }
+
+    private static void write(OutputStream outputStream, String data) throws IOException {
+        outputStream.write(data.getBytes("UTF-8"));
+        outputStream.flush();
+    }
+
+    private void respondError(HttpExchange exchange, int statusCode, String title) throws IOException,
+        JSONException {
+        JSONObject json = new JSONObject();
+        json.put("title", title);
+        json.put("status", statusCode);
+        respond(exchange, statusCode, json.toString());
+    }
+
+    private static void respond(HttpExchange exchange, int statusCode, String body) throws IOException {
+        byte[] bytes = body.getBytes("UTF-8");
+        exchange.getResponseHeaders().add("Content-Type", "application/hal+json");
+        exchange.sendResponseHeaders(statusCode, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+
+    private static String readBody(HttpExchange exchange) throws IOException {
+        InputStream inputStream = exchange.getRequestBody();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int read;
+        while ((read = inputStream.read(buffer)) != -1) {
+            outputStream.write(buffer, 0, read);
+        }
+        return outputStream.toString("UTF-8");
+    }
+
+    private static void sleep(long millis) {
+        if (millis > 0) {
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static String formatDate(Date date) {
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'", Locale.US);
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        return format.format(date);
+    }
+
+    private static long toStroops(String amount) {
+        return new BigDecimal(amount).movePointRight(KIN_DECIMALS).longValueExact();
+    }
+
+    private static BigDecimal fromStroops(long stroops) {
+        return BigDecimal.valueOf(stroops, KIN_DECIMALS);
+    }
+
+    private static Int64 int64(long value) {
+        Int64 int64 = new Int64();
+        int64.setInt64(value);
+        return int64;
+    }
+
+    private static Uint32 uint32(int value) {
+        Uint32 uint32 = new Uint32();
+        uint32.setUint32(value);
+        return uint32;
+    }
+
+    private class FakeAccount {
+
+        final String accountId;
+        long sequenceNumber;
+        @Nullable
+        Long kinBalance;
+        int masterKeyWeight = 1;
+
+        FakeAccount(String accountId, long sequenceNumber) {
+            this.accountId = accountId;
+            this.sequenceNumber = sequenceNumber;
+        }
+
+        FakeAccount copy() {
+            FakeAccount copy = new FakeAccount(accountId, sequenceNumber);
+            copy.kinBalance = kinBalance;
+            copy.masterKeyWeight = masterKeyWeight;
+            return copy;
+        }
+
+        JSONObject toJson() throws JSONException {
+            JSONArray balances = new JSONArray();
+            if (kinBalance != null) {
+                JSONObject kin = new JSONObject();
+                kin.put("balance", fromStroops(kinBalance).toPlainString());
+                kin.put("limit", KIN_LIMIT);
+                kin.put("asset_type", "credit_alphanum4");
+                kin.put("asset_code", assetCode);
+                kin.put("asset_issuer", assetIssuer);
+                balances.put(kin);
+            }
+            JSONObject nativeBalance = new JSONObject();
+            nativeBalance.put("balance", "10000.0000000");
+            nativeBalance.put("asset_type", "native");
+            balances.put(nativeBalance);
+            JSONObject signer = new JSONObject();
+            signer.put("public_key", accountId);
+            signer.put("weight", masterKeyWeight);
+            signer.put("key", accountId);
+            signer.put("type", "ed25519_public_key");
+
+            JSONObject json = new JSONObject();
+            json.put("id", accountId);
+            json.put("account_id", accountId);
+            json.put("sequence", String.valueOf(sequenceNumber));
+            json.put("balances", balances);
+            json.put("signers", new JSONArray().put(signer));
+            return json;
+        }
+    }
+
+    private static class AppliedTransaction {
+
+        String hash;
+        long ledger;
+        long pagingToken;
+        JSONObject json;
+        List<JSONObject> payments;
+        List<String> involved;
+        JSONObject errorJson;
+
+        static AppliedTransaction failed(JSONObject errorJson) {
+            AppliedTransaction applied = new AppliedTransaction();
+            applied.errorJson = errorJson;
+            return applied;
+        }
+    }
+
+    /**
+     * Single stream connection, transactions stream of an account, or network payments stream if account is null.
+     */
+    private static class StreamSubscriber {
+
+        @Nullable
+        final String accountId;
+        final BlockingQueue<String> events = new LinkedBlockingQueue<>();
+
+        StreamSubscriber(@Nullable String accountId) {
+            this.accountId = accountId;
+        }
+
+        void offer(AppliedTransaction applied) {
+            if (accountId == null) {
+                for (JSONObject payment : applied.payments) {
+                    events.add(sseEvent(payment));
+                }
+            } else if (applied.involved.contains(accountId)) {
+                events.add(sseEvent(applied.json));
+            }
+        }
+
+        private static String sseEvent(JSONObject json) {
+            String id = json.optString("paging_token");
+            return "id: " + id + "\ndata: " + json.toString() + "\n\n";
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package kin.core;
+
+import static kin.core.TestUtils.createKinAsset;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import kin.core.ServiceProvider.KinAsset;
+import kin.core.exception.InsufficientKinException;
+import kin.core.exception.OperationFailedException;
+import okhttp3.FormBody;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.stellar.sdk.KeyPair;
+import org.stellar.sdk.Network;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 23, manifest = Config.NONE)
+public class FakeHorizonTest {
+
+    private static final String ACCOUNT_ID_KIN_ISSUER = "GBA2XHZRUAHEL4DZX7XNHR7HLBAUYPRNKLD2PIUKWV2LVVE6OJT4NDLM";
+
+    @Rule
+    public ExpectedException expectedEx = ExpectedException.none();
+
+    private FakeHorizon fakeHorizon;
+    private String url;
+    private HorizonClient horizonClient;
+    private TransactionSender transactionSender;
+    private KeyPair from;
+    private KeyPair to;
+
+    @Before
+    public void setup() throws Exception {
+        Network.useTestNetwork();
+        KinAsset kinAsset = createKinAsset(ACCOUNT_ID_KIN_ISSUER);
+        fakeHorizon = new FakeHorizon(kinAsset);
+        url = fakeHorizon.start();
+        horizonClient = new HorizonClient(new OkHttpClient(), url, kinAsset, new Telemetry());
+        transactionSender = new TransactionSender(horizonClient, kinAsset, new TransactionSigner(),
+            new Telemetry());
+        from = KeyPair.random();
+        to = KeyPair.random();
+        fakeHorizon.createAccount(from.getAccountId(), new BigDecimal("100"));
+        fakeHorizon.createAccount(to.getAccountId(), BigDecimal.ZERO);
+    }
+
+    @After
+    public void teardown() {
+        fakeHorizon.shutdown();
+    }
+
+    @Test
+    public void sendTransaction_BalancesAndSequenceUpdated() throws Exception {
+        long sequence = fakeHorizon.getSequenceNumber(from.getAccountId());
+
+        transactionSender.sendTransaction(from, to.getAccountId(), new BigDecimal("12.5"));
+
+        assertThat(fakeHorizon.getKinBalance(from.getAccountId()), equalTo(new BigDecimal("87.5000000")));
+        assertThat(fakeHorizon.getKinBalance(to.getAccountId()), equalTo(new BigDecimal("12.5000000")));
+        assertThat(fakeHorizon.getSequenceNumber(from.getAccountId()), equalTo(sequence + 1));
+        assertThat(horizonClient.getAccount(to.getAccountId()).getKinBalance(), equalTo(new BigDecimal("12.5000000")));
+    }
+
+    @Test
+    public void sendTransaction_Underfunded_InsufficientKinException() throws Exception {
+        expectedEx.expect(InsufficientKinException.class);
+
+        transactionSender.sendTransaction(from, to.getAccountId(), new BigDecimal("100.0000001"));
+    }
+
+    @Test
+    public void sendTransaction_NoTrust_AccountNotActivated() throws Exception {
+        KeyPair noTrust = KeyPair.random();
+        fakeHorizon.createAccount(noTrust.getAccountId(), null);
+        expectedEx.expect(OperationFailedException.class);
+
+        transactionSender.sendTransaction(from, noTrust.getAccountId(), BigDecimal.ONE);
+    }
+
+    @Test
+    public void submit_BadSequence_Rejected() throws Exception {
+        long sequence = fakeHorizon.getSequenceNumber(from.getAccountId());
+        List<SignedTransaction> signed = transactionSender.signPayments(from, Collections.singletonList(
+            new PaymentSpec(to.getAccountId(), BigDecimal.ONE, null, sequence + 2)));
+
+        Response response = new OkHttpClient().newCall(new Request.Builder()
+            .url(url + "transactions")
+            .post(new FormBody.Builder().add("tx", signed.get(0).envelopeXdr()).build())
+            .build()).execute();
+
+        assertThat(response.code(), equalTo(400));
+        assertThat(response.body().string(), containsString("tx_bad_seq"));
+        assertThat(fakeHorizon.getSequenceNumber(from.getAccountId()), equalTo(sequence));
+    }
+
+    @Test
+    public void submit_WrongSigner_Rejected() throws Exception {
+        long sequence = fakeHorizon.getSequenceNumber(from.getAccountId());
+        final KeyPair otherSigner = KeyPair.random();
+        //source account is from, signed by a different key
+        List<SignedTransaction> signed = new BulkSigner(createKinAsset(ACCOUNT_ID_KIN_ISSUER),
+            new TransactionSigner() {
+                @Override
+                void sign(org.stellar.sdk.Transaction transaction, KeyPair signer) {
+                    super.sign(transaction, otherSigner);
+                }
+            }).sign(from, Collections.singletonList(
+            new PaymentSpec(to.getAccountId(), BigDecimal.ONE, null, sequence + 1)));
+
+        Response response = new OkHttpClient().newCall(new Request.Builder()
+            .url(url + "transactions")
+            .post(new FormBody.Builder().add("tx", signed.get(0).envelopeXdr()).build())
+            .build()).execute();
+
+        assertThat(response.code(), equalTo(400));
+        assertThat(response.body().string(), containsString("tx_bad_auth"));
+    }
+
+    @Test
+    public void getAccount_InjectedFailure_HttpError() throws Exception {
+        fakeHorizon.failNextRequests(1, 503);
+        expectedEx.expect(OperationFailedException.class);
+
+        transactionSender.sendTransaction(from, to.getAccountId(), BigDecimal.ONE);
+    }
+
+    @Test
+    public void getKinBalance_UnknownAccount_Null() throws Exception {
+        assertThat(fakeHorizon.getKinBalance(KeyPair.random().getAccountId()), nullValue());
+    }
+
+    @Test
+    public void streamTransactions_BalanceAndPaymentEvents() throws Exception {
+        BlockchainEvents blockchainEvents = new BlockchainEvents(horizonClient, to.getAccountId(),
+            createKinAsset(ACCOUNT_ID_KIN_ISSUER), new Telemetry());
+        final CountDownLatch latch = new CountDownLatch(2);
+        final Balance[] balance = new Balance[1];
+        final PaymentInfo[] payment = new PaymentInfo[1];
+        ListenerRegistration balanceRegistration = blockchainEvents.addBalanceListener(new EventListener<Balance>() {
+            @Override
+            public void onEvent(Balance data) {
+                balance[0] = data;
+                latch.countDown();
+            }
+        });
+        ListenerRegistration paymentRegistration = blockchainEvents.addPaymentListener(
+            new EventListener<PaymentInfo>() {
+                @Override
+                public void onEvent(PaymentInfo data) {
+                    payment[0] = data;
+                    latch.countDown();
+                }
+            });
+        //stream is opened asynchronously, "now" cursor would miss a payment submitted before connection
+        Thread.sleep(500);
+
+        TransactionId transactionId = transactionSender
+            .sendTransaction(from, to.getAccountId(), new BigDecimal("3"), "memo");
+
+        assertThat(latch.await(5, TimeUnit.SECONDS), equalTo(true));
+        assertThat(balance[0].value().compareTo(new BigDecimal("3")), equalTo(0));
+        assertThat(payment[0].hash().id(), equalTo(transactionId.id()));
+        assertThat(payment[0].memo(), equalTo("memo"));
+        assertThat(payment[0].sourcePublicKey(), equalTo(from.getAccountId()));
+        balanceRegistration.remove();
+        paymentRegistration.remove();
+    }
+}
@@ -2,6 +2,7 @@ package kin.core;
 
 
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.List;
 import kin.core.exception.CreateAccountException;
@@ -41,12 +42,44 @@ class FakeKeyStore implements KeyStore {
         return account;
     }
 
+    @NonNull
     @Override
-    public KeyPair importAccount(@NonNull String json, @NonNull String passphrase)
-        throws CryptoException, CreateAccountException {
+    public List<KeyPair> newAccounts(int count) {
+        List<KeyPair> keyPairs = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            keyPairs.add(newAccount());
+        }
+        return keyPairs;
+    }
+
+    @Override
+    public KeyPair importAccount(@NonNull String json, @NonNull String passphrase,
+        @Nullable BackupProgressListener progressListener) throws CryptoException, CreateAccountException {
         return null;
     }
 
+    @NonNull
+    @Override
+    public List<KeyPair> importAccounts(@NonNull String json, @NonNull String passphrase,
+        @Nullable BackupProgressListener progressListener) throws CryptoException {
+        List<KeyPair> keyPairs = new FakeBackupRestore().importWallets(json, passphrase, progressListener);
+        for (KeyPair keyPair : keyPairs) {
+            if (!containsAccount(keyPair.getAccountId())) {
+                accounts.add(keyPair);
+            }
+        }
+        return keyPairs;
+    }
+
+    private boolean containsAccount(String accountId) {
+        for (KeyPair account : accounts) {
+            if (account.getAccountId().equals(accountId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Override
     public void clearAllAccounts() {
         accounts.clear();
@@ -0,0 +1,174 @@
+package kin.core;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import android.support.annotation.NonNull;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import kin.core.EndpointPool.Endpoint;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.SocketPolicy;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 23, manifest = Config.NONE)
+public class HedgedReadTest {
+
+    private static final long FAST_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private MockWebServer primaryServer;
+    private MockWebServer secondaryServer;
+    private EndpointPool endpointPool;
+    private Hedger hedger;
+    private Telemetry telemetry;
+    private List<String> hedges;
+
+    @Before
+    public void setup() throws Exception {
+        primaryServer = new MockWebServer();
+        primaryServer.start();
+        secondaryServer = new MockWebServer();
+        secondaryServer.start();
+        endpointPool = new EndpointPool(Arrays.asList(primaryServer.url(""), secondaryServer.url("")));
+        hedger = new Hedger();
+        hedges = new CopyOnWriteArrayList<>();
+        telemetry = new Telemetry();
+        telemetry.setMetrics(new KinMetrics() {
+            @Override
+            public void onHedge(@NonNull String route) {
+                hedges.add(route);
+            }
+        });
+    }
+
+    @After
+    public void teardown() throws Exception {
+        primaryServer.shutdown();
+        secondaryServer.shutdown();
+    }
+
+    @Test
+    public void hedger_NoPolicy_NoHedge() {
+        seedLatencies(Hedger.MIN_SAMPLES);
+
+        assertThat(hedger.onRead(), equalTo(Hedger.NO_HEDGE));
+    }
+
+    @Test
+    public void hedger_NotEnoughSamples_NoHedge() {
+        hedger.setPolicy(HedgingPolicy.create(0.9, 1));
+        seedLatencies(Hedger.MIN_SAMPLES - 1);
+
+        assertThat(hedger.onRead(), equalTo(Hedger.NO_HEDGE));
+    }
+
+    @Test
+    public void hedger_PercentileDelay() {
+        hedger.setPolicy(HedgingPolicy.create(0.9, 1));
+        for (int i = 1; i <= 100; i++) {
+            hedger.onLatency(i);
+        }
+
+        assertThat(hedger.onRead(), equalTo(90L));
+    }
+
+    @Test
+    public void hedger_BudgetCapsHedgeRatio() {
+        hedger.setPolicy(HedgingPolicy.create(0.9, 0.25));
+        int hedged = 0;
+        for (int i = 0; i < 100; i++) {
+            hedger.onRead();
+            if (hedger.tryHedge()) {
+                hedged++;
+            }
+        }
+
+        assertThat(hedged, equalTo(25));
+    }
+
+    @Test
+    public void execute_SlowPrimary_SecondaryWins() throws Exception {
+        enableHedging(1);
+        primaryServer.enqueue(new MockResponse().setBody("primary").setHeadersDelay(5, TimeUnit.SECONDS));
+        secondaryServer.enqueue(new MockResponse().setBody("secondary"));
+
+        long start = System.nanoTime();
+        Response response = execute(hedger.onRead());
+
+        assertThat(response.body().string(), equalTo("secondary"));
+        assertThat(System.nanoTime() - start, lessThan(TimeUnit.SECONDS.toNanos(3)));
+        assertThat(hedges, contains(KinMetrics.ROUTE_ACCOUNT));
+    }
+
+    @Test
+    public void execute_NoBudget_PrimaryAwaited() throws Exception {
+        enableHedging(0.05);
+        primaryServer.enqueue(new MockResponse().setBody("primary").setHeadersDelay(300, TimeUnit.MILLISECONDS));
+
+        Response response = execute(hedger.onRead());
+
+        assertThat(response.body().string(), equalTo("primary"));
+        assertThat(secondaryServer.getRequestCount(), equalTo(0));
+        assertThat(hedges, empty());
+    }
+
+    @Test
+    public void execute_PrimaryFailsFast_NullForFailOver() throws Exception {
+        enableHedging(1);
+        primaryServer.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.DISCONNECT_AT_START));
+        HedgedRead hedgedRead = new HedgedRead(new OkHttpClient(), endpointPool, hedger, new RateLimiter(),
+            telemetry, KinMetrics.ROUTE_ACCOUNT);
+
+        Response response = hedgedRead.execute(request(primaryServer), primary(), request(secondaryServer),
+            secondary(), TimeUnit.SECONDS.toNanos(1));
+
+        assertThat(response, nullValue());
+        assertThat(hedgedRead.attempts(), equalTo(1));
+        assertThat(endpointPool.isHealthy(primary()), equalTo(false));
+    }
+
+    private void enableHedging(double maxHedgeRatio) {
+        hedger.setPolicy(HedgingPolicy.create(0.9, maxHedgeRatio));
+        seedLatencies(Hedger.MIN_SAMPLES);
+    }
+
+    private void seedLatencies(int count) {
+        for (int i = 0; i < count; i++) {
+            hedger.onLatency(FAST_NANOS);
+        }
+    }
+
+    private Response execute(long delayNanos) throws Exception {
+        return new HedgedRead(new OkHttpClient(), endpointPool, hedger, new RateLimiter(), telemetry,
+            KinMetrics.ROUTE_ACCOUNT)
+            .execute(request(primaryServer), primary(), request(secondaryServer), secondary(), delayNanos);
+    }
+
+    private Endpoint primary() {
+        return endpointPool.all().get(0);
+    }
+
+    private Endpoint secondary() {
+        return endpointPool.all().get(1);
+    }
+
+    private Request request(MockWebServer server) {
+        return new Request.Builder().url(server.url("/accounts/id")).get().build();
+    }
+}
@@ -0,0 +1,195 @@
+package kin.core;
+
+import static kin.core.TestUtils.createKinAsset;
+import static kin.core.TestUtils.loadResource;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.List;
+import kin.core.ServiceProvider.KinAsset;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.stellar.sdk.KeyPair;
+import org.stellar.sdk.Operation;
+import org.stellar.sdk.PaymentOperation;
+import org.stellar.sdk.xdr.TrustLineEntry;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 23, manifest = Config.NONE)
+public class HorizonParserTest {
+
+    private static final String ACCOUNT_ID_KIN_ISSUER = "GBA2XHZRUAHEL4DZX7XNHR7HLBAUYPRNKLD2PIUKWV2LVVE6OJT4NDLM";
+    private static final String ACCOUNT_ID = "GBQUCJ755LJBUFFKFZCTV7XFA6JUR5NAAEJF66SPCN3XROHVKSG3VVUY";
+    private static final String TX_SOURCE_ACCOUNT_ID = "GBRXY5BAZAAB7M2PI3KG5WLIRARJAGUPV2IPC4AGIPTTZRM7UY2VVKN3";
+
+    @Rule
+    public ExpectedException expectedEx = ExpectedException.none();
+
+    @Test
+    public void parseAccount_Success() throws Exception {
+        AccountData accountData = parseAccount("balance_res_success.json");
+
+        assertThat(accountData.getAccountId(), equalTo(ACCOUNT_ID));
+        assertThat(accountData.getSequenceNumber(), equalTo(29390263638032386L));
+        assertThat(accountData.hasKinTrust(), equalTo(true));
+        assertThat(accountData.getKinBalance(), equalTo(new BigDecimal("9999.9999800")));
+        assertThat(accountData.getMasterKeyWeight(), equalTo(1));
+    }
+
+    @Test
+    public void parseAccount_NoKinTrust_NullBalance() throws Exception {
+        AccountData accountData = parseAccount("balance_res_no_kin_trust.json");
+
+        assertThat(accountData.hasKinTrust(), equalTo(false));
+        assertThat(accountData.getKinBalance(), nullValue());
+    }
+
+    @Test
+    public void parseAccount_SameIssuerDifferentAssetCode_NullBalance() throws Exception {
+        AccountData accountData = parseAccount("balance_res_same_issuer_different_asset_code.json");
+
+        assertThat(accountData.hasKinTrust(), equalTo(false));
+    }
+
+    @Test
+    public void parseAccount_LastModifiedLedger() throws Exception {
+        AccountData accountData = HorizonParser.parseAccount(new StringReader(
+            "{\"account_id\": \"" + ACCOUNT_ID + "\", \"sequence\": \"1\", \"last_modified_ledger\": 1234}"),
+            createKinAsset(ACCOUNT_ID_KIN_ISSUER));
+
+        assertThat(accountData.getLastModifiedLedger(), equalTo(1234L));
+        assertThat(parseAccount("balance_res_success.json").getLastModifiedLedger(), equalTo(0L));
+    }
+
+    @Test
+    public void parseAccount_MissingAccountId_IOException() throws Exception {
+        expectedEx.expect(IOException.class);
+        expectedEx.expectMessage("account id");
+
+        HorizonParser.parseAccount(new StringReader("{\"sequence\": \"1\", \"balances\": []}"),
+            createKinAsset(ACCOUNT_ID_KIN_ISSUER));
+    }
+
+    @Test
+    public void parseAccount_MalformedJson_IOException() throws Exception {
+        expectedEx.expect(IOException.class);
+
+        HorizonParser.parseAccount(new StringReader("{\"account_id\": "), createKinAsset(ACCOUNT_ID_KIN_ISSUER));
+    }
+
+    @Test
+    public void parseTransaction_Success() throws Exception {
+        TransactionData transaction = parseTransaction("payment_listener_tx_response1.json");
+
+        assertThat(transaction.getHash(),
+            equalTo("13a3eeceb2ef63223b89e179582b4f4a6ce3fdb310bdb19454847a14f9570be8"));
+        assertThat(transaction.getCreatedAt(), equalTo("2018-02-21T06:51:00Z"));
+        assertThat(transaction.getSourceAccount(), equalTo(TX_SOURCE_ACCOUNT_ID));
+        assertThat(transaction.getPagingToken(), equalTo("32200014063210496"));
+        assertThat(transaction.getMemo(), equalTo("Test Transaction"));
+    }
+
+    @Test
+    public void parseTransaction_NoMemo_NullMemo() throws Exception {
+        TransactionData transaction = parseTransaction("create_account_tx_response1.json");
+
+        assertThat(transaction.getMemo(), nullValue());
+    }
+
+    @Test
+    public void getOperations_PaymentOperation() throws Exception {
+        TransactionData transaction = parseTransaction("payment_listener_tx_response1.json");
+
+        List<Operation> operations = transaction.getOperations();
+
+        assertThat(operations, hasSize(1));
+        assertThat(operations.get(0), instanceOf(PaymentOperation.class));
+        PaymentOperation payment = (PaymentOperation) operations.get(0);
+        assertThat(payment.getDestination().getAccountId(),
+            equalTo("GD4YOKVYR6KPPXA7HXG2SQOTWGZ6FO6BNCDJ5IGIGWRLL3Z5ABPEEYD3"));
+        assertThat(new BigDecimal(payment.getAmount()), equalTo(new BigDecimal("612.784")));
+    }
+
+    @Test
+    public void getUpdatedTrustLines_SourceAccountTrustLineUpdated() throws Exception {
+        TransactionData transaction = parseTransaction("payment_listener_tx_response1.json");
+
+        List<TrustLineEntry> trustLines = transaction.getUpdatedTrustLines();
+
+        assertThat(trustLines, hasSize(2));
+        TrustLineEntry sourceTrustLine = trustLines.get(0);
+        assertThat(KeyPair.fromXdrPublicKey(sourceTrustLine.getAccountID().getAccountID()).getAccountId(),
+            equalTo(TX_SOURCE_ACCOUNT_ID));
+        assertThat(Utils.fromXdrAmount(sourceTrustLine.getBalance().getInt64()),
+            equalTo(new BigDecimal("5387.2160000")));
+    }
+
+    @Test
+    public void getOperations_MalformedEnvelope_IOException() throws Exception {
+        TransactionData transaction = new TransactionData("hash1", "2018-01-01T00:00:00Z", TX_SOURCE_ACCOUNT_ID, "1",
+            null, "AAAA", null, true);
+
+        expectedEx.expect(IOException.class);
+        transaction.getOperations();
+    }
+
+    @Test
+    public void getOperations_DecodedOnce() throws Exception {
+        TransactionData transaction = parseTransaction("payment_listener_tx_response1.json");
+
+        assertThat(transaction.getOperations(), sameInstance(transaction.getOperations()));
+        assertThat(transaction.getUpdatedTrustLines(), sameInstance(transaction.getUpdatedTrustLines()));
+    }
+
+    @Test
+    public void parseKinPayment_Success() throws Exception {
+        PaymentInfo payment = HorizonParser.parseKinPayment(
+            new StringReader(loadResource(this.getClass(), "payments_stream_kin_payment.json")),
+            createKinAsset(ACCOUNT_ID_KIN_ISSUER));
+
+        assertThat(payment.sourcePublicKey(), equalTo(TX_SOURCE_ACCOUNT_ID));
+        assertThat(payment.destinationPublicKey(), equalTo("GD4YOKVYR6KPPXA7HXG2SQOTWGZ6FO6BNCDJ5IGIGWRLL3Z5ABPEEYD3"));
+        assertThat(payment.amount(), equalTo(new BigDecimal("612.784")));
+        assertThat(payment.hash().id(), equalTo("13a3eeceb2ef63223b89e179582b4f4a6ce3fdb310bdb19454847a14f9570be8"));
+        assertThat(payment.createdAt(), equalTo("2018-02-21T06:51:00Z"));
+        assertThat(payment.memo(), nullValue());
+    }
+
+    @Test
+    public void parseKinPayment_DifferentAsset_Null() throws Exception {
+        PaymentInfo payment = HorizonParser.parseKinPayment(
+            new StringReader(loadResource(this.getClass(), "payments_stream_kin_payment.json")),
+            createKinAsset(ACCOUNT_ID));
+
+        assertThat(payment, nullValue());
+    }
+
+    @Test
+    public void parseKinPayment_NotPaymentOperation_Null() throws Exception {
+        PaymentInfo payment = HorizonParser.parseKinPayment(
+            new StringReader(loadResource(this.getClass(), "payments_stream_create_account.json")),
+            createKinAsset(ACCOUNT_ID_KIN_ISSUER));
+
+        assertThat(payment, nullValue());
+    }
+
+    private AccountData parseAccount(String res) throws IOException {
+        KinAsset kinAsset = createKinAsset(ACCOUNT_ID_KIN_ISSUER);
+        return HorizonParser.parseAccount(new StringReader(loadResource(this.getClass(), res)), kinAsset);
+    }
+
+    private TransactionData parseTransaction(String res) throws IOException {
+        return HorizonParser.parseTransaction(new StringReader(loadResource(this.getClass(), res)));
+    }
+}
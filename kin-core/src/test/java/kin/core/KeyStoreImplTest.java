@@ -8,10 +8,14 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.isA;
 import static org.hamcrest.core.IsEqual.equalTo;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.clearInvocations;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.Arrays;
 import java.util.List;
 import kin.core.exception.CreateAccountException;
 import kin.core.exception.DeleteAccountException;
@@ -54,6 +58,23 @@ public class KeyStoreImplTest {
         keyStore.newAccount();
     }
 
+    @Test
+    public void newAccounts_SingleWrite() throws Exception {
+        Store store = spy(new FakeStore());
+        KeyStoreImpl keyStore = new KeyStoreImpl(store, new FakeBackupRestore());
+        KeyPair existingAccount = keyStore.newAccount();
+        clearInvocations(store);
+
+        List<KeyPair> newAccounts = keyStore.newAccounts(50);
+        List<KeyPair> accounts = keyStore.loadAccounts();
+
+        verify(store, times(1)).saveString(anyString(), anyString());
+        assertThat(newAccounts.size(), equalTo(50));
+        assertThat(accounts.size(), equalTo(51));
+        assertThat(accounts.get(0).getAccountId(), equalTo(existingAccount.getAccountId()));
+        assertThat(accounts.get(50).getAccountId(), equalTo(newAccounts.get(49).getAccountId()));
+    }
+
     @Test
     public void loadAccounts_OldVersionData_DropOldData() throws Exception {
         FakeStore fakeStore = new FakeStore();
@@ -128,4 +149,22 @@ public class KeyStoreImplTest {
         assertTrue(keyStore.loadAccounts().isEmpty());
     }
 
-}
\ No newline at end of file
+
+    @Test
+    public void importAccounts_ExistingAccount_NotDuplicated() throws Exception {
+        FakeBackupRestore backupRestore = new FakeBackupRestore();
+        KeyStoreImpl keyStore = new KeyStoreImpl(new FakeStore(), backupRestore);
+        KeyPair existingAccount = keyStore.newAccount();
+        KeyPair newAccount = KeyPair.random();
+        String backup = backupRestore.exportWallets(Arrays.asList(existingAccount, newAccount), "passphrase",
+            null);
+
+        List<KeyPair> importedAccounts = keyStore.importAccounts(backup, "passphrase", null);
+        List<KeyPair> accounts = keyStore.loadAccounts();
+
+        assertThat(importedAccounts.size(), equalTo(2));
+        assertThat(accounts.size(), equalTo(2));
+        assertThat(accounts.get(0).getAccountId(), equalTo(existingAccount.getAccountId()));
+        assertThat(accounts.get(1).getAccountId(), equalTo(newAccount.getAccountId()));
+    }
+}
@@ -4,6 +4,8 @@ import static junit.framework.Assert.assertEquals;
 import static junit.framework.Assert.assertNull;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -33,11 +35,16 @@ public class KinAccountImplTest {
         MockitoAnnotations.initMocks(this);
     }
 
+    private KinAccountImpl createRandomAccount() {
+        return new KinAccountImpl(KeyPair.random(), new FakeBackupRestore(), mockTransactionSender,
+            mockAccountActivator, mockAccountInfoRetriever, mockBlockchainEventsCreator, new Telemetry());
+    }
+
     private void initWithRandomAccount() {
         expectedRandomAccount = KeyPair.random();
         kinAccount = new KinAccountImpl(expectedRandomAccount, new FakeBackupRestore(), mockTransactionSender,
             mockAccountActivator,
-            mockAccountInfoRetriever, mockBlockchainEventsCreator);
+            mockAccountInfoRetriever, mockBlockchainEventsCreator, new Telemetry());
     }
 
     @Test
@@ -55,14 +62,16 @@ public class KinAccountImplTest {
         BigDecimal expectedAmount = new BigDecimal("12.2");
         TransactionId expectedTransactionId = new TransactionIdImpl("myId");
 
-        when(mockTransactionSender.sendTransaction((KeyPair) any(), (String) any(), (BigDecimal) any()))
+        when(mockTransactionSender.sendTransaction((KeyPair) any(), (String) any(), (BigDecimal) any(),
+            (String) isNull(), any(TransactionSender.SubmitListener.class)))
             .thenReturn(expectedTransactionId);
 
         TransactionId transactionId = kinAccount
             .sendTransactionSync(expectedAccountId, expectedAmount);
 
         verify(mockTransactionSender)
-            .sendTransaction(expectedRandomAccount, expectedAccountId, expectedAmount);
+            .sendTransaction(eq(expectedRandomAccount), eq(expectedAccountId), eq(expectedAmount), (String) isNull(),
+                any(TransactionSender.SubmitListener.class));
         assertEquals(expectedTransactionId, transactionId);
     }
 
@@ -76,14 +85,16 @@ public class KinAccountImplTest {
         String memo = "Dummy Memo";
 
         when(mockTransactionSender
-            .sendTransaction((KeyPair) any(), anyString(), (BigDecimal) any(), anyString()))
+            .sendTransaction((KeyPair) any(), anyString(), (BigDecimal) any(), anyString(),
+                any(TransactionSender.SubmitListener.class)))
             .thenReturn(expectedTransactionId);
 
         TransactionId transactionId = kinAccount
             .sendTransactionSync(expectedAccountId, expectedAmount, memo);
 
         verify(mockTransactionSender)
-            .sendTransaction(expectedRandomAccount, expectedAccountId, expectedAmount, memo);
+            .sendTransaction(eq(expectedRandomAccount), eq(expectedAccountId), eq(expectedAmount), eq(memo),
+                any(TransactionSender.SubmitListener.class));
         assertEquals(expectedTransactionId, transactionId);
     }
 
@@ -100,6 +111,24 @@ public class KinAccountImplTest {
         verify(mockAccountInfoRetriever).getBalance(expectedRandomAccount.getAccountId());
     }
 
+    @Test
+    public void getLocalBalance_BalanceFetchedAndPaymentSent() throws Exception {
+        initWithRandomAccount();
+
+        when(mockAccountInfoRetriever.getBalance(anyString())).thenReturn(new BalanceImpl(new BigDecimal("11.0")));
+        when(mockTransactionSender.sendTransaction((KeyPair) any(), (String) any(), (BigDecimal) any(),
+            (String) isNull(), any(TransactionSender.SubmitListener.class)))
+            .thenReturn(new TransactionIdImpl("myId"));
+
+        assertNull(kinAccount.getLocalBalance());
+        kinAccount.getBalanceSync();
+        kinAccount.sendTransactionSync("GDKJAMCTGZGD6KM7RBEII6QUYAHQQUGERXKM3ESHBX2UUNTNAVNB3OGX", new BigDecimal("1.5"));
+
+        LocalBalance localBalance = kinAccount.getLocalBalance();
+        assertEquals(0, localBalance.confirmed().compareTo(new BigDecimal("9.5")));
+        assertEquals(0, localBalance.pending().compareTo(BigDecimal.ZERO));
+    }
+
     @Test
     public void getStatusSync() throws Exception {
         initWithRandomAccount();
@@ -121,6 +150,30 @@ public class KinAccountImplTest {
         verify(mockAccountActivator).activate(expectedRandomAccount);
     }
 
+    @Test
+    public void createAndActivateAccountSync() throws Exception {
+        initWithRandomAccount();
+        KinAccountImpl newAccount = createRandomAccount();
+        BigDecimal startingBalance = new BigDecimal("2");
+        TransactionId expectedTransactionId = new TransactionIdImpl("myId");
+        when(mockAccountActivator.createAndActivate((KeyPair) any(), (KeyPair) any(), (BigDecimal) any()))
+            .thenReturn(expectedTransactionId);
+
+        TransactionId transactionId = kinAccount.createAndActivateAccountSync(newAccount, startingBalance);
+
+        verify(mockAccountActivator).createAndActivate(expectedRandomAccount, newAccount.getKeyPair(), startingBalance);
+        assertEquals(expectedTransactionId, transactionId);
+    }
+
+    @Test(expected = AccountDeletedException.class)
+    public void createAndActivateAccountSync_DeletedNewAccount_Exception() throws Exception {
+        initWithRandomAccount();
+        KinAccountImpl newAccount = createRandomAccount();
+
+        newAccount.markAsDeleted();
+        kinAccount.createAndActivateAccountSync(newAccount, new BigDecimal("2"));
+    }
+
     @Test
     public void createBlockchainEvents() throws Exception {
         initWithRandomAccount();
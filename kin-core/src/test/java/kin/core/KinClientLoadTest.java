@@ -0,0 +1,137 @@
+package kin.core;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import kin.core.LoadGenerator.Report;
+import kin.core.ServiceProvider.KinAsset;
+import okhttp3.OkHttpClient;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.stellar.sdk.KeyPair;
+import org.stellar.sdk.Network;
+
+/**
+ * Concurrent payments against {@link FakeHorizon}, asserting on outcome counts only, latency targets are in the
+ * ignored {@link #sendTransactions_LedgerClose_LatencyTarget()}, for running manually.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 23, manifest = Config.NONE)
+public class KinClientLoadTest {
+
+    private static final String ACCOUNT_ID_KIN_ISSUER = "GBA2XHZRUAHEL4DZX7XNHR7HLBAUYPRNKLD2PIUKWV2LVVE6OJT4NDLM";
+    private static final int WORKERS = 4;
+    private static final int PAYMENTS_PER_WORKER = 25;
+    private static final BigDecimal INITIAL_BALANCE = new BigDecimal("1000");
+
+    private FakeHorizon fakeHorizon;
+    private KinClient kinClient;
+    private List<KeyPair> accounts;
+    private long initialSequenceSum;
+
+    @Before
+    public void setup() throws Exception {
+        Network.useTestNetwork();
+        KinAsset kinAsset = TestUtils.createKinAsset(ACCOUNT_ID_KIN_ISSUER);
+        fakeHorizon = new FakeHorizon(kinAsset);
+        String url = fakeHorizon.start();
+        ServiceProvider serviceProvider = new ServiceProvider(url, ServiceProvider.NETWORK_ID_TEST) {
+            @Override
+            protected String getIssuerAccountId() {
+                return ACCOUNT_ID_KIN_ISSUER;
+            }
+        };
+        accounts = new ArrayList<>();
+        for (int i = 0; i < WORKERS; i++) {
+            KeyPair account = KeyPair.random();
+            fakeHorizon.createAccount(account.getAccountId(), INITIAL_BALANCE);
+            accounts.add(account);
+            initialSequenceSum += fakeHorizon.getSequenceNumber(account.getAccountId());
+        }
+        Telemetry telemetry = new Telemetry();
+        TransactionTracker transactionTracker = new TransactionTracker();
+        HorizonClient horizonClient = new HorizonClient(new OkHttpClient(), Collections.singletonList(url), kinAsset,
+            telemetry, transactionTracker);
+        TransactionSigner transactionSigner = new TransactionSigner();
+        kinClient = new KinClient(serviceProvider, new FakeKeyStore(accounts),
+            new TransactionSender(horizonClient, kinAsset, transactionSigner, telemetry),
+            new AccountActivator(horizonClient, kinAsset, transactionSigner, telemetry),
+            new AccountInfoRetriever(horizonClient), new BlockchainEventsCreator(horizonClient, kinAsset, telemetry),
+            new TransactionStatusRetriever(horizonClient, transactionTracker), new FakeBackupRestore());
+    }
+
+    @After
+    public void teardown() {
+        fakeHorizon.shutdown();
+    }
+
+    @Test
+    public void sendTransactions_Concurrent_AllSucceed() throws Exception {
+        fakeHorizon.setLatency(5, TimeUnit.MILLISECONDS);
+
+        Report report = new LoadGenerator(kinClient).run(WORKERS, PAYMENTS_PER_WORKER, BigDecimal.ONE);
+
+        assertThat(report.succeeded(), equalTo(WORKERS * PAYMENTS_PER_WORKER));
+        assertThat(report.failed(), equalTo(0));
+        assertThat(fakeHorizon.getSubmittedCount(), equalTo(report.succeeded()));
+        assertThat(getAppliedCount(), equalTo((long) report.succeeded()));
+        //cyclic payments, each account sends and receives the same amount
+        for (KeyPair account : accounts) {
+            assertThat(fakeHorizon.getKinBalance(account.getAccountId()).compareTo(INITIAL_BALANCE), equalTo(0));
+        }
+    }
+
+    @Test
+    public void sendTransactions_InjectedFailures_Counted() throws Exception {
+        fakeHorizon.setFailureRate(0.1, 503);
+
+        Report report = new LoadGenerator(kinClient).run(WORKERS, PAYMENTS_PER_WORKER, BigDecimal.ONE);
+
+        assertThat(report.succeeded() + report.failed(), equalTo(WORKERS * PAYMENTS_PER_WORKER));
+        //each succeeded payment applied exactly once, failed ones never
+        assertThat(getAppliedCount(), equalTo((long) report.succeeded()));
+    }
+
+    @Test
+    public void sendTransactions_LedgerClose_AllSucceed() throws Exception {
+        fakeHorizon.setLedgerClose(200, TimeUnit.MILLISECONDS);
+
+        Report report = new LoadGenerator(kinClient).run(WORKERS, 5, BigDecimal.ONE);
+
+        assertThat(report.succeeded(), equalTo(WORKERS * 5));
+        assertThat(report.failed(), equalTo(0));
+        assertThat(getAppliedCount(), equalTo((long) report.succeeded()));
+    }
+
+    @Ignore("wall clock latency target, run manually on an idle machine")
+    @Test
+    public void sendTransactions_LedgerClose_LatencyTarget() throws Exception {
+        fakeHorizon.setLedgerClose(200, TimeUnit.MILLISECONDS);
+
+        Report report = new LoadGenerator(kinClient).run(WORKERS, 5, BigDecimal.ONE);
+
+        assertThat(report.toString(), report.percentileMillis(50) <= 400, equalTo(true));
+    }
+
+    /**
+     * @return number of transactions applied by horizon, as each account sequence number is advanced by one per
+     * applied transaction
+     */
+    private long getAppliedCount() {
+        long sequenceSum = 0;
+        for (KeyPair account : accounts) {
+            sequenceSum += fakeHorizon.getSequenceNumber(account.getAccountId());
+        }
+        return sequenceSum - initialSequenceSum;
+    }
+}
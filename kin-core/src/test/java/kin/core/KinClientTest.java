@@ -7,12 +7,16 @@ import static junit.framework.Assert.assertNull;
 import static junit.framework.Assert.assertTrue;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.isEmptyOrNullString;
 
 import android.support.annotation.NonNull;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import kin.core.exception.CreateAccountException;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -34,6 +38,8 @@ public class KinClientTest {
     private AccountInfoRetriever mockAccountInfoRetriever;
     @Mock
     private BlockchainEventsCreator mockBlockchainEventsCreator;
+    @Mock
+    private TransactionStatusRetriever mockTransactionStatusRetriever;
     private KinClient kinClient;
     private KeyStore fakeKeyStore;
     private ServiceProvider fakeServiceProvider;
@@ -54,6 +60,25 @@ public class KinClientTest {
         assertThat(kinAccount.getPublicAddress(), not(isEmptyOrNullString()));
     }
 
+    @Test
+    public void addAccounts_NewAccounts() throws Exception {
+        KinAccount existingAccount = kinClient.addAccount();
+
+        List<KinAccount> accounts = kinClient.addAccounts(3);
+
+        assertThat(accounts.size(), equalTo(3));
+        assertThat(kinClient.getAccountCount(), equalTo(4));
+        assertThat(kinClient.getAccount(0), sameInstance(existingAccount));
+        assertThat(kinClient.getAccount(3), sameInstance(accounts.get(2)));
+    }
+
+    @Test
+    public void addAccounts_ZeroCount_IllegalArgumentException() throws Exception {
+        expectedEx.expect(IllegalArgumentException.class);
+
+        kinClient.addAccounts(0);
+    }
+
     @Test
     public void createAccount_AddAccount() throws Exception {
         KinAccount kinAccount = kinClient.addAccount();
@@ -291,12 +316,76 @@ public class KinClientTest {
         assertThat(kinClient.getAccountCount(), equalTo(0));
     }
 
+    @Test
+    public void exportAll_ImportAll_SameAccounts() throws Exception {
+        KeyPair account1 = createRandomAccount();
+        KeyPair account2 = createRandomAccount();
+        fakeKeyStore = new FakeKeyStore(Arrays.asList(account1, account2));
+        kinClient = createNewKinClient();
+
+        String exportedJson = kinClient.exportAll("passphrase");
+
+        fakeKeyStore = new FakeKeyStore();
+        kinClient = createNewKinClient();
+        List<KinAccount> importedAccounts = kinClient.importAll(exportedJson, "passphrase");
+
+        assertThat(importedAccounts.size(), equalTo(2));
+        assertThat(importedAccounts.get(0).getPublicAddress(), equalTo(account1.getAccountId()));
+        assertThat(importedAccounts.get(1).getPublicAddress(), equalTo(account2.getAccountId()));
+        assertThat(kinClient.getAccountCount(), equalTo(2));
+    }
+
+    @Test
+    public void importAll_ExistingAccount_NotDuplicated() throws Exception {
+        KeyPair account1 = createRandomAccount();
+        KeyPair account2 = createRandomAccount();
+        fakeKeyStore = new FakeKeyStore(Arrays.asList(account1, account2));
+        kinClient = createNewKinClient();
+        String exportedJson = kinClient.exportAll("passphrase");
+
+        fakeKeyStore = new FakeKeyStore(Collections.singletonList(account1));
+        kinClient = createNewKinClient();
+        KinAccount existingAccount = kinClient.getAccount(0);
+        List<KinAccount> importedAccounts = kinClient.importAll(exportedJson, "passphrase");
+
+        assertThat(kinClient.getAccountCount(), equalTo(2));
+        assertThat(importedAccounts.get(0), sameInstance(existingAccount));
+        assertThat(importedAccounts.get(1).getPublicAddress(), equalTo(account2.getAccountId()));
+    }
+
+    @Test
+    public void addAccounts_ConcurrentReads_ConsistentAccounts() throws Exception {
+        Thread adder = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < 200; i++) {
+                    try {
+                        kinClient.addAccounts(1);
+                    } catch (CreateAccountException e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            }
+        });
+        adder.start();
+        while (adder.isAlive()) {
+            int count = kinClient.getAccountCount();
+            if (count > 0) {
+                assertNotNull(kinClient.getAccount(count - 1));
+            }
+        }
+        adder.join();
+
+        assertThat(kinClient.getAccountCount(), equalTo(200));
+    }
+
     @Test
     public void getServiceProvider() throws Exception {
         String url = "My awesome Horizon server";
         ServiceProvider serviceProvider = new ServiceProvider(url, ServiceProvider.NETWORK_ID_TEST);
         kinClient = new KinClient(serviceProvider, fakeKeyStore, mockTransactionSender, mockAccountActivator,
-            mockAccountInfoRetriever, mockBlockchainEventsCreator, new FakeBackupRestore());
+            mockAccountInfoRetriever, mockBlockchainEventsCreator, mockTransactionStatusRetriever,
+            new FakeBackupRestore());
         ServiceProvider actualServiceProvider = kinClient.getServiceProvider();
 
         assertNotNull(actualServiceProvider);
@@ -309,6 +398,7 @@ public class KinClientTest {
     private KinClient createNewKinClient() {
         return new KinClient(fakeServiceProvider, fakeKeyStore,
             mockTransactionSender, mockAccountActivator,
-            mockAccountInfoRetriever, mockBlockchainEventsCreator, new FakeBackupRestore());
+            mockAccountInfoRetriever, mockBlockchainEventsCreator, mockTransactionStatusRetriever,
+            new FakeBackupRestore());
     }
 }
\ No newline at end of file
@@ -0,0 +1,227 @@
+package kin.core;
+
+import static kin.core.TestUtils.createKinAsset;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import kin.core.ServiceProvider.KinAsset;
+import kin.core.exception.InsufficientKinException;
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.SocketPolicy;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.stellar.sdk.KeyPair;
+import org.stellar.sdk.Network;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 23, manifest = Config.NONE)
+public class KinMetricsTest {
+
+    private static final String ACCOUNT_ID_KIN_ISSUER = "GBA2XHZRUAHEL4DZX7XNHR7HLBAUYPRNKLD2PIUKWV2LVVE6OJT4NDLM";
+    private static final String SECRET_SEED_FROM = "SB6PCLT2WUQF44HVOTEGCXIDYNX2U4BJUPWUX453ODRGD4CXGPJP3HUX";
+    private static final String ACCOUNT_ID_TO = "GDJOJJVIWI6YVPUI3PX4BQCC4SQUZTRYIAMV2YBT6QVL54QGQUQSFKGM";
+
+    private MockWebServer mockWebServer;
+    private Telemetry telemetry;
+    private RecordingMetrics metrics;
+    private TransactionSender transactionSender;
+    private KeyPair account;
+
+    @Before
+    public void setup() throws IOException {
+        Network.useTestNetwork();
+        mockWebServer = new MockWebServer();
+        mockWebServer.start();
+        KinAsset kinAsset = createKinAsset(ACCOUNT_ID_KIN_ISSUER);
+        telemetry = new Telemetry();
+        metrics = new RecordingMetrics();
+        HorizonClient horizonClient = new HorizonClient(new OkHttpClient(), mockWebServer.url("").toString(),
+            kinAsset, telemetry);
+        transactionSender = new TransactionSender(horizonClient, kinAsset, new TransactionSigner(), telemetry);
+        account = KeyPair.fromSecretSeed(SECRET_SEED_FROM);
+    }
+
+    @After
+    public void teardown() throws IOException {
+        mockWebServer.shutdown();
+    }
+
+    @Test
+    public void sendTransaction_AllPhasesTimed() throws Exception {
+        telemetry.setMetrics(metrics);
+        enqueueAccounts();
+        mockWebServer.enqueue(TestUtils.generateSuccessMockResponse(this.getClass(), "tx_success_res.json"));
+
+        transactionSender.sendTransaction(account, ACCOUNT_ID_TO, new BigDecimal("1.5"));
+
+        assertThat(metrics.phases, contains(TransactionPhase.ADDRESSEE_LOAD, TransactionPhase.SOURCE_LOAD,
+            TransactionPhase.BUILD, TransactionPhase.SIGN, TransactionPhase.SUBMIT, TransactionPhase.RESULT_PARSE));
+        for (Long duration : metrics.durations) {
+            assertThat(duration, greaterThanOrEqualTo(0L));
+        }
+        assertThat(metrics.routes, contains(KinMetrics.ROUTE_ACCOUNT, KinMetrics.ROUTE_ACCOUNT,
+            KinMetrics.ROUTE_SUBMIT_TRANSACTION));
+        assertThat(metrics.statusCodes, contains(200, 200, 200));
+        assertThat(metrics.transactionResultCodes, contains(SubmitResult.RESULT_CODE_SUCCESS));
+    }
+
+    @Test
+    public void sendTransaction_Failed_StatusAndResultCodesReported() throws Exception {
+        telemetry.setMetrics(metrics);
+        enqueueAccounts();
+        mockWebServer.enqueue(new MockResponse()
+            .setBody(TestUtils.loadResource(this.getClass(), "tx_failure_res_underfunded.json"))
+            .setResponseCode(400)
+        );
+
+        try {
+            transactionSender.sendTransaction(account, ACCOUNT_ID_TO, new BigDecimal("200"));
+            fail("Expected InsufficientKinException");
+        } catch (InsufficientKinException ignored) {
+        }
+
+        assertThat(metrics.statusCodes, contains(200, 200, 400));
+        assertThat(metrics.transactionResultCodes, contains("tx_failed"));
+        assertThat(metrics.operationsResultCodes, contains("op_underfunded"));
+    }
+
+    @Test
+    public void sendTransaction_ConnectionError_FailureReported() throws Exception {
+        telemetry.setMetrics(metrics);
+        mockWebServer.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.DISCONNECT_AT_START));
+
+        try {
+            transactionSender.sendTransaction(account, ACCOUNT_ID_TO, new BigDecimal("200"));
+            fail("Expected OperationFailedException");
+        } catch (Exception ignored) {
+        }
+
+        assertThat(metrics.failedRoutes, contains(KinMetrics.ROUTE_ACCOUNT));
+        assertThat(metrics.statusCodes, empty());
+    }
+
+    @Test
+    public void sendTransaction_MetricsDisabled_NothingReported() throws Exception {
+        telemetry.setMetrics(metrics);
+        telemetry.setMetrics(null);
+        enqueueAccounts();
+        mockWebServer.enqueue(TestUtils.generateSuccessMockResponse(this.getClass(), "tx_success_res.json"));
+
+        transactionSender.sendTransaction(account, ACCOUNT_ID_TO, new BigDecimal("1.5"));
+
+        assertThat(telemetry.start(), equalTo(Telemetry.NOT_TIMED));
+        assertThat(metrics.phases, empty());
+        assertThat(metrics.statusCodes, empty());
+        assertThat(metrics.transactionResultCodes, empty());
+    }
+
+    @Test
+    public void sendTransaction_MetricsThrows_TransactionSent() throws Exception {
+        telemetry.setMetrics(new KinMetrics() {
+            @Override
+            public void onTransactionPhase(int phase, long durationNanos) {
+                throw new IllegalStateException();
+            }
+
+            @Override
+            public void onHttpResponse(@NonNull String route, int statusCode, long durationNanos) {
+                throw new IllegalStateException();
+            }
+        });
+        enqueueAccounts();
+        mockWebServer.enqueue(TestUtils.generateSuccessMockResponse(this.getClass(), "tx_success_res.json"));
+
+        TransactionId transactionId = transactionSender.sendTransaction(account, ACCOUNT_ID_TO, new BigDecimal("1.5"));
+
+        assertThat(transactionId.id(), equalTo("8f1e0cd1d922f4c57cc1898ececcf47375e52ec4abf77a7e32d0d9bb4edecb69"));
+    }
+
+    @Test
+    public void eventDispatcher_LagReported() {
+        telemetry.setMetrics(metrics);
+        final List<Integer> events = new CopyOnWriteArrayList<>();
+        EventDispatcher<Integer> dispatcher = new EventDispatcher<>(new EventListener<Integer>() {
+            @Override
+            public void onEvent(Integer data) {
+                events.add(data);
+            }
+        }, DispatchPolicy.create(new Executor() {
+            @Override
+            public void execute(@NonNull Runnable command) {
+                command.run();
+            }
+        }, 10, OverflowStrategy.BLOCK), telemetry);
+
+        dispatcher.onEvent(1);
+        dispatcher.onEvent(null);
+
+        assertThat(events, contains(1, null));
+        assertThat(metrics.dispatchLags, hasSize(2));
+    }
+
+    private void enqueueAccounts() {
+        mockWebServer.enqueue(TestUtils.generateSuccessMockResponse(this.getClass(), "tx_account_to.json"));
+        mockWebServer.enqueue(TestUtils.generateSuccessMockResponse(this.getClass(), "tx_account_from.json"));
+    }
+
+    private static class RecordingMetrics extends KinMetrics {
+
+        final List<Integer> phases = new CopyOnWriteArrayList<>();
+        final List<Long> durations = new CopyOnWriteArrayList<>();
+        final List<String> routes = new CopyOnWriteArrayList<>();
+        final List<Integer> statusCodes = new CopyOnWriteArrayList<>();
+        final List<String> failedRoutes = new CopyOnWriteArrayList<>();
+        final List<String> transactionResultCodes = new CopyOnWriteArrayList<>();
+        final List<String> operationsResultCodes = new CopyOnWriteArrayList<>();
+        final List<Long> dispatchLags = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void onTransactionPhase(int phase, long durationNanos) {
+            phases.add(phase);
+            durations.add(durationNanos);
+        }
+
+        @Override
+        public void onHttpResponse(@NonNull String route, int statusCode, long durationNanos) {
+            routes.add(route);
+            statusCodes.add(statusCode);
+        }
+
+        @Override
+        public void onHttpFailure(@NonNull String route, @NonNull IOException error, long durationNanos) {
+            failedRoutes.add(route);
+        }
+
+        @Override
+        public void onTransactionResult(@Nullable String transactionResultCode,
+            @Nullable List<String> operationsResultCodes) {
+            transactionResultCodes.add(transactionResultCode);
+            if (operationsResultCodes != null) {
+                this.operationsResultCodes.addAll(operationsResultCodes);
+            }
+        }
+
+        @Override
+        public void onEventDispatched(long lagNanos) {
+            dispatchLags.add(lagNanos);
+        }
+    }
+}
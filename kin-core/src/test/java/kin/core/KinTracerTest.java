@@ -0,0 +1,260 @@
+package kin.core;
+
+import static kin.core.TestUtils.createKinAsset;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import kin.core.ServiceProvider.KinAsset;
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+import org.stellar.sdk.KeyPair;
+import org.stellar.sdk.Network;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 23, manifest = Config.NONE)
+public class KinTracerTest {
+
+    private static final String ACCOUNT_ID_KIN_ISSUER = "GBA2XHZRUAHEL4DZX7XNHR7HLBAUYPRNKLD2PIUKWV2LVVE6OJT4NDLM";
+    private static final String SECRET_SEED_FROM = "SB6PCLT2WUQF44HVOTEGCXIDYNX2U4BJUPWUX453ODRGD4CXGPJP3HUX";
+    private static final String ACCOUNT_ID_TO = "GDJOJJVIWI6YVPUI3PX4BQCC4SQUZTRYIAMV2YBT6QVL54QGQUQSFKGM";
+
+    private MockWebServer mockWebServer;
+    private Telemetry telemetry;
+    private RecordingTracer tracer;
+    private TransactionSender transactionSender;
+
+    @Before
+    public void setup() throws IOException {
+        Network.useTestNetwork();
+        mockWebServer = new MockWebServer();
+        mockWebServer.start();
+        KinAsset kinAsset = createKinAsset(ACCOUNT_ID_KIN_ISSUER);
+        telemetry = new Telemetry();
+        tracer = new RecordingTracer();
+        HorizonClient horizonClient = new HorizonClient(new OkHttpClient(), mockWebServer.url("").toString(),
+            kinAsset, telemetry);
+        transactionSender = new TransactionSender(horizonClient, kinAsset, new TransactionSigner(), telemetry);
+    }
+
+    @After
+    public void teardown() throws IOException {
+        mockWebServer.shutdown();
+    }
+
+    @Test
+    public void sendTransaction_SpansChildrenOfApplicationSpan() throws Exception {
+        telemetry.setTracer(tracer);
+        RecordedSpan applicationSpan = new RecordedSpan("app", null, 0);
+        tracer.applicationSpan = applicationSpan;
+        mockWebServer.enqueue(TestUtils.generateSuccessMockResponse(this.getClass(), "tx_account_to.json"));
+        mockWebServer.enqueue(TestUtils.generateSuccessMockResponse(this.getClass(), "tx_account_from.json"));
+        mockWebServer.enqueue(TestUtils.generateSuccessMockResponse(this.getClass(), "tx_success_res.json"));
+
+        transactionSender.sendTransaction(KeyPair.fromSecretSeed(SECRET_SEED_FROM), ACCOUNT_ID_TO,
+            new BigDecimal("1.5"));
+
+        assertThat(tracer.spanNames(), contains(
+            KinTracer.SPAN_HTTP, KinTracer.SPAN_PHASE_PREFIX + "addressee_load",
+            KinTracer.SPAN_HTTP, KinTracer.SPAN_PHASE_PREFIX + "source_load",
+            KinTracer.SPAN_PHASE_PREFIX + "build", KinTracer.SPAN_PHASE_PREFIX + "sign",
+            KinTracer.SPAN_HTTP, KinTracer.SPAN_PHASE_PREFIX + "submit",
+            KinTracer.SPAN_PHASE_PREFIX + "result_parse"));
+        for (RecordedSpan span : tracer.spans) {
+            assertThat(span.parent, sameInstance(applicationSpan));
+            assertThat(span.endNanos, greaterThanOrEqualTo(span.startNanos));
+        }
+        RecordedSpan submitSpan = tracer.spans.get(6);
+        assertThat(submitSpan.attributes.get(KinTracer.ATTRIBUTE_HTTP_ROUTE),
+            equalTo(KinMetrics.ROUTE_SUBMIT_TRANSACTION));
+        assertThat(submitSpan.attributes.get(KinTracer.ATTRIBUTE_HTTP_STATUS_CODE), equalTo("200"));
+    }
+
+    @Test
+    public void request_TraceContextPropagated() throws Exception {
+        telemetry.setTracer(tracer);
+        RecordedSpan applicationSpan = new RecordedSpan("app", null, 0);
+        tracer.applicationSpan = applicationSpan;
+        Request<String> request = new Request<>(new Callable<String>() {
+            @Override
+            public String call() {
+                telemetry.phase(TransactionPhase.SIGN, telemetry.start());
+                return "result";
+            }
+        }, telemetry, "operation");
+
+        final List<String> results = new CopyOnWriteArrayList<>();
+        request.run(new ResultCallback<String>() {
+            @Override
+            public void onResult(String result) {
+                results.add(result);
+            }
+
+            @Override
+            public void onError(Exception e) {
+            }
+        });
+        awaitMainThread(results);
+
+        assertThat(results, contains("result"));
+        RecordedSpan requestSpan = tracer.find(KinTracer.SPAN_REQUEST);
+        assertThat(requestSpan.parent, sameInstance(applicationSpan));
+        assertThat(requestSpan.attributes.get(KinTracer.ATTRIBUTE_OPERATION), equalTo("operation"));
+        assertThat(requestSpan.endNanos, notNullValue());
+        assertThat(tracer.find(KinTracer.SPAN_REQUEST_QUEUE).parent, sameInstance(requestSpan));
+        assertThat(tracer.find(KinTracer.SPAN_PHASE_PREFIX + "sign").parent, sameInstance(requestSpan));
+        assertThat(tracer.find(KinTracer.SPAN_REQUEST_CALLBACK).parent, sameInstance(requestSpan));
+    }
+
+    @Test
+    public void request_Failed_ErrorAttribute() throws Exception {
+        telemetry.setTracer(tracer);
+        Request<String> request = new Request<>(new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                throw new IOException();
+            }
+        }, telemetry, "operation");
+
+        final List<String> errors = new CopyOnWriteArrayList<>();
+        request.run(new ResultCallback<String>() {
+            @Override
+            public void onResult(String result) {
+            }
+
+            @Override
+            public void onError(Exception e) {
+                errors.add(e.getClass().getName());
+            }
+        });
+        awaitMainThread(errors);
+
+        RecordedSpan requestSpan = tracer.find(KinTracer.SPAN_REQUEST);
+        assertThat(requestSpan.parent, nullValue());
+        assertThat(requestSpan.attributes.get(KinTracer.ATTRIBUTE_ERROR), equalTo(IOException.class.getName()));
+    }
+
+    @Test
+    public void eventDispatcher_EventAndListenerSpans() {
+        telemetry.setTracer(tracer);
+        EventDispatcher<Integer> dispatcher = new EventDispatcher<>(new EventListener<Integer>() {
+            @Override
+            public void onEvent(Integer data) {
+            }
+        }, DispatchPolicy.create(new Executor() {
+            @Override
+            public void execute(@NonNull Runnable command) {
+                command.run();
+            }
+        }, 10, OverflowStrategy.BLOCK), telemetry);
+
+        dispatcher.onEvent(1);
+
+        assertThat(tracer.spanNames(), contains(KinTracer.SPAN_EVENT, KinTracer.SPAN_EVENT_LISTENER));
+        RecordedSpan eventSpan = tracer.find(KinTracer.SPAN_EVENT);
+        assertThat(eventSpan.parent, nullValue());
+        assertThat(eventSpan.endNanos, notNullValue());
+        assertThat(tracer.find(KinTracer.SPAN_EVENT_LISTENER).parent, sameInstance(eventSpan));
+    }
+
+    @Test
+    public void tracerDisabled_NotTimed() {
+        telemetry.setTracer(tracer);
+        telemetry.setTracer(null);
+
+        assertThat(telemetry.start(), equalTo(Telemetry.NOT_TIMED));
+        telemetry.phase(TransactionPhase.SIGN, System.nanoTime());
+        assertThat(tracer.spans.isEmpty(), equalTo(true));
+    }
+
+    private void awaitMainThread(List<String> results) throws InterruptedException {
+        for (int i = 0; i < 500 && results.isEmpty(); i++) {
+            Thread.sleep(10);
+            ShadowLooper.runUiThreadTasks();
+        }
+    }
+
+    private static class RecordingTracer implements KinTracer {
+
+        final List<RecordedSpan> spans = new CopyOnWriteArrayList<>();
+        volatile RecordedSpan applicationSpan;
+
+        @NonNull
+        @Override
+        public Span startSpan(@NonNull String name, @Nullable Span parent, long startNanos) {
+            RecordedSpan span = new RecordedSpan(name, parent, startNanos);
+            spans.add(span);
+            return span;
+        }
+
+        @Nullable
+        @Override
+        public Span currentSpan() {
+            return applicationSpan;
+        }
+
+        List<String> spanNames() {
+            List<String> names = new ArrayList<>();
+            for (RecordedSpan span : spans) {
+                names.add(span.name);
+            }
+            return names;
+        }
+
+        RecordedSpan find(String name) {
+            for (RecordedSpan span : spans) {
+                if (span.name.equals(name)) {
+                    return span;
+                }
+            }
+            throw new AssertionError("span not found - " + name);
+        }
+    }
+
+    private static class RecordedSpan implements KinTracer.Span {
+
+        final String name;
+        final KinTracer.Span parent;
+        final long startNanos;
+        final Map<String, String> attributes = new ConcurrentHashMap<>();
+        volatile Long endNanos;
+
+        RecordedSpan(String name, KinTracer.Span parent, long startNanos) {
+            this.name = name;
+            this.parent = parent;
+            this.startNanos = startNanos;
+        }
+
+        @Override
+        public void setAttribute(@NonNull String key, @NonNull String value) {
+            attributes.put(key, value);
+        }
+
+        @Override
+        public void end(long endNanos) {
+            this.endNanos = endNanos;
+        }
+    }
+}
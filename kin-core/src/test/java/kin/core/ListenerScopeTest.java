@@ -0,0 +1,120 @@
+package kin.core;
+
+import static kin.core.TestUtils.createKinAsset;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.nullable;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+public class ListenerScopeTest {
+
+    private static final String ACCOUNT_ID = "GBRXY5BAZAAB7M2PI3KG5WLIRARJAGUPV2IPC4AGIPTTZRM7UY2VVKN3";
+    private static final String ACCOUNT_ID_KIN_ISSUER = "GBA2XHZRUAHEL4DZX7XNHR7HLBAUYPRNKLD2PIUKWV2LVVE6OJT4NDLM";
+
+    @Mock
+    private HorizonClient mockHorizonClient;
+    @Mock
+    private SupervisedStream mockStream;
+    private BlockchainEvents blockchainEvents;
+    private AccountWatcher accountWatcher;
+    private ListenerScope scope;
+    private EventListener<PaymentInfo> listener;
+
+    @Before
+    public void setup() {
+        MockitoAnnotations.initMocks(this);
+        when(mockHorizonClient.accountTransactions(anyString())).thenAnswer(new Answer<TransactionStream>() {
+            @Override
+            public TransactionStream answer(InvocationOnMock invocation) throws Throwable {
+                return new TransactionStream(mockHorizonClient, (String) invocation.getArgument(0), "now");
+            }
+        });
+        when(mockHorizonClient.streamTransactions(anyString(), nullable(String.class),
+            ArgumentMatchers.<EventListener<TransactionData>>any())).thenReturn(mockStream);
+        when(mockHorizonClient.streamPayments(nullable(String.class),
+            ArgumentMatchers.<EventListener<PaymentInfo>>any())).thenReturn(mockStream);
+        blockchainEvents = new BlockchainEvents(mockHorizonClient, ACCOUNT_ID, createKinAsset(ACCOUNT_ID_KIN_ISSUER),
+            new Telemetry());
+        accountWatcher = new AccountWatcher(mockHorizonClient, new Telemetry());
+        scope = new ListenerScope();
+        listener = new EventListener<PaymentInfo>() {
+            @Override
+            public void onEvent(PaymentInfo data) {
+            }
+        };
+    }
+
+    @Test
+    public void suspend_AllListenersBound_StreamSuspendedAndResumed() {
+        blockchainEvents.addPaymentListener(listener).bindTo(scope);
+        blockchainEvents.addPaymentListener("order1", listener).bindTo(scope);
+
+        InOrder inOrder = inOrder(mockStream);
+        scope.suspend();
+        inOrder.verify(mockStream, atLeastOnce()).suspend();
+        scope.resume();
+        inOrder.verify(mockStream, atLeastOnce()).resume();
+    }
+
+    @Test
+    public void suspend_UnboundListener_StreamStaysOpen() {
+        blockchainEvents.addPaymentListener(listener).bindTo(scope);
+        blockchainEvents.addBalanceListener(new EventListener<Balance>() {
+            @Override
+            public void onEvent(Balance data) {
+            }
+        });
+
+        scope.suspend();
+
+        verify(mockStream, never()).suspend();
+    }
+
+    @Test
+    public void bindTo_SuspendedScope_SuspendedRightAway() {
+        scope.suspend();
+
+        accountWatcher.addPaymentListener(listener).bindTo(scope);
+
+        verify(mockStream).suspend();
+    }
+
+    @Test
+    public void remove_LastActiveListener_StreamSuspended() {
+        scope.suspend();
+        accountWatcher.addPaymentListener(listener).bindTo(scope);
+        ListenerRegistration active = accountWatcher.addPaymentListener(listener);
+        verify(mockStream).resume();
+
+        active.remove();
+
+        verify(mockStream, never()).close();
+        verify(mockStream, times(2)).suspend();
+    }
+
+    @Test
+    public void removeAll_ListenersRemovedAndStreamClosed() {
+        ListenerRegistration registration = accountWatcher.addPaymentListener(listener).bindTo(scope);
+        accountWatcher.addPaymentListener(listener).bindTo(scope);
+
+        scope.removeAll();
+
+        verify(mockStream).close();
+        assertThat(registration.getStreamState(), equalTo(StreamState.CLOSED));
+    }
+}
@@ -0,0 +1,100 @@
+package kin.core;
+
+
+import android.support.annotation.NonNull;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import kin.core.exception.OperationFailedException;
+
+/**
+ * Drives payments through {@link KinClient} accounts from concurrent workers, measuring throughput and latency.
+ * <p>Worker {@code i} sends from account {@code i} to account {@code i + 1} (cyclic), so workers never compete on the
+ * same source account sequence number.</p>
+ */
+class LoadGenerator {
+
+    private final KinClient kinClient;
+
+    LoadGenerator(@NonNull KinClient kinClient) {
+        this.kinClient = kinClient;
+    }
+
+    Report run(final int workers, final int paymentsPerWorker, @NonNull final BigDecimal amount)
+        throws InterruptedException {
+        final int accountsCount = kinClient.getAccountCount();
+        if (workers > accountsCount || accountsCount < 2) {
+            throw new IllegalArgumentException("Not enough accounts for " + workers + " workers");
+        }
+        final long[] latencies = new long[workers * paymentsPerWorker];
+        final AtomicInteger completed = new AtomicInteger();
+        final AtomicInteger failed = new AtomicInteger();
+        final CountDownLatch done = new CountDownLatch(workers);
+        long start = System.nanoTime();
+        for (int i = 0; i < workers; i++) {
+            final int worker = i;
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    KinAccount from = kinClient.getAccount(worker);
+                    String to = kinClient.getAccount((worker + 1) % accountsCount).getPublicAddress();
+                    for (int j = 0; j < paymentsPerWorker; j++) {
+                        long paymentStart = System.nanoTime();
+                        try {
+                            from.sendTransactionSync(to, amount);
+                            latencies[completed.getAndIncrement()] = System.nanoTime() - paymentStart;
+                        } catch (OperationFailedException e) {
+                            failed.incrementAndGet();
+                        }
+                    }
+                    done.countDown();
+                }
+            }, "load-worker-" + i).start();
+        }
+        done.await();
+        return new Report(Arrays.copyOf(latencies, completed.get()), failed.get(), System.nanoTime() - start);
+    }
+
+    static class Report {
+
+        private final long[] latenciesNanos;
+        private final int failed;
+        private final long elapsedNanos;
+
+        Report(long[] latenciesNanos, int failed, long elapsedNanos) {
+            this.latenciesNanos = latenciesNanos;
+            this.failed = failed;
+            this.elapsedNanos = elapsedNanos;
+            Arrays.sort(this.latenciesNanos);
+        }
+
+        int succeeded() {
+            return latenciesNanos.length;
+        }
+
+        int failed() {
+            return failed;
+        }
+
+        double paymentsPerSecond() {
+            return latenciesNanos.length / (elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1));
+        }
+
+        long percentileMillis(double percentile) {
+            if (latenciesNanos.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile / 100 * latenciesNanos.length) - 1;
+            return TimeUnit.NANOSECONDS.toMillis(latenciesNanos[Math.max(0, index)]);
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "succeeded: %d, failed: %d, %.1f payments/sec, p50: %d ms, p99: %d ms",
+                succeeded(), failed, paymentsPerSecond(), percentileMillis(50), percentileMillis(99));
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package kin.core;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.junit.Assert.assertThat;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import kin.core.exception.OperationTimeoutException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+public class PendingResultTest {
+
+    @Rule
+    public ExpectedException expectedEx = ExpectedException.none();
+
+    @Test
+    public void setResult_BeforeTimeout_ResultDelivered() throws Exception {
+        PendingResult<String> pending = new PendingResult<String>()
+            .withTimeout(100, TimeUnit.MILLISECONDS, new OperationTimeoutException("timeout"));
+
+        pending.setResult("result");
+        Thread.sleep(200);
+
+        assertThat(pending.get(), equalTo("result"));
+    }
+
+    @Test
+    public void withTimeout_NotCompleted_TimeoutError() throws Exception {
+        PendingResult<String> pending = new PendingResult<String>()
+            .withTimeout(50, TimeUnit.MILLISECONDS, new OperationTimeoutException("timeout"));
+
+        expectedEx.expect(OperationTimeoutException.class);
+        pending.get();
+    }
+
+    @Test
+    public void setResult_Twice_FirstResultKept() throws Exception {
+        PendingResult<String> pending = new PendingResult<>();
+
+        assertThat(pending.setResult("first"), equalTo(true));
+        assertThat(pending.setResult("second"), equalTo(false));
+        assertThat(pending.get(), equalTo("first"));
+    }
+
+    @Test
+    public void addCallback_AlreadyCancelled_CancellationError() throws Exception {
+        PendingResult<String> pending = new PendingResult<>();
+        pending.cancel();
+        final AtomicReference<Exception> error = new AtomicReference<>();
+        final CountDownLatch latch = new CountDownLatch(1);
+
+        pending.addCallback(new ResultCallback<String>() {
+            @Override
+            public void onResult(String result) {
+            }
+
+            @Override
+            public void onError(Exception e) {
+                error.set(e);
+                latch.countDown();
+            }
+        });
+
+        assertThat(latch.await(1, TimeUnit.SECONDS), equalTo(true));
+        assertThat(error.get(), instanceOf(CancellationException.class));
+    }
+}
@@ -0,0 +1,233 @@
+package kin.core;
+
+import static kin.core.TestUtils.createKinAsset;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import android.support.annotation.NonNull;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import kin.core.exception.RateLimitedException;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 23, manifest = Config.NONE)
+public class RateLimiterTest {
+
+    private static final String ACCOUNT_ID_KIN_ISSUER = "GBA2XHZRUAHEL4DZX7XNHR7HLBAUYPRNKLD2PIUKWV2LVVE6OJT4NDLM";
+    private static final String ACCOUNT_ID = "GBQUCJ755LJBUFFKFZCTV7XFA6JUR5NAAEJF66SPCN3XROHVKSG3VVUY";
+
+    private MockWebServer mockWebServer;
+    private List<String> events;
+    private Telemetry telemetry;
+
+    @Before
+    public void setup() throws Exception {
+        mockWebServer = new MockWebServer();
+        mockWebServer.start();
+        events = new CopyOnWriteArrayList<>();
+        telemetry = new Telemetry();
+        telemetry.setMetrics(new KinMetrics() {
+            @Override
+            public void onRetry(@NonNull String route, int attempt) {
+                events.add("retry " + attempt);
+            }
+
+            @Override
+            public void onRateLimitShed(@NonNull String route) {
+                events.add("shed");
+            }
+
+            @Override
+            public void onRateLimited(@NonNull String route, long retryAfterMillis) {
+                events.add("429 " + retryAfterMillis);
+            }
+        });
+    }
+
+    @After
+    public void teardown() throws Exception {
+        mockWebServer.shutdown();
+    }
+
+    @Test
+    public void reserve_Default_NotLimited() throws Exception {
+        RateLimiter rateLimiter = new RateLimiter();
+        long now = System.nanoTime();
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(rateLimiter.reserve(RateLimiter.PRIORITY_BACKGROUND, now), equalTo(0L));
+        }
+    }
+
+    @Test
+    public void reserve_RateSet_Limited() throws Exception {
+        RateLimiter rateLimiter = new RateLimiter();
+        long now = System.nanoTime();
+
+        rateLimiter.setRate(10, 1);
+
+        assertThat(rateLimiter.tryAcquire(now), equalTo(true));
+        assertThat(rateLimiter.tryAcquire(now), equalTo(false));
+        rateLimiter.setRate(0, 0);
+        assertThat(rateLimiter.tryAcquire(now), equalTo(true));
+    }
+
+    @Test
+    public void onResponse_TooManyRequestsNotLimited_PausedForRetryAfter() throws Exception {
+        RateLimiter rateLimiter = new RateLimiter();
+        long now = System.nanoTime();
+
+        rateLimiter.onResponse(createResponse(429, RateLimiter.HEADER_RETRY_AFTER, "3"), now);
+
+        assertThat(rateLimiter.tryAcquire(now), equalTo(false));
+        assertThat(TimeUnit.NANOSECONDS.toMillis(rateLimiter.reserve(RateLimiter.PRIORITY_READ, now)),
+            equalTo(3000L));
+        assertThat(rateLimiter.tryAcquire(now + TimeUnit.SECONDS.toNanos(3)), equalTo(true));
+    }
+
+    @Test
+    public void reserve_BurstUsed_WaitsForRefill() throws Exception {
+        RateLimiter rateLimiter = new RateLimiter(10, 2);
+        long now = System.nanoTime();
+
+        assertThat(rateLimiter.reserve(RateLimiter.PRIORITY_READ, now), equalTo(0L));
+        assertThat(rateLimiter.reserve(RateLimiter.PRIORITY_READ, now), equalTo(0L));
+        assertThat(TimeUnit.NANOSECONDS.toMillis(rateLimiter.reserve(RateLimiter.PRIORITY_READ, now)), equalTo(100L));
+        assertThat(TimeUnit.NANOSECONDS.toMillis(rateLimiter.reserve(RateLimiter.PRIORITY_READ, now)), equalTo(200L));
+    }
+
+    @Test
+    public void reserve_WaitBeyondPriorityMax_Shed() throws Exception {
+        RateLimiter rateLimiter = new RateLimiter(0.5, 1);
+        long now = System.nanoTime();
+        rateLimiter.reserve(RateLimiter.PRIORITY_READ, now);
+
+        assertThat(rateLimiter.tryAcquire(now), equalTo(false));
+        //2 seconds wait, within the read max wait
+        rateLimiter.reserve(RateLimiter.PRIORITY_READ, now);
+        rateLimiter.reserve(RateLimiter.PRIORITY_READ, now);
+        try {
+            rateLimiter.reserve(RateLimiter.PRIORITY_READ, now);
+            fail("read queued for 6 seconds");
+        } catch (RateLimitException e) {
+            assertThat(e.getRetryAfterMillis(), equalTo(6000L));
+        }
+        //submissions wait longer
+        assertThat(TimeUnit.NANOSECONDS.toMillis(rateLimiter.reserve(RateLimiter.PRIORITY_SUBMIT, now)),
+            equalTo(6000L));
+    }
+
+    @Test
+    public void onResponse_TooManyRequests_PausedForRetryAfter() throws Exception {
+        RateLimiter rateLimiter = new RateLimiter(10, 10);
+        long now = System.nanoTime();
+
+        long retryAfterMillis = rateLimiter.onResponse(createResponse(429, RateLimiter.HEADER_RETRY_AFTER, "3"), now);
+
+        assertThat(retryAfterMillis, equalTo(3000L));
+        assertThat(rateLimiter.tryAcquire(now), equalTo(false));
+        assertThat(TimeUnit.NANOSECONDS.toMillis(rateLimiter.reserve(RateLimiter.PRIORITY_READ, now)),
+            equalTo(3100L));
+        assertThat(rateLimiter.reserve(RateLimiter.PRIORITY_READ, now + TimeUnit.SECONDS.toNanos(4)), equalTo(0L));
+    }
+
+    @Test
+    public void onResponse_RateLimitExhausted_PausedUntilReset() throws Exception {
+        RateLimiter rateLimiter = new RateLimiter(10, 10);
+        long now = System.nanoTime();
+        Response response = createResponse(200, RateLimiter.HEADER_RATE_LIMIT_REMAINING, "0").newBuilder()
+            .header(RateLimiter.HEADER_RATE_LIMIT_RESET, "2")
+            .build();
+
+        assertThat(rateLimiter.onResponse(response, now), equalTo(0L));
+
+        assertThat(TimeUnit.NANOSECONDS.toMillis(rateLimiter.reserve(RateLimiter.PRIORITY_READ, now)),
+            equalTo(2100L));
+    }
+
+    @Test
+    public void onResponse_FewRemaining_PermitsCapped() throws Exception {
+        RateLimiter rateLimiter = new RateLimiter(10, 10);
+        long now = System.nanoTime();
+
+        rateLimiter.onResponse(createResponse(200, RateLimiter.HEADER_RATE_LIMIT_REMAINING, "1"), now);
+
+        assertThat(rateLimiter.tryAcquire(now), equalTo(true));
+        assertThat(rateLimiter.tryAcquire(now), equalTo(false));
+    }
+
+    @Test
+    public void getBalance_TooManyRequests_RetriedAfterPause() throws Exception {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(429).setHeader(RateLimiter.HEADER_RETRY_AFTER, "0"));
+        mockWebServer.enqueue(TestUtils.generateSuccessMockResponse(this.getClass(), "balance_res_success.json"));
+
+        Balance balance = createAccountInfoRetriever(new RateLimiter()).getBalance(ACCOUNT_ID);
+
+        assertThat(balance.value().toPlainString(), equalTo("9999.9999800"));
+        assertThat(events, contains("429 0", "retry 2"));
+    }
+
+    @Test
+    public void getBalance_StillRateLimited_RateLimitedException() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            mockWebServer.enqueue(new MockResponse().setResponseCode(429).setHeader(RateLimiter.HEADER_RETRY_AFTER,
+                "0"));
+        }
+
+        try {
+            createAccountInfoRetriever(new RateLimiter()).getBalance(ACCOUNT_ID);
+            fail("rate limited");
+        } catch (RateLimitedException e) {
+            assertThat(e.getRetryAfterMillis(), equalTo(0L));
+        }
+        assertThat(mockWebServer.getRequestCount(), equalTo(3));
+    }
+
+    @Test
+    public void getBalance_NoPermitInTime_ShedWithoutRequest() throws Exception {
+        mockWebServer.enqueue(TestUtils.generateSuccessMockResponse(this.getClass(), "balance_res_success.json"));
+        AccountInfoRetriever accountInfoRetriever = createAccountInfoRetriever(new RateLimiter(0.1, 1));
+        accountInfoRetriever.getBalance(ACCOUNT_ID);
+
+        try {
+            accountInfoRetriever.getBalance(ACCOUNT_ID);
+            fail("shed");
+        } catch (RateLimitedException e) {
+            assertThat(e.getRetryAfterMillis() > 5000, equalTo(true));
+        }
+        assertThat(mockWebServer.getRequestCount(), equalTo(1));
+        assertThat(events, contains("shed"));
+    }
+
+    private AccountInfoRetriever createAccountInfoRetriever(RateLimiter rateLimiter) {
+        return new AccountInfoRetriever(new HorizonClient(new OkHttpClient(),
+            Collections.singletonList(mockWebServer.url("").toString()),
+            createKinAsset(ACCOUNT_ID_KIN_ISSUER), telemetry, new TransactionTracker(), rateLimiter));
+    }
+
+    private Response createResponse(int code, String header, String value) {
+        return new Response.Builder()
+            .request(new Request.Builder().url("http://horizon.test/").build())
+            .protocol(Protocol.HTTP_1_1)
+            .code(code)
+            .message("")
+            .header(header, value)
+            .build();
+    }
+}
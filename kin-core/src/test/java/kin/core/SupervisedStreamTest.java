@@ -0,0 +1,227 @@
+package kin.core;
+
+import static kin.core.TestUtils.createKinAsset;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.junit.Assert.assertThat;
+
+import android.support.annotation.NonNull;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okhttp3.mockwebserver.SocketPolicy;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 23, manifest = Config.NONE)
+public class SupervisedStreamTest {
+
+    private static final String ACCOUNT_ID_KIN_ISSUER = "GBA2XHZRUAHEL4DZX7XNHR7HLBAUYPRNKLD2PIUKWV2LVVE6OJT4NDLM";
+    private static final String ACCOUNT_ID = "GBQUCJ755LJBUFFKFZCTV7XFA6JUR5NAAEJF66SPCN3XROHVKSG3VVUY";
+    private static final long TIMEOUT_SECONDS = 5;
+
+    private MockWebServer mockWebServer;
+    private HorizonClient horizonClient;
+    private List<String> reconnects;
+    private List<String> parseFailures;
+    private SupervisedStream stream;
+
+    @Before
+    public void setup() throws Exception {
+        mockWebServer = new MockWebServer();
+        mockWebServer.start();
+        reconnects = new CopyOnWriteArrayList<>();
+        parseFailures = new CopyOnWriteArrayList<>();
+        Telemetry telemetry = new Telemetry();
+        telemetry.setMetrics(new KinMetrics() {
+            @Override
+            public void onStreamReconnect(@NonNull String route) {
+                reconnects.add(route);
+            }
+
+            @Override
+            public void onEventParseFailure(@NonNull String route, @NonNull Exception error) {
+                parseFailures.add(route);
+            }
+        });
+        horizonClient = new HorizonClient(new OkHttpClient(), mockWebServer.url("").toString(),
+            createKinAsset(ACCOUNT_ID_KIN_ISSUER), telemetry);
+    }
+
+    @After
+    public void teardown() throws Exception {
+        if (stream != null) {
+            stream.close();
+        }
+        mockWebServer.shutdown();
+    }
+
+    @Test
+    public void streamEnded_ReconnectsFromLastCursor() throws Exception {
+        mockWebServer.enqueue(createStreamResponse("id: 100\ndata: {}\n\nid: 101\ndata: {}\n\n"));
+        mockWebServer.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.NO_RESPONSE));
+        horizonClient.setStreamTimeouts(60 * 1000, 10, 100);
+
+        stream = horizonClient.streamTransactions(ACCOUNT_ID, "now", new NoOpListener<TransactionData>());
+
+        RecordedRequest first = mockWebServer.takeRequest(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        RecordedRequest second = mockWebServer.takeRequest(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        assertThat(first.getPath(), equalTo("/accounts/" + ACCOUNT_ID + "/transactions?cursor=now"));
+        assertThat(second.getPath(), equalTo("/accounts/" + ACCOUNT_ID + "/transactions?cursor=101"));
+        assertThat(stream.getReconnectCount(), equalTo(1));
+        assertThat(stream.getLastActivityMillis(), greaterThan(0L));
+        assertThat(reconnects.get(0), equalTo(KinMetrics.ROUTE_STREAM_TRANSACTIONS));
+    }
+
+    @Test
+    public void streamIdle_ReopenedWithoutReconnect() throws Exception {
+        //open quiet connection, nothing arrives after the headers
+        mockWebServer.enqueue(createStreamResponse("").setBodyDelay(10, TimeUnit.SECONDS));
+        mockWebServer.enqueue(createStreamResponse("").setBodyDelay(10, TimeUnit.SECONDS));
+        horizonClient.setStreamTimeouts(200, 10, 100);
+
+        stream = horizonClient.streamPayments("now", new NoOpListener<PaymentInfo>());
+
+        mockWebServer.takeRequest(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        RecordedRequest second = mockWebServer.takeRequest(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        assertThat(second, notNullValue());
+        assertThat(stream.getReconnectCount(), equalTo(0));
+        assertThat(reconnects.isEmpty(), equalTo(true));
+    }
+
+    @Test
+    public void streamIdle_ReopenedConnectionDead_Reconnects() throws Exception {
+        //half open connection, request is sent but nothing ever arrives
+        mockWebServer.enqueue(createStreamResponse("").setBodyDelay(10, TimeUnit.SECONDS));
+        mockWebServer.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.NO_RESPONSE));
+        mockWebServer.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.NO_RESPONSE));
+        horizonClient.setStreamTimeouts(200, 10, 100);
+
+        stream = horizonClient.streamPayments("now", new NoOpListener<PaymentInfo>());
+
+        mockWebServer.takeRequest(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        mockWebServer.takeRequest(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        assertThat(mockWebServer.takeRequest(TIMEOUT_SECONDS, TimeUnit.SECONDS), notNullValue());
+        assertThat(stream.getReconnectCount(), equalTo(1));
+        assertThat(reconnects.get(0), equalTo(KinMetrics.ROUTE_STREAM_PAYMENTS));
+    }
+
+    @Test
+    public void malformedEvent_SkippedAndReported() throws Exception {
+        mockWebServer.enqueue(createStreamResponse("id: 100\ndata: {\"id\": \n\n"));
+        mockWebServer.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.NO_RESPONSE));
+        horizonClient.setStreamTimeouts(60 * 1000, 60 * 1000, 60 * 1000);
+        final List<PaymentInfo> payments = new CopyOnWriteArrayList<>();
+
+        stream = horizonClient.streamPayments("now", new EventListener<PaymentInfo>() {
+            @Override
+            public void onEvent(PaymentInfo data) {
+                payments.add(data);
+            }
+        });
+        mockWebServer.takeRequest(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        awaitState(stream, StreamState.RECONNECTING);
+
+        assertThat(parseFailures, equalTo(Collections.singletonList(KinMetrics.ROUTE_STREAM_PAYMENTS)));
+        assertThat(payments.isEmpty(), equalTo(true));
+    }
+
+    @Test
+    public void onNetworkRestored_ReconnectsWithoutBackoff() throws Exception {
+        mockWebServer.enqueue(createStreamResponse("id: 100\ndata: {}\n\n"));
+        mockWebServer.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.NO_RESPONSE));
+        horizonClient.setStreamTimeouts(60 * 1000, 60 * 1000, 60 * 1000);
+
+        stream = horizonClient.streamPayments("now", new NoOpListener<PaymentInfo>());
+        mockWebServer.takeRequest(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        awaitState(stream, StreamState.RECONNECTING);
+        horizonClient.onNetworkRestored();
+
+        RecordedRequest second = mockWebServer.takeRequest(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        assertThat(second.getPath(), equalTo("/payments?cursor=100"));
+    }
+
+    @Test
+    public void close_NoReconnects() throws Exception {
+        mockWebServer.enqueue(createStreamResponse("id: 100\ndata: {}\n\n"));
+        horizonClient.setStreamTimeouts(60 * 1000, 100, 100);
+
+        stream = horizonClient.streamPayments("now", new NoOpListener<PaymentInfo>());
+        mockWebServer.takeRequest(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        stream.close();
+
+        assertThat(stream.getState(), equalTo(StreamState.CLOSED));
+        Thread.sleep(500);
+        assertThat(mockWebServer.getRequestCount(), equalTo(1));
+    }
+
+    @Test
+    public void suspend_ResumesFromLastCursor() throws Exception {
+        mockWebServer.enqueue(createStreamResponse("id: 100\ndata: {}\n\n"));
+        mockWebServer.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.NO_RESPONSE));
+        horizonClient.setStreamTimeouts(60 * 1000, 60 * 1000, 60 * 1000);
+
+        stream = horizonClient.streamPayments("now", new NoOpListener<PaymentInfo>());
+        mockWebServer.takeRequest(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        awaitState(stream, StreamState.RECONNECTING);
+        stream.suspend();
+        awaitState(stream, StreamState.SUSPENDED);
+        stream.resume();
+
+        RecordedRequest second = mockWebServer.takeRequest(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        assertThat(second.getPath(), equalTo("/payments?cursor=100"));
+        assertThat(mockWebServer.getRequestCount(), equalTo(2));
+    }
+
+    @Test
+    public void suspend_NowCursor_ResolvedToLatestEvent() throws Exception {
+        mockWebServer.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.NO_RESPONSE));
+        mockWebServer.enqueue(new MockResponse()
+            .setBody("{\"_embedded\":{\"records\":[{\"id\":\"1\",\"paging_token\":\"12345\"}]}}"));
+        mockWebServer.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.NO_RESPONSE));
+
+        stream = horizonClient.streamTransactions(ACCOUNT_ID, "now", new NoOpListener<TransactionData>());
+        mockWebServer.takeRequest(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        stream.suspend();
+        awaitState(stream, StreamState.SUSPENDED);
+        stream.resume();
+
+        RecordedRequest cursorRequest = mockWebServer.takeRequest(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        RecordedRequest resumed = mockWebServer.takeRequest(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        assertThat(cursorRequest.getPath(),
+            equalTo("/accounts/" + ACCOUNT_ID + "/transactions?order=desc&limit=1"));
+        assertThat(resumed.getPath(), equalTo("/accounts/" + ACCOUNT_ID + "/transactions?cursor=12345"));
+    }
+
+    private static MockResponse createStreamResponse(String events) {
+        return new MockResponse()
+            .setHeader("Content-Type", "text/event-stream")
+            .setBody(events);
+    }
+
+    private static void awaitState(SupervisedStream stream, @StreamState int state) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS);
+        while (stream.getState() != state && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(stream.getState(), equalTo(state));
+    }
+
+    private static class NoOpListener<T> implements EventListener<T> {
+
+        @Override
+        public void onEvent(T data) {
+        }
+    }
+}
@@ -22,6 +22,7 @@ import kin.core.exception.AccountNotFoundException;
 import kin.core.exception.InsufficientKinException;
 import kin.core.exception.OperationFailedException;
 import kin.core.exception.TransactionFailedException;
+import okhttp3.OkHttpClient;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
 import okhttp3.mockwebserver.SocketPolicy;
@@ -39,7 +40,6 @@ import org.robolectric.annotation.Config;
 import org.stellar.sdk.FormatException;
 import org.stellar.sdk.KeyPair;
 import org.stellar.sdk.Network;
-import org.stellar.sdk.Server;
 import org.stellar.sdk.responses.HttpResponseException;
 
 @RunWith(RobolectricTestRunner.class)
@@ -59,7 +59,7 @@ public class TransactionSenderTest {
 
     @Mock
     private KeyStore mockKeyStore;
-    private Server server;
+    private HorizonClient horizonClient;
     private MockWebServer mockWebServer;
     private TransactionSender transactionSender;
     private KeyPair account;
@@ -68,19 +68,19 @@ public class TransactionSenderTest {
     public void setup() throws Exception {
         MockitoAnnotations.initMocks(this);
 
-        mockServer();
         Network.useTestNetwork();
 
         KinAsset kinAsset = createKinAsset(ACCOUNT_ID_KIN_ISSUER);
-        transactionSender = new TransactionSender(server, kinAsset);
+        mockServer(kinAsset);
+        transactionSender = new TransactionSender(horizonClient, kinAsset, new TransactionSigner(), new Telemetry());
         account = KeyPair.fromSecretSeed(SECRET_SEED_FROM);
     }
 
-    private void mockServer() throws IOException {
+    private void mockServer(KinAsset kinAsset) throws IOException {
         mockWebServer = new MockWebServer();
         mockWebServer.start();
         String url = mockWebServer.url("").toString();
-        server = new Server(url);
+        horizonClient = new HorizonClient(new OkHttpClient(), url, kinAsset, new Telemetry());
     }
 
 
@@ -251,9 +251,12 @@ public class TransactionSenderTest {
     @Test(timeout = 500)
     public void sendTransaction_changeTimeOut() throws Exception {
         String url = mockWebServer.url("").toString();
-        server = new Server(url, 100, TimeUnit.MILLISECONDS);
+        OkHttpClient httpClient = new OkHttpClient.Builder()
+            .readTimeout(100, TimeUnit.MILLISECONDS)
+            .build();
         KinAsset kinAsset = createKinAsset(ACCOUNT_ID_KIN_ISSUER);
-        transactionSender = new TransactionSender(server, kinAsset);
+        horizonClient = new HorizonClient(httpClient, url, kinAsset, new Telemetry());
+        transactionSender = new TransactionSender(horizonClient, kinAsset, new TransactionSigner(), new Telemetry());
 
         mockWebServer.enqueue(TestUtils.generateSuccessMockResponse(this.getClass(), "tx_account_to.json"));
         mockWebServer.enqueue(TestUtils.generateSuccessMockResponse(this.getClass(), "tx_account_from.json"));
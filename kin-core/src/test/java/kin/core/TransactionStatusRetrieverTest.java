@@ -0,0 +1,207 @@
+package kin.core;
+
+import static kin.core.TestUtils.createKinAsset;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import android.support.annotation.NonNull;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import kin.core.ServiceProvider.KinAsset;
+import kin.core.exception.OperationTimeoutException;
+import okhttp3.FormBody;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.stellar.sdk.KeyPair;
+import org.stellar.sdk.Network;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 23, manifest = Config.NONE)
+public class TransactionStatusRetrieverTest {
+
+    private static final String ACCOUNT_ID_KIN_ISSUER = "GBA2XHZRUAHEL4DZX7XNHR7HLBAUYPRNKLD2PIUKWV2LVVE6OJT4NDLM";
+    private static final String UNKNOWN_HASH = "8f1e0cd1d922f4c57cc1898ececcf47375e52ec4abf77a7e32d0d9bb4edecb69";
+
+    @Rule
+    public ExpectedException expectedEx = ExpectedException.none();
+
+    private FakeHorizon fakeHorizon;
+    private String url;
+    private KinAsset kinAsset;
+    private TransactionTracker transactionTracker;
+    private TransactionSender transactionSender;
+    private TransactionStatusRetriever statusRetriever;
+    private AtomicInteger lookups;
+    private KeyPair from;
+    private KeyPair to;
+
+    @Before
+    public void setup() throws Exception {
+        Network.useTestNetwork();
+        kinAsset = createKinAsset(ACCOUNT_ID_KIN_ISSUER);
+        fakeHorizon = new FakeHorizon(kinAsset);
+        url = fakeHorizon.start();
+        lookups = new AtomicInteger();
+        Telemetry telemetry = new Telemetry();
+        telemetry.setMetrics(new KinMetrics() {
+            @Override
+            public void onHttpResponse(@NonNull String route, int statusCode, long durationNanos) {
+                if (ROUTE_TRANSACTION.equals(route)) {
+                    lookups.incrementAndGet();
+                }
+            }
+        });
+        transactionTracker = new TransactionTracker();
+        HorizonClient horizonClient = new HorizonClient(new OkHttpClient(), url, kinAsset, telemetry,
+            transactionTracker);
+        transactionSender = new TransactionSender(horizonClient, kinAsset, new TransactionSigner(), telemetry);
+        statusRetriever = new TransactionStatusRetriever(horizonClient, transactionTracker);
+        from = KeyPair.random();
+        to = KeyPair.random();
+        fakeHorizon.createAccount(from.getAccountId(), new BigDecimal("100"));
+        fakeHorizon.createAccount(to.getAccountId(), BigDecimal.ZERO);
+    }
+
+    @After
+    public void teardown() {
+        fakeHorizon.shutdown();
+    }
+
+    @Test
+    public void getStatus_SentTransaction_CachedNoLookup() throws Exception {
+        TransactionId transactionId = transactionSender.sendTransaction(from, to.getAccountId(), BigDecimal.ONE);
+
+        assertThat(statusRetriever.getStatus(transactionId.id()), equalTo(TransactionStatus.SUCCEEDED));
+        assertThat(statusRetriever.getStatus(transactionId.id()), equalTo(TransactionStatus.SUCCEEDED));
+        assertThat(lookups.get(), equalTo(0));
+    }
+
+    @Test
+    public void getStatus_OtherClientTransaction_SingleLookup() throws Exception {
+        HorizonClient otherClient = new HorizonClient(new OkHttpClient(), url, kinAsset, new Telemetry());
+        TransactionId transactionId = new TransactionSender(otherClient, kinAsset, new TransactionSigner(),
+            new Telemetry()).sendTransaction(from, to.getAccountId(), BigDecimal.ONE);
+
+        assertThat(statusRetriever.getStatus(transactionId.id()), equalTo(TransactionStatus.SUCCEEDED));
+        assertThat(statusRetriever.getStatus(transactionId.id()), equalTo(TransactionStatus.SUCCEEDED));
+        assertThat(lookups.get(), equalTo(1));
+    }
+
+    @Test
+    public void getStatus_UnknownTransaction_NotFoundNotCached() throws Exception {
+        assertThat(statusRetriever.getStatus(UNKNOWN_HASH), equalTo(TransactionStatus.NOT_FOUND));
+        assertThat(statusRetriever.getStatus(UNKNOWN_HASH), equalTo(TransactionStatus.NOT_FOUND));
+        assertThat(lookups.get(), equalTo(2));
+    }
+
+    @Test
+    public void await_PendingSubmission_ResolvedByStream() throws Exception {
+        final SignedTransaction signed = new BulkSigner(kinAsset, new TransactionSigner()).sign(from,
+            Collections.singletonList(new PaymentSpec(to.getAccountId(), BigDecimal.ONE, null,
+                fakeHorizon.getSequenceNumber(from.getAccountId()) + 1))).get(0);
+        //submission outcome is unknown to the tracker, as if it timed out
+        transactionTracker.onSubmitted(signed.id().id(), from.getAccountId());
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Integer> status = executor.submit(new Callable<Integer>() {
+                @Override
+                public Integer call() throws Exception {
+                    return statusRetriever.await(signed.id().id(), 5, TimeUnit.SECONDS);
+                }
+            });
+            Thread.sleep(500);
+            submit(signed.envelopeXdr());
+
+            assertThat(status.get(2, TimeUnit.SECONDS), equalTo(TransactionStatus.SUCCEEDED));
+            assertThat(lookups.get(), equalTo(1));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void await_SameSourceAccount_SingleStream() throws Exception {
+        List<PaymentSpec> payments = new ArrayList<>();
+        long sequenceNumber = fakeHorizon.getSequenceNumber(from.getAccountId());
+        for (int i = 1; i <= 3; i++) {
+            payments.add(new PaymentSpec(to.getAccountId(), BigDecimal.ONE, null, sequenceNumber + i));
+        }
+        List<SignedTransaction> signed = new BulkSigner(kinAsset, new TransactionSigner()).sign(from, payments);
+        List<PendingResult<Integer>> waiters = new ArrayList<>();
+        for (SignedTransaction transaction : signed) {
+            transactionTracker.onSubmitted(transaction.id().id(), from.getAccountId());
+            waiters.add(statusRetriever.startAwait(transaction.id().id(), 5, TimeUnit.SECONDS));
+        }
+        Thread.sleep(500);
+
+        assertThat(fakeHorizon.getStreamCount(), equalTo(1));
+        for (SignedTransaction transaction : signed) {
+            submit(transaction.envelopeXdr());
+        }
+        for (PendingResult<Integer> waiter : waiters) {
+            assertThat(waiter.get(), equalTo(TransactionStatus.SUCCEEDED));
+        }
+    }
+
+    @Test
+    public void await_FirstLookupFailed_ResolvedByStream() throws Exception {
+        final SignedTransaction signed = new BulkSigner(kinAsset, new TransactionSigner()).sign(from,
+            Collections.singletonList(new PaymentSpec(to.getAccountId(), BigDecimal.ONE, null,
+                fakeHorizon.getSequenceNumber(from.getAccountId()) + 1))).get(0);
+        transactionTracker.onSubmitted(signed.id().id(), from.getAccountId());
+        fakeHorizon.failNextRequests(1, 503);
+
+        PendingResult<Integer> waiter = statusRetriever.startAwait(signed.id().id(), 5, TimeUnit.SECONDS);
+        Thread.sleep(500);
+        submit(signed.envelopeXdr());
+
+        assertThat(waiter.get(), equalTo(TransactionStatus.SUCCEEDED));
+    }
+
+    @Test
+    public void await_UnknownTransaction_TimeoutAfterFinalLookup() throws Exception {
+        expectedEx.expect(OperationTimeoutException.class);
+        try {
+            statusRetriever.await(UNKNOWN_HASH, 100, TimeUnit.MILLISECONDS);
+        } finally {
+            assertThat(lookups.get(), equalTo(2));
+        }
+    }
+
+    @Test
+    public void tracker_CacheBounded() {
+        for (int i = 0; i <= TransactionTracker.MAX_CACHED_TRANSACTIONS; i++) {
+            transactionTracker.onResult(String.valueOf(i), TransactionStatus.SUCCEEDED);
+        }
+
+        assertThat(transactionTracker.getResult("0"), nullValue());
+        assertThat(transactionTracker.getResult("1"), equalTo(TransactionStatus.SUCCEEDED));
+    }
+
+    private void submit(String envelopeXdr) throws Exception {
+        Request request = new Request.Builder()
+            .url(url + "transactions")
+            .post(new FormBody.Builder().add("tx", envelopeXdr).build())
+            .build();
+        Response response = new OkHttpClient().newCall(request).execute();
+        response.close();
+    }
+}